@@ -55,6 +55,13 @@ import com.codenvy.service.system.HostedSystemService;
 import com.codenvy.service.system.SystemRamInfoProvider;
 import com.codenvy.service.system.SystemRamLimitMessageSender;
 import com.codenvy.service.system.SystemServicePermissionsFilter;
+import com.codenvy.swarm.client.BinPackingNodeSelectionStrategy;
+import com.codenvy.swarm.client.ImageAffinityNodeSelectionStrategy;
+import com.codenvy.swarm.client.LeastLoadedNodeSelectionStrategy;
+import com.codenvy.swarm.client.NodeSelectionStrategy;
+import com.codenvy.swarm.client.PrewarmImagesProvider;
+import com.codenvy.swarm.client.RandomNodeSelectionStrategy;
+import com.codenvy.swarm.client.StackImagesPrewarmer;
 import com.codenvy.template.processor.html.HTMLTemplateProcessor;
 import com.codenvy.template.processor.html.thymeleaf.HTMLTemplateProcessorImpl;
 import com.codenvy.template.processor.html.thymeleaf.ThymeleafTemplate;
@@ -296,6 +303,16 @@ public class OnPremisesIdeApiModule extends AbstractModule {
         bindConstant().annotatedWith(Names.named("auth.sso.access_cookie_path")).to("/api/internal/sso/server");
         bindConstant().annotatedWith(Names.named("auth.sso.access_ticket_lifetime_seconds")).to(259200);
         bindConstant().annotatedWith(Names.named("auth.sso.bearer_ticket_lifetime_seconds")).to(3600);
+        bindConstant().annotatedWith(Names.named("auth.sso.logout.pool_size")).to(10);
+        bindConstant().annotatedWith(Names.named("auth.sso.logout.queue_capacity")).to(10000);
+        bindConstant().annotatedWith(Names.named("auth.sso.logout.timeout_ms")).to(5000);
+        bindConstant().annotatedWith(Names.named("auth.sso.logout.max_attempts")).to(3);
+        bindConstant().annotatedWith(Names.named("auth.sso.logout.retry_delay_ms")).to(2000L);
+        bindConstant().annotatedWith(Names.named("auth.sso.logout.circuit_failure_threshold")).to(5);
+        bindConstant().annotatedWith(Names.named("auth.sso.logout.circuit_open_ms")).to(60000L);
+        bindConstant().annotatedWith(Names.named("auth.sso.ticket_manager")).to("jpa");
+        bindConstant().annotatedWith(Names.named("auth.sso.ticket_cache.size")).to(100000L);
+        bindConstant().annotatedWith(Names.named("auth.sso.ticket_cache.expire_seconds")).to(30L);
         bindConstant().annotatedWith(Names.named("auth.sso.create_workspace_page_url")).to("/site/auth/create");
         bindConstant().annotatedWith(Names.named("auth.sso.login_page_url")).to("/site/login");
         bindConstant().annotatedWith(Names.named("che.auth.access_denied_error_page")).to("/site/login");
@@ -333,7 +350,7 @@ public class OnPremisesIdeApiModule extends AbstractModule {
                 ));
 
 
-        bindConstant().annotatedWith(Names.named("notification.server.propagate_events")).to("vfs,workspace");
+        bindConstant().annotatedWith(Names.named("notification.server.propagate_events")).to("vfs,workspace,permissions");
 
         install(new com.codenvy.workspace.interceptor.InterceptorModule());
         install(new com.codenvy.auth.sso.server.deploy.SsoServerModule());
@@ -349,6 +366,14 @@ public class OnPremisesIdeApiModule extends AbstractModule {
                 MapBinder.newMapBinder(binder(), String.class, org.eclipse.che.plugin.docker.client.DockerConnector.class);
         dockerConnectors.addBinding("swarm").to(com.codenvy.swarm.client.SwarmDockerConnector.class);
         bindConstant().annotatedWith(Names.named("che.docker.connector")).to("swarm");
+        MapBinder<String, NodeSelectionStrategy> nodeSelectionStrategies =
+                MapBinder.newMapBinder(binder(), String.class, NodeSelectionStrategy.class);
+        nodeSelectionStrategies.addBinding("random").to(RandomNodeSelectionStrategy.class);
+        nodeSelectionStrategies.addBinding("least_loaded").to(LeastLoadedNodeSelectionStrategy.class);
+        nodeSelectionStrategies.addBinding("bin_packing").to(BinPackingNodeSelectionStrategy.class);
+        nodeSelectionStrategies.addBinding("image_affinity").to(ImageAffinityNodeSelectionStrategy.class);
+        bind(PrewarmImagesProvider.class).to(StackImagesProvider.class);
+        bind(StackImagesPrewarmer.class).asEagerSingleton();
         bind(org.eclipse.che.plugin.docker.client.DockerRegistryDynamicAuthResolver.class)
                 .to(AwsEcrAuthResolver.class);
 
@@ -0,0 +1,41 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.api.deploy;
+
+import com.codenvy.api.workspace.server.stack.OnPremisesStackLoader;
+import com.codenvy.swarm.client.PrewarmImagesProvider;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Set;
+
+/**
+ * Supplies images of the predefined stacks for pulling them on the swarm nodes in advance.
+ */
+@Singleton
+public class StackImagesProvider implements PrewarmImagesProvider {
+
+    private final OnPremisesStackLoader stackLoader;
+
+    @Inject
+    public StackImagesProvider(OnPremisesStackLoader stackLoader) {
+        this.stackLoader = stackLoader;
+    }
+
+    @Override
+    public Set<String> getImages() {
+        return stackLoader.getStacksImages();
+    }
+}
@@ -14,12 +14,16 @@
  */
 package com.codenvy.machine.backup;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.annotation.Gauge;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.machine.server.spi.Instance;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.WorkspaceRuntimes;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
@@ -33,46 +37,87 @@ import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Schedule backups of projects of running workspace.
  *
+ * <p>Due backups are queued and run with limited concurrency, both in total and on a single node,
+ * workspaces with the oldest last backup are backed up first.
+ * Next backup of the workspace is scheduled a bit earlier than the backup period by random jitter,
+ * so backups of the workspaces started at the same time are spread across the period.
+ *
+ * <p>Duration and rate of successful backups on each node are tracked by a timer,
+ * failed backups on each node are tracked by a meter, both are registered in {@link MetricRegistry}.
+ *
  * @author Alexander Garagatyi
  */
 @Singleton
 public class WorkspaceFsBackupScheduler {
     private static final Logger LOG = LoggerFactory.getLogger(WorkspaceFsBackupScheduler.class);
 
+    /** The maximum part of the backup period by which the next backup of the workspace is moved. */
+    private static final double JITTER_FACTOR = 0.1;
+
     private final long                                  syncTimeoutMillisecond;
+    private final int                                   maxBackups;
+    private final int                                   maxNodeBackups;
     private final WorkspaceRuntimes                     workspaceRuntimes;
     private final Map<String, Long>                     lastWorkspaceSynchronizationTime;
-    private final ExecutorService                       executor;
+    private final Map<String, Long>                     nextWorkspaceSynchronizationTime;
+    private final ThreadPoolExecutor                    executor;
     private final ConcurrentMap<String, String>         workspacesBackupsInProgress;
     private final Map<String, EnvironmentBackupManager> backupManagers;
     private final WorkspaceManager                      workspaceManager;
+    private final MetricRegistry                        metrics;
+
+    // guarded by this
+    private final PriorityQueue<BackupTask> queue;
+    private final Map<String, Integer>      nodesBackups;
+    private       int                       inFlight;
 
     @Inject
     public WorkspaceFsBackupScheduler(Map<String, EnvironmentBackupManager> backupManagers,
                                       WorkspaceRuntimes workspaceRuntimes,
                                       @Named("machine.backup.backup_period_second") long syncTimeoutSecond,
-                                      WorkspaceManager workspaceManager) {
+                                      @Named("machine.backup.max_concurrent_backups") int maxBackups,
+                                      @Named("machine.backup.max_concurrent_backups_per_node") int maxNodeBackups,
+                                      WorkspaceManager workspaceManager,
+                                      MetricRegistry metrics) {
         this.workspaceRuntimes = workspaceRuntimes;
         this.backupManagers = backupManagers;
         this.syncTimeoutMillisecond = TimeUnit.SECONDS.toMillis(syncTimeoutSecond);
+        this.maxBackups = maxBackups;
+        this.maxNodeBackups = maxNodeBackups;
         this.workspaceManager = workspaceManager;
+        this.metrics = metrics;
 
-        this.executor = Executors.newCachedThreadPool(
-                new ThreadFactoryBuilder().setNameFormat("WorkspaceFsBackupScheduler-%s")
-                                          .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
-                                          .build());
+        this.executor = new ThreadPoolExecutor(maxBackups,
+                                               maxBackups,
+                                               60,
+                                               TimeUnit.SECONDS,
+                                               new LinkedBlockingQueue<>(),
+                                               new ThreadFactoryBuilder().setNameFormat("WorkspaceFsBackupScheduler-%s")
+                                                                         .setUncaughtExceptionHandler(
+                                                                                 LoggingUncaughtExceptionHandler.getInstance())
+                                                                         .build());
+        this.executor.allowCoreThreadTimeOut(true);
         this.lastWorkspaceSynchronizationTime = new ConcurrentHashMap<>();
+        this.nextWorkspaceSynchronizationTime = new ConcurrentHashMap<>();
         this.workspacesBackupsInProgress = new ConcurrentHashMap<>();
+        this.queue = new PriorityQueue<>(Comparator.comparingLong((BackupTask task) -> task.lastBackupTime));
+        this.nodesBackups = new HashMap<>();
     }
 
     @ScheduleRate(initialDelay = 1, period = 1, unit = TimeUnit.MINUTES)
@@ -87,50 +132,147 @@ public class WorkspaceFsBackupScheduler {
                 WorkspaceRuntimeImpl runtime = workspace.getRuntime();
                 // If workspace is not in RUNNING state skip it
                 if (workspace.getStatus().equals(WorkspaceStatus.RUNNING)) {
-                    if (isTimeToBackup(workspaceId)) {
-                        executor.execute(() -> {
-                            // don't start new backup if previous one is in progress
-                            if (workspacesBackupsInProgress.putIfAbsent(workspaceId, workspaceId) == null) {
-                                try {
-                                    String environmentType = workspace.getConfig()
-                                                                      .getEnvironments()
-                                                                      .get(runtime.getActiveEnv())
-                                                                      .getRecipe()
-                                                                      .getType();
-                                    EnvironmentBackupManager backupManager = backupManagers.get(environmentType);
-                                    if (backupManager == null) {
-                                        throw new ServerException("Backing up of environment of type " +
-                                                                  environmentType + " is not implemented.");
-                                    }
-
-                                    backupManager.backupWorkspace(workspaceId);
-
-                                    lastWorkspaceSynchronizationTime.put(workspaceId, System.currentTimeMillis());
-                                } catch (NotFoundException ignore) {
-                                    // it is ok, machine was stopped while this backup task was in the executor queue
-                                } catch (Exception e) {
-                                    LOG.error(e.getLocalizedMessage(), e);
-                                } finally {
-                                    workspacesBackupsInProgress.remove(workspaceId);
-                                }
+                    // don't schedule new backup if previous one is queued or in progress
+                    if (isTimeToBackup(workspaceId) &&
+                        workspacesBackupsInProgress.putIfAbsent(workspaceId, workspaceId) == null) {
+                        boolean queued = false;
+                        try {
+                            enqueue(workspaceId, workspace, runtime);
+                            queued = true;
+                        } finally {
+                            if (!queued) {
+                                workspacesBackupsInProgress.remove(workspaceId);
                             }
-                        });
+                        }
                     }
                 }
             } catch (NotFoundException e) {
                 // it's ok, means that ws is removed already
-            } catch (ServerException e) {
+            } catch (ServerException | RuntimeException e) {
                 LOG.error(e.getLocalizedMessage(), e);
             }
         }
+        dispatch();
+    }
+
+    /** @return number of workspaces waiting for the backup */
+    @Gauge(name = "workspace.backup.queue_length")
+    public synchronized int getQueueLength() {
+        return queue.size();
+    }
+
+    /** @return number of workspaces which are being backed up */
+    @Gauge(name = "workspace.backup.in_flight_number")
+    public synchronized int getInFlightNumber() {
+        return inFlight;
     }
 
     @VisibleForTesting
     boolean isTimeToBackup(String workspaceId) {
-        final Long lastWorkspaceSyncTime = lastWorkspaceSynchronizationTime.get(workspaceId);
+        final Long nextWorkspaceSyncTime = nextWorkspaceSynchronizationTime.get(workspaceId);
 
-        return lastWorkspaceSyncTime == null ||
-               System.currentTimeMillis() - lastWorkspaceSyncTime > syncTimeoutMillisecond;
+        return nextWorkspaceSyncTime == null || System.currentTimeMillis() >= nextWorkspaceSyncTime;
+    }
+
+    private void enqueue(String workspaceId, WorkspaceImpl workspace, WorkspaceRuntimeImpl runtime) throws ServerException {
+        String environmentType = workspace.getConfig()
+                                          .getEnvironments()
+                                          .get(runtime.getActiveEnv())
+                                          .getRecipe()
+                                          .getType();
+        EnvironmentBackupManager backupManager = backupManagers.get(environmentType);
+        if (backupManager == null) {
+            throw new ServerException("Backing up of environment of type " + environmentType + " is not implemented.");
+        }
+        final BackupTask task = new BackupTask(workspaceId,
+                                               getNodeHost(workspaceId, runtime),
+                                               backupManager,
+                                               lastWorkspaceSynchronizationTime.getOrDefault(workspaceId, 0L));
+        synchronized (this) {
+            queue.add(task);
+        }
+    }
+
+    /** Returns host of the node of the workspace dev machine or null when it is not known. */
+    private String getNodeHost(String workspaceId, WorkspaceRuntimeImpl runtime) {
+        final Machine devMachine = runtime.getDevMachine();
+        if (devMachine == null) {
+            return null;
+        }
+        try {
+            final Instance instance = workspaceManager.getMachineInstance(workspaceId, devMachine.getId());
+            return instance == null || instance.getNode() == null ? null : instance.getNode().getHost();
+        } catch (NotFoundException | ServerException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Starts queued backups in priority order while the limits allow,
+     * backups of the nodes which reached their limit stay in the queue.
+     */
+    private synchronized void dispatch() {
+        final List<BackupTask> postponed = new ArrayList<>();
+        while (inFlight < maxBackups && !queue.isEmpty()) {
+            final BackupTask task = queue.poll();
+            if (task.nodeHost != null && nodesBackups.getOrDefault(task.nodeHost, 0) >= maxNodeBackups) {
+                postponed.add(task);
+            } else {
+                inFlight++;
+                if (task.nodeHost != null) {
+                    nodesBackups.merge(task.nodeHost, 1, Integer::sum);
+                }
+                executor.execute(() -> backup(task));
+            }
+        }
+        queue.addAll(postponed);
+    }
+
+    private synchronized void release(BackupTask task) {
+        inFlight--;
+        if (task.nodeHost != null) {
+            nodesBackups.computeIfPresent(task.nodeHost, (host, backups) -> backups == 1 ? null : backups - 1);
+        }
+        dispatch();
+    }
+
+    private void backup(BackupTask task) {
+        final long startTime = System.currentTimeMillis();
+        boolean succeeded = false;
+        try {
+            task.backupManager.backupWorkspace(task.workspaceId);
+
+            final long now = System.currentTimeMillis();
+            lastWorkspaceSynchronizationTime.put(task.workspaceId, now);
+            nextWorkspaceSynchronizationTime.put(task.workspaceId, now + syncTimeoutMillisecond - jitter());
+            succeeded = true;
+        } catch (NotFoundException ignore) {
+            // it is ok, machine was stopped while this backup task was in the queue
+        } catch (Exception e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        } finally {
+            workspacesBackupsInProgress.remove(task.workspaceId);
+            if (task.nodeHost != null) {
+                if (succeeded) {
+                    metrics.timer(nodeMetricName(task.nodeHost, "backups"))
+                           .update(System.currentTimeMillis() - startTime, TimeUnit.MILLISECONDS);
+                } else {
+                    metrics.meter(nodeMetricName(task.nodeHost, "failures")).mark();
+                }
+            }
+            release(task);
+        }
+    }
+
+    /** Returns name of the node metric, dots of the host are replaced so the host stays a single part of the name. */
+    @VisibleForTesting
+    static String nodeMetricName(String nodeHost, String metric) {
+        return MetricRegistry.name("workspace.backup.node", nodeHost.replace('.', '_'), metric);
+    }
+
+    private long jitter() {
+        final long maxJitter = (long)(syncTimeoutMillisecond * JITTER_FACTOR);
+        return maxJitter > 0 ? ThreadLocalRandom.current().nextLong(maxJitter) : 0;
     }
 
     @PreDestroy
@@ -147,4 +289,18 @@ public class WorkspaceFsBackupScheduler {
             executor.shutdownNow();
         }
     }
+
+    private static class BackupTask {
+        final String                   workspaceId;
+        final String                   nodeHost;
+        final EnvironmentBackupManager backupManager;
+        final long                     lastBackupTime;
+
+        BackupTask(String workspaceId, String nodeHost, EnvironmentBackupManager backupManager, long lastBackupTime) {
+            this.workspaceId = workspaceId;
+            this.nodeHost = nodeHost;
+            this.backupManager = backupManager;
+            this.lastBackupTime = lastBackupTime;
+        }
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.swarm.client;
+
+import com.codenvy.swarm.client.model.DockerNode;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Selects the most loaded node which still has the required amount of not reserved RAM,
+ * so nodes are filled one by one and the free nodes are kept for big workspaces.
+ * When none of the nodes has enough RAM the least loaded node is selected.
+ */
+public class BinPackingNodeSelectionStrategy implements NodeSelectionStrategy {
+
+    private final long minFreeRam;
+
+    @Inject
+    public BinPackingNodeSelectionStrategy(@Named("swarm.client.bin_packing_min_free_ram_mb") long minFreeRamMb) {
+        this.minFreeRam = minFreeRamMb * 1024 * 1024;
+    }
+
+    @Override
+    public DockerNode select(List<DockerNode> nodes) throws IOException {
+        if (nodes.isEmpty()) {
+            throw new IOException("No docker nodes available");
+        }
+        DockerNode mostLoadedFitting = null;
+        DockerNode leastLoaded = null;
+        for (DockerNode node : nodes) {
+            if (node.getFreeRam() >= minFreeRam
+                && (mostLoadedFitting == null || node.getFreeRam() < mostLoadedFitting.getFreeRam())) {
+                mostLoadedFitting = node;
+            }
+            if (leastLoaded == null || node.getFreeRam() > leastLoaded.getFreeRam()) {
+                leastLoaded = node;
+            }
+        }
+        return mostLoadedFitting != null ? mostLoadedFitting : leastLoaded;
+    }
+}
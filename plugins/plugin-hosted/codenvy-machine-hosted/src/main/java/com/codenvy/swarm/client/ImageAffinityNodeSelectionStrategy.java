@@ -0,0 +1,59 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.swarm.client;
+
+import com.codenvy.swarm.client.model.DockerNode;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Prefers nodes which already have the image, the least loaded of them is selected.
+ * When none of the nodes has the image the least loaded node is selected.
+ *
+ * <p>Nodes which have the image are known from {@link ImagePullCoordinator}.
+ */
+public class ImageAffinityNodeSelectionStrategy implements NodeSelectionStrategy {
+
+    private final NodeSelectionStrategy delegate;
+    private final ImagePullCoordinator  pullCoordinator;
+
+    @Inject
+    public ImageAffinityNodeSelectionStrategy(ImagePullCoordinator pullCoordinator) {
+        this.delegate = new LeastLoadedNodeSelectionStrategy();
+        this.pullCoordinator = pullCoordinator;
+    }
+
+    @Override
+    public DockerNode select(List<DockerNode> nodes) throws IOException {
+        return delegate.select(nodes);
+    }
+
+    @Override
+    public DockerNode select(List<DockerNode> nodes, String image) throws IOException {
+        final Set<String> imageNodes = pullCoordinator.getNodes(image);
+        final List<DockerNode> nodesWithImage = nodes.stream()
+                                                     .filter(node -> imageNodes.contains(node.getAddr()))
+                                                     .collect(toList());
+        if (!nodesWithImage.isEmpty()) {
+            return delegate.select(nodesWithImage);
+        }
+        return delegate.select(nodes);
+    }
+}
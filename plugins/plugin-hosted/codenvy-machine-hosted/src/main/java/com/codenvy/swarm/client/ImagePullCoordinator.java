@@ -0,0 +1,139 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.swarm.client;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongSupplier;
+
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Coordinates pulls of images on swarm nodes.
+ *
+ * <p>Concurrent pulls of the same image on the same node are merged into single pull,
+ * callers which come while the pull is in progress wait for it and get its result.
+ * Coordinator also remembers nodes where the image was successfully pulled.
+ * These records expire after the configured time, as the image may be removed
+ * from the node or its tag may be moved to another image meanwhile.
+ */
+@Singleton
+public class ImagePullCoordinator {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Void>>         pulls;
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Long>> imagesNodes;
+    private final long                                                       expirationMs;
+    private final LongSupplier                                               clock;
+
+    @Inject
+    public ImagePullCoordinator(@Named("swarm.client.image_on_node_expiration_sec") long expirationSec) {
+        this(SECONDS.toMillis(expirationSec), System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    ImagePullCoordinator(long expirationMs, LongSupplier clock) {
+        this.pulls = new ConcurrentHashMap<>();
+        this.imagesNodes = new ConcurrentHashMap<>();
+        this.expirationMs = expirationMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Pulls image on the node or waits for the pull of the same image on the same node which is in progress.
+     *
+     * @param image
+     *         image with tag
+     * @param nodeAddr
+     *         address of the node
+     * @param pull
+     *         pull of the image
+     * @throws IOException
+     *         when the pull fails or the thread is interrupted while waiting for the pull
+     */
+    public void pull(String image, String nodeAddr, Pull pull) throws IOException {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final String key = image + '@' + nodeAddr;
+        final CompletableFuture<Void> inProgress = pulls.putIfAbsent(key, future);
+        if (inProgress != null) {
+            await(inProgress);
+            return;
+        }
+        try {
+            pull.pull();
+            imagesNodes.computeIfAbsent(image, img -> new ConcurrentHashMap<>()).put(nodeAddr, clock.getAsLong());
+            future.complete(null);
+        } catch (Throwable x) {
+            future.completeExceptionally(x);
+            throw x;
+        } finally {
+            pulls.remove(key, future);
+        }
+    }
+
+    /** Returns addresses of the nodes where the image was pulled and the record about it is not expired yet. */
+    public Set<String> getNodes(String image) {
+        final ConcurrentHashMap<String, Long> nodes = imagesNodes.get(image);
+        if (nodes == null) {
+            return Collections.emptySet();
+        }
+        final long expiredBefore = clock.getAsLong() - expirationMs;
+        final Set<String> result = new HashSet<>();
+        for (Map.Entry<String, Long> node : nodes.entrySet()) {
+            if (node.getValue() > expiredBefore) {
+                result.add(node.getKey());
+            } else {
+                nodes.remove(node.getKey(), node.getValue());
+            }
+        }
+        return result;
+    }
+
+    /** Returns true when the image was pulled on the node and the record about it is not expired yet. */
+    public boolean hasImage(String image, String nodeAddr) {
+        return getNodes(image).contains(nodeAddr);
+    }
+
+    private void await(CompletableFuture<Void> pull) throws IOException {
+        try {
+            pull.get();
+        } catch (InterruptedException x) {
+            currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for image pull", x);
+        } catch (ExecutionException x) {
+            if (x.getCause() instanceof IOException) {
+                throw (IOException)x.getCause();
+            }
+            throw new IOException(x.getCause().getLocalizedMessage(), x.getCause());
+        }
+    }
+
+    /** Pull of the image. */
+    @FunctionalInterface
+    public interface Pull {
+        void pull() throws IOException;
+    }
+}
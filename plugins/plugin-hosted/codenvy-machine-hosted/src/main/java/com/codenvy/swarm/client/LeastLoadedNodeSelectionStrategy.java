@@ -0,0 +1,35 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.swarm.client;
+
+import com.codenvy.swarm.client.model.DockerNode;
+
+import java.io.IOException;
+import java.util.List;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Selects node which has the most of not reserved RAM, so the load is spread across the nodes.
+ */
+public class LeastLoadedNodeSelectionStrategy implements NodeSelectionStrategy {
+
+    @Override
+    public DockerNode select(List<DockerNode> nodes) throws IOException {
+        return nodes.stream()
+                    .max(comparingLong(DockerNode::getFreeRam))
+                    .orElseThrow(() -> new IOException("No docker nodes available"));
+    }
+}
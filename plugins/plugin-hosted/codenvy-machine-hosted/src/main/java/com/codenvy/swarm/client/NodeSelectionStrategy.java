@@ -31,4 +31,12 @@ import java.util.List;
 public interface NodeSelectionStrategy {
 
     DockerNode select(List<DockerNode> nodes) throws IOException;
+
+    /**
+     * Selects node for operation with the given image.
+     * By default the image is not taken into account.
+     */
+    default DockerNode select(List<DockerNode> nodes, String image) throws IOException {
+        return select(nodes);
+    }
 }
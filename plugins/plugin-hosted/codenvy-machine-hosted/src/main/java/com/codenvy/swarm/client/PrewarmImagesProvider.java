@@ -0,0 +1,28 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.swarm.client;
+
+import java.util.Set;
+
+/**
+ * Provides docker images which should be pulled on all the swarm nodes in advance.
+ *
+ * @see StackImagesPrewarmer
+ */
+public interface PrewarmImagesProvider {
+
+    /** Returns images in 'repository[:tag]' format, 'latest' tag is used when it is omitted. */
+    Set<String> getImages();
+}
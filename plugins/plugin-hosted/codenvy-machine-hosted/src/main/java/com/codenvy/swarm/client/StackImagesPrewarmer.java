@@ -0,0 +1,98 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.swarm.client;
+
+import com.codenvy.swarm.client.model.DockerNode;
+
+import org.eclipse.che.commons.schedule.ScheduleDelay;
+import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.params.PullParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Pulls images of the predefined stacks on all the swarm nodes in background,
+ * so workspaces of these stacks don't wait for the image pull on start.
+ * The images are supplied by {@link PrewarmImagesProvider}.
+ *
+ * <p>Images which are already pulled on the node by {@link ImagePullCoordinator} are not pulled again
+ * until the coordinator's record about them expires, new nodes get the images on the next run.
+ * Images with 'latest' tag are pulled on each run, as the tag may be moved to a new image anytime.
+ */
+@Singleton
+public class StackImagesPrewarmer {
+    private static final Logger LOG = LoggerFactory.getLogger(StackImagesPrewarmer.class);
+
+    private static final String LATEST_TAG = "latest";
+
+    private final SwarmDockerConnector  dockerConnector;
+    private final PrewarmImagesProvider imagesProvider;
+    private final ImagePullCoordinator  pullCoordinator;
+    private final boolean               enabled;
+
+    @Inject
+    public StackImagesPrewarmer(SwarmDockerConnector dockerConnector,
+                                PrewarmImagesProvider imagesProvider,
+                                ImagePullCoordinator pullCoordinator,
+                                @Named("swarm.client.stack_images_prewarm") boolean enabled) {
+        this.dockerConnector = dockerConnector;
+        this.imagesProvider = imagesProvider;
+        this.pullCoordinator = pullCoordinator;
+        this.enabled = enabled;
+    }
+
+    @ScheduleDelay(initialDelay = 60, delayParameterName = "swarm.client.stack_images_prewarm_period_sec")
+    public void prewarm() {
+        if (!enabled) {
+            return;
+        }
+        final List<DockerNode> nodes;
+        try {
+            nodes = dockerConnector.getAvailableNodes();
+        } catch (IOException e) {
+            LOG.warn("Failed to get swarm nodes for pulling of stacks images. {}", e.getLocalizedMessage());
+            return;
+        }
+        for (String stackImage : imagesProvider.getImages()) {
+            final PullParams params = toPullParams(stackImage);
+            final String image = params.getFullRepo() + ':' + params.getTag();
+            final boolean mutableTag = LATEST_TAG.equals(params.getTag());
+            for (DockerNode node : nodes) {
+                if (mutableTag || !pullCoordinator.hasImage(image, node.getAddr())) {
+                    try {
+                        dockerConnector.pull(params, node, ProgressMonitor.DEV_NULL);
+                    } catch (IOException e) {
+                        LOG.warn("Failed to pull image '{}' on node '{}'. {}", image, node.getAddr(), e.getLocalizedMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /** Splits image into repository and tag, tag is 'latest' when the image doesn't contain it. */
+    static PullParams toPullParams(String image) {
+        final int tagSeparator = image.lastIndexOf(':');
+        if (tagSeparator > image.lastIndexOf('/')) {
+            return PullParams.create(image.substring(0, tagSeparator)).withTag(image.substring(tagSeparator + 1));
+        }
+        return PullParams.create(image).withTag(LATEST_TAG);
+    }
+}
@@ -15,6 +15,7 @@
 package com.codenvy.swarm.client;
 
 import com.codenvy.swarm.client.model.DockerNode;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 
 import org.eclipse.che.plugin.docker.client.DockerApiVersionPathPrefixProvider;
@@ -37,10 +38,13 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.primitives.Ints.tryParse;
+import static java.lang.String.format;
+import static org.eclipse.che.commons.lang.Size.parseSize;
 
 /**
  * Swarm implementation of {@link DockerConnector} that can be used on distributed system
@@ -52,21 +56,36 @@ import static com.google.common.primitives.Ints.tryParse;
 public class SwarmDockerConnector extends DockerConnector {
 
     private final NodeSelectionStrategy   strategy;
+    private final ImagePullCoordinator    pullCoordinator;
     //TODO should it be done in other way?
     private final String                  nodeDaemonScheme;
     private final int                     nodeDescriptionLength;
 
+    private volatile CachedNodes cachedNodes;
+
     private static final Pattern IMAGE_NOT_FOUND_BY_SWARM_ERROR_MESSAGE = Pattern.compile("^Error: image .* not found.*", Pattern.DOTALL);
 
+    /** Time during which fetched nodes capacity is used for nodes selection. */
+    private static final long NODES_CACHE_TTL_MS = 5_000;
+
     @Inject
     public SwarmDockerConnector(DockerConnectorConfiguration connectorConfiguration,
                                 DockerConnectionFactory connectionFactory,
                                 DockerRegistryAuthResolver authManager,
                                 @Named("swarm.client.node_description_length") int nodeDescriptionLength,
+                                @Named("swarm.client.node_selection_strategy") String strategyName,
+                                Map<String, NodeSelectionStrategy> strategies,
+                                ImagePullCoordinator pullCoordinator,
                                 DockerApiVersionPathPrefixProvider dockerApiVersionPathPrefixProvider) {
         super(connectorConfiguration, connectionFactory, authManager, dockerApiVersionPathPrefixProvider);
         this.nodeDescriptionLength = nodeDescriptionLength;
-        this.strategy = new RandomNodeSelectionStrategy();
+        this.strategy = strategies.get(strategyName);
+        if (strategy == null) {
+            throw new IllegalArgumentException(format("Node selection strategy '%s' is not supported. Supported strategies: %s",
+                                                      strategyName,
+                                                      strategies.keySet()));
+        }
+        this.pullCoordinator = pullCoordinator;
         this.nodeDaemonScheme = "http";
     }
 
@@ -78,8 +97,18 @@ public class SwarmDockerConnector extends DockerConnector {
     @Deprecated
     @Override
     public void pull(PullParams params, ProgressMonitor progressMonitor) throws IOException {
-        final DockerNode node = strategy.select(getAvailableNodes());
-        super.pull(params, progressMonitor, addrToUri(node.getAddr()));
+        pull(params, strategy.select(getNodesCapacity(), imageOf(params)), progressMonitor);
+    }
+
+    /**
+     * Pulls image on the given node.
+     * When the same image is already being pulled on the node, waits for that pull
+     * instead of starting another one, progress of the pull is not reported in this case.
+     */
+    public void pull(PullParams params, DockerNode node, ProgressMonitor progressMonitor) throws IOException {
+        pullCoordinator.pull(imageOf(params),
+                             node.getAddr(),
+                             () -> super.pull(params, progressMonitor, addrToUri(node.getAddr())));
     }
 
     @Override
@@ -93,6 +122,8 @@ public class SwarmDockerConnector extends DockerConnector {
 
     @Override
     public ContainerCreated createContainer(CreateContainerParams params) throws IOException {
+        // RAM of the container is reserved on one of the nodes, so nodes capacity must be fetched again
+        cachedNodes = null;
         try {
             return super.createContainer(params);
         } catch (DockerException e) {
@@ -167,14 +198,58 @@ public class SwarmDockerConnector extends DockerConnector {
         }
         final ArrayList<DockerNode> nodes = new ArrayList<>(count);
         for (int i = 0; i < count; ++i) {
-            final String[] node = systemDescription[i * nodeDescriptionLength + startsFrom];
-            nodes.add(new DockerNode(node[0], node[1]));
+            final int nodeStartsFrom = i * nodeDescriptionLength + startsFrom;
+            final String[] node = systemDescription[nodeStartsFrom];
+            long ramUsed = 0;
+            long ramTotal = 0;
+            for (int j = nodeStartsFrom + 1; j < nodeStartsFrom + nodeDescriptionLength && j < systemDescription.length; ++j) {
+                if (Strings.nullToEmpty(systemDescription[j][0]).trim().endsWith("Reserved Memory")) {
+                    final String[] ramValues = Strings.nullToEmpty(systemDescription[j][1]).split(" / ");
+                    try {
+                        ramUsed = parseSize(ramValues[0]);
+                        ramTotal = parseSize(ramValues[1]);
+                    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ignored) {
+                        // node is considered as node without free RAM
+                    }
+                    break;
+                }
+            }
+            nodes.add(new DockerNode(node[0], node[1], ramUsed, ramTotal));
         }
         return nodes;
     }
 
+    /**
+     * Returns available nodes with their RAM, nodes are fetched again when cached ones are expired
+     * or a container is created after the nodes were fetched.
+     */
+    @VisibleForTesting
+    List<DockerNode> getNodesCapacity() throws IOException {
+        final CachedNodes cached = cachedNodes;
+        if (cached != null && System.currentTimeMillis() - cached.fetchTime < NODES_CACHE_TTL_MS) {
+            return cached.nodes;
+        }
+        final List<DockerNode> nodes = getAvailableNodes();
+        cachedNodes = new CachedNodes(nodes);
+        return nodes;
+    }
+
+    private static String imageOf(PullParams params) {
+        return params.getFullRepo() + ':' + firstNonNull(params.getTag(), "latest");
+    }
+
     //TODO find better solution
     private URI addrToUri(String addr) {
         return URI.create(nodeDaemonScheme + "://" + addr);
     }
+
+    private static class CachedNodes {
+        final List<DockerNode> nodes;
+        final long             fetchTime;
+
+        CachedNodes(List<DockerNode> nodes) {
+            this.nodes = nodes;
+            this.fetchTime = System.currentTimeMillis();
+        }
+    }
 }
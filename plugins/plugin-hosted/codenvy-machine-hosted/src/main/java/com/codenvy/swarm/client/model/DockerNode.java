@@ -21,13 +21,20 @@ package com.codenvy.swarm.client.model;
  * @author Eugene Voevodin
  */
 public class DockerNode {
-    //TODO add ram and containers ?
     private final String hostname;
     private final String addr;
+    private final long   ramUsed;
+    private final long   ramTotal;
 
     public DockerNode(String hostname, String addr) {
+        this(hostname, addr, 0, 0);
+    }
+
+    public DockerNode(String hostname, String addr, long ramUsed, long ramTotal) {
         this.hostname = hostname;
         this.addr = addr;
+        this.ramUsed = ramUsed;
+        this.ramTotal = ramTotal;
     }
 
     public String getAddr() {
@@ -37,4 +44,19 @@ public class DockerNode {
     public String getHostname() {
         return hostname;
     }
+
+    /** Returns RAM reserved by containers of the node in bytes. */
+    public long getRamUsed() {
+        return ramUsed;
+    }
+
+    /** Returns total RAM of the node in bytes. */
+    public long getRamTotal() {
+        return ramTotal;
+    }
+
+    /** Returns RAM of the node which is not reserved by containers in bytes. */
+    public long getFreeRam() {
+        return ramTotal - ramUsed;
+    }
 }
@@ -14,8 +14,14 @@
  */
 package com.codenvy.machine.backup;
 
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Lists;
+
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
+import org.eclipse.che.api.machine.server.spi.Instance;
+import org.eclipse.che.api.machine.server.spi.InstanceNode;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.WorkspaceRuntimes;
 import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
@@ -29,11 +35,16 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.Thread.sleep;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
@@ -44,6 +55,7 @@ import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 /**
  * @author Alexander Garagatyi
@@ -56,6 +68,8 @@ public class WorkspaceFsBackupSchedulerTest {
     private static final String ACTIVE_ENV          = "testActiveEnv";
     private static final String ENV_TYPE            = "testEnvType";
     private static final long   BACKUP_TIMEOUT      = 1;// 1 second
+    private static final int    MAX_BACKUPS         = 10;
+    private static final int    MAX_NODE_BACKUPS    = 10;
 
     @Mock
     private WorkspaceRuntimes        workspaceRuntimes;
@@ -64,16 +78,21 @@ public class WorkspaceFsBackupSchedulerTest {
     @Mock
     private EnvironmentBackupManager backupManager;
 
+    private MetricRegistry             metrics;
     private WorkspaceConfigImpl        workspaceConfig;
     private WorkspaceFsBackupScheduler scheduler;
     private Set<String>                ids;
 
     @BeforeMethod
     public void setUp() throws Exception {
+        metrics = new MetricRegistry();
         scheduler = spy(new WorkspaceFsBackupScheduler(Collections.singletonMap(ENV_TYPE, backupManager),
                                                        workspaceRuntimes,
                                                        BACKUP_TIMEOUT,
-                                                       workspaceManager));
+                                                       MAX_BACKUPS,
+                                                       MAX_NODE_BACKUPS,
+                                                       workspaceManager,
+                                                       metrics));
 
         EnvironmentImpl environment = new EnvironmentImpl();
         EnvironmentRecipeImpl environmentRecipe = new EnvironmentRecipeImpl();
@@ -90,8 +109,25 @@ public class WorkspaceFsBackupSchedulerTest {
     }
 
     private WorkspaceImpl addWorkspace(String wsId) throws Exception {
-        WorkspaceImpl workspace = mock(WorkspaceImpl.class);
+        return addWorkspace(wsId, mock(WorkspaceRuntimeImpl.class));
+    }
+
+    private WorkspaceImpl addWorkspace(String wsId, String nodeHost) throws Exception {
         WorkspaceRuntimeImpl workspaceRuntime = mock(WorkspaceRuntimeImpl.class);
+        MachineImpl devMachine = mock(MachineImpl.class);
+        Instance instance = mock(Instance.class);
+        InstanceNode node = mock(InstanceNode.class);
+        when(workspaceRuntime.getDevMachine()).thenReturn(devMachine);
+        when(devMachine.getId()).thenReturn(wsId + "-dev-machine");
+        when(workspaceManager.getMachineInstance(wsId, wsId + "-dev-machine")).thenReturn(instance);
+        when(instance.getNode()).thenReturn(node);
+        when(node.getHost()).thenReturn(nodeHost);
+
+        return addWorkspace(wsId, workspaceRuntime);
+    }
+
+    private WorkspaceImpl addWorkspace(String wsId, WorkspaceRuntimeImpl workspaceRuntime) throws Exception {
+        WorkspaceImpl workspace = mock(WorkspaceImpl.class);
 
         when(workspaceManager.getWorkspace(wsId)).thenReturn(workspace);
         when(workspace.getRuntime()).thenReturn(workspaceRuntime);
@@ -203,7 +239,10 @@ public class WorkspaceFsBackupSchedulerTest {
         scheduler = spy(new WorkspaceFsBackupScheduler(Collections.singletonMap(ENV_TYPE, backupManager),
                                                        workspaceRuntimes,
                                                        0,
-                                                       workspaceManager));
+                                                       MAX_BACKUPS,
+                                                       MAX_NODE_BACKUPS,
+                                                       workspaceManager,
+                                                       metrics));
 
         scheduler.scheduleBackup();
 
@@ -228,7 +267,10 @@ public class WorkspaceFsBackupSchedulerTest {
         scheduler = spy(new WorkspaceFsBackupScheduler(Collections.singletonMap(ENV_TYPE, backupManager),
                                                        workspaceRuntimes,
                                                        0,
-                                                       workspaceManager));
+                                                       MAX_BACKUPS,
+                                                       MAX_NODE_BACKUPS,
+                                                       workspaceManager,
+                                                       metrics));
         doAnswer(invocation -> {
             sleep(FAKE_BACKUP_TIME_MS);
             return null;
@@ -244,4 +286,123 @@ public class WorkspaceFsBackupSchedulerTest {
         verify(workspaceRuntimes, times(2)).getRuntimesIds();
         verify(backupManager, timeout(2000)).backupWorkspace(eq("ws3"));
     }
+
+    @Test
+    public void shouldLimitNumberOfConcurrentBackupsOnTheNode() throws Exception {
+        // given
+        ids.clear();
+        addWorkspace("ws3", "node1");
+        addWorkspace("ws4", "node1");
+        addWorkspace("ws5", "node2");
+        scheduler = new WorkspaceFsBackupScheduler(Collections.singletonMap(ENV_TYPE, backupManager),
+                                                   workspaceRuntimes,
+                                                   BACKUP_TIMEOUT,
+                                                   MAX_BACKUPS,
+                                                   1,
+                                                   workspaceManager,
+                                                   metrics);
+        CountDownLatch finishBackups = new CountDownLatch(1);
+        doAnswer(invocation -> finishBackups.await(10, TimeUnit.SECONDS)).when(backupManager).backupWorkspace(anyString());
+
+        // when
+        scheduler.scheduleBackup();
+
+        // then
+        verify(backupManager, timeout(2000).times(2)).backupWorkspace(anyString());
+        verify(backupManager, timeout(2000)).backupWorkspace("ws5");
+        assertEquals(scheduler.getInFlightNumber(), 2);
+        assertEquals(scheduler.getQueueLength(), 1);
+
+        finishBackups.countDown();
+        verify(backupManager, timeout(2000).times(3)).backupWorkspace(anyString());
+        verify(backupManager, timeout(2000)).backupWorkspace("ws3");
+        verify(backupManager, timeout(2000)).backupWorkspace("ws4");
+        waitUntilBackupsFinished();
+        assertEquals(metrics.timer(WorkspaceFsBackupScheduler.nodeMetricName("node1", "backups")).getCount(), 2);
+        assertEquals(metrics.timer(WorkspaceFsBackupScheduler.nodeMetricName("node2", "backups")).getCount(), 1);
+    }
+
+    @Test
+    public void shouldCountFailedBackupsOfTheNode() throws Exception {
+        // given
+        ids.clear();
+        addWorkspace("ws3", "192.168.1.1");
+        addWorkspace("ws4", "192.168.1.1");
+        doThrow(new ServerException("server exception")).when(backupManager).backupWorkspace("ws3");
+
+        // when
+        scheduler.scheduleBackup();
+
+        // then
+        verify(backupManager, timeout(2000)).backupWorkspace("ws3");
+        verify(backupManager, timeout(2000)).backupWorkspace("ws4");
+        waitUntilBackupsFinished();
+        assertEquals(metrics.meter("workspace.backup.node.192_168_1_1.failures").getCount(), 1);
+        assertEquals(metrics.timer("workspace.backup.node.192_168_1_1.backups").getCount(), 1);
+    }
+
+    @Test
+    public void shouldLimitTotalNumberOfConcurrentBackups() throws Exception {
+        // given
+        scheduler = new WorkspaceFsBackupScheduler(Collections.singletonMap(ENV_TYPE, backupManager),
+                                                   workspaceRuntimes,
+                                                   BACKUP_TIMEOUT,
+                                                   1,
+                                                   MAX_NODE_BACKUPS,
+                                                   workspaceManager,
+                                                   metrics);
+        CountDownLatch finishBackups = new CountDownLatch(1);
+        doAnswer(invocation -> finishBackups.await(10, TimeUnit.SECONDS)).when(backupManager).backupWorkspace(anyString());
+
+        // when
+        scheduler.scheduleBackup();
+
+        // then
+        verify(backupManager, timeout(2000)).backupWorkspace(anyString());
+        assertEquals(scheduler.getInFlightNumber(), 1);
+        assertEquals(scheduler.getQueueLength(), 1);
+
+        finishBackups.countDown();
+        verify(backupManager, timeout(2000)).backupWorkspace(WORKSPACE_ID_1);
+        verify(backupManager, timeout(2000)).backupWorkspace(WORKSPACE_ID_2);
+    }
+
+    @Test
+    public void shouldBackupWorkspaceWithTheOldestLastBackupFirst() throws Exception {
+        // given
+        scheduler = new WorkspaceFsBackupScheduler(Collections.singletonMap(ENV_TYPE, backupManager),
+                                                   workspaceRuntimes,
+                                                   0,
+                                                   1,
+                                                   MAX_NODE_BACKUPS,
+                                                   workspaceManager,
+                                                   metrics);
+        List<String> backupsOrder = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            backupsOrder.add((String)invocation.getArguments()[0]);
+            sleep(10);
+            return null;
+        }).when(backupManager).backupWorkspace(anyString());
+        scheduler.scheduleBackup();
+        verify(backupManager, timeout(2000).times(2)).backupWorkspace(anyString());
+        waitUntilBackupsFinished();
+        List<String> firstBackupsOrder = new ArrayList<>(backupsOrder);
+        backupsOrder.clear();
+        // reverse order in which workspaces are scheduled
+        ids.clear();
+        ids.addAll(Lists.reverse(firstBackupsOrder));
+
+        // when
+        scheduler.scheduleBackup();
+
+        // then
+        verify(backupManager, timeout(2000).times(4)).backupWorkspace(anyString());
+        assertEquals(backupsOrder, firstBackupsOrder);
+    }
+
+    private void waitUntilBackupsFinished() throws InterruptedException {
+        while (scheduler.getInFlightNumber() != 0) {
+            sleep(10);
+        }
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.swarm.client;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for {@link ImagePullCoordinator}.
+ */
+public class ImagePullCoordinatorTest {
+    private static final String IMAGE = "codenvy/ubuntu_jdk8:latest";
+    private static final String NODE  = "192.168.1.1:2375";
+
+    private static final long EXPIRATION_MS = 60_000;
+
+    private AtomicLong           clock;
+    private ImagePullCoordinator pullCoordinator;
+    private ExecutorService      executor;
+
+    @BeforeMethod
+    public void setUp() {
+        clock = new AtomicLong();
+        pullCoordinator = new ImagePullCoordinator(EXPIRATION_MS, clock::get);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldMergeConcurrentPullsOfTheSameImageOnTheSameNode() throws Exception {
+        final AtomicInteger pulls = new AtomicInteger();
+        final CountDownLatch pullStarted = new CountDownLatch(1);
+        final CountDownLatch finishPull = new CountDownLatch(1);
+
+        final Future<?> first = executor.submit(() -> {
+            pullCoordinator.pull(IMAGE, NODE, () -> {
+                pulls.incrementAndGet();
+                pullStarted.countDown();
+                await(finishPull);
+            });
+            return null;
+        });
+        assertTrue(pullStarted.await(10, TimeUnit.SECONDS));
+        final Future<?> second = submitAndWaitUntilBlocked(() -> pullCoordinator.pull(IMAGE, NODE, pulls::incrementAndGet));
+        finishPull.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        assertEquals(pulls.get(), 1);
+        assertTrue(pullCoordinator.hasImage(IMAGE, NODE));
+    }
+
+    @Test
+    public void shouldPropagateFailureOfThePullToWaitingCallers() throws Exception {
+        final CountDownLatch pullStarted = new CountDownLatch(1);
+        final CountDownLatch finishPull = new CountDownLatch(1);
+
+        final Future<?> first = executor.submit(() -> {
+            pullCoordinator.pull(IMAGE, NODE, () -> {
+                pullStarted.countDown();
+                await(finishPull);
+                throw new IOException("pull failed");
+            });
+            return null;
+        });
+        assertTrue(pullStarted.await(10, TimeUnit.SECONDS));
+        final Future<?> second = submitAndWaitUntilBlocked(
+                () -> pullCoordinator.pull(IMAGE, NODE, () -> fail("Pull must be merged with the one in progress")));
+        finishPull.countDown();
+
+        assertPullFailed(first);
+        assertPullFailed(second);
+        assertFalse(pullCoordinator.hasImage(IMAGE, NODE));
+    }
+
+    @Test
+    public void shouldPullImageAgainAfterThePreviousPullIsFinished() throws Exception {
+        final AtomicInteger pulls = new AtomicInteger();
+
+        pullCoordinator.pull(IMAGE, NODE, pulls::incrementAndGet);
+        pullCoordinator.pull(IMAGE, NODE, pulls::incrementAndGet);
+        pullCoordinator.pull(IMAGE, "192.168.1.2:2375", pulls::incrementAndGet);
+
+        assertEquals(pulls.get(), 3);
+        assertEquals(pullCoordinator.getNodes(IMAGE).size(), 2);
+        assertEquals(pullCoordinator.getNodes("codenvy/node:latest"), Collections.emptySet());
+    }
+
+    @Test
+    public void shouldForgetNodeHoldingImageWhenRecordExpires() throws Exception {
+        pullCoordinator.pull(IMAGE, NODE, () -> {});
+        clock.addAndGet(EXPIRATION_MS / 2);
+        pullCoordinator.pull(IMAGE, "192.168.1.2:2375", () -> {});
+
+        clock.addAndGet(EXPIRATION_MS / 2);
+
+        assertFalse(pullCoordinator.hasImage(IMAGE, NODE));
+        assertTrue(pullCoordinator.hasImage(IMAGE, "192.168.1.2:2375"));
+        assertEquals(pullCoordinator.getNodes(IMAGE), Collections.singleton("192.168.1.2:2375"));
+    }
+
+    @Test
+    public void shouldRememberNodeHoldingImageAgainWhenImageIsPulledAfterExpiration() throws Exception {
+        pullCoordinator.pull(IMAGE, NODE, () -> {});
+        clock.addAndGet(EXPIRATION_MS);
+        assertFalse(pullCoordinator.hasImage(IMAGE, NODE));
+
+        pullCoordinator.pull(IMAGE, NODE, () -> {});
+
+        assertTrue(pullCoordinator.hasImage(IMAGE, NODE));
+    }
+
+    /** Submits the pull and waits until it is blocked waiting for the pull in progress. */
+    private Future<?> submitAndWaitUntilBlocked(ImagePullCoordinator.Pull pull) throws Exception {
+        final CompletableFuture<Thread> pullThread = new CompletableFuture<>();
+        final Future<?> future = executor.submit(() -> {
+            pullThread.complete(Thread.currentThread());
+            pull.pull();
+            return null;
+        });
+        final Thread thread = pullThread.get(10, TimeUnit.SECONDS);
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+        return future;
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void assertPullFailed(Future<?> pull) throws Exception {
+        try {
+            pull.get(10, TimeUnit.SECONDS);
+            fail("Pull must fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertEquals(e.getCause().getMessage(), "pull failed");
+        }
+    }
+}
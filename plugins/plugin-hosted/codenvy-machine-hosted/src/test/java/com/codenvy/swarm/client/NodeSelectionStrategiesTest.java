@@ -0,0 +1,79 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.swarm.client;
+
+import com.codenvy.swarm.client.model.DockerNode;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link LeastLoadedNodeSelectionStrategy}, {@link BinPackingNodeSelectionStrategy}
+ * and {@link ImageAffinityNodeSelectionStrategy}.
+ */
+public class NodeSelectionStrategiesTest {
+    private static final long GB = 1024 * 1024 * 1024;
+
+    private final DockerNode node1 = new DockerNode("node1", "192.168.1.1:2375", 6 * GB, 8 * GB);
+    private final DockerNode node2 = new DockerNode("node2", "192.168.1.2:2375", 1 * GB, 8 * GB);
+    private final DockerNode node3 = new DockerNode("node3", "192.168.1.3:2375", 3 * GB, 8 * GB);
+    private final List<DockerNode> nodes = Arrays.asList(node1, node2, node3);
+
+    @Test
+    public void leastLoadedStrategyShouldSelectNodeWithTheMostOfFreeRam() throws Exception {
+        assertEquals(new LeastLoadedNodeSelectionStrategy().select(nodes), node2);
+    }
+
+    @Test
+    public void binPackingStrategyShouldSelectTheMostLoadedNodeWithEnoughFreeRam() throws Exception {
+        assertEquals(new BinPackingNodeSelectionStrategy(2048).select(nodes), node1);
+        assertEquals(new BinPackingNodeSelectionStrategy(3072).select(nodes), node3);
+    }
+
+    @Test
+    public void binPackingStrategyShouldSelectLeastLoadedNodeWhenNoneOfTheNodesHasEnoughFreeRam() throws Exception {
+        assertEquals(new BinPackingNodeSelectionStrategy(16384).select(nodes), node2);
+    }
+
+    @Test
+    public void imageAffinityStrategyShouldSelectLeastLoadedNodeWhichHasImage() throws Exception {
+        final ImagePullCoordinator pullCoordinator = new ImagePullCoordinator(3600);
+        pullCoordinator.pull("codenvy/ubuntu_jdk8:latest", node1.getAddr(), () -> {});
+        pullCoordinator.pull("codenvy/ubuntu_jdk8:latest", node3.getAddr(), () -> {});
+        final ImageAffinityNodeSelectionStrategy strategy = new ImageAffinityNodeSelectionStrategy(pullCoordinator);
+
+        assertEquals(strategy.select(nodes, "codenvy/ubuntu_jdk8:latest"), node3);
+    }
+
+    @Test
+    public void imageAffinityStrategyShouldSelectLeastLoadedNodeWhenNoneOfTheNodesHasImage() throws Exception {
+        final ImagePullCoordinator pullCoordinator = new ImagePullCoordinator(3600);
+        pullCoordinator.pull("codenvy/ubuntu_jdk8:latest", "192.168.1.4:2375", () -> {});
+        final ImageAffinityNodeSelectionStrategy strategy = new ImageAffinityNodeSelectionStrategy(pullCoordinator);
+
+        assertEquals(strategy.select(nodes, "codenvy/ubuntu_jdk8:latest"), node2);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldThrowExceptionWhenThereIsNoNodes() throws Exception {
+        new LeastLoadedNodeSelectionStrategy().select(Collections.emptyList());
+    }
+}
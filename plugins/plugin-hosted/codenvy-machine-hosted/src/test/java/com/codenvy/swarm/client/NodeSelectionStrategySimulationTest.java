@@ -0,0 +1,101 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.swarm.client;
+
+import com.codenvy.swarm.client.model.DockerNode;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Simulates placement of workspaces on synthetic clusters and compares node selection strategies.
+ *
+ * <p>Each cluster consists of nodes of different size, workspaces of random size are placed
+ * on the selected node until the cluster is loaded up to the given share of its capacity.
+ * Placement fails when the selected node doesn't have enough free RAM.
+ * After the load is placed it is checked whether the cluster still has room for a big workspace.
+ */
+public class NodeSelectionStrategySimulationTest {
+    private static final long GB       = 1024 * 1024 * 1024;
+    private static final int  CLUSTERS = 50;
+
+    private static final long BIG_WORKSPACE_RAM = 16 * GB;
+
+    @Test
+    public void leastLoadedStrategyShouldFailLessPlacementsThanRandomOne() throws Exception {
+        final int randomFailures = simulate(new RandomNodeSelectionStrategy(), 0.9).failures;
+        final int leastLoadedFailures = simulate(new LeastLoadedNodeSelectionStrategy(), 0.9).failures;
+
+        assertTrue(leastLoadedFailures < randomFailures,
+                   "least loaded failures: " + leastLoadedFailures + ", random failures: " + randomFailures);
+    }
+
+    @Test
+    public void binPackingStrategyShouldKeepRoomForBigWorkspacesInMoreClustersThanLeastLoadedOne() throws Exception {
+        final int binPackingRooms = simulate(new BinPackingNodeSelectionStrategy(4096), 0.5).bigWorkspaceRooms;
+        final int leastLoadedRooms = simulate(new LeastLoadedNodeSelectionStrategy(), 0.5).bigWorkspaceRooms;
+
+        assertTrue(binPackingRooms > leastLoadedRooms,
+                   "bin packing rooms: " + binPackingRooms + ", least loaded rooms: " + leastLoadedRooms);
+    }
+
+    private SimulationResult simulate(NodeSelectionStrategy strategy, double load) throws Exception {
+        // the same clusters and workspaces are generated for each strategy
+        final Random random = new Random(42);
+        final SimulationResult result = new SimulationResult();
+        for (int cluster = 0; cluster < CLUSTERS; cluster++) {
+            final int nodesNumber = 3 + random.nextInt(8);
+            final long[] used = new long[nodesNumber];
+            final long[] total = new long[nodesNumber];
+            long capacity = 0;
+            for (int i = 0; i < nodesNumber; i++) {
+                total[i] = (8 + 8 * random.nextInt(4)) * GB;
+                capacity += total[i];
+            }
+            long placed = 0;
+            while (placed < capacity * load) {
+                final long workspaceRam = (1 + random.nextInt(4)) * GB;
+                final List<DockerNode> nodes = new ArrayList<>(nodesNumber);
+                for (int i = 0; i < nodesNumber; i++) {
+                    nodes.add(new DockerNode("node" + i, Integer.toString(i), used[i], total[i]));
+                }
+                final int selected = Integer.parseInt(strategy.select(nodes).getAddr());
+                if (total[selected] - used[selected] < workspaceRam) {
+                    result.failures++;
+                } else {
+                    used[selected] += workspaceRam;
+                }
+                placed += workspaceRam;
+            }
+            for (int i = 0; i < nodesNumber; i++) {
+                if (total[i] - used[i] >= BIG_WORKSPACE_RAM) {
+                    result.bigWorkspaceRooms++;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static class SimulationResult {
+        int failures;
+        int bigWorkspaceRooms;
+    }
+}
@@ -21,11 +21,11 @@ import com.codenvy.api.license.server.SystemLicenseActionHandler;
 import com.codenvy.api.license.server.SystemLicenseManager;
 import com.codenvy.api.license.shared.model.Constants;
 import com.codenvy.api.license.shared.model.SystemLicenseAction;
-import com.codenvy.api.permission.server.PermissionsManager;
 import com.codenvy.api.permission.server.model.impl.AbstractPermissions;
-import com.google.common.annotations.VisibleForTesting;
+import com.codenvy.api.workspace.server.model.impl.WorkerImpl;
+import com.codenvy.api.workspace.server.spi.WorkerDao;
 import com.google.common.collect.ImmutableList;
-import org.apache.commons.io.FileUtils;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.Page;
@@ -41,17 +41,20 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.text.SimpleDateFormat;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.AbstractMap.SimpleEntry;
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -61,12 +64,17 @@ import static com.codenvy.api.license.shared.model.Constants.Action.EXPIRED;
 import static com.codenvy.api.license.shared.model.Constants.Action.REMOVED;
 import static com.codenvy.api.license.shared.model.Constants.PaidLicense.FAIR_SOURCE_LICENSE;
 import static com.codenvy.api.license.shared.model.Constants.PaidLicense.PRODUCT_LICENSE;
-import static com.codenvy.api.workspace.server.WorkspaceDomain.DOMAIN_ID;
-import static java.nio.file.Files.createTempDirectory;
+import static java.lang.Thread.currentThread;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Facade for audit report related operations.
  *
+ * <p>The report is streamed into the given writer: users are fetched page by page,
+ * workers of all the users of the page are fetched by single request, users info is rendered
+ * in parallel and written into the report in the order of users pages.
+ * The next page of users is fetched while the current one is rendered.
+ *
  * @author Igor Vinokur
  */
 @Singleton
@@ -74,8 +82,11 @@ public class AuditManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(AuditManager.class);
 
+    private static final int USERS_PAGE_SIZE  = 100;
+    private static final int RENDERER_THREADS = 4;
+
     private final WorkspaceManager           workspaceManager;
-    private final PermissionsManager         permissionsManager;
+    private final WorkerDao                  workerDao;
     private final SystemLicenseManager       licenseManager;
     private final SystemLicenseActionHandler systemLicenseActionHandler;
     private final UserManager                userManager;
@@ -85,68 +96,104 @@ public class AuditManager {
     @Inject
     public AuditManager(UserManager userManager,
                         WorkspaceManager workspaceManager,
-                        PermissionsManager permissionsManager,
+                        WorkerDao workerDao,
                         SystemLicenseManager licenseManager,
                         SystemLicenseActionHandler systemLicenseActionHandler) {
         this.userManager = userManager;
         this.workspaceManager = workspaceManager;
-        this.permissionsManager = permissionsManager;
+        this.workerDao = workerDao;
         this.licenseManager = licenseManager;
         this.systemLicenseActionHandler = systemLicenseActionHandler;
     }
 
     /**
-     * Generates file with audit report in plain/text format.
+     * Generates audit report in plain/text format and writes it into the given writer.
      * The audit report contains information about license, users and their workspaces.
+     * The writer is flushed after each page of users, so the report may be streamed to the client progressively.
      *
-     * @return path of the audit report file
+     * @param auditReport
+     *         writer of the audit report
      * @throws ServerException
      *         if an error occurs
      * @throws ConflictException
      *         if generating report is already in progress
      */
-    public Path generateAuditReport() throws ServerException, ConflictException {
+    public void generateAuditReport(Writer auditReport) throws ServerException, ConflictException {
+        startReportGeneration();
+        try {
+            printAuditReport(auditReport);
+        } finally {
+            finishReportGeneration();
+        }
+    }
+
+    /**
+     * Marks generating of the audit report as started,
+     * must be followed by {@link #finishReportGeneration()} when the report is written.
+     *
+     * @throws ConflictException
+     *         if generating report is already in progress
+     */
+    public void startReportGeneration() throws ConflictException {
         if (!inProgress.compareAndSet(false, true)) {
             throw new ConflictException("Generating report is already in progress");
         }
+    }
 
-        Path auditReport = null;
-        try {
-            auditReport = createEmptyAuditReportFile();
+    /** Marks generating of the audit report as finished. */
+    public void finishReportGeneration() {
+        inProgress.set(false);
+    }
 
+    /**
+     * Writes audit report into the given writer, the caller is responsible for marking the generating
+     * as started and finished. When the report can't be completed, the error is written into the report,
+     * so the partially written report is not taken for the complete one.
+     *
+     * @param auditReport
+     *         writer of the audit report
+     * @throws ServerException
+     *         if an error occurs
+     */
+    public void printAuditReport(Writer auditReport) throws ServerException {
+        final ExecutorService renderer = Executors.newFixedThreadPool(RENDERER_THREADS,
+                                                                      new ThreadFactoryBuilder().setNameFormat("AuditReportRenderer-%d")
+                                                                                                .setDaemon(true)
+                                                                                                .build());
+        try {
             printLicenseActionInfo(auditReport);
 
             printDelimiter(auditReport, "CURRENT STATE");
 
             printSystemInfo(auditReport);
 
-            printAllUsersInfo(auditReport);
+            printAllUsersInfo(auditReport, renderer);
 
+            auditReport.flush();
         } catch (Exception exception) {
-            if (auditReport != null) {
-                deleteReportDirectory(auditReport);
-            }
             LOG.error(exception.getMessage(), exception);
+            printFailure(auditReport, exception);
             throw new ServerException(exception.getMessage(), exception);
         } finally {
-            inProgress.set(false);
+            renderer.shutdownNow();
         }
-
-        return auditReport;
     }
 
-    private Path createEmptyAuditReportFile() throws IOException {
-        String dateTime = new SimpleDateFormat("dd-MM-yyyy_hh:mm:ss").format(new Date());
-        Path auditReport = createTempDirectory(null).resolve("report_" + dateTime + ".txt");
-        Files.createFile(auditReport);
-        return auditReport;
+    private void printFailure(Writer auditReport, Exception failure) {
+        try {
+            Printer.createErrorPrinter(auditReport, "Failed to generate audit report. The report is incomplete. " + failure.getMessage())
+                   .print();
+            auditReport.flush();
+        } catch (ServerException | IOException e) {
+            LOG.error("Failed to log error info. " + e.getMessage(), e);
+        }
     }
 
-    private void printDelimiter(Path auditReport, String title) throws ServerException {
+    private void printDelimiter(Writer auditReport, String title) throws ServerException {
         Printer.createDelimiterPrinter(auditReport, title).print();
     }
 
-    void printSystemInfo(Path auditReport) throws ServerException {
+    void printSystemInfo(Writer auditReport) throws ServerException {
         SystemLicense license = null;
         try {
             license = licenseManager.load();
@@ -162,7 +209,7 @@ public class AuditManager {
      * @param auditReport
      * @throws ServerException
      */
-    private void printLicenseActionInfo(Path auditReport) throws ServerException {
+    private void printLicenseActionInfo(Writer auditReport) throws ServerException {
         Map<Long, Optional<Printer>> actions = new TreeMap<>();
 
         List<Map.Entry<Constants.PaidLicense, Constants.Action>> actionAttributesList = ImmutableList.of(
@@ -191,7 +238,7 @@ public class AuditManager {
                }));
     }
 
-    private void getLicenseActionInfo(Path auditReport, Map<Long, Optional<Printer>> actions, Map.Entry<Constants.PaidLicense, Constants.Action> actionAttributes) {
+    private void getLicenseActionInfo(Writer auditReport, Map<Long, Optional<Printer>> actions, Map.Entry<Constants.PaidLicense, Constants.Action> actionAttributes) {
         try {
             SystemLicenseAction action = systemLicenseActionHandler.findAction(actionAttributes.getKey(), actionAttributes.getValue());
             actions.put(action.getActionTimestamp(), Printer.createActionPrinter(auditReport, action));
@@ -206,38 +253,71 @@ public class AuditManager {
         }
     }
 
-    private void printAllUsersInfo(Path auditReport) throws ServerException {
-        Page<UserImpl> currentPage = userManager.getAll(30, 0);
-        do {
-            //Print users with their workspaces from current page
-            for (UserImpl user : currentPage.getItems()) {
-                List<WorkspaceImpl> workspaces;
-                try {
-                    workspaces = workspaceManager.getWorkspaces(user.getId(), false);
-                    Set<String> workspaceIds = workspaces.stream()
-                                                         .map(WorkspaceImpl::getId)
-                                                         .collect(Collectors.toSet());
-                    //add workspaces witch are belong to user, but user doesn't have permissions for them.
-                    workspaceManager.getByNamespace(user.getName(), false)
-                                    .stream()
-                                    .filter(workspace -> !workspaceIds.contains(workspace.getId()))
-                                    .forEach(workspaces::add);
-                } catch (ServerException exception) {
-                    Printer.createErrorPrinter(auditReport, "Failed to retrieve the list of related workspaces for user " + user.getId()).print();
-                    continue;
-                }
-                Map<String, AbstractPermissions> wsPermissions = new HashMap<>();
-                for (WorkspaceImpl workspace : workspaces) {
-                    try {
-                        wsPermissions.put(workspace.getId(), permissionsManager.get(user.getId(), DOMAIN_ID, workspace.getId()));
-                    } catch (NotFoundException | ConflictException ignored) {
-                        //User doesn't have permissions for workspace
-                    }
-                }
-                Printer.createUserPrinter(auditReport, user, workspaces, wsPermissions).print();
+    private void printAllUsersInfo(Writer auditReport, ExecutorService renderer) throws ServerException, IOException {
+        Page<UserImpl> currentPage = userManager.getAll(USERS_PAGE_SIZE, 0);
+        while (currentPage != null) {
+            final List<Future<String>> usersInfo = renderUsersInfo(currentPage.getItems(), renderer);
+            //Fetch the next page while users of current page are rendered
+            currentPage = getNextPage(currentPage);
+            //Print users with their workspaces in the order of the page
+            for (Future<String> userInfo : usersInfo) {
+                auditReport.write(getRendered(userInfo));
             }
+            auditReport.flush();
+        }
+    }
 
-        } while ((currentPage = getNextPage(currentPage)) != null);
+    private List<Future<String>> renderUsersInfo(List<UserImpl> users, ExecutorService renderer) throws ServerException {
+        final Map<String, Map<String, AbstractPermissions>> usersPermissions = new HashMap<>();
+        for (WorkerImpl worker : workerDao.getWorkersByUsers(users.stream().map(UserImpl::getId).collect(toList()))) {
+            usersPermissions.computeIfAbsent(worker.getUserId(), userId -> new HashMap<>())
+                            .put(worker.getInstanceId(), worker);
+        }
+        final List<Future<String>> usersInfo = new ArrayList<>(users.size());
+        for (UserImpl user : users) {
+            final Map<String, AbstractPermissions> userPermissions = usersPermissions.getOrDefault(user.getId(), new HashMap<>());
+            usersInfo.add(renderer.submit(() -> renderUserInfo(user, userPermissions)));
+        }
+        return usersInfo;
+    }
+
+    private String renderUserInfo(UserImpl user, Map<String, AbstractPermissions> userPermissions) throws ServerException {
+        final StringWriter userInfo = new StringWriter();
+        List<WorkspaceImpl> workspaces;
+        try {
+            workspaces = workspaceManager.getWorkspaces(user.getId(), false);
+            Set<String> workspaceIds = workspaces.stream()
+                                                 .map(WorkspaceImpl::getId)
+                                                 .collect(Collectors.toSet());
+            //add workspaces witch are belong to user, but user doesn't have permissions for them.
+            workspaceManager.getByNamespace(user.getName(), false)
+                            .stream()
+                            .filter(workspace -> !workspaceIds.contains(workspace.getId()))
+                            .forEach(workspaces::add);
+        } catch (ServerException exception) {
+            Printer.createErrorPrinter(userInfo, "Failed to retrieve the list of related workspaces for user " + user.getId()).print();
+            return userInfo.toString();
+        }
+        Map<String, AbstractPermissions> wsPermissions = new HashMap<>();
+        for (WorkspaceImpl workspace : workspaces) {
+            AbstractPermissions permissions = userPermissions.get(workspace.getId());
+            if (permissions != null) {
+                wsPermissions.put(workspace.getId(), permissions);
+            }
+        }
+        Printer.createUserPrinter(userInfo, user, workspaces, wsPermissions).print();
+        return userInfo.toString();
+    }
+
+    private String getRendered(Future<String> userInfo) throws ServerException {
+        try {
+            return userInfo.get();
+        } catch (InterruptedException e) {
+            currentThread().interrupt();
+            throw new ServerException("Interrupted while generating audit report", e);
+        } catch (ExecutionException e) {
+            throw new ServerException(e.getCause().getLocalizedMessage(), e.getCause());
+        }
     }
 
     private Page<UserImpl> getNextPage(Page<UserImpl> currentPage) throws ServerException {
@@ -248,13 +328,4 @@ public class AuditManager {
             return null;
         }
     }
-
-    @VisibleForTesting
-    void deleteReportDirectory(Path auditReport) {
-        try {
-            FileUtils.deleteDirectory(auditReport.getParent().toFile());
-        } catch (IOException exception) {
-            LOG.error(exception.getMessage(), exception);
-        }
-    }
 }
@@ -29,10 +29,13 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-
-import static java.nio.file.Files.copy;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 
 /**
  * Defines Audit report REST API.
@@ -54,21 +57,31 @@ public class AuditService extends Service {
     @Produces(MediaType.TEXT_PLAIN)
     @ApiOperation(value = "Generate audit log")
     @ApiResponses(value = {@ApiResponse(code = 200, message = "OK"),
+                           @ApiResponse(code = 409, message = "Generating report is already in progress"),
                            @ApiResponse(code = 500, message = "Server error")})
-    public Response downloadReport() throws ServerException, ConflictException, IOException {
-        java.nio.file.Path report = auditManager.generateAuditReport();
+    public Response downloadReport() throws ConflictException {
+        // the report is marked as in progress before the response is returned, so concurrent requests are rejected
+        auditManager.startReportGeneration();
+        try {
+            String dateTime = new SimpleDateFormat("dd-MM-yyyy_hh:mm:ss").format(new Date());
 
-        StreamingOutput stream = outputStream -> {
-            try {
-                copy(report, outputStream);
-            } finally {
-                auditManager.deleteReportDirectory(report);
-            }
-        };
+            StreamingOutput stream = outputStream -> {
+                try {
+                    Writer auditReport = new BufferedWriter(new OutputStreamWriter(outputStream, Charset.defaultCharset()));
+                    auditManager.printAuditReport(auditReport);
+                } catch (ServerException e) {
+                    throw new IOException(e.getLocalizedMessage(), e);
+                } finally {
+                    auditManager.finishReportGeneration();
+                }
+            };
 
-        return Response.ok(stream, MediaType.TEXT_PLAIN)
-                       .header("Content-Length", String.valueOf(Files.size(report)))
-                       .header("Content-Disposition", "attachment; filename=" + report.getFileName().toString())
-                       .build();
+            return Response.ok(stream, MediaType.TEXT_PLAIN)
+                           .header("Content-Disposition", "attachment; filename=report_" + dateTime + ".txt")
+                           .build();
+        } catch (RuntimeException e) {
+            auditManager.finishReportGeneration();
+            throw e;
+        }
     }
 }
@@ -16,7 +16,7 @@ package com.codenvy.api.audit.server.printer;
 
 import org.eclipse.che.api.core.ServerException;
 
-import java.nio.file.Path;
+import java.io.Writer;
 
 /**
  * Prints delimiter into audit report in view of:
@@ -31,11 +31,11 @@ public class DelimiterPrinter extends Printer {
 
     /**
      * @param auditReport
-     *          path to the audit report
+     *          writer of the audit report
      * @param title
      *          string inside delimiter
      */
-    public DelimiterPrinter(Path auditReport, String title) {
+    public DelimiterPrinter(Writer auditReport, String title) {
         super(auditReport);
 
         this.title = title;
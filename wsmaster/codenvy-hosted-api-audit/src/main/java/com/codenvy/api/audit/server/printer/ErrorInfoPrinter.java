@@ -16,7 +16,7 @@ package com.codenvy.api.audit.server.printer;
 
 import org.eclipse.che.api.core.ServerException;
 
-import java.nio.file.Path;
+import java.io.Writer;
 
 /**
  * Prints error in format:
@@ -28,7 +28,7 @@ public class ErrorInfoPrinter extends Printer {
 
     private String error;
 
-    public ErrorInfoPrinter(Path auditReport, String error) {
+    public ErrorInfoPrinter(Writer auditReport, String error) {
         super(auditReport);
 
         this.error = error;
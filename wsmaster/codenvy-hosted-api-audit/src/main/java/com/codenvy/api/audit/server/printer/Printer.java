@@ -26,15 +26,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Path;
+import java.io.Writer;
 import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 
-import static com.google.common.io.Files.append;
 import static java.lang.String.format;
 
 /**
@@ -47,9 +45,9 @@ public abstract class Printer {
 
     private static final Logger LOG = LoggerFactory.getLogger(Printer.class);
 
-    private Path auditReport;
+    private Writer auditReport;
 
-    public Printer(Path auditReport) {
+    public Printer(Writer auditReport) {
         this.auditReport = auditReport;
     }
 
@@ -63,7 +61,7 @@ public abstract class Printer {
 
     protected void printRow(String row) throws ServerException {
         try {
-            append(row, auditReport.toFile(), Charset.defaultCharset());
+            auditReport.write(row);
         } catch (IOException e) {
             LOG.error(e.getMessage(), e);
             throw new ServerException("Failed to generate audit report. " + e.getMessage(), e);
@@ -88,19 +86,19 @@ public abstract class Printer {
         return df.format(timestamp);
     }
 
-    public static Printer createSystemInfoPrinter(Path auditReport, long allUsersNumber, @Nullable SystemLicense license) {
+    public static Printer createSystemInfoPrinter(Writer auditReport, long allUsersNumber, @Nullable SystemLicense license) {
         return new SystemInfoPrinter(auditReport, allUsersNumber, license);
     }
 
-    public static Printer createUserPrinter(Path auditReport, UserImpl user, List<WorkspaceImpl> workspaces, Map<String, AbstractPermissions> wsPermissions) {
+    public static Printer createUserPrinter(Writer auditReport, UserImpl user, List<WorkspaceImpl> workspaces, Map<String, AbstractPermissions> wsPermissions) {
         return new UserInfoPrinter(auditReport, user, workspaces, wsPermissions);
     }
 
-    public static Printer createErrorPrinter(Path auditReport, String error) {
+    public static Printer createErrorPrinter(Writer auditReport, String error) {
         return new ErrorInfoPrinter(auditReport, error);
     }
 
-    public static Optional<Printer> createActionPrinter(Path auditReport, SystemLicenseAction licenseAction) {
+    public static Optional<Printer> createActionPrinter(Writer auditReport, SystemLicenseAction licenseAction) {
         switch (licenseAction.getActionType()) {
             case ACCEPTED:
                 if (licenseAction.getLicenseType() == Constants.PaidLicense.FAIR_SOURCE_LICENSE) {
@@ -132,7 +130,7 @@ public abstract class Printer {
         return Optional.empty();
     }
 
-    public static DelimiterPrinter createDelimiterPrinter(Path auditReport, String title) {
+    public static DelimiterPrinter createDelimiterPrinter(Writer auditReport, String title) {
         return new DelimiterPrinter(auditReport, title);
     }
 }
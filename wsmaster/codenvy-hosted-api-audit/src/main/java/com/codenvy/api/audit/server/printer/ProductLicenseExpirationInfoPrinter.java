@@ -17,7 +17,7 @@ package com.codenvy.api.audit.server.printer;
 import com.codenvy.api.license.shared.model.SystemLicenseAction;
 import org.eclipse.che.api.core.ServerException;
 
-import java.nio.file.Path;
+import java.io.Writer;
 
 import static java.lang.String.format;
 
@@ -31,7 +31,7 @@ public class ProductLicenseExpirationInfoPrinter extends Printer {
 
     private SystemLicenseAction licenseAction;
 
-    public ProductLicenseExpirationInfoPrinter(Path auditReport, SystemLicenseAction licenseAction) {
+    public ProductLicenseExpirationInfoPrinter(Writer auditReport, SystemLicenseAction licenseAction) {
         super(auditReport);
 
         this.licenseAction = licenseAction;
@@ -18,7 +18,7 @@ import com.codenvy.api.license.SystemLicense;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.commons.annotation.Nullable;
 
-import java.nio.file.Path;
+import java.io.Writer;
 import java.text.SimpleDateFormat;
 import java.util.Locale;
 
@@ -35,7 +35,7 @@ public class SystemInfoPrinter extends Printer {
     private long allUsersNumber;
     private SystemLicense license;
 
-    public SystemInfoPrinter(Path auditReport, long allUsersNumber, @Nullable SystemLicense license) {
+    public SystemInfoPrinter(Writer auditReport, long allUsersNumber, @Nullable SystemLicense license) {
         super(auditReport);
 
         this.allUsersNumber = allUsersNumber;
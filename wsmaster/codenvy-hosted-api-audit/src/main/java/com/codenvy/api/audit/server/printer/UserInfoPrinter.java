@@ -19,7 +19,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.user.server.model.impl.UserImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 
-import java.nio.file.Path;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 
@@ -49,7 +49,7 @@ public class UserInfoPrinter extends Printer {
 
     /**
      * @param auditReport
-     *         file of audit report
+     *         writer of the audit report
      * @param user
      *         information about user collected in {@link UserImpl} object
      * @param workspaces
@@ -57,7 +57,7 @@ public class UserInfoPrinter extends Printer {
      * @param wsPermissions
      *         map of permissions to workspaces
      */
-    public UserInfoPrinter(Path auditReport,
+    public UserInfoPrinter(Writer auditReport,
                            UserImpl user,
                            List<WorkspaceImpl> workspaces,
                            Map<String, AbstractPermissions> wsPermissions) {
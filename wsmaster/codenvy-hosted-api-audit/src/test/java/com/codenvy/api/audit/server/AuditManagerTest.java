@@ -19,8 +19,9 @@ import com.codenvy.api.license.exception.SystemLicenseException;
 import com.codenvy.api.license.server.SystemLicenseActionHandler;
 import com.codenvy.api.license.server.SystemLicenseManager;
 import com.codenvy.api.license.shared.model.SystemLicenseAction;
-import com.codenvy.api.permission.server.PermissionsManager;
-import com.codenvy.api.permission.server.model.impl.AbstractPermissions;
+import com.codenvy.api.workspace.server.model.impl.WorkerImpl;
+import com.codenvy.api.workspace.server.spi.WorkerDao;
+import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
@@ -31,12 +32,11 @@ import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
-import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
-import java.nio.file.Path;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.GregorianCalendar;
@@ -48,17 +48,18 @@ import static com.codenvy.api.license.shared.model.Constants.Action.EXPIRED;
 import static com.codenvy.api.license.shared.model.Constants.Action.REMOVED;
 import static com.codenvy.api.license.shared.model.Constants.PaidLicense.FAIR_SOURCE_LICENSE;
 import static com.codenvy.api.license.shared.model.Constants.PaidLicense.PRODUCT_LICENSE;
-import static java.nio.file.Files.createTempFile;
 import static java.util.Arrays.asList;
 import static java.util.Calendar.JANUARY;
 import static java.util.Calendar.MARCH;
 import static java.util.Collections.singletonList;
-import static org.apache.commons.io.FileUtils.readFileToString;
-import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
 
 /**
  * Tests for {@link AuditManager}.
@@ -68,14 +69,14 @@ import static org.testng.Assert.assertEquals;
 @Listeners(value = MockitoTestNGListener.class)
 public class AuditManagerTest {
 
-    private Path auditReport;
+    private StringWriter auditReport;
 
     @Mock
     private UserManager                userManager;
     @Mock
     private WorkspaceManager           workspaceManager;
     @Mock
-    private PermissionsManager         permissionsManager;
+    private WorkerDao                  workerDao;
     @Mock
     private SystemLicenseManager       licenseManager;
     @Mock
@@ -85,6 +86,9 @@ public class AuditManagerTest {
     @Mock
     private WorkspaceImpl              workspace2;
 
+    private UserImpl user1;
+    private UserImpl user2;
+
     private AuditManager auditManager;
     public static final SystemLicenseAction ADD_PRODUCT_LICENSE_ACTION    = mock(SystemLicenseAction.class);
     public static final SystemLicenseAction EXPIRE_PRODUCT_LICENSE_ACTION = mock(SystemLicenseAction.class);
@@ -93,10 +97,10 @@ public class AuditManagerTest {
 
     @BeforeMethod
     public void setUp() throws Exception {
-        auditReport = createTempFile("report", ".txt");
+        auditReport = new StringWriter();
 
         auditManager =
-            new AuditManager(userManager, workspaceManager, permissionsManager, licenseManager, systemLicenseActionHandler);
+            new AuditManager(userManager, workspaceManager, workerDao, licenseManager, systemLicenseActionHandler);
 
         //License
         SystemLicense license = mock(SystemLicense.class);
@@ -105,8 +109,8 @@ public class AuditManagerTest {
         when(licenseManager.load()).thenReturn(license);
 
         //User
-        UserImpl user1 = mock(UserImpl.class);
-        UserImpl user2 = mock(UserImpl.class);
+        user1 = mock(UserImpl.class);
+        user2 = mock(UserImpl.class);
         when(user1.getEmail()).thenReturn("user@email.com");
         when(user2.getEmail()).thenReturn("user2@email.com");
         when(user1.getId()).thenReturn("User1Id");
@@ -128,27 +132,15 @@ public class AuditManagerTest {
         when(workspaceManager.getWorkspaces(eq("User1Id"), eq(false))).thenReturn(asList(workspace1, workspace2));
         when(workspaceManager.getWorkspaces(eq("User2Id"), eq(false))).thenReturn(singletonList(workspace2));
         //Permissions
-        AbstractPermissions ws1User1Permissions = mock(AbstractPermissions.class);
-        AbstractPermissions ws2User1Permissions = mock(AbstractPermissions.class);
-        AbstractPermissions ws2User2Permissions = mock(AbstractPermissions.class);
-        when(ws1User1Permissions.getUserId()).thenReturn("User1Id");
-        when(ws2User1Permissions.getUserId()).thenReturn("User1Id");
-        when(ws2User2Permissions.getUserId()).thenReturn("User2Id");
-        when(ws1User1Permissions.getActions()).thenReturn(asList("read", "use", "run", "configure", "setPermissions", "delete"));
-        when(ws2User1Permissions.getActions()).thenReturn(asList("read", "use", "run", "configure", "setPermissions"));
-        when(ws2User2Permissions.getActions()).thenReturn(asList("read", "use", "run", "configure", "setPermissions", "delete"));
-        when(ws1User1Permissions.getInstanceId()).thenReturn("Workspace1Id");
-        when(ws2User1Permissions.getInstanceId()).thenReturn("Workspace2Id");
-        when(ws2User2Permissions.getInstanceId()).thenReturn("Workspace2Id");
-        when(permissionsManager.get(eq("User1Id"), anyString(), eq("Workspace1Id"))).thenReturn(ws1User1Permissions);
-        when(permissionsManager.get(eq("User1Id"), anyString(), eq("Workspace2Id"))).thenReturn(ws2User1Permissions);
-        when(permissionsManager.get(eq("User2Id"), anyString(), eq("Workspace2Id"))).thenReturn(ws2User2Permissions);
+        when(workerDao.getWorkersByUsers(anyCollectionOf(String.class))).thenReturn(
+                asList(new WorkerImpl("Workspace1Id", "User1Id", asList("read", "use", "run", "configure", "setPermissions", "delete")),
+                       new WorkerImpl("Workspace2Id", "User1Id", asList("read", "use", "run", "configure", "setPermissions")),
+                       new WorkerImpl("Workspace2Id", "User2Id", asList("read", "use", "run", "configure", "setPermissions", "delete"))));
         //Page
         Page page = mock(Page.class);
         when(page.getItems()).thenReturn(asList(user1, user2));
         when(page.hasNextPage()).thenReturn(false);
-        when(userManager.getAll(1, 0)).thenReturn(page);
-        when(userManager.getAll(30, 0)).thenReturn(page);
+        when(userManager.getAll(100, 0)).thenReturn(page);
 
         when(userManager.getTotalCount()).thenReturn(2L);
 
@@ -169,11 +161,6 @@ public class AuditManagerTest {
         when(systemLicenseActionHandler.findAction(FAIR_SOURCE_LICENSE, ACCEPTED)).thenReturn(ACCEPT_FAIR_SOURCE_LICENSE_ACTION);
     }
 
-    @AfterMethod
-    public void tearDown() throws Exception {
-        auditManager.deleteReportDirectory(auditReport);
-    }
-
     @Test
     public void shouldReturnFullAuditReport() throws Exception {
         // given
@@ -193,22 +180,22 @@ public class AuditManagerTest {
         when(systemLicenseActionHandler.findAction(PRODUCT_LICENSE, REMOVED)).thenThrow(NotFoundException.class);
 
         //when
-        auditReport = auditManager.generateAuditReport();
+        auditManager.generateAuditReport(auditReport);
 
         //then
-        assertEquals(readFileToString(auditReport.toFile()), "2016 Mar 03 - 22:15:00: Fair Source license was accepted.\n"
-                                                             + "2016 Mar 04 - 22:15:00: admin@codenvy.com added paid license 1234.\n"
-                                                             + "2016 Mar 05 - 22:15:00: Paid license 1234 expired. System returned to previously accepted Fair Source license.\n" 
-                                                             + "\n"
-                                                             + "--- CURRENT STATE ---\n"
-                                                             + "Number of users: 2\n"
-                                                             + "Number of licensed seats: 15\n"
-                                                             + "License expiration: 01 January 2016\n"
-                                                             + "user@email.com is owner of 1 workspace and has permissions in 2 workspaces\n"
-                                                             + "   └ Workspace1Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n"
-                                                             + "   └ Workspace2Name, is owner: false, permissions: [read, use, run, configure, setPermissions]\n"
-                                                             + "user2@email.com is owner of 1 workspace and has permissions in 1 workspace\n"
-                                                             + "   └ Workspace2Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n");
+        assertEquals(auditReport.toString(), "2016 Mar 03 - 22:15:00: Fair Source license was accepted.\n"
+                                             + "2016 Mar 04 - 22:15:00: admin@codenvy.com added paid license 1234.\n"
+                                             + "2016 Mar 05 - 22:15:00: Paid license 1234 expired. System returned to previously accepted Fair Source license.\n" 
+                                             + "\n"
+                                             + "--- CURRENT STATE ---\n"
+                                             + "Number of users: 2\n"
+                                             + "Number of licensed seats: 15\n"
+                                             + "License expiration: 01 January 2016\n"
+                                             + "user@email.com is owner of 1 workspace and has permissions in 2 workspaces\n"
+                                             + "   └ Workspace1Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n"
+                                             + "   └ Workspace2Name, is owner: false, permissions: [read, use, run, configure, setPermissions]\n"
+                                             + "user2@email.com is owner of 1 workspace and has permissions in 1 workspace\n"
+                                             + "   └ Workspace2Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n");
     }
 
     @Test
@@ -237,23 +224,23 @@ public class AuditManagerTest {
         when(systemLicenseActionHandler.findAction(PRODUCT_LICENSE, EXPIRED)).thenThrow(NotFoundException.class);
 
         //when
-        auditReport = auditManager.generateAuditReport();
+        auditManager.generateAuditReport(auditReport);
 
         //then
-        assertEquals(readFileToString(auditReport.toFile()), "2016 Mar 03 - 22:15:00: Fair Source license was accepted.\n"
-                                                             + "2016 Mar 04 - 22:15:00: Paid license 1234 removed. System returned to previously accepted Fair Source license.\n"
-                                                             + "2016 Mar 05 - 22:15:00: admin@codenvy.com added paid license 5678.\n"
-                                                             + "\n"
-                                                             + "--- CURRENT STATE ---\n"
-                                                             + "Number of users: 2\n"
-                                                             + "Number of licensed seats: 15\n"
-                                                             + "License expiration: 01 January 2016\n"
-                                                             + "user@email.com is owner of 0 workspaces and has permissions in 2 workspaces\n"
-                                                             + "   └ Workspace1Name, is owner: false, permissions: [read, use, run, configure, setPermissions, delete]\n"
-                                                             + "   └ Workspace2Name, is owner: false, permissions: [read, use, run, configure, setPermissions]\n"
-                                                             + "user2@email.com is owner of 2 workspaces and has permissions in 1 workspace\n"
-                                                             + "   └ Workspace1Name, is owner: true, permissions: []\n"
-                                                             + "   └ Workspace2Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n");
+        assertEquals(auditReport.toString(), "2016 Mar 03 - 22:15:00: Fair Source license was accepted.\n"
+                                             + "2016 Mar 04 - 22:15:00: Paid license 1234 removed. System returned to previously accepted Fair Source license.\n"
+                                             + "2016 Mar 05 - 22:15:00: admin@codenvy.com added paid license 5678.\n"
+                                             + "\n"
+                                             + "--- CURRENT STATE ---\n"
+                                             + "Number of users: 2\n"
+                                             + "Number of licensed seats: 15\n"
+                                             + "License expiration: 01 January 2016\n"
+                                             + "user@email.com is owner of 0 workspaces and has permissions in 2 workspaces\n"
+                                             + "   └ Workspace1Name, is owner: false, permissions: [read, use, run, configure, setPermissions, delete]\n"
+                                             + "   └ Workspace2Name, is owner: false, permissions: [read, use, run, configure, setPermissions]\n"
+                                             + "user2@email.com is owner of 2 workspaces and has permissions in 1 workspace\n"
+                                             + "   └ Workspace1Name, is owner: true, permissions: []\n"
+                                             + "   └ Workspace2Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n");
     }
 
     @Test
@@ -267,18 +254,18 @@ public class AuditManagerTest {
         when(systemLicenseActionHandler.findAction(PRODUCT_LICENSE, REMOVED)).thenThrow(NotFoundException.class);
 
         //when
-        auditReport = auditManager.generateAuditReport();
+        auditManager.generateAuditReport(auditReport);
 
         //then
-        assertEquals(readFileToString(auditReport.toFile()), "\n"
-                                                             + "--- CURRENT STATE ---\n" 
-                                                             + "Number of users: 2\n"
-                                                             + "[ERROR] Failed to retrieve license!\n"
-                                                             + "user@email.com is owner of 1 workspace and has permissions in 2 workspaces\n"
-                                                             + "   └ Workspace1Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n"
-                                                             + "   └ Workspace2Name, is owner: false, permissions: [read, use, run, configure, setPermissions]\n"
-                                                             + "user2@email.com is owner of 1 workspace and has permissions in 1 workspace\n"
-                                                             + "   └ Workspace2Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n");
+        assertEquals(auditReport.toString(), "\n"
+                                             + "--- CURRENT STATE ---\n" 
+                                             + "Number of users: 2\n"
+                                             + "[ERROR] Failed to retrieve license!\n"
+                                             + "user@email.com is owner of 1 workspace and has permissions in 2 workspaces\n"
+                                             + "   └ Workspace1Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n"
+                                             + "   └ Workspace2Name, is owner: false, permissions: [read, use, run, configure, setPermissions]\n"
+                                             + "user2@email.com is owner of 1 workspace and has permissions in 1 workspace\n"
+                                             + "   └ Workspace2Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n");
     }
 
     @Test
@@ -299,18 +286,87 @@ public class AuditManagerTest {
         when(workspaceManager.getWorkspaces(eq("User1Id"), eq(false))).thenThrow(new ServerException("Failed to retrieve workspaces"));
 
         //when
-        auditReport = auditManager.generateAuditReport();
+        auditManager.generateAuditReport(auditReport);
+
+        //then
+        assertEquals(auditReport.toString(), "2016 Mar 03 - 22:15:00: Fair Source license was accepted.\n"
+                                             + "2016 Mar 04 - 22:15:00: admin@codenvy.com added paid license 1234.\n"
+                                             + "\n"
+                                             + "--- CURRENT STATE ---\n"
+                                             + "Number of users: 2\n"
+                                             + "Number of licensed seats: 15\n"
+                                             + "License expiration: 01 January 2016\n"
+                                             + "[ERROR] Failed to retrieve the list of related workspaces for user User1Id!\n"
+                                             + "user2@email.com is owner of 1 workspace and has permissions in 1 workspace\n"
+                                             + "   └ Workspace2Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n");
+    }
+
+    @Test
+    public void shouldPrintUsersOfAllThePagesInOrderAndFetchWorkersOncePerPage() throws Exception {
+        //given
+        when(systemLicenseActionHandler.findAction(FAIR_SOURCE_LICENSE, ACCEPTED)).thenThrow(NotFoundException.class);
+        when(systemLicenseActionHandler.findAction(PRODUCT_LICENSE, ADDED)).thenThrow(NotFoundException.class);
+        when(systemLicenseActionHandler.findAction(PRODUCT_LICENSE, EXPIRED)).thenThrow(NotFoundException.class);
+        when(systemLicenseActionHandler.findAction(PRODUCT_LICENSE, REMOVED)).thenThrow(NotFoundException.class);
+
+        when(userManager.getAll(100, 0)).thenReturn(new Page<>(singletonList(user2), 0, 1, 2));
+        when(userManager.getAll(1, 1)).thenReturn(new Page<>(singletonList(user1), 1, 1, 2));
+
+        //when
+        auditManager.generateAuditReport(auditReport);
+
+        //then
+        assertEquals(auditReport.toString(), "\n"
+                                             + "--- CURRENT STATE ---\n"
+                                             + "Number of users: 2\n"
+                                             + "Number of licensed seats: 15\n"
+                                             + "License expiration: 01 January 2016\n"
+                                             + "user2@email.com is owner of 1 workspace and has permissions in 1 workspace\n"
+                                             + "   └ Workspace2Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n"
+                                             + "user@email.com is owner of 1 workspace and has permissions in 2 workspaces\n"
+                                             + "   └ Workspace1Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n"
+                                             + "   └ Workspace2Name, is owner: false, permissions: [read, use, run, configure, setPermissions]\n");
+        verify(workerDao, times(2)).getWorkersByUsers(anyCollectionOf(String.class));
+    }
+
+    @Test
+    public void shouldPrintErrorIntoAuditReportWhenGeneratingFails() throws Exception {
+        //given
+        when(systemLicenseActionHandler.findAction(FAIR_SOURCE_LICENSE, ACCEPTED)).thenThrow(NotFoundException.class);
+        when(systemLicenseActionHandler.findAction(PRODUCT_LICENSE, ADDED)).thenThrow(NotFoundException.class);
+        when(systemLicenseActionHandler.findAction(PRODUCT_LICENSE, EXPIRED)).thenThrow(NotFoundException.class);
+        when(systemLicenseActionHandler.findAction(PRODUCT_LICENSE, REMOVED)).thenThrow(NotFoundException.class);
+
+        when(userManager.getAll(100, 0)).thenThrow(new ServerException("Failed to retrieve users"));
+
+        //when
+        try {
+            auditManager.generateAuditReport(auditReport);
+            fail("ServerException expected");
+        } catch (ServerException ignored) {
+        }
 
         //then
-        assertEquals(readFileToString(auditReport.toFile()), "2016 Mar 03 - 22:15:00: Fair Source license was accepted.\n"
-                                                             + "2016 Mar 04 - 22:15:00: admin@codenvy.com added paid license 1234.\n"
-                                                             + "\n"
-                                                             + "--- CURRENT STATE ---\n"
-                                                             + "Number of users: 2\n"
-                                                             + "Number of licensed seats: 15\n"
-                                                             + "License expiration: 01 January 2016\n"
-                                                             + "[ERROR] Failed to retrieve the list of related workspaces for user User1Id!\n"
-                                                             + "user2@email.com is owner of 1 workspace and has permissions in 1 workspace\n"
-                                                             + "   └ Workspace2Name, is owner: true, permissions: [read, use, run, configure, setPermissions, delete]\n");
+        assertEquals(auditReport.toString(), "\n"
+                                             + "--- CURRENT STATE ---\n"
+                                             + "Number of users: 2\n"
+                                             + "Number of licensed seats: 15\n"
+                                             + "License expiration: 01 January 2016\n"
+                                             + "[ERROR] Failed to generate audit report. The report is incomplete. Failed to retrieve users!\n");
+    }
+
+    @Test(expectedExceptions = ConflictException.class)
+    public void shouldNotStartGeneratingReportWhenItIsAlreadyInProgress() throws Exception {
+        auditManager.startReportGeneration();
+
+        auditManager.generateAuditReport(auditReport);
+    }
+
+    @Test
+    public void shouldStartGeneratingReportAgainWhenPreviousOneIsFinished() throws Exception {
+        auditManager.startReportGeneration();
+        auditManager.finishReportGeneration();
+
+        auditManager.startReportGeneration();
     }
 }
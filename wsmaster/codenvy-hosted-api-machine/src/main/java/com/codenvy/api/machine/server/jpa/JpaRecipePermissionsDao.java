@@ -16,6 +16,7 @@ package com.codenvy.api.machine.server.jpa;
 
 import com.codenvy.api.machine.server.recipe.RecipePermissionsImpl;
 import com.codenvy.api.permission.server.AbstractPermissionsDomain;
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
 import com.codenvy.api.permission.server.jpa.AbstractJpaPermissionsDao;
 import com.google.inject.persist.Transactional;
 
@@ -65,6 +66,25 @@ public class JpaRecipePermissionsDao extends AbstractJpaPermissionsDao<RecipePer
         }
     }
 
+    @Override
+    @Transactional
+    public List<RecipePermissionsImpl> getWithWildcard(String userId, String instanceId) throws ServerException {
+        requireNonNull(instanceId, "Recipe identifier required");
+        requireNonNull(userId, "User identifier required");
+        try {
+            return managerProvider.get()
+                                  .createNamedQuery("RecipePermissions.getByUserAndRecipeIdWithPublic", RecipePermissionsImpl.class)
+                                  .setParameter("recipeId", instanceId)
+                                  .setParameter("userId", wildcardToNull(userId))
+                                  .getResultList()
+                                  .stream()
+                                  .map(RecipePermissionsImpl::new)
+                                  .collect(toList());
+        } catch (RuntimeException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+    }
+
     @Override
     public List<RecipePermissionsImpl> getByUser(String userId) throws ServerException {
         requireNonNull(userId, "User identifier required");
@@ -108,6 +128,48 @@ public class JpaRecipePermissionsDao extends AbstractJpaPermissionsDao<RecipePer
         }
     }
 
+    @Override
+    protected long doGetCountByInstanceAndAction(String instanceId, String action, String excludedUserId) {
+        return managerProvider.get()
+                              .createNamedQuery("RecipePermissions.getCountByRecipeIdAndAction", Long.class)
+                              .setParameter("recipeId", instanceId)
+                              .setParameter("action", action)
+                              .setParameter("excludedUserId", excludedUserId)
+                              .getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    protected List<RecipePermissionsImpl> doRemoveByInstance(String instanceId) {
+        final EntityManager manager = managerProvider.get();
+        final List<RecipePermissionsImpl> removed = manager.createNamedQuery("RecipePermissions.getByRecipeId", RecipePermissionsImpl.class)
+                                                           .setParameter("recipeId", instanceId)
+                                                           .getResultList()
+                                                           .stream()
+                                                           .map(RecipePermissionsImpl::new)
+                                                           .collect(toList());
+        manager.createNamedQuery("RecipePermissions.removeByRecipeId")
+               .setParameter("recipeId", instanceId)
+               .executeUpdate();
+        return removed;
+    }
+
+    @Override
+    @Transactional
+    protected List<RecipePermissionsImpl> doRemoveByUser(String userId) {
+        final EntityManager manager = managerProvider.get();
+        final List<RecipePermissionsImpl> removed = manager.createNamedQuery("RecipePermissions.getByUserId", RecipePermissionsImpl.class)
+                                                           .setParameter("userId", userId)
+                                                           .getResultList()
+                                                           .stream()
+                                                           .map(RecipePermissionsImpl::new)
+                                                           .collect(toList());
+        manager.createNamedQuery("RecipePermissions.removeByUserId")
+               .setParameter("userId", userId)
+               .executeUpdate();
+        return removed;
+    }
+
     @Transactional
     protected RecipePermissionsImpl doGet(String userId, String instanceId) {
         userId = wildcardToNull(userId);
@@ -128,6 +190,11 @@ public class JpaRecipePermissionsDao extends AbstractJpaPermissionsDao<RecipePer
     @Transactional
     protected List<RecipePermissionsImpl> doGetByUser(@Nullable String userId) throws ServerException {
         try {
+            if (userId == null) {
+                return managerProvider.get()
+                                      .createNamedQuery("RecipePermissions.getPublic", RecipePermissionsImpl.class)
+                                      .getResultList();
+            }
             return managerProvider.get()
                                   .createNamedQuery("RecipePermissions.getByUserId", RecipePermissionsImpl.class)
                                   .setParameter("userId", userId)
@@ -140,8 +207,6 @@ public class JpaRecipePermissionsDao extends AbstractJpaPermissionsDao<RecipePer
     @Singleton
     public static class RemovePermissionsBeforeRecipeRemovedEventSubscriber
             extends CascadeEventSubscriber<BeforeRecipeRemovedEvent> {
-        private static final int PAGE_SIZE = 100;
-
         @Inject
         private EventService            eventService;
         @Inject
@@ -159,18 +224,14 @@ public class JpaRecipePermissionsDao extends AbstractJpaPermissionsDao<RecipePer
 
         @Override
         public void onCascadeEvent(BeforeRecipeRemovedEvent event) throws Exception {
-            removeRecipePermissions(event.getRecipe().getId(), PAGE_SIZE);
+            removeRecipePermissions(event.getRecipe().getId());
         }
 
-        public void removeRecipePermissions(String recipeId, int pageSize) throws ServerException, NotFoundException {
-            Page<RecipePermissionsImpl> recipePermissionsPage;
-            do {
-                // skip count always equals to 0 because elements will be shifted after removing previous items
-                recipePermissionsPage = dao.getByInstance(recipeId, pageSize, 0);
-                for (RecipePermissionsImpl permissions : recipePermissionsPage.getItems()) {
-                    dao.remove(permissions.getUserId(), permissions.getInstanceId());
-                }
-            } while (recipePermissionsPage.hasNextPage());
+        public void removeRecipePermissions(String recipeId) throws ServerException {
+            final List<RecipePermissionsImpl> removed = dao.removeByInstance(recipeId);
+            if (!removed.isEmpty()) {
+                eventService.publish(new BulkPermissionsRemovedEvent(removed));
+            }
         }
     }
 }
@@ -46,6 +46,17 @@ import java.util.List;
                             query = "SELECT COUNT(recipePermission) " +
                                     "FROM RecipePermissions recipePermission " +
                                     "WHERE recipePermission.recipeId = :recipeId "),
+                @NamedQuery(name = "RecipePermissions.getCountByRecipeIdAndAction",
+                            query = "SELECT COUNT(recipePermission) " +
+                                    "FROM RecipePermissions recipePermission " +
+                                    "JOIN recipePermission.actions recipeAction " +
+                                    "WHERE recipePermission.recipeId = :recipeId " +
+                                    "AND recipeAction = :action " +
+                                    "AND COALESCE(recipePermission.userId, '*') <> :excludedUserId "),
+                @NamedQuery(name = "RecipePermissions.getPublic",
+                            query = "SELECT recipePermission " +
+                                    "FROM RecipePermissions recipePermission " +
+                                    "WHERE recipePermission.userId IS NULL "),
                 @NamedQuery(name = "RecipePermissions.getByUserId",
                             query = "SELECT recipePermission " +
                                     "FROM RecipePermissions recipePermission " +
@@ -59,7 +70,18 @@ import java.util.List;
                             query = "SELECT recipePermission " +
                                     "FROM RecipePermissions recipePermission " +
                                     "WHERE recipePermission.recipeId = :recipeId " +
-                                    "AND recipePermission.userId IS NULL ")
+                                    "AND recipePermission.userId IS NULL "),
+                @NamedQuery(name = "RecipePermissions.getByUserAndRecipeIdWithPublic",
+                            query = "SELECT recipePermission " +
+                                    "FROM RecipePermissions recipePermission " +
+                                    "WHERE recipePermission.recipeId = :recipeId " +
+                                    "AND (recipePermission.userId = :userId OR recipePermission.userId IS NULL) "),
+                @NamedQuery(name = "RecipePermissions.removeByRecipeId",
+                            query = "DELETE FROM RecipePermissions recipePermission " +
+                                    "WHERE recipePermission.recipeId = :recipeId "),
+                @NamedQuery(name = "RecipePermissions.removeByUserId",
+                            query = "DELETE FROM RecipePermissions recipePermission " +
+                                    "WHERE recipePermission.userId = :userId ")
         }
 )
 @Table(name = "recipepermissions")
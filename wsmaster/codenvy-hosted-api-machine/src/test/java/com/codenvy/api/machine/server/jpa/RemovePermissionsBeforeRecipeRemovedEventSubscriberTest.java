@@ -16,11 +16,14 @@ package com.codenvy.api.machine.server.jpa;
 
 import com.codenvy.api.machine.server.jpa.JpaRecipePermissionsDao.RemovePermissionsBeforeRecipeRemovedEventSubscriber;
 import com.codenvy.api.machine.server.recipe.RecipePermissionsImpl;
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.persist.jpa.JpaPersistModule;
 
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.machine.server.jpa.JpaRecipeDao;
 import org.eclipse.che.api.machine.server.recipe.RecipeImpl;
 import org.eclipse.che.api.user.server.model.impl.UserImpl;
@@ -37,7 +40,9 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -59,6 +64,7 @@ public class RemovePermissionsBeforeRecipeRemovedEventSubscriberTest {
     private EntityManager           manager;
     private JpaRecipeDao            recipeDao;
     private JpaRecipePermissionsDao recipePermissionsDao;
+    private EventService            eventService;
 
     private RemovePermissionsBeforeRecipeRemovedEventSubscriber subscriber;
 
@@ -82,6 +88,7 @@ public class RemovePermissionsBeforeRecipeRemovedEventSubscriberTest {
 
         manager = injector.getInstance(EntityManager.class);
         recipeDao = injector.getInstance(JpaRecipeDao.class);
+        eventService = injector.getInstance(EventService.class);
         recipePermissionsDao = injector.getInstance(JpaRecipePermissionsDao.class);
 
         subscriber = injector.getInstance(RemovePermissionsBeforeRecipeRemovedEventSubscriber.class);
@@ -127,10 +134,19 @@ public class RemovePermissionsBeforeRecipeRemovedEventSubscriberTest {
     }
 
     @Test
-    public void shouldRemoveAllRecipePermissionsWhenPageSizeEqualsToOne() throws Exception {
-        subscriber.removeRecipePermissions(recipe.getId(), 1);
+    public void shouldPublishRemovedRecipePermissionsByOneEvent() throws Exception {
+        final List<BulkPermissionsRemovedEvent> events = new ArrayList<>();
+        final EventSubscriber<BulkPermissionsRemovedEvent> listener = events::add;
+        eventService.subscribe(listener, BulkPermissionsRemovedEvent.class);
+        try {
+            subscriber.removeRecipePermissions(recipe.getId());
+        } finally {
+            eventService.unsubscribe(listener, BulkPermissionsRemovedEvent.class);
+        }
 
         assertEquals(recipePermissionsDao.getByInstance(recipe.getId(), 1, 0).getTotalItemsCount(), 0);
+        assertEquals(events.size(), 1);
+        assertEquals(events.get(0).getPermissions().size(), recipePermissions.length);
     }
 
     private static class TestModule extends AbstractModule {
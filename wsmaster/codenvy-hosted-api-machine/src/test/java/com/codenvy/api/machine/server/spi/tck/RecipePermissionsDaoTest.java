@@ -204,6 +204,80 @@ public class RecipePermissionsDaoTest {
         dao.get("user", null);
     }
 
+    /* RecipePermissionsDao.getWithWildcard() tests */
+    @Test
+    public void shouldGetPermissionsOfUserAndPublicPermissions() throws Exception {
+        final RecipePermissionsImpl publicPermissions = new RecipePermissionsImpl("*", "recipe1", singletonList("read"));
+        dao.store(publicPermissions);
+
+        final List<RecipePermissionsImpl> result = dao.getWithWildcard("user", "recipe1");
+
+        assertEquals(result.size(), 2);
+        assertTrue(result.contains(permissions[0]));
+        assertTrue(result.stream().anyMatch(p -> "*".equals(p.getUserId()) && p.getActions().equals(publicPermissions.getActions())));
+    }
+
+    @Test
+    public void shouldRemoveAllPermissionsOfInstance() throws Exception {
+        final List<RecipePermissionsImpl> removed = dao.removeByInstance("recipe1");
+
+        assertEquals(3, removed.size());
+        assertEquals(0, dao.getByInstance("recipe1", 30, 0).getTotalItemsCount());
+        assertEquals(1, dao.getByUser("user2").size());
+    }
+
+    @Test
+    public void shouldRemoveAllPermissionsOfUser() throws Exception {
+        final List<RecipePermissionsImpl> removed = dao.removeByUser("user2");
+
+        assertEquals(2, removed.size());
+        assertTrue(dao.getByUser("user2").isEmpty());
+        assertEquals(2, dao.getByInstance("recipe1", 30, 0).getTotalItemsCount());
+    }
+
+    @Test
+    public void shouldCountPermissionsWithActionOfOtherUsers() throws Exception {
+        assertEquals(1, dao.getCountByInstanceAndAction("recipe1", "run", "user"));
+        assertEquals(0, dao.getCountByInstanceAndAction("recipe1", "configure", "user"));
+    }
+
+    @Test
+    public void shouldCountPublicPermissionsAsPermissionsOfOtherUser() throws Exception {
+        dao.store(new RecipePermissionsImpl("*", "recipe1", singletonList("use")));
+
+        assertEquals(3, dao.getCountByInstanceAndAction("recipe1", "use", "user"));
+        assertEquals(3, dao.getCountByInstanceAndAction("recipe1", "use", "*"));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowExceptionWhenCountExcludedUserIdArgumentIsNull() throws Exception {
+        dao.getCountByInstanceAndAction("recipe1", "use", null);
+    }
+
+    @Test
+    public void shouldGetPublicPermissionsByWildcardUser() throws Exception {
+        final RecipePermissionsImpl publicPermissions = new RecipePermissionsImpl("*", "recipe1", singletonList("read"));
+        dao.store(publicPermissions);
+
+        final List<RecipePermissionsImpl> result = dao.getByUser("*");
+
+        assertEquals(result.size(), 1);
+        assertEquals(result.get(0).getUserId(), "*");
+        assertEquals(result.get(0).getActions(), publicPermissions.getActions());
+    }
+
+    @Test
+    public void shouldGetOnlyPermissionsOfUserWhenThereAreNoPublicPermissions() throws Exception {
+        final List<RecipePermissionsImpl> result = dao.getWithWildcard("user", "recipe1");
+
+        assertEquals(result, singletonList(permissions[0]));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowExceptionWhenGetWithWildcardUserIdArgumentIsNull() throws Exception {
+        dao.getWithWildcard(null, "instance");
+    }
+
     /* RecipePermissionsDao.exists() tests */
     @Test
     public void shouldBeAbleToCheckPermissionExistence() throws Exception {
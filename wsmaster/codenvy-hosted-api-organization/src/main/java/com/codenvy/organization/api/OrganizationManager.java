@@ -14,6 +14,7 @@
  */
 package com.codenvy.organization.api;
 
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
 import com.codenvy.organization.api.event.OrganizationRemovedEvent;
 import com.codenvy.organization.api.event.OrganizationRenamedEvent;
 import com.codenvy.organization.api.permissions.OrganizationDomain;
@@ -43,6 +44,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -259,6 +261,44 @@ public class OrganizationManager {
         return memberDao.getMembers(organizationId, maxItems, skipCount);
     }
 
+    /**
+     * Gets emails of the members of specified organization ordered by email.
+     *
+     * @param organizationId
+     *         organization identifier
+     * @param afterEmail
+     *         the last email of the previous page, empty string for the first page
+     * @param maxItems
+     *         the maximum number of emails to return
+     * @return emails of organization members which are greater than {@code afterEmail}
+     * @throws NullPointerException
+     *         when {@code organizationId} or {@code afterEmail} is null
+     * @throws ServerException
+     *         when any other error occurs during emails fetching
+     * @see MemberDao#getMembersEmails(String, String, int)
+     */
+    public List<String> getMembersEmails(String organizationId, String afterEmail, int maxItems) throws ServerException {
+        requireNonNull(organizationId, "Required non-null organization id");
+        requireNonNull(afterEmail, "Required non-null email");
+        return memberDao.getMembersEmails(organizationId, afterEmail, maxItems);
+    }
+
+    /**
+     * Gets emails of the users with given ids by single query.
+     *
+     * @param userIds
+     *         ids of users
+     * @return emails of the users
+     * @throws NullPointerException
+     *         when {@code userIds} is null
+     * @throws ServerException
+     *         when any other error occurs during emails fetching
+     */
+    public List<String> getUsersEmails(Collection<String> userIds) throws ServerException {
+        requireNonNull(userIds, "Required non-null user ids");
+        return memberDao.getUsersEmails(userIds);
+    }
+
     /**
      * Removes suborganizations of given parent organization page by page
      *
@@ -279,17 +319,11 @@ public class OrganizationManager {
 
     @VisibleForTesting
     List<Member> removeMembers(String organizationId) throws ServerException {
-        List<Member> removed = new ArrayList<>();
-        Page<MemberImpl> membersPage;
-        do {
-            // skip count always equals to 0 because elements will be shifted after removing previous items
-            membersPage = memberDao.getMembers(organizationId, 100, 0);
-            for (MemberImpl member : membersPage.getItems()) {
-                removed.add(member);
-                memberDao.remove(member.getUserId(), member.getOrganizationId());
-            }
-        } while (membersPage.hasNextPage());
-        return removed;
+        final List<MemberImpl> removed = memberDao.removeMembers(organizationId);
+        if (!removed.isEmpty()) {
+            eventService.publish(new BulkPermissionsRemovedEvent(removed));
+        }
+        return new ArrayList<>(removed);
     }
 
     /**
@@ -0,0 +1,32 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.organization.api.event;
+
+/**
+ * Published after resources distributed to suborganization are stored or removed.
+ */
+public class OrganizationResourcesDistributedEvent {
+
+    private final String organizationId;
+
+    public OrganizationResourcesDistributedEvent(String organizationId) {
+        this.organizationId = organizationId;
+    }
+
+    /** Returns id of suborganization which distributed resources are changed. */
+    public String getOrganizationId() {
+        return organizationId;
+    }
+}
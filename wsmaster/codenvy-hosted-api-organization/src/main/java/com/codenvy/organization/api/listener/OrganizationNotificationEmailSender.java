@@ -30,27 +30,28 @@ import com.codenvy.organization.shared.event.OrganizationEvent;
 import com.codenvy.organization.shared.model.Member;
 import com.codenvy.template.processor.html.HTMLTemplateProcessor;
 import com.codenvy.template.processor.html.thymeleaf.ThymeleafTemplate;
+import com.google.common.collect.Lists;
 
-import org.eclipse.che.api.core.NotFoundException;
-import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
-import org.eclipse.che.api.user.server.UserManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import java.io.File;
 import java.io.IOException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 
-import static com.google.common.io.Files.toByteArray;
+import static com.google.common.io.Resources.toByteArray;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.stream.Collectors.toList;
 import static javax.ws.rs.core.MediaType.TEXT_HTML;
 
 /**
@@ -63,17 +64,18 @@ public class OrganizationNotificationEmailSender implements EventSubscriber<Orga
 
     private static final Logger LOG = LoggerFactory.getLogger(OrganizationNotificationEmailSender.class);
 
+    private static final int EMAILS_PAGE_SIZE = 100;
+
     private final String                                   apiEndpoint;
     private final String                                   memberAddedSubject;
     private final String                                   memberRemovedSubject;
     private final String                                   teamRenamedSubject;
     private final String                                   teamRemovedSubject;
-    private final Map<String, String>                      logos;
+    private final List<Attachment>                         logos;
     private final String                                   mailFrom;
     private final HTMLTemplateProcessor<ThymeleafTemplate> thymeleaf;
     private final MailSender                               mailSender;
     private final OrganizationManager                      organizationManager;
-    private final UserManager                              userManager;
 
     @Inject
     public OrganizationNotificationEmailSender(@Named("mailsender.application.from.email.address") String mailFrom,
@@ -85,19 +87,17 @@ public class OrganizationNotificationEmailSender implements EventSubscriber<Orga
                                                @Named("codenvy.email.logos") Map<String, String> logos,
                                                HTMLTemplateProcessor<ThymeleafTemplate> thymeleaf,
                                                MailSender mailSender,
-                                               OrganizationManager organizationManager,
-                                               UserManager userManager) {
+                                               OrganizationManager organizationManager) {
         this.mailFrom = mailFrom;
         this.apiEndpoint = apiEndpoint;
         this.memberAddedSubject = memberAddedSubject;
         this.memberRemovedSubject = memberRemovedSubject;
         this.teamRenamedSubject = teamRenamedSubject;
         this.teamRemovedSubject = teamRemovedSubject;
-        this.logos = logos;
+        this.logos = encodeLogos(logos);
         this.mailSender = mailSender;
         this.thymeleaf = thymeleaf;
         this.organizationManager = organizationManager;
-        this.userManager = userManager;
     }
 
     @Inject
@@ -109,23 +109,18 @@ public class OrganizationNotificationEmailSender implements EventSubscriber<Orga
     public void onEvent(OrganizationEvent event) {
         try {
             if (event.getOrganization() != null) {
-                try {
-                    // checks whether personal organization or not
-                    userManager.getByName(event.getOrganization().getName());
-                } catch (NotFoundException ignore) {
-                    switch (event.getType()) {
-                        case MEMBER_ADDED:
-                            send((MemberAddedEvent)event);
-                            break;
-                        case MEMBER_REMOVED:
-                            send((MemberRemovedEvent)event);
-                            break;
-                        case ORGANIZATION_REMOVED:
-                            send((OrganizationRemovedEvent)event);
-                            break;
-                        case ORGANIZATION_RENAMED:
-                            send((OrganizationRenamedEvent)event);
-                    }
+                switch (event.getType()) {
+                    case MEMBER_ADDED:
+                        send((MemberAddedEvent)event);
+                        break;
+                    case MEMBER_REMOVED:
+                        send((MemberRemovedEvent)event);
+                        break;
+                    case ORGANIZATION_REMOVED:
+                        send((OrganizationRemovedEvent)event);
+                        break;
+                    case ORGANIZATION_RENAMED:
+                        send((OrganizationRenamedEvent)event);
                 }
             }
         } catch (Exception ex) {
@@ -139,7 +134,7 @@ public class OrganizationNotificationEmailSender implements EventSubscriber<Orga
         final String initiator = event.getInitiator();
         final String teamLink = apiEndpoint.replace("api", "dashboard/#/team/" + initiator + '/' + teamName);
         final String processed = thymeleaf.process(new MemberAddedTemplate(teamName, teamLink, initiator));
-        send(new EmailBean().withBody(processed).withSubject(memberAddedSubject), emailTo);
+        send(new EmailBean().withBody(processed).withSubject(memberAddedSubject), singletonList(emailTo));
     }
 
     private void send(MemberRemovedEvent event) throws Exception {
@@ -147,52 +142,67 @@ public class OrganizationNotificationEmailSender implements EventSubscriber<Orga
         final String initiator = event.getInitiator();
         final String emailTo = event.getMember().getEmail();
         final String processed = thymeleaf.process(new MemberRemovedTemplate(teamName, initiator));
-        send(new EmailBean().withBody(processed).withSubject(memberRemovedSubject), emailTo);
+        send(new EmailBean().withBody(processed).withSubject(memberRemovedSubject), singletonList(emailTo));
     }
 
     private void send(OrganizationRemovedEvent event) throws Exception {
         final String processed = thymeleaf.process(new OrganizationRemovedTemplate(event.getOrganization()
                                                                                         .getName()));
-        for (Member member : event.getMembers()) {
-            final String emailTo = userManager.getById(member.getUserId()).getEmail();
-            try {
-                send(new EmailBean().withBody(processed).withSubject(teamRemovedSubject), emailTo);
-            } catch (Exception ignore) {
-            }
+        // members are already removed, so their emails are fetched by user ids
+        final List<String> emails = new ArrayList<>(event.getMembers().size());
+        for (List<? extends Member> page : Lists.partition(event.getMembers(), EMAILS_PAGE_SIZE)) {
+            emails.addAll(organizationManager.getUsersEmails(page.stream()
+                                                                 .map(Member::getUserId)
+                                                                 .collect(toList())));
         }
+        send(new EmailBean().withBody(processed).withSubject(teamRemovedSubject), emails);
     }
 
     private void send(OrganizationRenamedEvent event) throws Exception {
         final String processed = thymeleaf.process(new OrganizationRenamedTemplate(event.getOldName(),
                                                                                    event.getNewName()));
-        Page<? extends Member> members;
-        long next = 0;
+        final List<String> emails = new ArrayList<>();
+        List<String> page;
+        String lastEmail = "";
         do {
-            members = organizationManager.getMembers(event.getOrganization().getId(), 100, next);
-            for (Member member : members.getItems()) {
-                final String emailTo = userManager.getById(member.getUserId()).getEmail();
-                try {
-                    send(new EmailBean().withBody(processed).withSubject(teamRenamedSubject), emailTo);
-                } catch (Exception ignore) {
-                }
+            page = organizationManager.getMembersEmails(event.getOrganization().getId(), lastEmail, EMAILS_PAGE_SIZE);
+            if (!page.isEmpty()) {
+                emails.addAll(page);
+                lastEmail = page.get(page.size() - 1);
             }
-            next += 100;
-        } while (members.hasNextPage());
+        } while (page.size() == EMAILS_PAGE_SIZE);
+        send(new EmailBean().withBody(processed).withSubject(teamRenamedSubject), emails);
     }
 
-    private void send(EmailBean emailBean, String mailTo) throws IOException, ServerException {
+    /**
+     * Sends the rendered email to all the recipients,
+     * the email is encoded once and its copies are shared by the recipients.
+     */
+    private void send(EmailBean emailBean, List<String> recipients) throws ServerException {
+        mailSender.sendMailAsync(emailBean.withFrom(mailFrom)
+                                          .withReplyTo(mailFrom)
+                                          .withMimeType(TEXT_HTML)
+                                          .withAttachments(logos),
+                                 recipients);
+    }
+
+    /** Reads and encodes logos once, so they are not read for each sent email. */
+    private List<Attachment> encodeLogos(Map<String, String> logos) {
         final List<Attachment> attachments = new ArrayList<>(logos.size());
         for (Map.Entry<String, String> entry : logos.entrySet()) {
-            final File logo = new File(this.getClass().getResource(entry.getValue()).getPath());
-            final String encoded = Base64.getEncoder().encodeToString(toByteArray(logo));
-            attachments.add(new Attachment().withContent(encoded)
-                                            .withContentId(entry.getKey())
-                                            .withFileName(entry.getKey()));
+            final URL logo = getClass().getResource(entry.getValue());
+            if (logo == null) {
+                LOG.error("Logo '{}' is not found", entry.getValue());
+                continue;
+            }
+            try {
+                attachments.add(new Attachment().withContent(Base64.getEncoder().encodeToString(toByteArray(logo)))
+                                                .withContentId(entry.getKey())
+                                                .withFileName(entry.getKey()));
+            } catch (IOException e) {
+                LOG.error("Failed to read logo '{}'", entry.getValue(), e);
+            }
         }
-        mailSender.sendMail(emailBean.withFrom(mailFrom)
-                                     .withReplyTo(mailFrom)
-                                     .withTo(mailTo)
-                                     .withMimeType(TEXT_HTML)
-                                     .withAttachments(attachments));
+        return unmodifiableList(attachments);
     }
 }
@@ -111,12 +111,12 @@ public class OrganizationResourcesDistributor {
         requireNonNull(resources, "Required non-null resources to distribute");
         checkArgument(!resources.isEmpty(), "Required at least one resource to distribute");
 
-        // locking resources by suborganization should lock resources whole organization tree
-        // so we can check resource availability for suborganization and parent organization
-        // TODO Rework it to using resourcesLocks.acquiresLock(suborganizationId, parentOrganizationId) when it will be implemented
-        try (@SuppressWarnings("unused") Unlocker u = resourcesLocks.acquiresLock(suborganizationId)) {
+        final String parentOrganizationId = getDistributionOrganization(suborganizationId);
+        // resources of suborganization and parent organization are locked together
+        // so we can check resource availability for both of them
+        try (@SuppressWarnings("unused") Unlocker u = resourcesLocks.acquireLock(suborganizationId, parentOrganizationId)) {
             checkResourcesAvailability(suborganizationId,
-                                       getDistributionOrganization(suborganizationId),
+                                       parentOrganizationId,
                                        getDistributedResources(suborganizationId),
                                        resources);
 
@@ -188,9 +188,10 @@ public class OrganizationResourcesDistributor {
                                                     ServerException {
         requireNonNull(organizationId, "Required non-null organization id");
 
-        try (@SuppressWarnings("unused") Unlocker u = resourcesLocks.acquiresLock(organizationId)) {
+        final String parentOrganizationId = getDistributionOrganization(organizationId);
+        try (@SuppressWarnings("unused") Unlocker u = resourcesLocks.acquireLock(organizationId, parentOrganizationId)) {
             checkResourcesAvailability(organizationId,
-                                       getDistributionOrganization(organizationId),
+                                       parentOrganizationId,
                                        getDistributedResources(organizationId),
                                        emptyList());
             organizationDistributedResourcesDao.remove(organizationId);
@@ -0,0 +1,203 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.organization.api.resource;
+
+import com.codenvy.organization.api.event.OrganizationRemovedEvent;
+import com.codenvy.organization.api.event.OrganizationResourcesDistributedEvent;
+import com.codenvy.organization.spi.OrganizationDistributedResourcesDao;
+import com.codenvy.resource.api.ResourceAggregator;
+import com.codenvy.resource.api.exception.NoEnoughResourcesException;
+import com.codenvy.resource.api.usage.ResourceUsageManager;
+import com.codenvy.resource.model.Resource;
+
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Keeps resources of organizations tree nodes, so resources of suborganization
+ * are computed without walking up the whole organizations tree on each request.
+ *
+ * <p>Each node holds resources distributed to organization by its parent and total
+ * resources of organization which are computed once and reused until the tree is invalidated.
+ * Used resources are not kept as they are already tracked by usage trackers,
+ * available resources are computed as the difference between total and used ones.
+ *
+ * <p>Total resources of organization depend on resources distributed to its parent organizations
+ * and suborganizations, so the whole tree is invalidated when resources distribution is changed
+ * or organization is removed. Nodes are also expired after {@code organization.resources.tree.expire_seconds}
+ * to catch up with the changes of licenses.
+ */
+@Singleton
+public class OrganizationResourcesTree {
+    private static final Logger LOG = LoggerFactory.getLogger(OrganizationResourcesTree.class);
+
+    private final Provider<ResourceUsageManager>      usageManagerProvider;
+    private final OrganizationDistributedResourcesDao distributedResourcesDao;
+    private final ResourceAggregator                  resourceAggregator;
+    private final long                                expireMs;
+    private final ConcurrentHashMap<String, Node>     nodes;
+    private final AtomicLong                          version;
+
+    @Inject
+    public OrganizationResourcesTree(Provider<ResourceUsageManager> usageManagerProvider,
+                                     OrganizationDistributedResourcesDao distributedResourcesDao,
+                                     ResourceAggregator resourceAggregator,
+                                     @Named("organization.resources.tree.expire_seconds") long expireSeconds) {
+        this.usageManagerProvider = usageManagerProvider;
+        this.distributedResourcesDao = distributedResourcesDao;
+        this.resourceAggregator = resourceAggregator;
+        this.expireMs = TimeUnit.SECONDS.toMillis(expireSeconds);
+        this.nodes = new ConcurrentHashMap<>();
+        this.version = new AtomicLong();
+    }
+
+    @Inject
+    public void subscribe(EventService eventService) {
+        eventService.subscribe(new DistributionChangedSubscriber());
+        eventService.subscribe(new OrganizationRemovedSubscriber());
+    }
+
+    /**
+     * Returns resources which are distributed to given suborganization by its parent.
+     *
+     * @param organizationId
+     *         organization id
+     * @return distributed resources or empty list when organization doesn't have distributed resources
+     * @throws ServerException
+     *         when any other error occurs
+     */
+    public List<? extends Resource> getDistributedResources(String organizationId) throws ServerException {
+        final Node node = getNode(organizationId);
+        List<? extends Resource> distributed = node.distributed;
+        if (distributed == null) {
+            try {
+                distributed = distributedResourcesDao.get(organizationId).getResources();
+            } catch (NotFoundException e) {
+                distributed = emptyList();
+            }
+            node.distributed = distributed;
+        }
+        return distributed;
+    }
+
+    /**
+     * Returns total resources of given organization.
+     *
+     * @param organizationId
+     *         organization id
+     * @return total resources of organization
+     * @throws NotFoundException
+     *         when organization with specified id was not found
+     * @throws ServerException
+     *         when any other error occurs
+     * @see ResourceUsageManager#getTotalResources(String)
+     */
+    public List<? extends Resource> getTotalResources(String organizationId) throws NotFoundException, ServerException {
+        final Node node = getNode(organizationId);
+        List<? extends Resource> total = node.total;
+        if (total == null) {
+            total = usageManagerProvider.get().getTotalResources(organizationId);
+            node.total = total;
+        }
+        return total;
+    }
+
+    /**
+     * Returns resources which are available for usage by given organization.
+     *
+     * @param organizationId
+     *         organization id
+     * @return available resources of organization
+     * @throws NotFoundException
+     *         when organization with specified id was not found
+     * @throws ServerException
+     *         when any other error occurs
+     * @see ResourceUsageManager#getAvailableResources(String)
+     */
+    public List<? extends Resource> getAvailableResources(String organizationId) throws NotFoundException, ServerException {
+        final List<? extends Resource> total = getTotalResources(organizationId);
+        final ResourceUsageManager usageManager = usageManagerProvider.get();
+        try {
+            return resourceAggregator.deduct(total, usageManager.getUsedResources(organizationId));
+        } catch (NoEnoughResourcesException e) {
+            LOG.debug("Number of used resources of organization '{}' is greater than total one", organizationId);
+            // usage manager skips resources which are used over the total amount
+            return usageManager.getAvailableResources(organizationId);
+        }
+    }
+
+    /** Invalidates all the nodes of the tree. */
+    public void invalidate() {
+        version.incrementAndGet();
+        nodes.clear();
+    }
+
+    private Node getNode(String organizationId) {
+        final long currentVersion = version.get();
+        final long now = System.currentTimeMillis();
+        return nodes.compute(organizationId, (id, node) -> {
+            if (node == null || node.version != currentVersion || node.expiresAt <= now) {
+                return new Node(currentVersion, now + expireMs);
+            }
+            return node;
+        });
+    }
+
+    /**
+     * Node of the organizations tree, resources which are fetched before the node
+     * is replaced by the node of the next version are not visible to the readers of new node.
+     */
+    private static class Node {
+        final long version;
+        final long expiresAt;
+
+        volatile List<? extends Resource> distributed;
+        volatile List<? extends Resource> total;
+
+        Node(long version, long expiresAt) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private class DistributionChangedSubscriber implements EventSubscriber<OrganizationResourcesDistributedEvent> {
+        @Override
+        public void onEvent(OrganizationResourcesDistributedEvent event) {
+            invalidate();
+        }
+    }
+
+    private class OrganizationRemovedSubscriber implements EventSubscriber<OrganizationRemovedEvent> {
+        @Override
+        public void onEvent(OrganizationRemovedEvent event) {
+            invalidate();
+        }
+    }
+}
@@ -18,7 +18,6 @@ import com.codenvy.organization.api.OrganizationManager;
 import com.codenvy.organization.spi.impl.OrganizationImpl;
 import com.codenvy.resource.api.license.ResourcesProvider;
 import com.codenvy.resource.api.type.TimeoutResourceType;
-import com.codenvy.resource.api.usage.ResourceUsageManager;
 import com.codenvy.resource.model.ProvidedResources;
 import com.codenvy.resource.model.Resource;
 import com.codenvy.resource.spi.impl.ProvidedResourcesImpl;
@@ -29,7 +28,6 @@ import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 
 import javax.inject.Inject;
-import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.List;
@@ -51,20 +49,17 @@ import static java.util.Collections.singletonList;
 public class SuborganizationResourcesProvider implements ResourcesProvider {
     public static final String PARENT_RESOURCES_PROVIDER = "parentOrganization";
 
-    private final AccountManager                             accountManager;
-    private final OrganizationManager                        organizationManager;
-    private final Provider<OrganizationResourcesDistributor> distributorProvider;
-    private final Provider<ResourceUsageManager>             usageManagerProvider;
+    private final AccountManager            accountManager;
+    private final OrganizationManager       organizationManager;
+    private final OrganizationResourcesTree resourcesTree;
 
     @Inject
     public SuborganizationResourcesProvider(AccountManager accountManager,
                                             OrganizationManager organizationManager,
-                                            Provider<OrganizationResourcesDistributor> distributorProvider,
-                                            Provider<ResourceUsageManager> usageManagerProvider) {
+                                            OrganizationResourcesTree resourcesTree) {
         this.accountManager = accountManager;
         this.organizationManager = organizationManager;
-        this.distributorProvider = distributorProvider;
-        this.usageManagerProvider = usageManagerProvider;
+        this.resourcesTree = resourcesTree;
     }
 
     @Override
@@ -78,12 +73,13 @@ public class SuborganizationResourcesProvider implements ResourcesProvider {
             final List<Resource> sharedResources = new ArrayList<>();
 
             // given account is suborganization's account and can have resources distributed by parent
-            sharedResources.addAll(distributorProvider.get().get(accountId));
+            sharedResources.addAll(resourcesTree.getDistributedResources(accountId));
 
             Optional<? extends Resource> timeout = findTimeoutResource(sharedResources);
             // is timeout is not distributed suborganization will reuse parent's one
             if (!timeout.isPresent()) {
-                List<? extends Resource> parentResources = usageManagerProvider.get().getAvailableResources(parent);
+                // parent's resources are taken from the tree, so the parent's ancestors are not visited
+                List<? extends Resource> parentResources = resourcesTree.getAvailableResources(parent);
                 findTimeoutResource(parentResources).ifPresent(sharedResources::add);
             }
 
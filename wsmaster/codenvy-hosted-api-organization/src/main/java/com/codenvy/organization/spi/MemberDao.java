@@ -21,6 +21,7 @@ import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -57,6 +58,19 @@ public interface MemberDao {
      */
     void remove(String userId, String organizationId) throws ServerException;
 
+    /**
+     * Removes all members of given organization by single bulk operation
+     *
+     * @param organizationId
+     *         id of organization
+     * @return removed members
+     * @throws NullPointerException
+     *         when {@code organizationId} is null
+     * @throws ServerException
+     *         when any other error occurs during members removing
+     */
+    List<MemberImpl> removeMembers(String organizationId) throws ServerException;
+
     /**
      * Returns member for specified organization and user
      *
@@ -118,4 +132,39 @@ public interface MemberDao {
      *         when any other error occurs during organizations fetching
      */
     Page<OrganizationImpl> getOrganizations(String userId, int maxItems, int skipCount) throws ServerException;
+
+    /**
+     * Returns emails of the members of given organization ordered by email.
+     *
+     * <p>Emails are fetched page by page using the last email of the previous page
+     * as the start of the next one, so fetching of the next page doesn't need
+     * to skip the previous pages.
+     *
+     * @param organizationId
+     *         organization id
+     * @param afterEmail
+     *         the last email of the previous page, empty string for the first page
+     * @param maxItems
+     *         the maximum number of emails to return
+     * @return emails of organization members which are greater than {@code afterEmail}
+     * @throws NullPointerException
+     *         when {@code organizationId} or {@code afterEmail} is null
+     * @throws ServerException
+     *         when any other error occurs during emails fetching
+     */
+    List<String> getMembersEmails(String organizationId, String afterEmail, int maxItems) throws ServerException;
+
+    /**
+     * Returns emails of the users with given ids by single query.
+     * Ids of non-existing users are ignored.
+     *
+     * @param userIds
+     *         ids of users
+     * @return emails of the users
+     * @throws NullPointerException
+     *         when {@code userIds} is null
+     * @throws ServerException
+     *         when any other error occurs during emails fetching
+     */
+    List<String> getUsersEmails(Collection<String> userIds) throws ServerException;
 }
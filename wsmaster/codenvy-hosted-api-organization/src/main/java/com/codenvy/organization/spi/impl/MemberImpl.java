@@ -40,6 +40,15 @@ import java.util.List;
                             query = "SELECT m " +
                                     "FROM Member m " +
                                     "WHERE m.userId = :userId AND m.organizationId = :organizationId"),
+                @NamedQuery(name = "Member.getPublicMember",
+                            query = "SELECT m " +
+                                    "FROM Member m " +
+                                    "WHERE m.userId IS NULL AND m.organizationId = :organizationId"),
+                @NamedQuery(name = "Member.getMemberWithPublic",
+                            query = "SELECT m " +
+                                    "FROM Member m " +
+                                    "WHERE m.organizationId = :organizationId " +
+                                    "AND (m.userId = :userId OR m.userId IS NULL)"),
                 @NamedQuery(name = "Member.getByOrganization",
                             query = "SELECT m " +
                                     "FROM Member m " +
@@ -48,10 +57,21 @@ import java.util.List;
                             query = "SELECT COUNT(m) " +
                                     "FROM Member m " +
                                     "WHERE m.organizationId = :organizationId"),
+                @NamedQuery(name = "Member.getCountByOrganizationIdAndAction",
+                            query = "SELECT COUNT(m) " +
+                                    "FROM Member m " +
+                                    "JOIN m.actions memberAction " +
+                                    "WHERE m.organizationId = :organizationId " +
+                                    "AND memberAction = :action " +
+                                    "AND COALESCE(m.userId, '*') <> :excludedUserId"),
                 @NamedQuery(name = "Member.getByUser",
                             query = "SELECT m " +
                                     "FROM Member m " +
                                     "WHERE m.userId = :userId"),
+                @NamedQuery(name = "Member.getPublic",
+                            query = "SELECT m " +
+                                    "FROM Member m " +
+                                    "WHERE m.userId IS NULL"),
                 @NamedQuery(name = "Member.getOrganizations",
                             query = "SELECT org " +
                                     "FROM Member m, m.organization org " +
@@ -59,6 +79,22 @@ import java.util.List;
                 @NamedQuery(name = "Member.getOrganizationsCount",
                             query = "SELECT COUNT(m) " +
                                     "FROM Member m " +
+                                    "WHERE m.userId = :userId "),
+                @NamedQuery(name = "Member.getEmailsByOrganization",
+                            query = "SELECT u.email " +
+                                    "FROM Member m, m.user u " +
+                                    "WHERE m.organizationId = :organizationId " +
+                                    "AND u.email > :afterEmail " +
+                                    "ORDER BY u.email"),
+                @NamedQuery(name = "Member.getUsersEmails",
+                            query = "SELECT u.email " +
+                                    "FROM Usr u " +
+                                    "WHERE u.id IN :userIds"),
+                @NamedQuery(name = "Member.removeByOrganizationId",
+                            query = "DELETE FROM Member m " +
+                                    "WHERE m.organizationId = :organizationId "),
+                @NamedQuery(name = "Member.removeByUserId",
+                            query = "DELETE FROM Member m " +
                                     "WHERE m.userId = :userId ")
         }
 )
@@ -36,9 +36,11 @@ import javax.inject.Singleton;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -60,14 +62,47 @@ public class JpaMemberDao extends AbstractJpaPermissionsDao<MemberImpl> implemen
         return getMember(instanceId, userId);
     }
 
+    @Override
+    @Transactional
+    public List<MemberImpl> getWithWildcard(String userId, String instanceId) throws ServerException {
+        requireNonNull(instanceId, "Required non-null organization id");
+        requireNonNull(userId, "Required non-null user id");
+        try {
+            return managerProvider.get()
+                                  .createNamedQuery("Member.getMemberWithPublic", MemberImpl.class)
+                                  .setParameter("organizationId", instanceId)
+                                  .setParameter("userId", wildcardToNull(userId))
+                                  .getResultList()
+                                  .stream()
+                                  .map(MemberImpl::new)
+                                  .collect(toList());
+        } catch (RuntimeException e) {
+            throw new ServerException(e.getLocalizedMessage(), e);
+        }
+    }
+
     @Override
     public Page<MemberImpl> getByInstance(String instanceId, int maxItems, long skipCount) throws ServerException {
         return getMembers(instanceId, maxItems, skipCount);
     }
 
     @Override
+    @Transactional
     public List<MemberImpl> getByUser(String userId) throws ServerException {
-        return getMemberships(userId);
+        requireNonNull(userId, "Required non-null user id");
+        if (wildcardToNull(userId) != null) {
+            return getMemberships(userId);
+        }
+        try {
+            return managerProvider.get()
+                                  .createNamedQuery("Member.getPublic", MemberImpl.class)
+                                  .getResultList()
+                                  .stream()
+                                  .map(MemberImpl::new)
+                                  .collect(toList());
+        } catch (RuntimeException e) {
+            throw new ServerException(e.getLocalizedMessage(), e);
+        }
     }
 
     @Override
@@ -75,12 +110,18 @@ public class JpaMemberDao extends AbstractJpaPermissionsDao<MemberImpl> implemen
         requireNonNull(organizationId, "Required non-null organization id");
         requireNonNull(userId, "Required non-null user id");
         try {
-            doRemove(organizationId, userId);
+            doRemove(organizationId, wildcardToNull(userId));
         } catch (RuntimeException e) {
             throw new ServerException(e.getLocalizedMessage(), e);
         }
     }
 
+    @Override
+    public List<MemberImpl> removeMembers(String organizationId) throws ServerException {
+        requireNonNull(organizationId, "Required non-null organization id");
+        return removeByInstance(organizationId);
+    }
+
     @Override
     public MemberImpl getMember(String organizationId, String userId) throws NotFoundException, ServerException {
         requireNonNull(organizationId, "Required non-null organization id");
@@ -154,13 +195,54 @@ public class JpaMemberDao extends AbstractJpaPermissionsDao<MemberImpl> implemen
         }
     }
 
+    @Override
+    @Transactional
+    public List<String> getMembersEmails(String organizationId, String afterEmail, int maxItems) throws ServerException {
+        requireNonNull(organizationId, "Required non-null organization id");
+        requireNonNull(afterEmail, "Required non-null email");
+        try {
+            return managerProvider.get()
+                                  .createNamedQuery("Member.getEmailsByOrganization", String.class)
+                                  .setParameter("organizationId", organizationId)
+                                  .setParameter("afterEmail", afterEmail)
+                                  .setMaxResults(maxItems)
+                                  .getResultList();
+        } catch (RuntimeException e) {
+            throw new ServerException(e.getLocalizedMessage(), e);
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<String> getUsersEmails(Collection<String> userIds) throws ServerException {
+        requireNonNull(userIds, "Required non-null user ids");
+        if (userIds.isEmpty()) {
+            return emptyList();
+        }
+        try {
+            return managerProvider.get()
+                                  .createNamedQuery("Member.getUsersEmails", String.class)
+                                  .setParameter("userIds", userIds)
+                                  .getResultList();
+        } catch (RuntimeException e) {
+            throw new ServerException(e.getLocalizedMessage(), e);
+        }
+    }
+
     @Transactional
     protected void doRemove(String organizationId, String userId) {
         final EntityManager manager = managerProvider.get();
-        List<MemberImpl> members = manager.createNamedQuery("Member.getMember", MemberImpl.class)
-                                          .setParameter("userId", userId)
-                                          .setParameter("organizationId", organizationId)
-                                          .getResultList();
+        final List<MemberImpl> members;
+        if (userId == null) {
+            members = manager.createNamedQuery("Member.getPublicMember", MemberImpl.class)
+                             .setParameter("organizationId", organizationId)
+                             .getResultList();
+        } else {
+            members = manager.createNamedQuery("Member.getMember", MemberImpl.class)
+                             .setParameter("userId", userId)
+                             .setParameter("organizationId", organizationId)
+                             .getResultList();
+        }
         if (!members.isEmpty()) {
             manager.remove(members.get(0));
             manager.flush();
@@ -176,8 +258,56 @@ public class JpaMemberDao extends AbstractJpaPermissionsDao<MemberImpl> implemen
         }
     }
 
+    @Override
+    protected long doGetCountByInstanceAndAction(String instanceId, String action, String excludedUserId) {
+        return managerProvider.get()
+                              .createNamedQuery("Member.getCountByOrganizationIdAndAction", Long.class)
+                              .setParameter("organizationId", instanceId)
+                              .setParameter("action", action)
+                              .setParameter("excludedUserId", excludedUserId)
+                              .getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    protected List<MemberImpl> doRemoveByInstance(String instanceId) {
+        final EntityManager manager = managerProvider.get();
+        final List<MemberImpl> removed = manager.createNamedQuery("Member.getByOrganization", MemberImpl.class)
+                                                .setParameter("organizationId", instanceId)
+                                                .getResultList()
+                                                .stream()
+                                                .map(MemberImpl::new)
+                                                .collect(toList());
+        manager.createNamedQuery("Member.removeByOrganizationId")
+               .setParameter("organizationId", instanceId)
+               .executeUpdate();
+        return removed;
+    }
+
+    @Override
+    @Transactional
+    protected List<MemberImpl> doRemoveByUser(String userId) {
+        final EntityManager manager = managerProvider.get();
+        final List<MemberImpl> removed = manager.createNamedQuery("Member.getByUser", MemberImpl.class)
+                                                .setParameter("userId", userId)
+                                                .getResultList()
+                                                .stream()
+                                                .map(MemberImpl::new)
+                                                .collect(toList());
+        manager.createNamedQuery("Member.removeByUserId")
+               .setParameter("userId", userId)
+               .executeUpdate();
+        return removed;
+    }
+
     @Transactional
     protected MemberImpl doGet(String userId, String instanceId) {
+        if (userId == null) {
+            return managerProvider.get()
+                                  .createNamedQuery("Member.getPublicMember", MemberImpl.class)
+                                  .setParameter("organizationId", instanceId)
+                                  .getSingleResult();
+        }
         return managerProvider.get()
                               .createNamedQuery("Member.getMember", MemberImpl.class)
                               .setParameter("userId", userId)
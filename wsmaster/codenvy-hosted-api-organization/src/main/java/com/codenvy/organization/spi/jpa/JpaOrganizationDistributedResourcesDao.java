@@ -14,6 +14,7 @@
  */
 package com.codenvy.organization.spi.jpa;
 
+import com.codenvy.organization.api.event.OrganizationResourcesDistributedEvent;
 import com.codenvy.organization.spi.OrganizationDistributedResourcesDao;
 import com.codenvy.organization.spi.impl.OrganizationDistributedResourcesImpl;
 import com.google.inject.persist.Transactional;
@@ -21,6 +22,7 @@ import com.google.inject.persist.Transactional;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -41,6 +43,8 @@ import static java.util.Objects.requireNonNull;
 public class JpaOrganizationDistributedResourcesDao implements OrganizationDistributedResourcesDao {
     @Inject
     private Provider<EntityManager> managerProvider;
+    @Inject
+    private EventService            eventService;
 
     @Override
     public void store(OrganizationDistributedResourcesImpl distributedResources) throws ServerException {
@@ -50,6 +54,7 @@ public class JpaOrganizationDistributedResourcesDao implements OrganizationDistr
         } catch (RuntimeException e) {
             throw new ServerException(e.getMessage(), e);
         }
+        eventService.publish(new OrganizationResourcesDistributedEvent(distributedResources.getOrganizationId()));
     }
 
     @Override
@@ -107,6 +112,7 @@ public class JpaOrganizationDistributedResourcesDao implements OrganizationDistr
         } catch (RuntimeException e) {
             throw new ServerException(e.getMessage(), e);
         }
+        eventService.publish(new OrganizationResourcesDistributedEvent(organizationId));
     }
 
     @Transactional
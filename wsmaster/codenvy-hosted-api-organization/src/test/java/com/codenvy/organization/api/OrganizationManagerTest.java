@@ -14,6 +14,7 @@
  */
 package com.codenvy.organization.api;
 
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
 import com.codenvy.organization.api.event.BeforeOrganizationRemovedEvent;
 import com.codenvy.organization.api.event.OrganizationPersistedEvent;
 import com.codenvy.organization.api.event.OrganizationRemovedEvent;
@@ -44,6 +45,7 @@ import org.testng.annotations.Test;
 import java.util.Collections;
 import java.util.List;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
@@ -75,6 +77,8 @@ public class OrganizationManagerTest {
     private ArgumentCaptor<OrganizationPersistedEvent>     persistEventCaptor;
     @Captor
     private ArgumentCaptor<BeforeOrganizationRemovedEvent> removeEventCaptor;
+    @Captor
+    private ArgumentCaptor<BulkPermissionsRemovedEvent>    bulkRemovedEventCaptor;
 
     private static final String USER_NAME = "user-name";
     private static final String USER_ID   = "user-id";
@@ -200,18 +204,17 @@ public class OrganizationManagerTest {
     }
 
     @Test
-    public void shouldRemoveMembersByOrganizationId() throws Exception {
+    public void shouldRemoveMembersByOrganizationIdAndPublishBulkRemovedEvent() throws Exception {
         MemberImpl member1 = new MemberImpl("user1", "org1", singletonList("read"));
         MemberImpl member2 = new MemberImpl("user2", "org1", singletonList("read"));
-        doReturn(new Page<>(singletonList(member1), 0, 1, 2))
-                .doReturn(new Page<>(singletonList(member2), 1, 1, 2))
-                .when(memberDao).getMembers(anyString(), anyInt(), anyInt());
+        doReturn(asList(member1, member2)).when(memberDao).removeMembers("org1");
 
-        manager.removeMembers("org1");
+        final List<Member> removed = manager.removeMembers("org1");
 
-        verify(memberDao, times(2)).getMembers("org1", 100, 0);
-        verify(memberDao).remove("user1", "org1");
-        verify(memberDao).remove("user2", "org1");
+        assertEquals(removed, asList(member1, member2));
+        verify(memberDao, never()).remove(anyString(), anyString());
+        verify(eventService).publish(bulkRemovedEventCaptor.capture());
+        assertEquals(bulkRemovedEventCaptor.getValue().getPermissions(), asList(member1, member2));
     }
 
     @Test
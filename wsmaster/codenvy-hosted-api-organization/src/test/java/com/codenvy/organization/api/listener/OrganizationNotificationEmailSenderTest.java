@@ -0,0 +1,154 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.organization.api.listener;
+
+import com.codenvy.mail.EmailBean;
+import com.codenvy.mail.MailSender;
+import com.codenvy.organization.api.OrganizationManager;
+import com.codenvy.organization.api.event.MemberAddedEvent;
+import com.codenvy.organization.api.event.OrganizationRemovedEvent;
+import com.codenvy.organization.api.event.OrganizationRenamedEvent;
+import com.codenvy.organization.shared.model.Organization;
+import com.codenvy.organization.spi.impl.MemberImpl;
+import com.codenvy.template.processor.html.HTMLTemplateProcessor;
+import com.codenvy.template.processor.html.thymeleaf.ThymeleafTemplate;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.user.User;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link OrganizationNotificationEmailSender}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class OrganizationNotificationEmailSenderTest {
+    private static final String MAIL_FROM = "noreply@codenvy.com";
+
+    @Mock
+    private HTMLTemplateProcessor<ThymeleafTemplate> thymeleaf;
+    @Mock
+    private MailSender                               mailSender;
+    @Mock
+    private OrganizationManager                      organizationManager;
+    @Mock
+    private Organization                             organization;
+
+    @Captor
+    private ArgumentCaptor<EmailBean>    emailCaptor;
+    @Captor
+    private ArgumentCaptor<List<String>> recipientsCaptor;
+
+    private OrganizationNotificationEmailSender emailSender;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        emailSender = new OrganizationNotificationEmailSender(MAIL_FROM,
+                                                              "http://codenvy.com/api",
+                                                              "member added",
+                                                              "member removed",
+                                                              "renamed",
+                                                              "removed",
+                                                              emptyMap(),
+                                                              thymeleaf,
+                                                              mailSender,
+                                                              organizationManager);
+        when(thymeleaf.process(any(ThymeleafTemplate.class))).thenReturn("processed template");
+        when(organization.getId()).thenReturn("org123");
+        when(organization.getName()).thenReturn("org");
+    }
+
+    @Test
+    public void shouldEnqueueEmailAboutAddedMember() throws Exception {
+        final User member = mock(User.class);
+        when(member.getEmail()).thenReturn("member@codenvy.com");
+
+        emailSender.onEvent(new MemberAddedEvent("admin", member, organization));
+
+        verify(mailSender).sendMailAsync(emailCaptor.capture(), recipientsCaptor.capture());
+        verify(mailSender, never()).sendMail(any(EmailBean.class));
+        final EmailBean email = emailCaptor.getValue();
+        assertEquals(email.getFrom(), MAIL_FROM);
+        assertEquals(email.getReplyTo(), MAIL_FROM);
+        assertEquals(email.getSubject(), "member added");
+        assertEquals(email.getBody(), "processed template");
+        assertEquals(recipientsCaptor.getValue(), singletonList("member@codenvy.com"));
+    }
+
+    @Test
+    public void shouldEnqueueSingleEmailForAllMembersOfRenamedOrganization() throws Exception {
+        final List<String> firstPage = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            firstPage.add("member" + i + "@codenvy.com");
+        }
+        when(organizationManager.getMembersEmails("org123", "", 100)).thenReturn(firstPage);
+        when(organizationManager.getMembersEmails("org123", "member99@codenvy.com", 100))
+                .thenReturn(singletonList("other@codenvy.com"));
+
+        emailSender.onEvent(new OrganizationRenamedEvent("admin", "old", "new", organization));
+
+        verify(mailSender).sendMailAsync(emailCaptor.capture(), recipientsCaptor.capture());
+        assertEquals(emailCaptor.getValue().getSubject(), "renamed");
+        final List<String> expected = new ArrayList<>(firstPage);
+        expected.add("other@codenvy.com");
+        assertEquals(recipientsCaptor.getValue(), expected);
+    }
+
+    @Test
+    public void shouldEnqueueEmailForMembersOfRemovedOrganization() throws Exception {
+        when(organizationManager.getUsersEmails(asList("user1", "user2")))
+                .thenReturn(asList("user1@codenvy.com", "user2@codenvy.com"));
+
+        emailSender.onEvent(new OrganizationRemovedEvent("admin",
+                                                         organization,
+                                                         asList(new MemberImpl("user1", "org123", emptyList()),
+                                                                new MemberImpl("user2", "org123", emptyList()))));
+
+        verify(mailSender).sendMailAsync(emailCaptor.capture(), eq(asList("user1@codenvy.com", "user2@codenvy.com")));
+        assertEquals(emailCaptor.getValue().getSubject(), "removed");
+    }
+
+    @Test
+    public void shouldNotRethrowExceptionWhenEmailIsNotEnqueued() throws Exception {
+        final User member = mock(User.class);
+        when(member.getEmail()).thenReturn("member@codenvy.com");
+        doThrow(new ServerException("Mail queue is full")).when(mailSender)
+                                                          .sendMailAsync(any(EmailBean.class), anyListOf(String.class));
+
+        emailSender.onEvent(new MemberAddedEvent("admin", member, organization));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.organization.api.resource;
+
+import com.codenvy.organization.api.event.OrganizationRemovedEvent;
+import com.codenvy.organization.api.event.OrganizationResourcesDistributedEvent;
+import com.codenvy.organization.spi.OrganizationDistributedResourcesDao;
+import com.codenvy.organization.spi.impl.OrganizationDistributedResourcesImpl;
+import com.codenvy.organization.spi.impl.OrganizationImpl;
+import com.codenvy.resource.api.ResourceAggregator;
+import com.codenvy.resource.api.usage.ResourceUsageManager;
+import com.codenvy.resource.model.Resource;
+import com.codenvy.resource.spi.impl.ResourceImpl;
+
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import javax.inject.Provider;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link OrganizationResourcesTree}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class OrganizationResourcesTreeTest {
+    private static final String ORG_ID = "organization123";
+
+    @Mock
+    private Provider<ResourceUsageManager>      usageManagerProvider;
+    @Mock
+    private ResourceUsageManager                usageManager;
+    @Mock
+    private OrganizationDistributedResourcesDao distributedResourcesDao;
+    @Mock
+    private ResourceAggregator                  resourceAggregator;
+
+    private EventService              eventService;
+    private OrganizationResourcesTree resourcesTree;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        when(usageManagerProvider.get()).thenReturn(usageManager);
+        eventService = new EventService();
+        resourcesTree = new OrganizationResourcesTree(usageManagerProvider, distributedResourcesDao, resourceAggregator, 300);
+        resourcesTree.subscribe(eventService);
+    }
+
+    @Test
+    public void shouldComputeTotalResourcesOnlyOnce() throws Exception {
+        final List<ResourceImpl> total = singletonList(createResource(1000));
+        doReturn(total).when(usageManager).getTotalResources(ORG_ID);
+
+        assertEquals(resourcesTree.getTotalResources(ORG_ID), total);
+        assertEquals(resourcesTree.getTotalResources(ORG_ID), total);
+
+        verify(usageManager).getTotalResources(ORG_ID);
+    }
+
+    @Test
+    public void shouldFetchDistributedResourcesOnlyOnce() throws Exception {
+        final OrganizationDistributedResourcesImpl distributed = new OrganizationDistributedResourcesImpl(ORG_ID,
+                                                                                                           singletonList(createResource(500)));
+        when(distributedResourcesDao.get(ORG_ID)).thenReturn(distributed);
+
+        assertEquals(resourcesTree.getDistributedResources(ORG_ID), distributed.getResources());
+        assertEquals(resourcesTree.getDistributedResources(ORG_ID), distributed.getResources());
+
+        verify(distributedResourcesDao).get(ORG_ID);
+    }
+
+    @Test
+    public void shouldReturnEmptyListWhenOrganizationDoesNotHaveDistributedResources() throws Exception {
+        when(distributedResourcesDao.get(ORG_ID)).thenThrow(new NotFoundException("not found"));
+
+        assertTrue(resourcesTree.getDistributedResources(ORG_ID).isEmpty());
+        assertTrue(resourcesTree.getDistributedResources(ORG_ID).isEmpty());
+
+        verify(distributedResourcesDao).get(ORG_ID);
+    }
+
+    @Test
+    public void shouldDeductUsedResourcesFromTotalOnGettingAvailableResources() throws Exception {
+        final List<ResourceImpl> total = singletonList(createResource(1000));
+        final List<ResourceImpl> used = singletonList(createResource(300));
+        final List<ResourceImpl> available = singletonList(createResource(700));
+        doReturn(total).when(usageManager).getTotalResources(ORG_ID);
+        doReturn(used).when(usageManager).getUsedResources(ORG_ID);
+        doReturn(available).when(resourceAggregator).deduct(total, used);
+
+        final List<? extends Resource> result = resourcesTree.getAvailableResources(ORG_ID);
+
+        assertEquals(result, available);
+    }
+
+    @Test
+    public void shouldRecomputeResourcesAfterResourcesDistributionChanged() throws Exception {
+        doReturn(emptyList()).when(usageManager).getTotalResources(anyString());
+        resourcesTree.getTotalResources(ORG_ID);
+
+        eventService.publish(new OrganizationResourcesDistributedEvent("suborganization123"));
+        resourcesTree.getTotalResources(ORG_ID);
+
+        verify(usageManager, times(2)).getTotalResources(ORG_ID);
+    }
+
+    @Test
+    public void shouldRecomputeResourcesAfterOrganizationRemoved() throws Exception {
+        doReturn(emptyList()).when(usageManager).getTotalResources(anyString());
+        resourcesTree.getTotalResources(ORG_ID);
+
+        eventService.publish(new OrganizationRemovedEvent("user123",
+                                                          new OrganizationImpl("suborganization123", "sub", ORG_ID),
+                                                          emptyList()));
+        resourcesTree.getTotalResources(ORG_ID);
+
+        verify(usageManager, times(2)).getTotalResources(ORG_ID);
+    }
+
+    @Test
+    public void shouldRecomputeExpiredResources() throws Exception {
+        resourcesTree = new OrganizationResourcesTree(usageManagerProvider, distributedResourcesDao, resourceAggregator, 0);
+        doReturn(emptyList()).when(usageManager).getTotalResources(anyString());
+
+        resourcesTree.getTotalResources(ORG_ID);
+        resourcesTree.getTotalResources(ORG_ID);
+
+        verify(usageManager, times(2)).getTotalResources(ORG_ID);
+    }
+
+    private ResourceImpl createResource(long amount) {
+        return new ResourceImpl("test", amount, "unit");
+    }
+}
@@ -19,7 +19,6 @@ import com.codenvy.organization.shared.model.Organization;
 import com.codenvy.organization.spi.impl.OrganizationDistributedResourcesImpl;
 import com.codenvy.organization.spi.impl.OrganizationImpl;
 import com.codenvy.resource.api.type.TimeoutResourceType;
-import com.codenvy.resource.api.usage.ResourceUsageManager;
 import com.codenvy.resource.model.ProvidedResources;
 import com.codenvy.resource.spi.impl.ProvidedResourcesImpl;
 import com.codenvy.resource.spi.impl.ResourceImpl;
@@ -32,7 +31,6 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
-import javax.inject.Provider;
 import java.util.List;
 
 import static java.util.Arrays.asList;
@@ -60,17 +58,11 @@ public class SuborganizationResourcesProviderTest {
     private Organization organization;
 
     @Mock
-    private AccountManager                             accountManager;
+    private AccountManager            accountManager;
     @Mock
-    private OrganizationManager                        organizationManager;
+    private OrganizationManager       organizationManager;
     @Mock
-    private OrganizationResourcesDistributor           resourcesDistributor;
-    @Mock
-    private Provider<OrganizationResourcesDistributor> distributorProvider;
-    @Mock
-    private Provider<ResourceUsageManager>             usageManagerProvider;
-    @Mock
-    private ResourceUsageManager                       resourceUsageManager;
+    private OrganizationResourcesTree resourcesTree;
 
     private SuborganizationResourcesProvider suborganizationResourcesProvider;
 
@@ -79,14 +71,9 @@ public class SuborganizationResourcesProviderTest {
         when(accountManager.getById(any())).thenReturn(account);
         when(organizationManager.getById(any())).thenReturn(organization);
 
-        when(distributorProvider.get()).thenReturn(resourcesDistributor);
-
-        when(usageManagerProvider.get()).thenReturn(resourceUsageManager);
-
         suborganizationResourcesProvider = new SuborganizationResourcesProvider(accountManager,
                                                                                 organizationManager,
-                                                                                distributorProvider,
-                                                                                usageManagerProvider);
+                                                                                resourcesTree);
     }
 
     @Test
@@ -131,7 +118,7 @@ public class SuborganizationResourcesProviderTest {
         OrganizationDistributedResourcesImpl distributedResources = new OrganizationDistributedResourcesImpl("organization123",
                                                                                                              asList(testResource,
                                                                                                                     timeoutResource));
-        doReturn(distributedResources.getResources()).when(resourcesDistributor).get(any());
+        doReturn(distributedResources.getResources()).when(resourcesTree).getDistributedResources(any());
 
         //when
         final List<ProvidedResources> providedResources = suborganizationResourcesProvider.getResources("organization123");
@@ -146,8 +133,8 @@ public class SuborganizationResourcesProviderTest {
                                                                          asList(testResource, timeoutResource)));
         verify(accountManager).getById("organization123");
         verify(organizationManager).getById("organization123");
-        verify(resourcesDistributor).get("organization123");
-        verify(resourceUsageManager, never()).getAvailableResources("parentOrg");
+        verify(resourcesTree).getDistributedResources("organization123");
+        verify(resourcesTree, never()).getAvailableResources("parentOrg");
     }
 
     @Test
@@ -155,8 +142,8 @@ public class SuborganizationResourcesProviderTest {
         //given
         when(account.getType()).thenReturn(OrganizationImpl.ORGANIZATIONAL_ACCOUNT);
         when(organization.getParent()).thenReturn("parentOrg");
-        doReturn(emptyList()).when(resourcesDistributor).get(any());
-        doReturn(emptyList()).when(resourceUsageManager).getAvailableResources(anyString());
+        doReturn(emptyList()).when(resourcesTree).getDistributedResources(any());
+        doReturn(emptyList()).when(resourcesTree).getAvailableResources(anyString());
 
         //when
         final List<ProvidedResources> providedResources = suborganizationResourcesProvider.getResources("organization123");
@@ -165,8 +152,8 @@ public class SuborganizationResourcesProviderTest {
         assertTrue(providedResources.isEmpty());
         verify(accountManager).getById("organization123");
         verify(organizationManager).getById("organization123");
-        verify(resourcesDistributor).get("organization123");
-        verify(resourceUsageManager).getAvailableResources("parentOrg");
+        verify(resourcesTree).getDistributedResources("organization123");
+        verify(resourcesTree).getAvailableResources("parentOrg");
     }
 
     @Test
@@ -174,12 +161,12 @@ public class SuborganizationResourcesProviderTest {
         //given
         when(account.getType()).thenReturn(OrganizationImpl.ORGANIZATIONAL_ACCOUNT);
         when(organization.getParent()).thenReturn("parentOrg");
-        doReturn(emptyList()).when(resourcesDistributor).get(any());
+        doReturn(emptyList()).when(resourcesTree).getDistributedResources(any());
         ResourceImpl parentTimeout = new ResourceImpl(TimeoutResourceType.ID,
                                                       10,
                                                       TimeoutResourceType.UNIT);
         doReturn(singletonList(parentTimeout))
-                .when(resourceUsageManager).getAvailableResources(anyString());
+                .when(resourcesTree).getAvailableResources(anyString());
 
         //when
         final List<ProvidedResources> providedResources = suborganizationResourcesProvider.getResources("organization123");
@@ -194,7 +181,7 @@ public class SuborganizationResourcesProviderTest {
                                                                          singletonList(parentTimeout)));
         verify(accountManager).getById("organization123");
         verify(organizationManager).getById("organization123");
-        verify(resourcesDistributor).get("organization123");
-        verify(resourceUsageManager).getAvailableResources("parentOrg");
+        verify(resourcesTree).getDistributedResources("organization123");
+        verify(resourcesTree).getAvailableResources("parentOrg");
     }
 }
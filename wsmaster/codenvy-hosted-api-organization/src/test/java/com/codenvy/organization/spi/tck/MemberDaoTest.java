@@ -14,6 +14,7 @@
  */
 package com.codenvy.organization.spi.tck;
 
+import com.codenvy.api.permission.server.spi.PermissionsDao;
 import com.codenvy.organization.spi.MemberDao;
 import com.codenvy.organization.spi.impl.MemberImpl;
 import com.codenvy.organization.spi.impl.OrganizationImpl;
@@ -33,11 +34,13 @@ import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 import javax.inject.Inject;
+import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
@@ -63,6 +66,9 @@ public class MemberDaoTest {
     @Inject
     private MemberDao memberDao;
 
+    @Inject
+    private PermissionsDao<MemberImpl> permissionsDao;
+
     @Inject
     private TckRepository<MemberImpl>       memberRepo;
     @Inject
@@ -166,6 +172,20 @@ public class MemberDaoTest {
         memberDao.remove("organization12345", "user12345");
     }
 
+    @Test
+    public void shouldRemoveAllMembersOfOrganization() throws Exception {
+        final List<MemberImpl> removed = memberDao.removeMembers(orgs[0].getId());
+
+        assertEquals(removed.size(), 3);
+        assertEquals(memberDao.getMembers(orgs[0].getId(), 30, 0).getTotalItemsCount(), 0);
+        assertEquals(memberDao.getMemberships(users[1].getId()).size(), 2);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowNpeOnRemovingMembersByNullOrganization() throws Exception {
+        memberDao.removeMembers(null);
+    }
+
     @Test
     public void shouldGetMember() throws Exception {
         final MemberImpl existedMember = members[0];
@@ -215,6 +235,32 @@ public class MemberDaoTest {
         assertEquals(fetchedMembers.getTotalItemsCount(), 0);
     }
 
+    @Test
+    public void shouldGetMembersEmailsPageByPage() throws Exception {
+        final List<String> firstPage = memberDao.getMembersEmails(orgs[0].getId(), "", 2);
+        final List<String> secondPage = memberDao.getMembersEmails(orgs[0].getId(), firstPage.get(1), 2);
+
+        assertEquals(firstPage, asList(users[0].getEmail(), users[1].getEmail()));
+        assertEquals(secondPage, singletonList(users[2].getEmail()));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowNpeOnGettingMembersEmailsByNullOrganization() throws Exception {
+        memberDao.getMembersEmails(null, "", 1);
+    }
+
+    @Test
+    public void shouldGetUsersEmails() throws Exception {
+        final List<String> emails = memberDao.getUsersEmails(asList(users[0].getId(), users[2].getId(), "non-existing"));
+
+        assertEquals(new HashSet<>(emails), new HashSet<>(asList(users[0].getEmail(), users[2].getEmail())));
+    }
+
+    @Test
+    public void shouldReturnEmptyListWhenGettingEmailsOfNoUsers() throws Exception {
+        assertTrue(memberDao.getUsersEmails(emptyList()).isEmpty());
+    }
+
     @Test
     public void shouldGetMembershipsByUser() throws Exception {
         final List<MemberImpl> fetchedMembers = memberDao.getMemberships(members[0].getUserId());
@@ -257,4 +303,59 @@ public class MemberDaoTest {
     public void shouldThrowNpeOnGettingOrganizationByNullUserId() throws Exception {
         memberDao.getOrganizations(null, 30, 0);
     }
+
+    @Test
+    public void shouldGetMemberAndPublicMemberOfOrganization() throws Exception {
+        final MemberImpl publicMember = new MemberImpl("*", orgs[0].getId(), singletonList("read"));
+        memberDao.store(publicMember);
+
+        final List<MemberImpl> result = permissionsDao.getWithWildcard(members[0].getUserId(), orgs[0].getId());
+
+        assertEquals(result.size(), 2);
+        assertTrue(result.contains(members[0]));
+        assertTrue(result.contains(new MemberImpl(publicMember)));
+    }
+
+    @Test
+    public void shouldGetOnlyMemberWhenThereIsNoPublicMemberOfOrganization() throws Exception {
+        final List<MemberImpl> result = permissionsDao.getWithWildcard(members[0].getUserId(), orgs[0].getId());
+
+        assertEquals(result, singletonList(members[0]));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowNpeOnGettingMemberWithWildcardByNullUserId() throws Exception {
+        permissionsDao.getWithWildcard(null, orgs[0].getId());
+    }
+
+    @Test
+    public void shouldCountMembersWithActionOfOtherUsers() throws Exception {
+        assertEquals(permissionsDao.getCountByInstanceAndAction(orgs[0].getId(), "update", users[0].getId()), 2);
+        assertEquals(permissionsDao.getCountByInstanceAndAction(orgs[0].getId(), "delete", users[0].getId()), 0);
+    }
+
+    @Test
+    public void shouldCountPublicMemberAsMemberOfOtherUser() throws Exception {
+        memberDao.store(new MemberImpl("*", orgs[0].getId(), singletonList("update")));
+
+        assertEquals(permissionsDao.getCountByInstanceAndAction(orgs[0].getId(), "update", users[0].getId()), 3);
+        assertEquals(permissionsDao.getCountByInstanceAndAction(orgs[0].getId(), "update", "*"), 3);
+    }
+
+    @Test
+    public void shouldGetPublicMembersByWildcardUser() throws Exception {
+        final MemberImpl publicMember = new MemberImpl("*", orgs[0].getId(), singletonList("read"));
+        memberDao.store(publicMember);
+
+        assertEquals(permissionsDao.getByUser("*"), singletonList(new MemberImpl(publicMember)));
+    }
+
+    @Test
+    public void shouldRemovePublicMember() throws Exception {
+        memberDao.store(new MemberImpl("*", orgs[0].getId(), singletonList("read")));
+
+        permissionsDao.remove("*", orgs[0].getId());
+
+        assertTrue(permissionsDao.getByUser("*").isEmpty());
+    }
 }
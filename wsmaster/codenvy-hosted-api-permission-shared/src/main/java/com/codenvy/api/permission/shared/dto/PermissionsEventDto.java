@@ -0,0 +1,41 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.api.permission.shared.dto;
+
+import com.codenvy.api.permission.shared.event.EventType;
+import com.codenvy.api.permission.shared.event.PermissionsEvent;
+
+import org.eclipse.che.api.core.notification.EventOrigin;
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * DTO for {@link PermissionsEvent}.
+ */
+@DTO
+@EventOrigin("permissions")
+public interface PermissionsEventDto extends PermissionsEvent {
+
+    @Override
+    PermissionsDto getPermissions();
+
+    void setPermissions(PermissionsDto permissions);
+
+    PermissionsEventDto withPermissions(PermissionsDto permissions);
+
+    void setType(EventType type);
+
+    PermissionsEventDto withType(EventType type);
+
+}
@@ -0,0 +1,100 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.api.permission.server;
+
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
+import com.codenvy.api.permission.server.event.PermissionsAddedEvent;
+import com.codenvy.api.permission.server.event.PermissionsRemovedEvent;
+import com.codenvy.api.permission.shared.dto.PermissionsDto;
+import com.codenvy.api.permission.shared.dto.PermissionsEventDto;
+import com.codenvy.api.permission.shared.event.EventType;
+import com.codenvy.api.permission.shared.event.PermissionsEvent;
+import com.codenvy.api.permission.shared.model.Permissions;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.codenvy.api.permission.shared.event.EventType.PERMISSIONS_REMOVED;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+/**
+ * Republishes permissions events as {@link PermissionsEventDto} which are propagated
+ * by the events bus to the clients, so the clients can invalidate cached permissions.
+ *
+ * <p>The events bus delivers the events to all the connected clients, so the republished event
+ * contains only the user and the domain of changed permissions, which is enough for the invalidation,
+ * instances and actions are not exposed. Bulk removal is republished once per user and domain.
+ *
+ * <p>Concrete events types are subscribed, so republished DTO is not handled again.
+ */
+@Singleton
+public class PermissionsEventsPropagator {
+    private final EventService eventService;
+
+    @Inject
+    public PermissionsEventsPropagator(EventService eventService) {
+        this.eventService = eventService;
+    }
+
+    @Inject
+    public void subscribe() {
+        eventService.subscribe(new PermissionsAddedSubscriber());
+        eventService.subscribe(new PermissionsRemovedSubscriber());
+        eventService.subscribe(new BulkPermissionsRemovedSubscriber());
+    }
+
+    private void propagate(PermissionsEvent event) {
+        propagate(event.getType(), event.getPermissions().getUserId(), event.getPermissions().getDomainId());
+    }
+
+    private void propagate(EventType type, String userId, String domainId) {
+        eventService.publish(newDto(PermissionsEventDto.class).withType(type)
+                                                              .withPermissions(newDto(PermissionsDto.class).withUserId(userId)
+                                                                                                           .withDomainId(domainId)));
+    }
+
+    private class PermissionsAddedSubscriber implements EventSubscriber<PermissionsAddedEvent> {
+        @Override
+        public void onEvent(PermissionsAddedEvent event) {
+            propagate(event);
+        }
+    }
+
+    private class PermissionsRemovedSubscriber implements EventSubscriber<PermissionsRemovedEvent> {
+        @Override
+        public void onEvent(PermissionsRemovedEvent event) {
+            propagate(event);
+        }
+    }
+
+    private class BulkPermissionsRemovedSubscriber implements EventSubscriber<BulkPermissionsRemovedEvent> {
+        @Override
+        public void onEvent(BulkPermissionsRemovedEvent event) {
+            final Set<Map.Entry<String, String>> usersDomains = new HashSet<>();
+            for (Permissions permissions : event.getPermissions()) {
+                if (usersDomains.add(new SimpleImmutableEntry<>(permissions.getUserId(), permissions.getDomainId()))) {
+                    propagate(PERMISSIONS_REMOVED, permissions.getUserId(), permissions.getDomainId());
+                }
+            }
+        }
+    }
+}
@@ -224,6 +224,51 @@ public class PermissionsManager {
                && getPermissionsDao(domainId).exists(userId, instanceId, action);
     }
 
+    /**
+     * Returns permissions of user and permissions granted to all users ('*')
+     * for the given instance, both are fetched by single storage call.
+     *
+     * @param userId
+     *         user id
+     * @param domainId
+     *         domain id
+     * @param instanceId
+     *         instance id
+     * @return list of found permissions, which contains at most one permissions of each user
+     * @throws NotFoundException
+     *         when given domain is unsupported
+     * @throws ServerException
+     *         when any other error occurs during permissions fetching
+     */
+    public List<AbstractPermissions> getWithWildcard(String userId, String domainId, String instanceId) throws ServerException,
+                                                                                                              NotFoundException {
+        return new ArrayList<>(getPermissionsDao(domainId).getWithWildcard(userId, instanceId));
+    }
+
+    /**
+     * Returns permissions of user and permissions granted to all users ('*')
+     * for all the instances of the given domain.
+     *
+     * @param userId
+     *         user id
+     * @param domainId
+     *         domain id
+     * @return list of found permissions
+     * @throws NotFoundException
+     *         when given domain is unsupported
+     * @throws ServerException
+     *         when any other error occurs during permissions fetching
+     */
+    public List<AbstractPermissions> getByUserWithWildcard(String userId, String domainId) throws ServerException,
+                                                                                                  NotFoundException {
+        final PermissionsDao<? extends AbstractPermissions> permissionsDao = getPermissionsDao(domainId);
+        final List<AbstractPermissions> result = new ArrayList<>(permissionsDao.getByUser(userId));
+        if (!"*".equals(userId)) {
+            result.addAll(permissionsDao.getByUser("*"));
+        }
+        return result;
+    }
+
     /**
      * Returns supported domains
      */
@@ -254,28 +299,7 @@ public class PermissionsManager {
                                               String instanceId) throws ServerException,
                                                                         ConflictException,
                                                                         NotFoundException {
-        if (!permissionsStorage.exists(userId, instanceId, SET_PERMISSIONS)) {
-            return false;
-        }
-
-        Page<? extends AbstractPermissions> page = permissionsStorage.getByInstance(instanceId, 30, 0);
-        boolean hasForeignSetPermission;
-        while (!(hasForeignSetPermission = hasForeignSetPermission(page.getItems(), userId))
-               && page.hasNextPage()) {
-
-            final Page.PageRef nextPageRef = page.getNextPageRef();
-            page = permissionsStorage.getByInstance(instanceId, nextPageRef.getPageSize(), (int)nextPageRef.getItemsBefore());
-        }
-        return !hasForeignSetPermission;
-    }
-
-    private boolean hasForeignSetPermission(List<? extends AbstractPermissions> permissions, String userId) {
-        for (AbstractPermissions permission : permissions) {
-            if (!permission.getUserId().equals(userId)
-                && permission.getActions().contains(SET_PERMISSIONS)) {
-                return true;
-            }
-        }
-        return false;
+        return permissionsStorage.exists(userId, instanceId, SET_PERMISSIONS)
+               && permissionsStorage.getCountByInstanceAndAction(instanceId, SET_PERMISSIONS, userId) == 0;
     }
 }
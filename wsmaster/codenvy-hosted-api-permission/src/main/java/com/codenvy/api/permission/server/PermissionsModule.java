@@ -31,6 +31,7 @@ public class PermissionsModule extends AbstractModule {
         bind(SetPermissionsFilter.class);
         bind(RemovePermissionsFilter.class);
         bind(GetPermissionsFilter.class);
+        bind(PermissionsEventsPropagator.class).asEagerSingleton();
 
         //Creates empty multibinder to avoid error during container starting
         Multibinder.newSetBinder(binder(),
@@ -136,6 +136,25 @@ public class PermissionsService extends Service {
         return toDto(permissionsManager.get(EnvironmentContext.getCurrent().getSubject().getUserId(), domain, instance));
     }
 
+    @GET
+    @Path("/{domain}/current")
+    @Produces(APPLICATION_JSON)
+    @ApiOperation(value = "Get permissions of current user and permissions granted to all users " +
+                          "which are related to all the instances of specified domain",
+                  response = PermissionsDto.class,
+                  responseContainer = "List")
+    @ApiResponses({@ApiResponse(code = 200, message = "The permissions successfully fetched"),
+                   @ApiResponse(code = 404, message = "Specified domain is unsupported"),
+                   @ApiResponse(code = 500, message = "Internal server error occurred during permissions fetching")})
+    public List<PermissionsDto> getCurrentUsersDomainPermissions(@ApiParam(value = "Domain id to retrieve user's permissions")
+                                                                 @PathParam("domain") String domain) throws NotFoundException,
+                                                                                                            ServerException {
+        return permissionsManager.getByUserWithWildcard(EnvironmentContext.getCurrent().getSubject().getUserId(), domain)
+                                 .stream()
+                                 .map(this::toDto)
+                                 .collect(Collectors.toList());
+    }
+
     @GET
     @Path("/{domain}/all")
     @Produces(APPLICATION_JSON)
@@ -0,0 +1,40 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.api.permission.server.event;
+
+import com.codenvy.api.permission.shared.model.Permissions;
+
+import java.util.List;
+
+/**
+ * Published once after permissions are removed by bulk operation,
+ * e.g. when the instance or the user related to permissions is removed.
+ *
+ * <p>Unlike {@link PermissionsRemovedEvent} it is not published per removed permissions,
+ * so it doesn't trigger notifications about each removed permissions.
+ */
+public class BulkPermissionsRemovedEvent {
+
+    private final List<? extends Permissions> permissions;
+
+    public BulkPermissionsRemovedEvent(List<? extends Permissions> permissions) {
+        this.permissions = permissions;
+    }
+
+    /** Returns removed permissions. */
+    public List<? extends Permissions> getPermissions() {
+        return permissions;
+    }
+}
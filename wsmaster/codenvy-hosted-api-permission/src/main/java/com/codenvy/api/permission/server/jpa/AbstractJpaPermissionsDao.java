@@ -27,6 +27,7 @@ import org.eclipse.che.api.core.ServerException;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.Objects.requireNonNull;
@@ -76,6 +77,42 @@ public abstract class AbstractJpaPermissionsDao<T extends AbstractPermissions> i
         return permissions.getActions().contains(action);
     }
 
+    /**
+     * Fetches user's permissions and permissions granted to all users one by one,
+     * implementations should override it to fetch them with a single query.
+     */
+    @Override
+    @Transactional
+    public List<T> getWithWildcard(String userId, String instanceId) throws ServerException {
+        requireNonNull(userId, "User identifier required");
+        final List<T> result = new ArrayList<>(2);
+        addIfExists(result, userId, instanceId);
+        if (wildcardToNull(userId) != null) {
+            addIfExists(result, "*", instanceId);
+        }
+        return result;
+    }
+
+    private void addIfExists(List<T> result, String userId, String instanceId) throws ServerException {
+        try {
+            result.add(get(userId, instanceId));
+        } catch (NotFoundException ignored) {
+            // there are no such permissions
+        }
+    }
+
+    @Override
+    @Transactional
+    public long getCountByInstanceAndAction(String instanceId, String action, String excludedUserId) throws ServerException {
+        requireNonNull(action, "Action name required");
+        requireNonNull(excludedUserId, "Excluded user identifier required");
+        try {
+            return doGetCountByInstanceAndAction(instanceId, action, excludedUserId);
+        } catch (RuntimeException e) {
+            throw new ServerException(e.getLocalizedMessage(), e);
+        }
+    }
+
     @Override
     public void remove(String userId, String instanceId) throws ServerException, NotFoundException {
         requireNonNull(instanceId, "Instance identifier required");
@@ -87,6 +124,26 @@ public abstract class AbstractJpaPermissionsDao<T extends AbstractPermissions> i
         }
     }
 
+    @Override
+    public List<T> removeByInstance(String instanceId) throws ServerException {
+        requireNonNull(instanceId, "Instance identifier required");
+        try {
+            return doRemoveByInstance(instanceId);
+        } catch (RuntimeException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+    }
+
+    @Override
+    public List<T> removeByUser(String userId) throws ServerException {
+        requireNonNull(userId, "User identifier required");
+        try {
+            return doRemoveByUser(userId);
+        } catch (RuntimeException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+    }
+
     @Override
     public abstract T get(String userId, String instanceId) throws ServerException, NotFoundException;
 
@@ -103,6 +160,26 @@ public abstract class AbstractJpaPermissionsDao<T extends AbstractPermissions> i
      */
     protected abstract T getEntity(String userId, String instanceId) throws NotFoundException;
 
+    /**
+     * Must count permissions with given action related to the instance
+     * by single query, parameters are the same to
+     * {@link #getCountByInstanceAndAction(String, String, String)} method parameters.
+     */
+    protected abstract long doGetCountByInstanceAndAction(String instanceId, String action, String excludedUserId);
+
+    /**
+     * Must remove all the permissions related to the instance by bulk delete query
+     * and return removed permissions which were fetched before the removal.
+     * Permissions actions are removed by the database cascade constraint.
+     */
+    protected abstract List<T> doRemoveByInstance(String instanceId);
+
+    /**
+     * Must remove all the permissions of the user by bulk delete query
+     * and return removed permissions which were fetched before the removal.
+     */
+    protected abstract List<T> doRemoveByUser(String userId);
+
     @Transactional
     protected void doCreate(T permissions) throws ServerException {
         EntityManager manager = managerProvider.get();
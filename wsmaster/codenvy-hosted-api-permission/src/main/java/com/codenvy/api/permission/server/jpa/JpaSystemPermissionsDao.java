@@ -15,6 +15,7 @@
 package com.codenvy.api.permission.server.jpa;
 
 import com.codenvy.api.permission.server.SystemDomain;
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
 import com.codenvy.api.permission.server.model.impl.SystemPermissionsImpl;
 import com.google.inject.persist.Transactional;
 
@@ -23,6 +24,7 @@ import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.user.server.event.BeforeUserRemovedEvent;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.core.db.cascade.CascadeEventSubscriber;
 
 import javax.annotation.PostConstruct;
@@ -62,6 +64,24 @@ public class JpaSystemPermissionsDao extends AbstractJpaPermissionsDao<SystemPer
         }
     }
 
+    @Override
+    @Transactional
+    public List<SystemPermissionsImpl> getWithWildcard(String userId, String instanceId) throws ServerException {
+        requireNonNull(userId, "Required non-null user id");
+        // instanceId is ignored because system domain doesn't require it
+        try {
+            return managerProvider.get()
+                                  .createNamedQuery("SystemPermissions.getByUserIdWithPublic", SystemPermissionsImpl.class)
+                                  .setParameter("userId", wildcardToNull(userId))
+                                  .getResultList()
+                                  .stream()
+                                  .map(SystemPermissionsImpl::new)
+                                  .collect(toList());
+        } catch (RuntimeException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+    }
+
     @Override
     @Transactional
     public Page<SystemPermissionsImpl> getByInstance(String instanceId, int maxItems, long skipCount) throws ServerException {
@@ -89,9 +109,9 @@ public class JpaSystemPermissionsDao extends AbstractJpaPermissionsDao<SystemPer
     public List<SystemPermissionsImpl> getByUser(String userId) throws ServerException {
         requireNonNull(userId, "User identifier required");
         try {
-            return doGetByUser(userId).stream()
-                                      .map(SystemPermissionsImpl::new)
-                                      .collect(toList());
+            return doGetByUser(wildcardToNull(userId)).stream()
+                                                      .map(SystemPermissionsImpl::new)
+                                                      .collect(toList());
         } catch (RuntimeException e) {
             throw new ServerException(e.getLocalizedMessage(), e);
         }
@@ -106,8 +126,51 @@ public class JpaSystemPermissionsDao extends AbstractJpaPermissionsDao<SystemPer
         return existent.get(0);
     }
 
+    @Override
+    protected long doGetCountByInstanceAndAction(String instanceId, String action, String excludedUserId) {
+        // instanceId is ignored because system domain doesn't require it
+        return managerProvider.get()
+                              .createNamedQuery("SystemPermissions.getCountByAction", Long.class)
+                              .setParameter("action", action)
+                              .setParameter("excludedUserId", excludedUserId)
+                              .getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    protected List<SystemPermissionsImpl> doRemoveByInstance(String instanceId) {
+        // instanceId is ignored because system domain doesn't require it
+        final EntityManager manager = managerProvider.get();
+        final List<SystemPermissionsImpl> removed = manager.createNamedQuery("SystemPermissions.getAll", SystemPermissionsImpl.class)
+                                                           .getResultList()
+                                                           .stream()
+                                                           .map(SystemPermissionsImpl::new)
+                                                           .collect(toList());
+        manager.createNamedQuery("SystemPermissions.removeAll")
+               .executeUpdate();
+        return removed;
+    }
+
+    @Override
+    @Transactional
+    protected List<SystemPermissionsImpl> doRemoveByUser(String userId) {
+        final List<SystemPermissionsImpl> removed = doGetByUser(userId).stream()
+                                                                       .map(SystemPermissionsImpl::new)
+                                                                       .collect(toList());
+        managerProvider.get()
+                       .createNamedQuery("SystemPermissions.removeByUserId")
+                       .setParameter("userId", userId)
+                       .executeUpdate();
+        return removed;
+    }
+
     @Transactional
-    protected List<SystemPermissionsImpl> doGetByUser(String userId) {
+    protected List<SystemPermissionsImpl> doGetByUser(@Nullable String userId) {
+        if (userId == null) {
+            return managerProvider.get()
+                                  .createNamedQuery("SystemPermissions.getPublic", SystemPermissionsImpl.class)
+                                  .getResultList();
+        }
         return managerProvider.get()
                               .createNamedQuery("SystemPermissions.getByUserId", SystemPermissionsImpl.class)
                               .setParameter("userId", userId)
@@ -144,8 +207,9 @@ public class JpaSystemPermissionsDao extends AbstractJpaPermissionsDao<SystemPer
 
         @Override
         public void onCascadeEvent(BeforeUserRemovedEvent event) throws Exception {
-            for (SystemPermissionsImpl permissions : dao.getByUser(event.getUser().getId())) {
-                dao.remove(permissions.getUserId(), permissions.getInstanceId());
+            final List<SystemPermissionsImpl> removed = dao.removeByUser(event.getUser().getId());
+            if (!removed.isEmpty()) {
+                eventService.publish(new BulkPermissionsRemovedEvent(removed));
             }
         }
     }
@@ -14,11 +14,10 @@
  */
 package com.codenvy.api.permission.server.jpa.listener;
 
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
 import com.codenvy.api.permission.server.model.impl.AbstractPermissions;
 import com.codenvy.api.permission.server.spi.PermissionsDao;
 
-import org.eclipse.che.api.core.NotFoundException;
-import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.user.server.event.BeforeUserRemovedEvent;
@@ -59,46 +58,26 @@ public abstract class RemovePermissionsOnLastUserRemovedEventSubscriber<T extend
 
     @Override
     public void onCascadeEvent(BeforeUserRemovedEvent event) throws Exception {
-        for (AbstractPermissions permissions : storage.getByUser(event.getUser().getId())) {
+        final String userId = event.getUser().getId();
+        for (AbstractPermissions permissions : storage.getByUser(userId)) {
             // This method can potentially be source of race conditions,
             // e.g. when performing search by permissions, another thread can add/or remove another setPermission,
             // so appropriate domain object (stack or recipe) will not be deleted, or vice versa,
             // deleted when it's not required anymore.
             // As a result, a solitary objects may be present in the DB.
-            if (userHasLastSetPermissions(permissions.getUserId(),
-                                          permissions.getInstanceId())) {
+            if (userHasLastSetPermissions(userId, permissions.getInstanceId())) {
                 remove(permissions.getInstanceId());
-            } else {
-                storage.remove(event.getUser().getId(), permissions.getInstanceId());
             }
         }
-    }
-
-    private boolean userHasLastSetPermissions(String userId,
-                                              String instanceId) throws ServerException {
-        try {
-            Page<? extends AbstractPermissions> page = storage.getByInstance(instanceId, 30, 0);
-            boolean hasSetPermission;
-            while (!(hasSetPermission = hasForeignSetPermission(page.getItems(), userId))
-                   && page.hasNextPage()) {
-
-                final Page.PageRef nextPageRef = page.getNextPageRef();
-                page = storage.getByInstance(instanceId, nextPageRef.getPageSize(), (int)nextPageRef.getItemsBefore());
-            }
-            return !hasSetPermission;
-        } catch (NotFoundException e) {
-            return true;
+        // permissions which are left after removal of the domain objects are removed at once
+        final List<? extends AbstractPermissions> removed = storage.removeByUser(userId);
+        if (!removed.isEmpty()) {
+            eventService.publish(new BulkPermissionsRemovedEvent(removed));
         }
     }
 
-    private boolean hasForeignSetPermission(List<? extends AbstractPermissions> permissions, String userId) {
-        for (AbstractPermissions permission : permissions) {
-            if (!permission.getUserId().equals(userId)
-                && permission.getActions().contains(SET_PERMISSIONS)) {
-                return true;
-            }
-        }
-        return false;
+    private boolean userHasLastSetPermissions(String userId, String instanceId) throws ServerException {
+        return storage.getCountByInstanceAndAction(instanceId, SET_PERMISSIONS, userId) == 0;
     }
 
     public abstract void remove(String instanceId) throws ServerException;
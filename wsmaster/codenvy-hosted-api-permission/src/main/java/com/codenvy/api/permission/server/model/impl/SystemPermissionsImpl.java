@@ -37,12 +37,32 @@ import java.util.List;
                             query = "SELECT permissions " +
                                     "FROM SystemPermissions permissions " +
                                     "WHERE permissions.userId = :userId "),
+                @NamedQuery(name = "SystemPermissions.getPublic",
+                            query = "SELECT permissions " +
+                                    "FROM SystemPermissions permissions " +
+                                    "WHERE permissions.userId IS NULL "),
+                @NamedQuery(name = "SystemPermissions.getByUserIdWithPublic",
+                            query = "SELECT permissions " +
+                                    "FROM SystemPermissions permissions " +
+                                    "WHERE permissions.userId = :userId " +
+                                    "OR permissions.userId IS NULL "),
                 @NamedQuery(name = "SystemPermissions.getAll",
                             query = "SELECT permissions " +
                                     "FROM SystemPermissions permissions "),
                 @NamedQuery(name = "SystemPermissions.getTotalCount",
                             query = "SELECT COUNT(permissions) " +
-                                    "FROM SystemPermissions permissions ")
+                                    "FROM SystemPermissions permissions "),
+                @NamedQuery(name = "SystemPermissions.getCountByAction",
+                            query = "SELECT COUNT(permissions) " +
+                                    "FROM SystemPermissions permissions " +
+                                    "JOIN permissions.actions permissionsAction " +
+                                    "WHERE permissionsAction = :action " +
+                                    "AND COALESCE(permissions.userId, '*') <> :excludedUserId "),
+                @NamedQuery(name = "SystemPermissions.removeByUserId",
+                            query = "DELETE FROM SystemPermissions permissions " +
+                                    "WHERE permissions.userId = :userId "),
+                @NamedQuery(name = "SystemPermissions.removeAll",
+                            query = "DELETE FROM SystemPermissions permissions ")
         }
 )
 @Table(name = "systempermissions")
@@ -107,6 +107,43 @@ public interface PermissionsDao<T extends AbstractPermissions> {
      */
     boolean exists(String userId, String instanceId, String action) throws ServerException;
 
+    /**
+     * Returns permissions of user and permissions granted to all users ('*')
+     * related to the particular instance.
+     *
+     * @param userId
+     *         user id
+     * @param instanceId
+     *         instance id
+     * @return list which contains user's permissions and permissions of all users
+     * if they exist, or empty list when there are no such permissions
+     * @throws NullPointerException
+     *         when user id is null
+     * @throws ServerException
+     *         when any other error occurs during permissions fetching
+     */
+    List<T> getWithWildcard(String userId, String instanceId) throws ServerException;
+
+    /**
+     * Returns the number of users other than the excluded one which have
+     * the given action on the particular instance. Permissions granted
+     * to all users ('*') are counted as permissions of another user
+     * unless the excluded user is '*'.
+     *
+     * @param instanceId
+     *         instance id
+     * @param action
+     *         action name
+     * @param excludedUserId
+     *         id of user whose permissions are not counted
+     * @return the number of users who have the action on the instance
+     * @throws NullPointerException
+     *         when action or excluded user id is null
+     * @throws ServerException
+     *         when any other error occurs during permissions counting
+     */
+    long getCountByInstanceAndAction(String instanceId, String action, String excludedUserId) throws ServerException;
+
     /**
      * Removes permissions of user related to the particular instance of specified domain
      *
@@ -120,4 +157,30 @@ public interface PermissionsDao<T extends AbstractPermissions> {
      *         when any other error occurs during permissions removing
      */
     void remove(String userId, String instanceId) throws ServerException, NotFoundException;
+
+    /**
+     * Removes all the permissions related to the particular instance by single bulk operation.
+     *
+     * @param instanceId
+     *         instance id
+     * @return removed permissions
+     * @throws NullPointerException
+     *         when instance id is null
+     * @throws ServerException
+     *         when any other error occurs during permissions removing
+     */
+    List<T> removeByInstance(String instanceId) throws ServerException;
+
+    /**
+     * Removes all the permissions of user by single bulk operation.
+     *
+     * @param userId
+     *         user id
+     * @return removed permissions
+     * @throws NullPointerException
+     *         when user id is null
+     * @throws ServerException
+     *         when any other error occurs during permissions removing
+     */
+    List<T> removeByUser(String userId) throws ServerException;
 }
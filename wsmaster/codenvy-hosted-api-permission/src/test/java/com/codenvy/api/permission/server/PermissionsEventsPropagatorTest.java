@@ -0,0 +1,91 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.api.permission.server;
+
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
+import com.codenvy.api.permission.server.event.PermissionsAddedEvent;
+import com.codenvy.api.permission.shared.dto.PermissionsDto;
+import com.codenvy.api.permission.shared.dto.PermissionsEventDto;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.codenvy.api.permission.shared.event.EventType.PERMISSIONS_ADDED;
+import static com.codenvy.api.permission.shared.event.EventType.PERMISSIONS_REMOVED;
+import static java.util.Arrays.asList;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link PermissionsEventsPropagator}.
+ */
+public class PermissionsEventsPropagatorTest {
+
+    private EventService              eventService;
+    private List<PermissionsEventDto> propagated;
+
+    @BeforeMethod
+    public void setUp() {
+        eventService = new EventService();
+        propagated = new ArrayList<>();
+        eventService.subscribe(new EventSubscriber<PermissionsEventDto>() {
+            @Override
+            public void onEvent(PermissionsEventDto event) {
+                propagated.add(event);
+            }
+        });
+        new PermissionsEventsPropagator(eventService).subscribe();
+    }
+
+    @Test
+    public void shouldPropagateOnlyUserAndDomainOfChangedPermissions() {
+        eventService.publish(new PermissionsAddedEvent("admin", permissions("user1", "workspace", "ws1")));
+
+        assertEquals(propagated.size(), 1);
+        final PermissionsEventDto event = propagated.get(0);
+        assertEquals(event.getType(), PERMISSIONS_ADDED);
+        assertEquals(event.getPermissions().getUserId(), "user1");
+        assertEquals(event.getPermissions().getDomainId(), "workspace");
+        assertNull(event.getPermissions().getInstanceId());
+        assertTrue(event.getPermissions().getActions().isEmpty());
+    }
+
+    @Test
+    public void shouldPropagateBulkRemovalOncePerUserAndDomain() {
+        eventService.publish(new BulkPermissionsRemovedEvent(asList(permissions("user1", "workspace", "ws1"),
+                                                                    permissions("user1", "workspace", "ws2"),
+                                                                    permissions("user2", "workspace", "ws1"),
+                                                                    permissions("user1", "stack", "stack1"))));
+
+        assertEquals(propagated.size(), 3);
+        for (PermissionsEventDto event : propagated) {
+            assertEquals(event.getType(), PERMISSIONS_REMOVED);
+        }
+    }
+
+    private static PermissionsDto permissions(String userId, String domainId, String instanceId) {
+        return newDto(PermissionsDto.class).withUserId(userId)
+                                           .withDomainId(domainId)
+                                           .withInstanceId(instanceId)
+                                           .withActions(asList("read", "use"));
+    }
+}
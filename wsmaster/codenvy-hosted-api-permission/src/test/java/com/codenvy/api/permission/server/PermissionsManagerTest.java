@@ -110,36 +110,21 @@ public class PermissionsManagerTest {
     @Test(expectedExceptions = ConflictException.class,
           expectedExceptionsMessageRegExp = "Can't edit permissions because there is not any another user with permission 'setPermissions'")
     public void shouldNotStorePermissionsWhenItRemoveLastSetPermissions() throws Exception {
-        final TestPermissionsImpl foreignPermissions =
-                new TestPermissionsImpl("user1", "test", "test123", singletonList("read"));
-        final TestPermissionsImpl ownPermissions =
-                new TestPermissionsImpl("user", "test", "test123", asList("read", "setPermissions"));
-
         when(permissionsDao.exists("user", "test123", SET_PERMISSIONS)).thenReturn(true);
-        doReturn(new Page<>(singletonList(foreignPermissions), 0, 1, 2))
-                .doReturn(new Page<>(singletonList(ownPermissions), 1, 1, 2))
-                .when(permissionsDao).getByInstance(anyString(), anyInt(), anyInt());
+        when(permissionsDao.getCountByInstanceAndAction("test123", SET_PERMISSIONS, "user")).thenReturn(0L);
 
         permissionsManager.storePermission(new TestPermissionsImpl("user", "test", "test123", singletonList("delete")));
     }
 
     @Test
     public void shouldStorePermissionsWhenItRemoveSetPermissionsButThereIsAnotherOne() throws Exception {
-        final TestPermissionsImpl foreignPermissions =
-                new TestPermissionsImpl("user1", "test", "test123", singletonList("setPermissions"));
-        final TestPermissionsImpl ownPermissions =
-                new TestPermissionsImpl("user", "test", "test123", asList("read", "setPermissions"));
-
         when(permissionsDao.exists("user", "test123", SET_PERMISSIONS)).thenReturn(true);
-
-        doReturn(new Page<>(singletonList(ownPermissions), 0, 30, 31))
-                .doReturn(new Page<>(singletonList(foreignPermissions), 1, 30, 31))
-                .when(permissionsDao).getByInstance(anyString(), anyInt(), anyInt());
+        when(permissionsDao.getCountByInstanceAndAction("test123", SET_PERMISSIONS, "user")).thenReturn(1L);
 
         permissionsManager.storePermission(new TestPermissionsImpl("user", "test", "test123", singletonList("delete")));
 
-        verify(permissionsDao).getByInstance("test123", 30, 0);
-        verify(permissionsDao).getByInstance("test123", 30, 30);
+        verify(permissionsDao).getCountByInstanceAndAction("test123", SET_PERMISSIONS, "user");
+        verify(permissionsDao, never()).getByInstance(anyString(), anyInt(), anyInt());
     }
 
     @Test
@@ -148,7 +133,7 @@ public class PermissionsManagerTest {
 
         permissionsManager.storePermission(new TestPermissionsImpl("user", "test", "test123", singletonList("delete")));
 
-        verify(permissionsDao, never()).getByInstance(anyString(), anyInt(), anyInt());
+        verify(permissionsDao, never()).getCountByInstanceAndAction(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -161,15 +146,8 @@ public class PermissionsManagerTest {
     @Test(expectedExceptions = ConflictException.class,
           expectedExceptionsMessageRegExp = "Can't remove permissions because there is not any another user with permission 'setPermissions'")
     public void shouldNotRemovePermissionsWhenItContainsLastSetPermissionsAction() throws Exception {
-        final TestPermissionsImpl firstPermissions =
-                new TestPermissionsImpl("user1", "test", "test123", singletonList("read"));
-        final TestPermissionsImpl secondPermissions =
-                new TestPermissionsImpl("user", "test", "test123", asList("read", "setPermissions"));
-
         when(permissionsDao.exists("user", "test123", SET_PERMISSIONS)).thenReturn(true);
-        doReturn(new Page<>(singletonList(firstPermissions), 0, 1, 2))
-                .doReturn(new Page<>(singletonList(secondPermissions), 1, 1, 2))
-                .when(permissionsDao).getByInstance(anyString(), anyInt(), anyInt());
+        when(permissionsDao.getCountByInstanceAndAction("test123", SET_PERMISSIONS, "user")).thenReturn(0L);
 
         permissionsManager.remove("user", "test", "test123");
     }
@@ -180,7 +158,7 @@ public class PermissionsManagerTest {
 
         permissionsManager.remove("user", "test", "test123");
 
-        verify(permissionsDao, never()).getByInstance(eq("test123"), anyInt(), anyInt());
+        verify(permissionsDao, never()).getCountByInstanceAndAction(eq("test123"), anyString(), anyString());
     }
 
     @Test
@@ -223,6 +201,18 @@ public class PermissionsManagerTest {
         assertFalse(permissionsManager.exists("user", "test", "test123", "update"));
     }
 
+    @Test
+    public void shouldBeAbleToGetPermissionsOfUserAndPublicPermissionsByDomain() throws Exception {
+        final TestPermissionsImpl userPermissions = new TestPermissionsImpl("user", "test", "test123", singletonList("read"));
+        final TestPermissionsImpl publicPermissions = new TestPermissionsImpl("*", "test", "test321", singletonList("use"));
+        when(permissionsDao.getByUser("user")).thenReturn(singletonList(userPermissions));
+        when(permissionsDao.getByUser("*")).thenReturn(singletonList(publicPermissions));
+
+        final List<AbstractPermissions> fetchedPermissions = permissionsManager.getByUserWithWildcard("user", "test");
+
+        assertEquals(fetchedPermissions, asList(userPermissions, publicPermissions));
+    }
+
     @Test
     public void shouldBeAbleToDomains() throws Exception {
         final List<AbstractPermissionsDomain> domains = permissionsManager.getDomains();
@@ -33,6 +33,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertTrue;
 
@@ -79,6 +80,57 @@ public class SystemPermissionsDaoTest {
         userRepository.removeAll();
     }
 
+    @Test
+    public void shouldRemoveAllPermissionsOfUser() throws Exception {
+        final List<SystemPermissionsImpl> removed = dao.removeByUser("user1");
+
+        assertEquals(1, removed.size());
+        assertTrue(dao.getByUser("user1").isEmpty());
+        assertEquals(2, dao.getByInstance(null, 30, 0).getTotalItemsCount());
+    }
+
+    @Test
+    public void shouldRemoveAllSystemPermissionsWhenRemoveByInstance() throws Exception {
+        final List<SystemPermissionsImpl> removed = dao.removeByInstance("instance");
+
+        assertEquals(3, removed.size());
+        assertTrue(removed.containsAll(asList(systemPermissions)));
+        assertEquals(0, dao.getByInstance(null, 30, 0).getTotalItemsCount());
+    }
+
+    @Test
+    public void shouldCountPermissionsWithActionOfOtherUsers() throws Exception {
+        assertEquals(2, dao.getCountByInstanceAndAction(null, "use", "user1"));
+        assertEquals(0, dao.getCountByInstanceAndAction(null, "run", "user1"));
+    }
+
+    @Test
+    public void shouldCountPublicPermissionsAsPermissionsOfOtherUser() throws Exception {
+        dao.store(new SystemPermissionsImpl("*", singletonList("use")));
+
+        assertEquals(3, dao.getCountByInstanceAndAction(null, "use", "user1"));
+        assertEquals(3, dao.getCountByInstanceAndAction(null, "use", "*"));
+    }
+
+    @Test
+    public void shouldGetPublicPermissionsByWildcardUser() throws Exception {
+        final SystemPermissionsImpl publicPermissions = new SystemPermissionsImpl("*", singletonList("read"));
+        dao.store(publicPermissions);
+
+        assertEquals(singletonList(new SystemPermissionsImpl(publicPermissions)), dao.getByUser("*"));
+    }
+
+    @Test
+    public void shouldReplaceExistingPublicPermissionsOnStoring() throws Exception {
+        dao.store(new SystemPermissionsImpl("*", singletonList("read")));
+        final SystemPermissionsImpl publicPermissions = new SystemPermissionsImpl("*", singletonList("use"));
+
+        dao.store(publicPermissions);
+
+        assertEquals(publicPermissions, dao.get("*", null));
+        assertEquals(singletonList(publicPermissions), dao.getByUser("*"));
+    }
+
     @Test
     public void shouldReturnAllPermissionsWhenGetByInstance() throws Exception {
         final Page<SystemPermissionsImpl> permissionsPage = dao.getByInstance(null, 1, 1);
@@ -110,6 +162,28 @@ public class SystemPermissionsDaoTest {
         assertEquals(result2, systemPermissions[1]);
     }
 
+    @Test
+    public void shouldGetPermissionsOfUserAndPublicPermissions() throws Exception {
+        final SystemPermissionsImpl publicPermissions = new SystemPermissionsImpl("*", singletonList("read"));
+        dao.store(publicPermissions);
+
+        final List<SystemPermissionsImpl> result = dao.getWithWildcard("user1", null);
+
+        assertEquals(2, result.size());
+        assertTrue(result.contains(systemPermissions[0]));
+        assertTrue(result.contains(new SystemPermissionsImpl(publicPermissions)));
+    }
+
+    @Test
+    public void shouldGetOnlyPermissionsOfUserWhenThereAreNoPublicPermissions() throws Exception {
+        assertEquals(singletonList(systemPermissions[0]), dao.getWithWildcard("user1", null));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowExceptionWhenGetWithWildcardUserIdArgumentIsNull() throws Exception {
+        dao.getWithWildcard(null, null);
+    }
+
     public static class TestDomain extends AbstractPermissionsDomain<SystemPermissionsImpl> {
         public TestDomain() {
             super("system", asList("read", "write", "use"));
@@ -14,48 +14,74 @@
  */
 package com.codenvy.resource.api.usage;
 
+import com.codahale.metrics.annotation.Gauge;
 import com.codenvy.resource.api.ResourceLockKeyProvider;
 
 import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.commons.lang.concurrent.StripedLocks;
 import org.eclipse.che.commons.lang.concurrent.Unlocker;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static java.lang.Thread.currentThread;
+
 /**
  * Helps to lock resources while performing operations related to them.
  *
  * <p>Resources will be locked not by account id but by key
  * which will be provided by {@link ResourceLockKeyProvider} for specified account's type
  *
- * <p>It based on {@link StripedLocks} so it can be used in try-with-resources construction.
+ * <p>Keys are mapped to a table of striped locks which size is configured
+ * by {@code resource.locks.stripes} property. Resources of several accounts can be locked at once,
+ * in this case locks are always acquired in ascending order of their stripes so two concurrent
+ * operations which lock the same accounts in different order can't deadlock.
+ * Lock acquisition fails when locks are not acquired during {@code resource.locks.timeout_ms}.
  *
  * <pre>
- * try (CloseableLock lock = resourceLocks.acquireLock("account123")) {
+ * try (Unlocker lock = resourceLocks.acquireLock("account123", "account234")) {
  *    // check resources availability and perform operation here
  * }
  * </pre>
  *
  * @author Sergii Leschenko
  */
+@Singleton
 public class ResourcesLocks {
 
     private final AccountManager                       accountManager;
     private final Map<String, ResourceLockKeyProvider> accountTypeToLockProvider;
-    private final StripedLocks                         stripedLocks;
+    private final ReentrantLock[]                      locks;
+    private final long                                 timeoutMs;
+
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong timeouts     = new AtomicLong();
+    private final AtomicLong waitMs       = new AtomicLong();
+    private final AtomicLong releases     = new AtomicLong();
+    private final AtomicLong holdMs       = new AtomicLong();
 
     @Inject
     public ResourcesLocks(Set<ResourceLockKeyProvider> resourceLockKeyProviders,
-                          AccountManager accountManager) {
+                          AccountManager accountManager,
+                          @Named("resource.locks.stripes") int stripes,
+                          @Named("resource.locks.timeout_ms") long timeoutMs) {
         this.accountManager = accountManager;
-        this.stripedLocks = new StripedLocks(16);
+        this.timeoutMs = timeoutMs;
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
         this.accountTypeToLockProvider = resourceLockKeyProviders.stream()
                                                                  .collect(Collectors.toMap(ResourceLockKeyProvider::getAccountType,
                                                                                            Function.identity()));
@@ -70,27 +96,140 @@ public class ResourcesLocks {
      * @throws NotFoundException
      *         when account with specified {@code account id} was not found
      * @throws ServerException
+     *         when lock is not acquired during the timeout
+     * @throws ServerException
      *         when any other error occurs
      */
     public Unlocker acquiresLock(String accountId) throws NotFoundException,
                                                           ServerException {
+        return acquireLock(accountId);
+    }
+
+    /**
+     * Acquire resources lock for all the specified accounts.
+     *
+     * <p>It should be used when resources of several accounts are changed by single operation,
+     * e.g. in case of resources redistribution between parent organization and suborganization.
+     *
+     * @param accountIds
+     *         ids of accounts to lock resources
+     * @return lock for unlocking resources of all the accounts when resources operation finishes
+     * @throws NotFoundException
+     *         when any of accounts with specified ids was not found
+     * @throws ServerException
+     *         when locks are not acquired during the timeout
+     * @throws ServerException
+     *         when any other error occurs
+     */
+    public Unlocker acquireLock(String... accountIds) throws NotFoundException,
+                                                             ServerException {
+        // the same stripe is locked only once and stripes are locked in the canonical order
+        final TreeSet<Integer> stripes = new TreeSet<>();
+        for (String accountId : accountIds) {
+            stripes.add(stripeOf(getLockKey(accountId)));
+        }
+
+        final long start = System.currentTimeMillis();
+        final long deadline = start + timeoutMs;
+        final int[] acquired = new int[stripes.size()];
+        int acquiredNumber = 0;
+        try {
+            for (Integer stripe : stripes) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (!locks[stripe].tryLock(Math.max(0, remaining), TimeUnit.MILLISECONDS)) {
+                    timeouts.incrementAndGet();
+                    throw new ServerException("Resources of accounts are locked by another operation. Please try again later.");
+                }
+                acquired[acquiredNumber++] = stripe;
+            }
+        } catch (InterruptedException e) {
+            currentThread().interrupt();
+            throw new ServerException("Interrupted while waiting for resources lock", e);
+        } finally {
+            if (acquiredNumber < acquired.length) {
+                unlockStripes(acquired, acquiredNumber);
+            }
+        }
+
+        final long acquiredAt = System.currentTimeMillis();
+        acquisitions.incrementAndGet();
+        waitMs.addAndGet(acquiredAt - start);
+        return new StripesUnlocker(acquired, acquiredAt);
+    }
+
+    /** @return number of acquired resources locks */
+    @Gauge(name = "resource.locks.acquired_number")
+    public long getAcquiredNumber() {
+        return acquisitions.get();
+    }
+
+    /** @return number of resources locks which were not acquired in time */
+    @Gauge(name = "resource.locks.timeout_number")
+    public long getTimeoutNumber() {
+        return timeouts.get();
+    }
+
+    /** @return average time in milliseconds of waiting for resources locks */
+    @Gauge(name = "resource.locks.average_wait_ms")
+    public long getAverageWaitTime() {
+        final long acquisitionsNumber = acquisitions.get();
+        return acquisitionsNumber == 0 ? 0 : waitMs.get() / acquisitionsNumber;
+    }
+
+    /** @return average time in milliseconds of holding resources locks */
+    @Gauge(name = "resource.locks.average_hold_ms")
+    public long getAverageHoldTime() {
+        final long releasesNumber = releases.get();
+        return releasesNumber == 0 ? 0 : holdMs.get() / releasesNumber;
+    }
+
+    private String getLockKey(String accountId) throws NotFoundException, ServerException {
         final Account account = accountManager.getById(accountId);
         final ResourceLockKeyProvider resourceLockKeyProvider = accountTypeToLockProvider.get(account.getType());
-        String lockKey;
         if (resourceLockKeyProvider == null) {
             // this account type doesn't have custom lock provider.
             // Lock resources by current account
-            lockKey = accountId;
-        } else {
-            lockKey = resourceLockKeyProvider.getLockKey(accountId);
+            return accountId;
         }
+        return resourceLockKeyProvider.getLockKey(accountId);
+    }
 
-        return stripedLocks.writeLock(lockKey);
+    private int stripeOf(String lockKey) {
+        // spread hash bits in the same way as HashMap does
+        final int hash = lockKey.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), locks.length);
     }
 
-    public Unlocker acquireLock(String... accountIds) throws NotFoundException,
-                                                                  ServerException {
-        // TODO It should be implemented for making possible lock resources by two or more accounts in case of resources redistribution
-        throw new UnsupportedOperationException("Not implemented.");
+    private void unlockStripes(int[] stripes, int number) {
+        for (int i = number - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+
+    private class StripesUnlocker implements Unlocker {
+        private final int[] stripes;
+        private final long  acquiredAt;
+
+        private boolean unlocked;
+
+        StripesUnlocker(int[] stripes, long acquiredAt) {
+            this.stripes = stripes;
+            this.acquiredAt = acquiredAt;
+        }
+
+        @Override
+        public void unlock() {
+            if (!unlocked) {
+                unlocked = true;
+                unlockStripes(stripes, stripes.length);
+                releases.incrementAndGet();
+                holdMs.addAndGet(System.currentTimeMillis() - acquiredAt);
+            }
+        }
+
+        @Override
+        public void close() {
+            unlock();
+        }
     }
 }
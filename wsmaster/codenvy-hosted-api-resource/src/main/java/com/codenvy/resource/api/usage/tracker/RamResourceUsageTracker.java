@@ -22,16 +22,11 @@ import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.api.workspace.server.WorkspaceManager;
 
 import javax.inject.Inject;
-import javax.inject.Provider;
 import javax.inject.Singleton;
-import java.util.List;
 import java.util.Optional;
 
-import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
-
 /**
  * Tracks usage of {@link RamResourceType} resource.
  *
@@ -39,30 +34,21 @@ import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
  */
 @Singleton
 public class RamResourceUsageTracker implements ResourceUsageTracker {
-    private final Provider<WorkspaceManager> workspaceManagerProvider;
-    private final AccountManager             accountManager;
+    private final AccountManager        accountManager;
+    private final WorkspacesUsageLedger usageLedger;
 
     @Inject
-    public RamResourceUsageTracker(Provider<WorkspaceManager> workspaceManagerProvider, AccountManager accountManager) {
-        this.workspaceManagerProvider = workspaceManagerProvider;
+    public RamResourceUsageTracker(AccountManager accountManager, WorkspacesUsageLedger usageLedger) {
         this.accountManager = accountManager;
+        this.usageLedger = usageLedger;
     }
 
     @Override
     public Optional<ResourceImpl> getUsedResource(String accountId) throws NotFoundException, ServerException {
         final Account account = accountManager.getById(accountId);
-        final long currentlyUsedRamMB = workspaceManagerProvider.get()
-                                                                .getByNamespace(account.getName(), true)
-                                                                .stream()
-                                                                .filter(ws -> STOPPED != ws.getStatus())
-                                                                .map(ws -> ws.getRuntime().getMachines())
-                                                                .flatMap(List::stream)
-                                                                .mapToInt(machine -> machine.getConfig()
-                                                                                            .getLimits()
-                                                                                            .getRam())
-                                                                .sum();
-        if (currentlyUsedRamMB > 0) {
-            return Optional.of(new ResourceImpl(RamResourceType.ID, currentlyUsedRamMB, RamResourceType.UNIT));
+        final long usedRamMB = usageLedger.getUsage(account.getName()).getRam();
+        if (usedRamMB > 0) {
+            return Optional.of(new ResourceImpl(RamResourceType.ID, usedRamMB, RamResourceType.UNIT));
         } else {
             return Optional.empty();
         }
@@ -22,15 +22,11 @@ import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.api.workspace.server.WorkspaceManager;
 
 import javax.inject.Inject;
-import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.util.Optional;
 
-import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
-
 /**
  * Tracks usage of {@link RuntimeResourceType} resource.
  *
@@ -38,25 +34,21 @@ import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
  */
 @Singleton
 public class RuntimeResourceUsageTracker implements ResourceUsageTracker {
-    private final Provider<WorkspaceManager> workspaceManagerProvider;
-    private final AccountManager             accountManager;
+    private final AccountManager        accountManager;
+    private final WorkspacesUsageLedger usageLedger;
 
     @Inject
-    public RuntimeResourceUsageTracker(Provider<WorkspaceManager> workspaceManagerProvider, AccountManager accountManager) {
-        this.workspaceManagerProvider = workspaceManagerProvider;
+    public RuntimeResourceUsageTracker(AccountManager accountManager, WorkspacesUsageLedger usageLedger) {
         this.accountManager = accountManager;
+        this.usageLedger = usageLedger;
     }
 
     @Override
     public Optional<ResourceImpl> getUsedResource(String accountId) throws NotFoundException, ServerException {
         final Account account = accountManager.getById(accountId);
-        final long currentlyUsedRuntimes = workspaceManagerProvider.get()
-                                                                   .getByNamespace(account.getName(), false)
-                                                                   .stream()
-                                                                   .filter(ws -> STOPPED != ws.getStatus())
-                                                                   .count();
-        if (currentlyUsedRuntimes > 0) {
-            return Optional.of(new ResourceImpl(RuntimeResourceType.ID, currentlyUsedRuntimes, RuntimeResourceType.UNIT));
+        final long usedRuntimes = usageLedger.getUsage(account.getName()).getRuntimes();
+        if (usedRuntimes > 0) {
+            return Optional.of(new ResourceImpl(RuntimeResourceType.ID, usedRuntimes, RuntimeResourceType.UNIT));
         } else {
             return Optional.empty();
         }
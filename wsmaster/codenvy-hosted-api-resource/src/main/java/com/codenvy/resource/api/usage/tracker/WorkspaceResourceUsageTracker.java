@@ -22,13 +22,9 @@ import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.api.workspace.server.WorkspaceManager;
-import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 
 import javax.inject.Inject;
-import javax.inject.Provider;
 import javax.inject.Singleton;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -38,21 +34,21 @@ import java.util.Optional;
  */
 @Singleton
 public class WorkspaceResourceUsageTracker implements ResourceUsageTracker {
-    private final Provider<WorkspaceManager> workspaceManagerProvider;
-    private final AccountManager             accountManager;
+    private final AccountManager        accountManager;
+    private final WorkspacesUsageLedger usageLedger;
 
     @Inject
-    public WorkspaceResourceUsageTracker(Provider<WorkspaceManager> workspaceManagerProvider, AccountManager accountManager) {
-        this.workspaceManagerProvider = workspaceManagerProvider;
+    public WorkspaceResourceUsageTracker(AccountManager accountManager, WorkspacesUsageLedger usageLedger) {
         this.accountManager = accountManager;
+        this.usageLedger = usageLedger;
     }
 
     @Override
     public Optional<ResourceImpl> getUsedResource(String accountId) throws NotFoundException, ServerException {
         final Account account = accountManager.getById(accountId);
-        final List<WorkspaceImpl> accountWorkspaces = workspaceManagerProvider.get().getByNamespace(account.getName(), false);
-        if (!accountWorkspaces.isEmpty()) {
-            return Optional.of(new ResourceImpl(WorkspaceResourceType.ID, accountWorkspaces.size(), WorkspaceResourceType.UNIT));
+        final long workspaces = usageLedger.getUsage(account.getName()).getWorkspaces();
+        if (workspaces > 0) {
+            return Optional.of(new ResourceImpl(WorkspaceResourceType.ID, workspaces, WorkspaceResourceType.UNIT));
         } else {
             return Optional.empty();
         }
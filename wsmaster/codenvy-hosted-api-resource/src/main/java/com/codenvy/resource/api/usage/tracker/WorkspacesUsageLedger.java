@@ -0,0 +1,523 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.resource.api.usage.tracker;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.machine.shared.dto.event.MachineStatusEvent;
+import org.eclipse.che.api.workspace.server.WorkspaceManager;
+import org.eclipse.che.api.workspace.server.event.BeforeWorkspaceRemovedEvent;
+import org.eclipse.che.api.workspace.server.event.WorkspaceCreatedEvent;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
+
+/**
+ * Keeps usage of workspaces related resources per namespace, so the workspaces
+ * usage trackers don't fetch all the workspaces of account on each usage check.
+ *
+ * <p>Usage of namespace is fetched from {@link WorkspaceManager} on the first request,
+ * after that it is updated by workspace and machine events, only the workspace
+ * the event is related to is fetched. Usage of all the known namespaces is periodically
+ * reconciled with the workspaces stored in {@link WorkspaceManager}.
+ *
+ * <p>Each namespace has version which is incremented before applying of each event,
+ * fetched usage is stored only when version of namespace was not changed during fetching,
+ * so usage is never overridden by state which is older than applied event.
+ * Lost events (e.g. failed removal after {@link BeforeWorkspaceRemovedEvent}) are fixed by reconciliation.
+ *
+ * <p>Each change of workspace usage takes a sequence number before the workspace is fetched,
+ * the change is not applied when a change with greater sequence number is already applied to the workspace,
+ * so a refresh which fetched the workspace before another event doesn't override its result.
+ * Namespaces without workspaces are evicted.
+ *
+ * <p>Resources needed for start of workspace can be reserved before the start,
+ * so they are taken into account while the workspace is starting and its machines
+ * are not running yet. Reserved workspace is treated as running and uses the maximum
+ * of reserved and actually used RAM. Reservation is removed when the workspace becomes running or stops,
+ * or released by its owner when the start fails, after that only actually used resources are taken into account.
+ * Workspace can have only a single reservation, so a concurrent start of the same workspace
+ * can't release the reservation of the start which is in progress.
+ */
+@Singleton
+public class WorkspacesUsageLedger {
+    private static final Logger LOG = LoggerFactory.getLogger(WorkspacesUsageLedger.class);
+
+    private static final long NO_RESERVATION = -1;
+
+    private final Provider<WorkspaceManager>       workspaceManagerProvider;
+    private final EventService                     eventService;
+    private final Map<String, NamespaceUsage>      usages;
+    private final Map<String, Long>                versions;
+    private final AtomicLong                       sequence;
+    private final Map<String, Reservation>         reservations;
+    private final MachineStatusSubscriber          machineStatusSubscriber;
+    private final WorkspaceCreatedSubscriber       workspaceCreatedSubscriber;
+    private final BeforeWorkspaceRemovedSubscriber workspaceRemovedSubscriber;
+
+    @VisibleForTesting
+    final EventSubscriber<WorkspaceStatusEvent> workspaceStatusSubscriber;
+
+    @Inject
+    public WorkspacesUsageLedger(Provider<WorkspaceManager> workspaceManagerProvider, EventService eventService) {
+        this.workspaceManagerProvider = workspaceManagerProvider;
+        this.eventService = eventService;
+        this.usages = new ConcurrentHashMap<>();
+        this.versions = new ConcurrentHashMap<>();
+        this.sequence = new AtomicLong();
+        this.reservations = new ConcurrentHashMap<>();
+        this.workspaceStatusSubscriber = new WorkspaceStatusSubscriber();
+        this.machineStatusSubscriber = new MachineStatusSubscriber();
+        this.workspaceCreatedSubscriber = new WorkspaceCreatedSubscriber();
+        this.workspaceRemovedSubscriber = new BeforeWorkspaceRemovedSubscriber();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        eventService.subscribe(workspaceStatusSubscriber);
+        eventService.subscribe(machineStatusSubscriber);
+        eventService.subscribe(workspaceCreatedSubscriber);
+        eventService.subscribe(workspaceRemovedSubscriber);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        eventService.unsubscribe(workspaceStatusSubscriber);
+        eventService.unsubscribe(machineStatusSubscriber);
+        eventService.unsubscribe(workspaceCreatedSubscriber);
+        eventService.unsubscribe(workspaceRemovedSubscriber);
+    }
+
+    /**
+     * Returns usage of workspaces which belong to the given namespace.
+     *
+     * @param namespace
+     *         namespace of workspaces
+     * @return usage of workspaces of given namespace
+     * @throws ServerException
+     *         when any error occurs while workspaces fetching
+     */
+    public NamespaceUsage getUsage(String namespace) throws ServerException {
+        final NamespaceUsage usage = usages.get(namespace);
+        if (usage != null) {
+            return usage;
+        }
+        final long version = getVersion(namespace);
+        final NamespaceUsage fetched = fetch(namespace);
+        final NamespaceUsage stored = usages.compute(namespace, (ns, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+            return getVersion(ns) == version ? nullIfEmpty(fetched) : null;
+        });
+        return stored != null ? stored : fetched;
+    }
+
+    /**
+     * Reconciles usage of all the known namespaces with workspaces stored in {@link WorkspaceManager}.
+     */
+    @ScheduleRate(initialDelay = 60, periodParameterName = "resource.usage.reconciliation_period_sec")
+    public void reconcile() {
+        for (String namespace : usages.keySet()) {
+            final long version = getVersion(namespace);
+            final NamespaceUsage fetched;
+            try {
+                fetched = fetch(namespace);
+            } catch (ServerException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+                continue;
+            }
+            usages.computeIfPresent(namespace, (ns, existing) -> {
+                if (getVersion(ns) != version) {
+                    // events were applied while fetching, the next reconciliation will check it
+                    return existing;
+                }
+                if (!existing.equals(fetched)) {
+                    LOG.warn("Usage of workspaces of namespace '{}' was out of sync. Recorded: {}, actual: {}",
+                             ns, existing, fetched);
+                }
+                return nullIfEmpty(fetched);
+            });
+        }
+    }
+
+    /**
+     * Reserves resources for start of the workspace.
+     *
+     * <p>Note that availability of resources should be checked before the reservation
+     * under the resources lock of account, reservation itself doesn't check anything.
+     *
+     * <p>Reservation is removed automatically on {@link WorkspaceStatusEvent.EventType#RUNNING},
+     * {@link WorkspaceStatusEvent.EventType#ERROR} and {@link WorkspaceStatusEvent.EventType#STOPPED} events.
+     *
+     * @param namespace
+     *         namespace of workspace
+     * @param workspaceId
+     *         id of workspace which is going to be started
+     * @param ram
+     *         RAM in megabytes which is needed for start of workspace
+     * @return reservation which should be released when the start fails,
+     * or {@code null} when the workspace is already reserved by another start
+     */
+    public Reservation reserve(String namespace, String workspaceId, long ram) {
+        final Reservation reservation = new Reservation(namespace, workspaceId, ram);
+        if (reservations.putIfAbsent(workspaceId, reservation) != null) {
+            return null;
+        }
+        modify(namespace, workspaceId, workspaceUsage -> workspaceUsage.withReservedRam(ram));
+        return reservation;
+    }
+
+    /**
+     * Releases reservation of the workspace which failed to start.
+     * Does nothing when the reservation is already removed.
+     *
+     * @param reservation
+     *         reservation returned by {@link #reserve(String, String, long)}
+     */
+    public void release(Reservation reservation) {
+        if (reservations.remove(reservation.workspaceId, reservation)) {
+            modify(reservation.namespace, reservation.workspaceId, WorkspaceUsage::withoutReservation);
+        }
+    }
+
+    @VisibleForTesting
+    void refresh(String workspaceId) {
+        final long sequence = this.sequence.incrementAndGet();
+        final WorkspaceImpl workspace;
+        try {
+            workspace = workspaceManagerProvider.get().getWorkspace(workspaceId);
+        } catch (NotFoundException e) {
+            // workspace is already removed
+            return;
+        } catch (ServerException e) {
+            LOG.error("Failed to refresh usage of workspace '{}'. Cause: {}", workspaceId, e.getLocalizedMessage());
+            return;
+        }
+        update(workspace.getNamespace(), workspaceId, WorkspaceUsage.of(workspace), sequence);
+    }
+
+    @VisibleForTesting
+    void update(String namespace, String workspaceId, WorkspaceUsage workspaceUsage) {
+        update(namespace, workspaceId, workspaceUsage, sequence.incrementAndGet());
+    }
+
+    private void update(String namespace, String workspaceId, WorkspaceUsage workspaceUsage, long sequence) {
+        versions.merge(namespace, 1L, Long::sum);
+        // reservation is applied at the moment of update, as it may be changed while the workspace is fetched
+        usages.computeIfPresent(namespace, (ns, existing) -> nullIfEmpty(existing.with(workspaceId,
+                                                                                       withReservation(workspaceId, workspaceUsage),
+                                                                                       sequence)));
+    }
+
+    private void modify(String namespace, String workspaceId, UnaryOperator<WorkspaceUsage> modification) {
+        versions.merge(namespace, 1L, Long::sum);
+        usages.computeIfPresent(namespace, (ns, existing) -> {
+            final WorkspaceUsage workspaceUsage = existing.get(workspaceId);
+            if (workspaceUsage == null) {
+                // workspace is already removed
+                return existing;
+            }
+            return existing.with(workspaceId, modification.apply(workspaceUsage));
+        });
+    }
+
+    private WorkspaceUsage withReservation(String workspaceId, WorkspaceUsage workspaceUsage) {
+        final Reservation reservation = reservations.get(workspaceId);
+        if (workspaceUsage == null || reservation == null) {
+            return workspaceUsage;
+        }
+        return workspaceUsage.withReservedRam(reservation.ram);
+    }
+
+    private static NamespaceUsage nullIfEmpty(NamespaceUsage usage) {
+        return usage.getWorkspaces() == 0 ? null : usage;
+    }
+
+    private long getVersion(String namespace) {
+        return versions.getOrDefault(namespace, 0L);
+    }
+
+    private NamespaceUsage fetch(String namespace) throws ServerException {
+        final long sequence = this.sequence.incrementAndGet();
+        final List<WorkspaceImpl> workspaces = workspaceManagerProvider.get().getByNamespace(namespace, true);
+        final Map<String, WorkspaceUsage> workspacesUsages = new HashMap<>();
+        for (WorkspaceImpl workspace : workspaces) {
+            workspacesUsages.put(workspace.getId(), withReservation(workspace.getId(), WorkspaceUsage.of(workspace)));
+        }
+        return new NamespaceUsage(workspacesUsages, sequence);
+    }
+
+    /** Usage of resources by all the workspaces of single namespace. Immutable. */
+    public static class NamespaceUsage {
+        private final Map<String, WorkspaceUsage> workspaces;
+        private final Map<String, Long>           sequences;
+        private final long                        sequence;
+        private final long                        runtimes;
+        private final long                        ram;
+
+        NamespaceUsage(Map<String, WorkspaceUsage> workspaces, long sequence) {
+            this(workspaces, ImmutableMap.of(), sequence);
+        }
+
+        /**
+         * @param sequences
+         *         sequence numbers of the last applied changes of workspaces
+         * @param sequence
+         *         sequence number taken before the workspaces were fetched
+         */
+        private NamespaceUsage(Map<String, WorkspaceUsage> workspaces, Map<String, Long> sequences, long sequence) {
+            this.workspaces = ImmutableMap.copyOf(workspaces);
+            this.sequences = ImmutableMap.copyOf(sequences);
+            this.sequence = sequence;
+            long runtimes = 0;
+            long ram = 0;
+            for (WorkspaceUsage workspaceUsage : workspaces.values()) {
+                if (workspaceUsage.isRunning()) {
+                    runtimes++;
+                }
+                ram += workspaceUsage.getRam();
+            }
+            this.runtimes = runtimes;
+            this.ram = ram;
+        }
+
+        /** Returns number of workspaces. */
+        public long getWorkspaces() {
+            return workspaces.size();
+        }
+
+        /** Returns number of workspaces which are not stopped. */
+        public long getRuntimes() {
+            return runtimes;
+        }
+
+        /** Returns RAM in megabytes used by machines of workspaces which are not stopped. */
+        public long getRam() {
+            return ram;
+        }
+
+        WorkspaceUsage get(String workspaceId) {
+            return workspaces.get(workspaceId);
+        }
+
+        /** Returns usage with the modified usage of existing workspace. */
+        NamespaceUsage with(String workspaceId, WorkspaceUsage workspaceUsage) {
+            final Map<String, WorkspaceUsage> updated = new HashMap<>(workspaces);
+            updated.put(workspaceId, workspaceUsage);
+            return new NamespaceUsage(updated, sequences, sequence);
+        }
+
+        /**
+         * Returns usage with the changed usage of workspace, or this usage
+         * when a change with greater sequence number is already applied to the workspace.
+         * Workspace is removed when the given usage is {@code null}.
+         */
+        NamespaceUsage with(String workspaceId, WorkspaceUsage workspaceUsage, long changeSequence) {
+            if (changeSequence < sequences.getOrDefault(workspaceId, sequence)) {
+                return this;
+            }
+            final Map<String, WorkspaceUsage> updated = new HashMap<>(workspaces);
+            if (workspaceUsage == null) {
+                updated.remove(workspaceId);
+            } else {
+                updated.put(workspaceId, workspaceUsage);
+            }
+            final Map<String, Long> updatedSequences = new HashMap<>(sequences);
+            updatedSequences.put(workspaceId, changeSequence);
+            return new NamespaceUsage(updated, updatedSequences, sequence);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof NamespaceUsage)) {
+                return false;
+            }
+            final NamespaceUsage that = (NamespaceUsage)obj;
+            return workspaces.equals(that.workspaces);
+        }
+
+        @Override
+        public int hashCode() {
+            return workspaces.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "NamespaceUsage{" +
+                   "workspaces=" + workspaces.size() +
+                   ", runtimes=" + runtimes +
+                   ", ram=" + ram +
+                   '}';
+        }
+    }
+
+    /** Usage of resources by single workspace. Immutable. */
+    static class WorkspaceUsage {
+        static final WorkspaceUsage STOPPED_WORKSPACE = new WorkspaceUsage(false, 0, NO_RESERVATION);
+
+        private final boolean running;
+        private final long    ram;
+        private final long    reservedRam;
+
+        WorkspaceUsage(boolean running, long ram) {
+            this(running, ram, NO_RESERVATION);
+        }
+
+        private WorkspaceUsage(boolean running, long ram, long reservedRam) {
+            this.running = running;
+            this.ram = ram;
+            this.reservedRam = reservedRam;
+        }
+
+        static WorkspaceUsage of(WorkspaceImpl workspace) {
+            if (workspace.getStatus() == STOPPED) {
+                return STOPPED_WORKSPACE;
+            }
+            long ram = 0;
+            if (workspace.getRuntime() != null) {
+                ram = workspace.getRuntime()
+                               .getMachines()
+                               .stream()
+                               .mapToLong(machine -> machine.getConfig()
+                                                            .getLimits()
+                                                            .getRam())
+                               .sum();
+            }
+            return new WorkspaceUsage(true, ram);
+        }
+
+        /** Returns true when workspace is not stopped or it is reserved for start. */
+        boolean isRunning() {
+            return running || reservedRam != NO_RESERVATION;
+        }
+
+        /** Returns maximum of actually used and reserved RAM. */
+        long getRam() {
+            return Math.max(ram, reservedRam);
+        }
+
+        WorkspaceUsage withReservedRam(long reservedRam) {
+            return new WorkspaceUsage(running, ram, reservedRam);
+        }
+
+        WorkspaceUsage withoutReservation() {
+            return new WorkspaceUsage(running, ram, NO_RESERVATION);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof WorkspaceUsage)) {
+                return false;
+            }
+            final WorkspaceUsage that = (WorkspaceUsage)obj;
+            return running == that.running && ram == that.ram && reservedRam == that.reservedRam;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 31 * hash + Boolean.hashCode(running);
+            hash = 31 * hash + Long.hashCode(ram);
+            hash = 31 * hash + Long.hashCode(reservedRam);
+            return hash;
+        }
+    }
+
+    /** Resources reserved for start of workspace. */
+    public static class Reservation {
+        private final String namespace;
+        private final String workspaceId;
+        private final long   ram;
+
+        private Reservation(String namespace, String workspaceId, long ram) {
+            this.namespace = namespace;
+            this.workspaceId = workspaceId;
+            this.ram = ram;
+        }
+    }
+
+    private class WorkspaceStatusSubscriber implements EventSubscriber<WorkspaceStatusEvent> {
+        @Override
+        public void onEvent(WorkspaceStatusEvent event) {
+            switch (event.getEventType()) {
+                case RUNNING:
+                case ERROR:
+                case STOPPED:
+                    // actual usage is fetched by the refresh, so entry is not updated here
+                    reservations.remove(event.getWorkspaceId());
+                    break;
+                default:
+                    // reservation is kept while workspace is starting
+            }
+            refresh(event.getWorkspaceId());
+        }
+    }
+
+    private class MachineStatusSubscriber implements EventSubscriber<MachineStatusEvent> {
+        @Override
+        public void onEvent(MachineStatusEvent event) {
+            switch (event.getEventType()) {
+                case RUNNING:
+                case DESTROYED:
+                    refresh(event.getWorkspaceId());
+                    break;
+                default:
+                    // machine RAM is taken into account only for running machines
+            }
+        }
+    }
+
+    private class WorkspaceCreatedSubscriber implements EventSubscriber<WorkspaceCreatedEvent> {
+        @Override
+        public void onEvent(WorkspaceCreatedEvent event) {
+            update(event.getWorkspace().getNamespace(), event.getWorkspace().getId(), WorkspaceUsage.STOPPED_WORKSPACE);
+        }
+    }
+
+    private class BeforeWorkspaceRemovedSubscriber implements EventSubscriber<BeforeWorkspaceRemovedEvent> {
+        @Override
+        public void onEvent(BeforeWorkspaceRemovedEvent event) {
+            update(event.getWorkspace().getNamespace(), event.getWorkspace().getId(), null);
+        }
+    }
+}
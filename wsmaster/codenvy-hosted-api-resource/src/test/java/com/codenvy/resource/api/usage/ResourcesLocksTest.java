@@ -0,0 +1,138 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.resource.api.usage;
+
+import com.codenvy.resource.api.ResourceLockKeyProvider;
+import com.google.common.collect.ImmutableSet;
+
+import org.eclipse.che.account.api.AccountManager;
+import org.eclipse.che.account.spi.AccountImpl;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.commons.lang.concurrent.Unlocker;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link ResourcesLocks}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class ResourcesLocksTest {
+    private static final String ORGANIZATIONAL = "organizational";
+    private static final String PERSONAL       = "personal";
+
+    @Mock
+    private AccountManager          accountManager;
+    @Mock
+    private ResourceLockKeyProvider lockKeyProvider;
+
+    private ExecutorService executor;
+    private ResourcesLocks  resourcesLocks;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(2);
+        when(lockKeyProvider.getAccountType()).thenReturn(ORGANIZATIONAL);
+        when(accountManager.getById(anyString())).thenAnswer(invocation -> {
+            final String id = (String)invocation.getArguments()[0];
+            return new AccountImpl(id, id, id.startsWith("org") ? ORGANIZATIONAL : PERSONAL);
+        });
+        resourcesLocks = new ResourcesLocks(ImmutableSet.of(lockKeyProvider), accountManager, 256, 200);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldUseLockKeyOfAccountType() throws Exception {
+        when(lockKeyProvider.getLockKey("org1")).thenReturn("org1");
+        when(lockKeyProvider.getLockKey("org2")).thenReturn("org1");
+
+        try (@SuppressWarnings("unused") Unlocker u = resourcesLocks.acquiresLock("org1")) {
+            assertEquals(tryLockInAnotherThread("org2"), Boolean.FALSE);
+        }
+        assertEquals(tryLockInAnotherThread("org2"), Boolean.TRUE);
+    }
+
+    @Test
+    public void shouldLockResourcesOfAllTheAccounts() throws Exception {
+        try (@SuppressWarnings("unused") Unlocker u = resourcesLocks.acquireLock("account1", "account2")) {
+            assertEquals(tryLockInAnotherThread("account1"), Boolean.FALSE);
+            assertEquals(tryLockInAnotherThread("account2"), Boolean.FALSE);
+        }
+        assertEquals(tryLockInAnotherThread("account1", "account2"), Boolean.TRUE);
+        assertEquals(resourcesLocks.getTimeoutNumber(), 2);
+    }
+
+    @Test
+    public void shouldReleaseAcquiredLocksWhenNotAllTheLocksAreAcquiredInTime() throws Exception {
+        try (@SuppressWarnings("unused") Unlocker u = resourcesLocks.acquireLock("account2")) {
+            assertEquals(tryLockInAnotherThread("account1", "account2"), Boolean.FALSE);
+
+            assertEquals(tryLockInAnotherThread("account1"), Boolean.TRUE);
+        }
+    }
+
+    @Test
+    public void shouldNotDeadlockWhenAccountsAreLockedInDifferentOrder() throws Exception {
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        tasks.add(lockRepeatedly("account1", "account2"));
+        tasks.add(lockRepeatedly("account2", "account1"));
+
+        for (Future<Void> future : executor.invokeAll(tasks, 10, TimeUnit.SECONDS)) {
+            future.get();
+        }
+        assertEquals(resourcesLocks.getTimeoutNumber(), 0);
+        assertEquals(resourcesLocks.getAcquiredNumber(), 2000);
+    }
+
+    private Callable<Void> lockRepeatedly(String... accountIds) {
+        return () -> {
+            for (int i = 0; i < 1000; i++) {
+                try (@SuppressWarnings("unused") Unlocker u = resourcesLocks.acquireLock(accountIds)) {
+                    Thread.yield();
+                }
+            }
+            return null;
+        };
+    }
+
+    private Boolean tryLockInAnotherThread(String... accountIds) throws Exception {
+        return executor.submit(() -> {
+            try (@SuppressWarnings("unused") Unlocker u = resourcesLocks.acquireLock(accountIds)) {
+                return true;
+            } catch (ServerException e) {
+                return false;
+            }
+        }).get();
+    }
+}
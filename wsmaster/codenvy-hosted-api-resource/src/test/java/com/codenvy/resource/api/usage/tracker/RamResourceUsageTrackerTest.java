@@ -20,6 +20,7 @@ import com.codenvy.resource.spi.impl.ResourceImpl;
 import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
@@ -27,7 +28,6 @@ import org.eclipse.che.api.machine.server.model.impl.MachineLimitsImpl;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -66,12 +66,15 @@ public class RamResourceUsageTrackerTest {
     @Mock
     private AccountManager   accountManager;
 
-    @InjectMocks
+    @Mock
+    private EventService     eventService;
+
     private RamResourceUsageTracker ramUsageTracker;
 
     @BeforeMethod
     public void setUp() throws Exception {
         when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+        ramUsageTracker = new RamResourceUsageTracker(accountManager, new WorkspacesUsageLedger(workspaceManagerProvider, eventService));
     }
 
     @Test(expectedExceptions = NotFoundException.class,
@@ -136,6 +139,7 @@ public class RamResourceUsageTrackerTest {
             machines.add(createMachine(machineRam));
         }
         return WorkspaceImpl.builder()
+                            .setId("workspace123")
                             .setRuntime(new WorkspaceRuntimeImpl(null, null, machines, null))
                             .setStatus(status)
                             .build();
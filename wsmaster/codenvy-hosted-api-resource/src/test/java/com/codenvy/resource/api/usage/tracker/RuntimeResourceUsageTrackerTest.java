@@ -20,10 +20,10 @@ import com.codenvy.resource.spi.impl.ResourceImpl;
 import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -62,12 +62,15 @@ public class RuntimeResourceUsageTrackerTest {
     @Mock
     private Account                    account;
 
-    @InjectMocks
+    @Mock
+    private EventService               eventService;
+
     private RuntimeResourceUsageTracker runtimeResourceUsageTracker;
 
     @BeforeMethod
     public void setUp() throws Exception {
         when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+        runtimeResourceUsageTracker = new RuntimeResourceUsageTracker(accountManager, new WorkspacesUsageLedger(workspaceManagerProvider, eventService));
     }
 
     @Test(expectedExceptions = NotFoundException.class,
@@ -108,12 +111,13 @@ public class RuntimeResourceUsageTrackerTest {
         assertEquals(usedRuntimes.getAmount(), WorkspaceStatus.values().length - 1); //except stopped workspaces
         assertEquals(usedRuntimes.getUnit(), RuntimeResourceType.UNIT);
         verify(accountManager).getById(eq("account123"));
-        verify(workspaceManager).getByNamespace(eq("testAccount"), eq(false));
+        verify(workspaceManager).getByNamespace(eq("testAccount"), eq(true));
     }
 
     /** Creates users workspace object based on the status. */
     public static WorkspaceImpl createWorkspace(WorkspaceStatus status) {
         return WorkspaceImpl.builder()
+                            .setId("workspace" + status)
                             .setStatus(status)
                             .build();
     }
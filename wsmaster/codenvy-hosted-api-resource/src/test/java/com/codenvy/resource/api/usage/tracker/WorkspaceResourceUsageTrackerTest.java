@@ -20,9 +20,9 @@ import com.codenvy.resource.spi.impl.ResourceImpl;
 import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -58,12 +58,15 @@ public class WorkspaceResourceUsageTrackerTest {
     @Mock
     private Account                    account;
 
-    @InjectMocks
+    @Mock
+    private EventService               eventService;
+
     private WorkspaceResourceUsageTracker workspaceResourceUsageTracker;
 
     @BeforeMethod
     public void setUp() throws Exception {
         when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+        workspaceResourceUsageTracker = new WorkspaceResourceUsageTracker(accountManager, new WorkspacesUsageLedger(workspaceManagerProvider, eventService));
     }
 
     @Test(expectedExceptions = NotFoundException.class,
@@ -92,7 +95,7 @@ public class WorkspaceResourceUsageTrackerTest {
         when(account.getName()).thenReturn("testAccount");
 
         when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
-                .thenReturn(Arrays.asList(new WorkspaceImpl(), new WorkspaceImpl(), new WorkspaceImpl()));
+                .thenReturn(Arrays.asList(createWorkspace("ws1"), createWorkspace("ws2"), createWorkspace("ws3")));
 
         Optional<ResourceImpl> usedWorkspacesOpt = workspaceResourceUsageTracker.getUsedResource("account123");
 
@@ -102,6 +105,12 @@ public class WorkspaceResourceUsageTrackerTest {
         assertEquals(usedWorkspaces.getAmount(), 3);
         assertEquals(usedWorkspaces.getUnit(), WorkspaceResourceType.UNIT);
         verify(accountManager).getById(eq("account123"));
-        verify(workspaceManager).getByNamespace(eq("testAccount"), eq(false));
+        verify(workspaceManager).getByNamespace(eq("testAccount"), eq(true));
+    }
+
+    private static WorkspaceImpl createWorkspace(String id) {
+        return WorkspaceImpl.builder()
+                            .setId(id)
+                            .build();
     }
 }
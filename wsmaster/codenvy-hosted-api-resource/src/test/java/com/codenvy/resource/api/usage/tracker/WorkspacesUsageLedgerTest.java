@@ -0,0 +1,291 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.resource.api.usage.tracker;
+
+import com.codenvy.resource.api.usage.tracker.WorkspacesUsageLedger.NamespaceUsage;
+import com.codenvy.resource.api.usage.tracker.WorkspacesUsageLedger.Reservation;
+import com.codenvy.resource.api.usage.tracker.WorkspacesUsageLedger.WorkspaceUsage;
+
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
+import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
+import org.eclipse.che.api.machine.server.model.impl.MachineLimitsImpl;
+import org.eclipse.che.api.workspace.server.WorkspaceManager;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent.EventType;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import javax.inject.Provider;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Tests for {@link WorkspacesUsageLedger}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class WorkspacesUsageLedgerTest {
+    private static final String NAMESPACE = "testAccount";
+
+    @Mock
+    private Provider<WorkspaceManager> workspaceManagerProvider;
+    @Mock
+    private WorkspaceManager           workspaceManager;
+    @Mock
+    private EventService               eventService;
+
+    private WorkspacesUsageLedger ledger;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+        ledger = new WorkspacesUsageLedger(workspaceManagerProvider, eventService);
+    }
+
+    @Test
+    public void shouldFetchUsageOfNamespaceOnlyOnce() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(asList(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000, 500),
+                                   createWorkspace("ws2", WorkspaceStatus.STOPPED),
+                                   createWorkspace("ws3", WorkspaceStatus.STARTING, 500)));
+
+        ledger.getUsage(NAMESPACE);
+        final NamespaceUsage usage = ledger.getUsage(NAMESPACE);
+
+        assertEquals(usage.getWorkspaces(), 3);
+        assertEquals(usage.getRuntimes(), 2);
+        assertEquals(usage.getRam(), 2000);
+        verify(workspaceManager).getByNamespace(eq(NAMESPACE), eq(true));
+    }
+
+    @Test
+    public void shouldUpdateUsageWhenWorkspaceIsRefreshed() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(singletonList(createWorkspace("ws1", WorkspaceStatus.STOPPED)));
+        ledger.getUsage(NAMESPACE);
+        when(workspaceManager.getWorkspace("ws1")).thenReturn(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000, 500));
+
+        ledger.refresh("ws1");
+
+        final NamespaceUsage usage = ledger.getUsage(NAMESPACE);
+        assertEquals(usage.getWorkspaces(), 1);
+        assertEquals(usage.getRuntimes(), 1);
+        assertEquals(usage.getRam(), 1500);
+        verify(workspaceManager).getByNamespace(eq(NAMESPACE), eq(true));
+    }
+
+    @Test
+    public void shouldIgnoreRefreshOfRemovedWorkspace() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(singletonList(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000)));
+        ledger.getUsage(NAMESPACE);
+        when(workspaceManager.getWorkspace("ws1")).thenThrow(new NotFoundException("not found"));
+
+        ledger.refresh("ws1");
+
+        assertEquals(ledger.getUsage(NAMESPACE).getRam(), 1000);
+    }
+
+    @Test
+    public void shouldNotApplyRefreshWhenNewerChangeIsAppliedWhileFetching() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(asList(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000),
+                                   createWorkspace("ws2", WorkspaceStatus.STOPPED)));
+        ledger.getUsage(NAMESPACE);
+        when(workspaceManager.getWorkspace("ws1")).thenAnswer(invocation -> {
+            final WorkspaceImpl fetched = createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000);
+            // workspace is stopped after it is fetched
+            ledger.update(NAMESPACE, "ws1", WorkspaceUsage.STOPPED_WORKSPACE);
+            return fetched;
+        });
+
+        ledger.refresh("ws1");
+
+        final NamespaceUsage usage = ledger.getUsage(NAMESPACE);
+        assertEquals(usage.getRuntimes(), 0);
+        assertEquals(usage.getRam(), 0);
+    }
+
+    @Test
+    public void shouldEvictNamespaceWithoutWorkspaces() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(singletonList(createWorkspace("ws1", WorkspaceStatus.STOPPED)));
+        ledger.getUsage(NAMESPACE);
+
+        ledger.update(NAMESPACE, "ws1", null);
+        ledger.getUsage(NAMESPACE);
+
+        verify(workspaceManager, times(2)).getByNamespace(eq(NAMESPACE), eq(true));
+    }
+
+    @Test
+    public void shouldAddAndRemoveWorkspaces() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(singletonList(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000)));
+        ledger.getUsage(NAMESPACE);
+
+        ledger.update(NAMESPACE, "ws2", WorkspaceUsage.STOPPED_WORKSPACE);
+        assertEquals(ledger.getUsage(NAMESPACE).getWorkspaces(), 2);
+
+        ledger.update(NAMESPACE, "ws1", null);
+        final NamespaceUsage usage = ledger.getUsage(NAMESPACE);
+        assertEquals(usage.getWorkspaces(), 1);
+        assertEquals(usage.getRuntimes(), 0);
+        assertEquals(usage.getRam(), 0);
+    }
+
+    @Test
+    public void shouldNotStoreFetchedUsageWhenNamespaceIsUpdatedWhileFetching() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean())).thenAnswer(invocation -> {
+            ledger.update(NAMESPACE, "ws2", WorkspaceUsage.STOPPED_WORKSPACE);
+            return singletonList(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000));
+        });
+
+        assertEquals(ledger.getUsage(NAMESPACE).getWorkspaces(), 1);
+        ledger.getUsage(NAMESPACE);
+
+        verify(workspaceManager, times(2)).getByNamespace(eq(NAMESPACE), eq(true));
+    }
+
+    @Test
+    public void shouldReconcileUsageWithStoredWorkspaces() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(singletonList(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000)));
+        ledger.getUsage(NAMESPACE);
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(singletonList(createWorkspace("ws1", WorkspaceStatus.STOPPED)));
+
+        ledger.reconcile();
+
+        final NamespaceUsage usage = ledger.getUsage(NAMESPACE);
+        assertEquals(usage.getRuntimes(), 0);
+        assertEquals(usage.getRam(), 0);
+        verify(workspaceManager, times(2)).getByNamespace(eq(NAMESPACE), eq(true));
+    }
+
+    @Test
+    public void shouldTakeReservedResourcesIntoAccountUntilWorkspaceIsRunning() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(singletonList(createWorkspace("ws1", WorkspaceStatus.STOPPED)));
+        ledger.getUsage(NAMESPACE);
+
+        ledger.reserve(NAMESPACE, "ws1", 2000);
+        NamespaceUsage usage = ledger.getUsage(NAMESPACE);
+        assertEquals(usage.getRuntimes(), 1);
+        assertEquals(usage.getRam(), 2000);
+
+        when(workspaceManager.getWorkspace("ws1")).thenReturn(createWorkspace("ws1", WorkspaceStatus.STARTING, 1000));
+        ledger.refresh("ws1");
+        usage = ledger.getUsage(NAMESPACE);
+        assertEquals(usage.getRuntimes(), 1);
+        assertEquals(usage.getRam(), 2000);
+
+        when(workspaceManager.getWorkspace("ws1")).thenReturn(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000));
+        ledger.workspaceStatusSubscriber.onEvent(newDto(WorkspaceStatusEvent.class).withWorkspaceId("ws1")
+                                                                                   .withEventType(EventType.RUNNING));
+        usage = ledger.getUsage(NAMESPACE);
+        assertEquals(usage.getRuntimes(), 1);
+        assertEquals(usage.getRam(), 1000);
+    }
+
+    @Test
+    public void shouldNotTakeReleasedReservationIntoAccount() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(singletonList(createWorkspace("ws1", WorkspaceStatus.STOPPED)));
+        ledger.getUsage(NAMESPACE);
+        final Reservation reservation = ledger.reserve(NAMESPACE, "ws1", 2000);
+
+        ledger.release(reservation);
+
+        final NamespaceUsage usage = ledger.getUsage(NAMESPACE);
+        assertEquals(usage.getRuntimes(), 0);
+        assertEquals(usage.getRam(), 0);
+    }
+
+    @Test
+    public void shouldNotReserveWorkspaceWhichIsAlreadyReserved() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(singletonList(createWorkspace("ws1", WorkspaceStatus.STOPPED)));
+        ledger.getUsage(NAMESPACE);
+        assertNotNull(ledger.reserve(NAMESPACE, "ws1", 2000));
+
+        assertNull(ledger.reserve(NAMESPACE, "ws1", 3000));
+
+        assertEquals(ledger.getUsage(NAMESPACE).getRam(), 2000);
+    }
+
+    @Test
+    public void shouldNotReleaseReservationWhichIsReplacedByAnotherStart() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(singletonList(createWorkspace("ws1", WorkspaceStatus.STOPPED)));
+        ledger.getUsage(NAMESPACE);
+        final Reservation outdated = ledger.reserve(NAMESPACE, "ws1", 2000);
+        when(workspaceManager.getWorkspace("ws1")).thenReturn(createWorkspace("ws1", WorkspaceStatus.STOPPED));
+        ledger.workspaceStatusSubscriber.onEvent(newDto(WorkspaceStatusEvent.class).withWorkspaceId("ws1")
+                                                                                   .withEventType(EventType.STOPPED));
+        ledger.reserve(NAMESPACE, "ws1", 3000);
+
+        ledger.release(outdated);
+
+        assertEquals(ledger.getUsage(NAMESPACE).getRam(), 3000);
+    }
+
+    @Test
+    public void shouldApplyReservationWhenUsageOfNamespaceIsFetched() throws Exception {
+        when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
+                .thenReturn(singletonList(createWorkspace("ws1", WorkspaceStatus.STOPPED)));
+
+        ledger.reserve(NAMESPACE, "ws1", 2000);
+
+        assertEquals(ledger.getUsage(NAMESPACE).getRam(), 2000);
+    }
+
+    private static WorkspaceImpl createWorkspace(String id, WorkspaceStatus status, Integer... machineRams) {
+        final List<MachineImpl> machines = new ArrayList<>(machineRams.length);
+        for (Integer machineRam : machineRams) {
+            machines.add(MachineImpl.builder()
+                                    .setConfig(MachineConfigImpl.builder()
+                                                                .setLimits(new MachineLimitsImpl(machineRam))
+                                                                .build())
+                                    .build());
+        }
+        return WorkspaceImpl.builder()
+                            .setId(id)
+                            .setNamespace(NAMESPACE)
+                            .setRuntime(new WorkspaceRuntimeImpl(null, null, machines, null))
+                            .setStatus(status)
+                            .build();
+    }
+}
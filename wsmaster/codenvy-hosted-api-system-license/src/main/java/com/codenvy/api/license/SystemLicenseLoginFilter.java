@@ -23,11 +23,7 @@ import com.codenvy.auth.sso.client.filter.UriStartFromRequestFilter;
 import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
-import org.eclipse.che.api.core.BadRequestException;
-import org.eclipse.che.api.core.ConflictException;
-import org.eclipse.che.api.core.ForbiddenException;
-import org.eclipse.che.api.core.NotFoundException;
-import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.UnauthorizedException;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.commons.env.EnvironmentContext;
@@ -46,8 +42,13 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.codenvy.api.license.shared.model.Issue.Status.FAIR_SOURCE_LICENSE_IS_NOT_ACCEPTED;
+import static java.lang.Thread.currentThread;
 
 /**
  * Checks system license conditions for login. If fair source license isn't accepted, then:
@@ -56,6 +57,11 @@ import static com.codenvy.api.license.shared.model.Issue.Status.FAIR_SOURCE_LICE
  *          otherwise: send redirection to fair-source-license-is-not-accepted-error page in response;
  * 2) if ("no.user.interaction" property == true),
  *     then return error 403 FORBIDDEN.
+ * <p>
+ * Accepted fair source license is remembered for {@link #ACCEPTANCE_CHECK_PERIOD_MS}, so the license legality
+ * is not requested from the API server on each request. Concurrent requests which come when the acceptance
+ * is not known wait for the single legality request. Not accepted license isn't remembered,
+ * so the acceptance is noticed right after the license is accepted.
  * @author Dmytro Nochevnov
  */
 @Singleton
@@ -64,6 +70,9 @@ public class SystemLicenseLoginFilter implements Filter {
     public static final String ACCEPT_FAIR_SOURCE_LICENSE_PAGE_URL                = "license.system.accept_fair_source_license_page_url";
     public static final String FAIR_SOURCE_LICENSE_IS_NOT_ACCEPTED_ERROR_PAGE_URL = "license.system.fair_source_license_is_not_accepted_error_page_url";
 
+    /** Time during which accepted fair source license isn't checked again. */
+    static final long ACCEPTANCE_CHECK_PERIOD_MS = TimeUnit.SECONDS.toMillis(30);
+
     public static final ImmutableList<String> URIS_TO_SKIP = ImmutableList.of("/api/permissions",
                                                                               "/api/user/settings",
                                                                               "/api/license/system/legality",
@@ -86,6 +95,9 @@ public class SystemLicenseLoginFilter implements Filter {
     @Named(FAIR_SOURCE_LICENSE_IS_NOT_ACCEPTED_ERROR_PAGE_URL)
     protected String                 fairSourceLicenseIsNotAcceptedErrorPageUrl;
 
+    private final AtomicReference<CompletableFuture<Boolean>> acceptanceCheck = new AtomicReference<>();
+
+    private volatile long acceptanceCheckExpiration;
 
     @Override
     public void init(FilterConfig config) throws ServletException {
@@ -142,12 +154,57 @@ public class SystemLicenseLoginFilter implements Filter {
         response.sendRedirect(redirectUrl.build().toString());
     }
 
-    private boolean isFairSourceLicenseNotAccepted() throws
-                                                     ForbiddenException,
-                                                     BadRequestException, IOException,
-                                                     ConflictException,
-                                                     NotFoundException,
-                                                     ServerException, UnauthorizedException {
+    private boolean isFairSourceLicenseNotAccepted() throws ApiException, IOException {
+        if (System.currentTimeMillis() < acceptanceCheckExpiration) {
+            return false;
+        }
+        while (true) {
+            final CompletableFuture<Boolean> inProgress = acceptanceCheck.get();
+            if (inProgress != null) {
+                return !await(inProgress);
+            }
+            // the check may be completed by another request after the expiration was read,
+            // the expiration is set before the completed check is cleared, so it is visible here
+            if (System.currentTimeMillis() < acceptanceCheckExpiration) {
+                return false;
+            }
+            final CompletableFuture<Boolean> check = new CompletableFuture<>();
+            if (acceptanceCheck.compareAndSet(null, check)) {
+                try {
+                    final boolean accepted = isFairSourceLicenseAccepted();
+                    if (accepted) {
+                        acceptanceCheckExpiration = System.currentTimeMillis() + ACCEPTANCE_CHECK_PERIOD_MS;
+                    }
+                    check.complete(accepted);
+                    return !accepted;
+                } catch (Throwable e) {
+                    check.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    acceptanceCheck.set(null);
+                }
+            }
+        }
+    }
+
+    private boolean await(CompletableFuture<Boolean> check) throws ApiException, IOException {
+        try {
+            return check.get();
+        } catch (InterruptedException e) {
+            currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the system license check", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ApiException) {
+                throw (ApiException)e.getCause();
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException)e.getCause();
+            }
+            throw new IOException(e.getCause().getLocalizedMessage(), e.getCause());
+        }
+    }
+
+    private boolean isFairSourceLicenseAccepted() throws ApiException, IOException {
         LegalityDto legality = requestFactory.fromUrl(UriBuilder.fromUri(apiEndpoint)
                                                                 .path(SystemLicenseService.class)
                                                                 .path(SystemLicenseService.class,
@@ -156,7 +213,7 @@ public class SystemLicenseLoginFilter implements Filter {
                                              .request()
                                              .asDto(LegalityDto.class);
 
-        return legality.getIssues().stream().anyMatch(issue -> issue.getStatus().equals(FAIR_SOURCE_LICENSE_IS_NOT_ACCEPTED));
+        return legality.getIssues().stream().noneMatch(issue -> issue.getStatus().equals(FAIR_SOURCE_LICENSE_IS_NOT_ACCEPTED));
     }
 
     @Override
@@ -21,4 +21,8 @@ public class SystemLicenseNotFoundException extends SystemLicenseException {
     public SystemLicenseNotFoundException(String message) {
         super(message);
     }
+
+    public SystemLicenseNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -16,6 +16,7 @@ package com.codenvy.api.license.server;
 
 import com.codenvy.api.license.SystemLicense;
 import com.codenvy.api.license.SystemLicenseFactory;
+import com.codenvy.api.license.exception.IllegalSystemLicenseFormatException;
 import com.codenvy.api.license.exception.InvalidSystemLicenseException;
 import com.codenvy.api.license.exception.SystemLicenseException;
 import com.codenvy.api.license.exception.SystemLicenseNotFoundException;
@@ -31,10 +32,19 @@ import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.user.server.UserManager;
+import org.eclipse.che.api.user.server.event.PostUserPersistedEvent;
+import org.eclipse.che.api.user.server.event.UserRemovedEvent;
 import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.validation.constraints.NotNull;
@@ -50,20 +60,36 @@ import static java.util.Objects.requireNonNull;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 
 /**
+ * Manages system license and checks whether the system usage meets its constraints.
+ *
+ * <p>Loaded license, number of users and number of nodes are kept in memory, so the checks don't read
+ * and validate license file or count users on each call. License is reloaded after it is stored or removed,
+ * users are counted again after user is created or removed, nodes are counted again periodically.
+ * Users are recounted periodically as well, since they may be created or removed without publishing events,
+ * e.g. by LDAP synchronization.
+ *
  * @author Anatoliy Bazko
  * @author Dmytro Nochevnov
  * @author Alexander Andrienko
  */
 @Singleton
 public class SystemLicenseManager implements SystemLicenseManagerObservable {
-
-    private final SystemLicenseFactory               licenseFactory;
-    private final UserManager                        userManager;
-    private final SwarmDockerConnector               dockerConnector;
-    private final SystemLicenseActionDao             systemLicenseActionDao;
-    private final SystemLicenseStorage               systemLicenseStorage;
-    private final SystemLicenseActivator             systemLicenseActivator;
-    private final List<SystemLicenseManagerObserver> observers;
+    private static final Logger LOG = LoggerFactory.getLogger(SystemLicenseManager.class);
+
+    private final SystemLicenseFactory                    licenseFactory;
+    private final UserManager                             userManager;
+    private final SwarmDockerConnector                    dockerConnector;
+    private final SystemLicenseActionDao                  systemLicenseActionDao;
+    private final SystemLicenseStorage                    systemLicenseStorage;
+    private final SystemLicenseActivator                  systemLicenseActivator;
+    private final List<SystemLicenseManagerObserver>      observers;
+    private final EventService                            eventService;
+    private final EventSubscriber<PostUserPersistedEvent> userPersistedSubscriber;
+    private final EventSubscriber<UserRemovedEvent>       userRemovedSubscriber;
+
+    private volatile LoadedLicense loadedLicense;
+    private volatile Long          userNumber;
+    private volatile Integer       nodeNumber;
 
     public static final String LICENSE_HAS_REACHED_ITS_USER_LIMIT_MESSAGE_FOR_REGISTRATION = "Your user license has reached its limit. You cannot add more users.";
     public static final String LICENSE_HAS_REACHED_ITS_USER_LIMIT_MESSAGE_FOR_WORKSPACE    = "The Codenvy license has reached its user limit - "
@@ -84,14 +110,42 @@ public class SystemLicenseManager implements SystemLicenseManagerObservable {
                                 SwarmDockerConnector dockerConnector,
                                 SystemLicenseActionDao systemLicenseActionDao,
                                 SystemLicenseStorage systemLicenseStorage,
-                                SystemLicenseActivator systemLicenseActivator) {
+                                SystemLicenseActivator systemLicenseActivator,
+                                EventService eventService) {
         this.licenseFactory = licenseFactory;
         this.userManager = userManager;
         this.dockerConnector = dockerConnector;
         this.systemLicenseActionDao = systemLicenseActionDao;
         this.systemLicenseStorage = systemLicenseStorage;
         this.systemLicenseActivator = systemLicenseActivator;
+        this.eventService = eventService;
         this.observers = new LinkedList<>();
+        // must be the first observer, so other observers see the new license
+        this.observers.add(new LoadedLicenseInvalidator());
+        this.userPersistedSubscriber = new EventSubscriber<PostUserPersistedEvent>() {
+            @Override
+            public void onEvent(PostUserPersistedEvent event) {
+                invalidateUserNumber();
+            }
+        };
+        this.userRemovedSubscriber = new EventSubscriber<UserRemovedEvent>() {
+            @Override
+            public void onEvent(UserRemovedEvent event) {
+                invalidateUserNumber();
+            }
+        };
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        eventService.subscribe(userPersistedSubscriber);
+        eventService.subscribe(userRemovedSubscriber);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        eventService.unsubscribe(userPersistedSubscriber);
+        eventService.unsubscribe(userRemovedSubscriber);
     }
 
     /**
@@ -129,10 +183,11 @@ public class SystemLicenseManager implements SystemLicenseManagerObservable {
      */
     @Nullable
     public SystemLicense load() throws SystemLicenseException {
-        String licenseText = systemLicenseStorage.loadLicense();
-        SystemLicense systemLicense = licenseFactory.create(licenseText);
-        systemLicenseActivator.validateActivation(systemLicense);
-        return systemLicense;
+        LoadedLicense loaded = loadedLicense;
+        if (loaded == null) {
+            loaded = loadIfInvalidated();
+        }
+        return loaded.get();
     }
 
     /**
@@ -155,6 +210,7 @@ public class SystemLicenseManager implements SystemLicenseManagerObservable {
             }
         } catch (InvalidSystemLicenseException e) {
             systemLicenseStorage.clean();
+            invalidateLicense();
         }
     }
 
@@ -162,8 +218,8 @@ public class SystemLicenseManager implements SystemLicenseManagerObservable {
      * Return true if only Codenvy usage meets the constrains of license properties or free usage properties.
      **/
     public boolean isSystemUsageLegal() throws ServerException, IOException {
-        long actualUsers = userManager.getTotalCount();
-        int actualServers = dockerConnector.getAvailableNodes().size();
+        long actualUsers = getUserNumber();
+        int actualServers = getNodeNumber();
 
         try {
             SystemLicense systemLicense = load();
@@ -182,7 +238,7 @@ public class SystemLicenseManager implements SystemLicenseManagerObservable {
      */
     public boolean isSystemNodesUsageLegal(Integer nodeNumber) throws IOException {
         if (nodeNumber == null) {
-            nodeNumber = dockerConnector.getAvailableNodes().size();
+            nodeNumber = getNodeNumber();
         }
 
         try {
@@ -198,7 +254,7 @@ public class SystemLicenseManager implements SystemLicenseManagerObservable {
      * @throws ServerException
      */
     public boolean canUserBeAdded() throws ServerException {
-        return isLicenseUsageLegal(userManager.getTotalCount() + 1);
+        return isLicenseUsageLegal(getUserNumber() + 1);
     }
 
     /**
@@ -302,7 +358,7 @@ public class SystemLicenseManager implements SystemLicenseManagerObservable {
     public String getMessageForLicenseCompletelyExpired() throws ServerException {
         if (isAdmin()) {
             return format(LICENSE_COMPLETELY_EXPIRED_MESSAGE_FOR_ADMIN_TEMPLATE,
-                          userManager.getTotalCount(),
+                          getUserNumber(),
                           SystemLicense.MAX_NUMBER_OF_FREE_USERS);
         } else {
                 return LICENSE_COMPLETELY_EXPIRED_MESSAGE_FOR_NON_ADMIN;
@@ -328,7 +384,7 @@ public class SystemLicenseManager implements SystemLicenseManagerObservable {
         // when license absent, invalid or non-completely-expired
         if (isAdmin()) {
             return format(LICENSE_COMPLETELY_EXPIRED_MESSAGE_FOR_ADMIN_TEMPLATE,
-                          userManager.getTotalCount(),
+                          getUserNumber(),
                           SystemLicense.MAX_NUMBER_OF_FREE_USERS);
         } else {
             return LICENSE_HAS_REACHED_ITS_USER_LIMIT_MESSAGE_FOR_WORKSPACE;
@@ -340,7 +396,7 @@ public class SystemLicenseManager implements SystemLicenseManagerObservable {
      * @throws ServerException
      */
     public boolean canStartWorkspace() throws ServerException {
-        return isLicenseUsageLegal(userManager.getTotalCount());
+        return isLicenseUsageLegal(getUserNumber());
     }
 
     @VisibleForTesting
@@ -371,9 +427,127 @@ public class SystemLicenseManager implements SystemLicenseManagerObservable {
         }
     }
 
+    /**
+     * Counts nodes again, the previous number is kept when nodes can't be fetched.
+     */
+    @ScheduleDelay(initialDelay = 60, delayParameterName = "license.system.nodes_check_period_sec")
+    public void refreshNodeNumber() {
+        try {
+            nodeNumber = dockerConnector.getAvailableNodes().size();
+        } catch (IOException e) {
+            LOG.warn("Failed to count nodes for system license check. " + e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * Counts users again, the previous number is kept when users can't be counted.
+     */
+    @ScheduleDelay(initialDelay = 60, delayParameterName = "license.system.users_check_period_sec")
+    public synchronized void refreshUserNumber() {
+        try {
+            userNumber = userManager.getTotalCount();
+        } catch (ServerException e) {
+            LOG.warn("Failed to count users for system license check. " + e.getLocalizedMessage(), e);
+        }
+    }
+
+    private long getUserNumber() throws ServerException {
+        Long number = userNumber;
+        if (number == null) {
+            number = countUsersIfInvalidated();
+        }
+        return number;
+    }
+
+    private int getNodeNumber() throws IOException {
+        Integer number = nodeNumber;
+        if (number == null) {
+            number = dockerConnector.getAvailableNodes().size();
+            nodeNumber = number;
+        }
+        return number;
+    }
+
+    /**
+     * Loads license under the lock, so license stored or removed meanwhile is not overridden by the old one.
+     * Only valid, missing or invalid license is kept until it is stored or removed,
+     * other failures, e.g. not activated license or I/O error, are not kept and loading is retried on the next call.
+     */
+    private synchronized LoadedLicense loadIfInvalidated() throws SystemLicenseException {
+        if (loadedLicense == null) {
+            try {
+                String licenseText = systemLicenseStorage.loadLicense();
+                SystemLicense systemLicense = licenseFactory.create(licenseText);
+                systemLicenseActivator.validateActivation(systemLicense);
+                loadedLicense = new LoadedLicense(systemLicense, null);
+            } catch (SystemLicenseNotFoundException | InvalidSystemLicenseException e) {
+                loadedLicense = new LoadedLicense(null, e);
+            }
+        }
+        return loadedLicense;
+    }
+
+    private synchronized void invalidateLicense() {
+        loadedLicense = null;
+    }
+
+    private synchronized long countUsersIfInvalidated() throws ServerException {
+        if (userNumber == null) {
+            userNumber = userManager.getTotalCount();
+        }
+        return userNumber;
+    }
+
+    private synchronized void invalidateUserNumber() {
+        userNumber = null;
+    }
+
     private boolean isAdmin() {
         return EnvironmentContext.getCurrent().getSubject().hasPermission(SystemDomain.DOMAIN_ID,
                                                                           null,
                                                                           SystemDomain.MANAGE_SYSTEM_ACTION);
     }
+
+    /** Loaded license or the reason why it can't be loaded. */
+    private static class LoadedLicense {
+        final SystemLicense          license;
+        final SystemLicenseException error;
+
+        LoadedLicense(SystemLicense license, SystemLicenseException error) {
+            this.license = license;
+            this.error = error;
+        }
+
+        /** Returns loaded license or throws new exception caused by the loading error, so the cached one is not shared. */
+        SystemLicense get() throws SystemLicenseException {
+            if (error instanceof SystemLicenseNotFoundException) {
+                throw new SystemLicenseNotFoundException(error.getMessage(), error);
+            }
+            if (error instanceof IllegalSystemLicenseFormatException) {
+                throw new IllegalSystemLicenseFormatException(error.getMessage(), error);
+            }
+            if (error != null) {
+                throw new InvalidSystemLicenseException(error.getMessage(), error);
+            }
+            return license;
+        }
+    }
+
+    private class LoadedLicenseInvalidator implements SystemLicenseManagerObserver {
+        @Override
+        public void onCodenvyFairSourceLicenseAccepted() {}
+
+        @Override
+        public void onProductLicenseRemoved(SystemLicense systemLicense) {
+            invalidateLicense();
+        }
+
+        @Override
+        public void onProductLicenseStored(SystemLicense systemLicense) {
+            invalidateLicense();
+        }
+
+        @Override
+        public void onProductLicenseExpired(SystemLicense systemLicense) {}
+    }
 }
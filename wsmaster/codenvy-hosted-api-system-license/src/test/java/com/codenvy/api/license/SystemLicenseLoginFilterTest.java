@@ -45,15 +45,23 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.codenvy.api.permission.server.SystemDomain.MANAGE_SYSTEM_ACTION;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.fail;
 
 /** Test related to @SystemLicenseLoginFilter class. */
@@ -104,6 +112,7 @@ public class SystemLicenseLoginFilterTest {
 
         when(servletResponse.getWriter()).thenReturn(servletResponseWriter);
         when(requestFilter.shouldSkip(eq(servletRequest))).thenReturn(false);
+        setFieldValue(filter, "acceptanceCheckExpiration", 0L);
     }
 
     @Test(dataProvider = "testData")
@@ -163,6 +172,73 @@ public class SystemLicenseLoginFilterTest {
         verifyNoRedirectionAndError().run();
     }
 
+    @Test
+    public void shouldNotCheckLegalityAgainWhileFairSourceLicenseAcceptanceIsRemembered() throws Exception {
+        //given
+        when(servletRequest.getRequestURI()).thenReturn("/api/user");
+        setIsFairSourceLicenseAccepted(true);
+
+        //when
+        filter.doFilter(servletRequest, servletResponse, chain);
+        filter.doFilter(servletRequest, servletResponse, chain);
+
+        //then
+        verify(requestFactory).fromUrl(API_ENDPOINT + "/license/system/legality");
+        verify(chain, times(2)).doFilter(servletRequest, servletResponse);
+    }
+
+    @Test
+    public void shouldCheckLegalityAgainWhenFairSourceLicenseIsNotAccepted() throws Exception {
+        //given
+        when(servletRequest.getRequestURI()).thenReturn("/api/user");
+        setIsFairSourceLicenseAccepted(false);
+        setIsAdminAndNotInteractive(true, true);
+
+        //when
+        filter.doFilter(servletRequest, servletResponse, chain);
+        filter.doFilter(servletRequest, servletResponse, chain);
+
+        //then
+        verify(requestFactory, times(2)).fromUrl(API_ENDPOINT + "/license/system/legality");
+    }
+
+    @Test
+    public void shouldCheckLegalityOnceForConcurrentRequests() throws Exception {
+        //given
+        final int threads = 8;
+        final int requestsPerThread = 100;
+        when(servletRequest.getRequestURI()).thenReturn("/api/user");
+        setIsFairSourceLicenseAccepted(true);
+        final AtomicInteger legalityRequests = new AtomicInteger();
+        when(requestFactory.fromUrl(API_ENDPOINT + "/license/system/legality")).thenAnswer(invocation -> {
+            legalityRequests.incrementAndGet();
+            Thread.sleep(100);
+            return request;
+        });
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //when
+        try {
+            final List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                tasks.add(() -> {
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        filter.doFilter(servletRequest, servletResponse, chain);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //then
+        assertEquals(legalityRequests.get(), 1);
+    }
+
     private Runnable verifySendRedirection(String url) {
         return () -> {
             try {
@@ -30,7 +30,11 @@ import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.user.server.UserManager;
+import org.eclipse.che.api.user.server.event.PostUserPersistedEvent;
+import org.eclipse.che.api.user.server.event.UserRemovedEvent;
+import org.eclipse.che.api.user.server.model.impl.UserImpl;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.subject.Subject;
 import org.mockito.ArgumentCaptor;
@@ -53,6 +57,7 @@ import static com.codenvy.api.license.shared.model.Constants.Action.ACCEPTED;
 import static com.codenvy.api.license.shared.model.Constants.Action.EXPIRED;
 import static com.codenvy.api.license.shared.model.Constants.PaidLicense.FAIR_SOURCE_LICENSE;
 import static com.codenvy.api.license.shared.model.Constants.PaidLicense.PRODUCT_LICENSE;
+import static java.util.Collections.emptyList;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
@@ -60,11 +65,13 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -130,7 +137,8 @@ public class SystemLicenseManagerTest {
                                                       swarmDockerConnector,
                                                       systemLicenseActionDao,
                                                       systemLicenseStorage,
-                                                      systemLicenseActivator));
+                                                      systemLicenseActivator,
+                                                      new EventService()));
 
         doReturn(license).when(licenseManager).load();
 
@@ -503,6 +511,171 @@ public class SystemLicenseManagerTest {
         assertEquals(result, "The Codenvy license has reached its user limit - you can access the user dashboard but not the IDE.");
     }
 
+    @Test
+    public void shouldLoadLicenseOnlyOnceUntilNewLicenseIsStored() throws Exception {
+        // given
+        SystemLicenseManager licenseManager = createNotSpiedLicenseManager(new EventService());
+        when(systemLicenseStorage.loadLicense()).thenReturn(LICENSE_TEXT);
+        licenseManager.load();
+        licenseManager.load();
+        verify(licenseFactory).create(LICENSE_TEXT);
+
+        // when
+        licenseManager.store(NEW_LICENSE_TEXT);
+        when(systemLicenseStorage.loadLicense()).thenReturn(NEW_LICENSE_TEXT);
+
+        // then
+        assertEquals(licenseManager.load(), newSystemLicense);
+        assertEquals(licenseManager.load(), newSystemLicense);
+        verify(licenseFactory, times(2)).create(NEW_LICENSE_TEXT);
+    }
+
+    @Test(expectedExceptions = SystemLicenseNotFoundException.class)
+    public void shouldNotReturnLoadedLicenseAfterItIsRemoved() throws Exception {
+        // given
+        SystemLicenseManager licenseManager = createNotSpiedLicenseManager(new EventService());
+        when(systemLicenseStorage.loadLicense()).thenReturn(LICENSE_TEXT);
+        licenseManager.load();
+
+        // when
+        licenseManager.remove();
+        when(systemLicenseStorage.loadLicense()).thenThrow(new SystemLicenseNotFoundException("not found"));
+
+        // then
+        licenseManager.load();
+    }
+
+    @Test
+    public void shouldNotLoadMissingLicenseAgainUntilLicenseIsStored() throws Exception {
+        // given
+        SystemLicenseManager licenseManager = createNotSpiedLicenseManager(new EventService());
+        SystemLicenseNotFoundException notFound = new SystemLicenseNotFoundException("not found");
+        when(systemLicenseStorage.loadLicense()).thenThrow(notFound);
+
+        // when
+        SystemLicenseException first = loadFailure(licenseManager);
+        SystemLicenseException second = loadFailure(licenseManager);
+
+        // then
+        verify(systemLicenseStorage).loadLicense();
+        assertTrue(first instanceof SystemLicenseNotFoundException);
+        assertTrue(second instanceof SystemLicenseNotFoundException);
+        assertNotSame(first, second);
+        assertEquals(first.getCause(), notFound);
+    }
+
+    @Test
+    public void shouldLoadLicenseAgainAfterUnexpectedFailure() throws Exception {
+        // given
+        SystemLicenseManager licenseManager = createNotSpiedLicenseManager(new EventService());
+        when(systemLicenseStorage.loadLicense()).thenThrow(new SystemLicenseException("I/O error"))
+                                                .thenReturn(LICENSE_TEXT);
+        loadFailure(licenseManager);
+
+        // when
+        SystemLicense loaded = licenseManager.load();
+
+        // then
+        assertEquals(loaded, license);
+        verify(systemLicenseStorage, times(2)).loadLicense();
+    }
+
+    @Test
+    public void shouldCountUsersAgainOnlyAfterUserIsCreatedOrRemoved() throws Exception {
+        // given
+        EventService eventService = new EventService();
+        SystemLicenseManager licenseManager = createNotSpiedLicenseManager(eventService);
+        licenseManager.subscribe();
+        when(systemLicenseStorage.loadLicense()).thenReturn(LICENSE_TEXT);
+        licenseManager.canStartWorkspace();
+        licenseManager.canUserBeAdded();
+        verify(userManager).getTotalCount();
+
+        // when
+        eventService.publish(new PostUserPersistedEvent(new UserImpl("user123", "user@codenvy.com", "user", "password", emptyList())));
+        licenseManager.canStartWorkspace();
+        eventService.publish(new UserRemovedEvent("user123"));
+        licenseManager.canStartWorkspace();
+
+        // then
+        verify(userManager, times(3)).getTotalCount();
+    }
+
+    @Test
+    public void shouldCountUsersAgainOnRefresh() throws Exception {
+        // given
+        SystemLicenseManager licenseManager = createNotSpiedLicenseManager(new EventService());
+        when(systemLicenseStorage.loadLicense()).thenReturn(LICENSE_TEXT);
+        when(userManager.getTotalCount()).thenReturn(USER_NUMBER);
+        doReturn(true).when(license).isLicenseUsageLegal(USER_NUMBER + 1, 0);
+        doReturn(false).when(license).isLicenseUsageLegal(USER_NUMBER + 2, 0);
+        assertTrue(licenseManager.canUserBeAdded());
+
+        // when
+        when(userManager.getTotalCount()).thenReturn(USER_NUMBER + 1);
+        assertTrue(licenseManager.canUserBeAdded());
+        licenseManager.refreshUserNumber();
+
+        // then
+        assertFalse(licenseManager.canUserBeAdded());
+        verify(userManager, times(2)).getTotalCount();
+    }
+
+    @Test
+    public void shouldKeepUserNumberWhenUsersCanNotBeCountedOnRefresh() throws Exception {
+        // given
+        SystemLicenseManager licenseManager = createNotSpiedLicenseManager(new EventService());
+        when(systemLicenseStorage.loadLicense()).thenReturn(LICENSE_TEXT);
+        when(userManager.getTotalCount()).thenReturn(USER_NUMBER);
+        doReturn(true).when(license).isLicenseUsageLegal(USER_NUMBER + 1, 0);
+        assertTrue(licenseManager.canUserBeAdded());
+
+        // when
+        when(userManager.getTotalCount()).thenThrow(new ServerException("db is not available"));
+        licenseManager.refreshUserNumber();
+
+        // then
+        assertTrue(licenseManager.canUserBeAdded());
+    }
+
+    @Test
+    public void shouldCountNodesAgainOnlyOnRefresh() throws Exception {
+        // given
+        SystemLicenseManager licenseManager = createNotSpiedLicenseManager(new EventService());
+        when(systemLicenseStorage.loadLicense()).thenReturn(LICENSE_TEXT);
+        doReturn(true).when(license).isLicenseNodesUsageLegal(NODES_NUMBER);
+        doReturn(false).when(license).isLicenseNodesUsageLegal(NODES_NUMBER + 1);
+        assertTrue(licenseManager.isSystemNodesUsageLegal(null));
+
+        // when
+        setSizeOfAdditionalNodes(NODES_NUMBER + 1);
+        assertTrue(licenseManager.isSystemNodesUsageLegal(null));
+        licenseManager.refreshNodeNumber();
+
+        // then
+        assertFalse(licenseManager.isSystemNodesUsageLegal(null));
+        verify(swarmDockerConnector, times(2)).getAvailableNodes();
+    }
+
+    private SystemLicenseException loadFailure(SystemLicenseManager licenseManager) {
+        try {
+            licenseManager.load();
+        } catch (SystemLicenseException e) {
+            return e;
+        }
+        throw new AssertionError("License loading must fail");
+    }
+
+    private SystemLicenseManager createNotSpiedLicenseManager(EventService eventService) {
+        return new SystemLicenseManager(licenseFactory,
+                                        userManager,
+                                        swarmDockerConnector,
+                                        systemLicenseActionDao,
+                                        systemLicenseStorage,
+                                        systemLicenseActivator,
+                                        eventService);
+    }
+
     private void setSizeOfAdditionalNodes(int size) throws IOException {
         when(swarmDockerConnector.getAvailableNodes()).thenReturn(dockerNodes);
         when(dockerNodes.size()).thenReturn(size);
@@ -46,15 +46,46 @@ import java.util.List;
                             query = "SELECT COUNT(worker) " +
                                     "FROM Worker worker " +
                                     "WHERE worker.workspaceId = :workspaceId "),
+                @NamedQuery(name = "Worker.getCountByWorkspaceIdAndAction",
+                            query = "SELECT COUNT(worker) " +
+                                    "FROM Worker worker " +
+                                    "JOIN worker.actions workerAction " +
+                                    "WHERE worker.workspaceId = :workspaceId " +
+                                    "AND workerAction = :action " +
+                                    "AND COALESCE(worker.userId, '*') <> :excludedUserId "),
                 @NamedQuery(name = "Worker.getByUserId",
                             query = "SELECT worker " +
                                     "FROM Worker worker " +
                                     "WHERE worker.userId = :userId "),
+                @NamedQuery(name = "Worker.getPublic",
+                            query = "SELECT worker " +
+                                    "FROM Worker worker " +
+                                    "WHERE worker.userId IS NULL "),
+                @NamedQuery(name = "Worker.getByUserIds",
+                            query = "SELECT worker " +
+                                    "FROM Worker worker " +
+                                    "WHERE worker.userId IN :userIds "),
                 @NamedQuery(name = "Worker.getByUserAndWorkspaceId",
                             query = "SELECT worker " +
                                     "FROM Worker worker " +
                                     "WHERE worker.userId = :userId " +
-                                    "AND worker.workspaceId = :workspaceId ")
+                                    "AND worker.workspaceId = :workspaceId "),
+                @NamedQuery(name = "Worker.getByWorkspaceIdPublic",
+                            query = "SELECT worker " +
+                                    "FROM Worker worker " +
+                                    "WHERE worker.workspaceId = :workspaceId " +
+                                    "AND worker.userId IS NULL "),
+                @NamedQuery(name = "Worker.getByUserAndWorkspaceIdWithPublic",
+                            query = "SELECT worker " +
+                                    "FROM Worker worker " +
+                                    "WHERE worker.workspaceId = :workspaceId " +
+                                    "AND (worker.userId = :userId OR worker.userId IS NULL) "),
+                @NamedQuery(name = "Worker.removeByWorkspaceId",
+                            query = "DELETE FROM Worker worker " +
+                                    "WHERE worker.workspaceId = :workspaceId "),
+                @NamedQuery(name = "Worker.removeByUserId",
+                            query = "DELETE FROM Worker worker " +
+                                    "WHERE worker.userId = :userId ")
         }
 )
 @Table(name = "worker")
@@ -20,6 +20,7 @@ import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -103,4 +104,43 @@ public interface WorkerDao {
      *         when any other error occurs during worker fetching
      */
     List<WorkerImpl> getWorkersByUser(String userId) throws ServerException;
+
+    /**
+     * Gets workers of all the given users by single request.
+     *
+     * @param userIds
+     *         users identifiers
+     * @return list of workers of given users, or empty list when users don't have any workers
+     * @throws NullPointerException
+     *         when {@code userIds} is null
+     * @throws ServerException
+     *         when any other error occurs during workers fetching
+     */
+    List<WorkerImpl> getWorkersByUsers(Collection<String> userIds) throws ServerException;
+
+    /**
+     * Removes all the workers of workspace by single bulk operation.
+     *
+     * @param workspaceId
+     *         workspace identifier
+     * @return removed workers, or empty list when workspace doesn't have any workers
+     * @throws NullPointerException
+     *         when {@code workspaceId} is null
+     * @throws ServerException
+     *         when any other error occurs during workers removing
+     */
+    List<WorkerImpl> removeByInstance(String workspaceId) throws ServerException;
+
+    /**
+     * Removes all the workers of user by single bulk operation.
+     *
+     * @param userId
+     *         user identifier
+     * @return removed workers, or empty list when user doesn't have any workers
+     * @throws NullPointerException
+     *         when {@code userId} is null
+     * @throws ServerException
+     *         when any other error occurs during workers removing
+     */
+    List<WorkerImpl> removeByUser(String userId) throws ServerException;
 }
@@ -15,6 +15,7 @@
 package com.codenvy.api.workspace.server.spi.jpa;
 
 import com.codenvy.api.permission.server.AbstractPermissionsDomain;
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
 import com.codenvy.api.permission.server.jpa.AbstractJpaPermissionsDao;
 import com.codenvy.api.workspace.server.stack.StackPermissionsImpl;
 import com.google.api.client.repackaged.com.google.common.annotations.VisibleForTesting;
@@ -65,6 +66,25 @@ public class JpaStackPermissionsDao extends AbstractJpaPermissionsDao<StackPermi
         }
     }
 
+    @Override
+    @Transactional
+    public List<StackPermissionsImpl> getWithWildcard(String userId, String instanceId) throws ServerException {
+        requireNonNull(instanceId, "Stack identifier required");
+        requireNonNull(userId, "User identifier required");
+        try {
+            return managerProvider.get()
+                                  .createNamedQuery("StackPermissions.getByUserAndStackIdWithPublic", StackPermissionsImpl.class)
+                                  .setParameter("stackId", instanceId)
+                                  .setParameter("userId", wildcardToNull(userId))
+                                  .getResultList()
+                                  .stream()
+                                  .map(StackPermissionsImpl::new)
+                                  .collect(toList());
+        } catch (RuntimeException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+    }
+
     @Override
     public List<StackPermissionsImpl> getByUser(String userId) throws ServerException {
         requireNonNull(userId, "User identifier required");
@@ -109,6 +129,48 @@ public class JpaStackPermissionsDao extends AbstractJpaPermissionsDao<StackPermi
         }
     }
 
+    @Override
+    protected long doGetCountByInstanceAndAction(String instanceId, String action, String excludedUserId) {
+        return managerProvider.get()
+                              .createNamedQuery("StackPermissions.getCountByStackIdAndAction", Long.class)
+                              .setParameter("stackId", instanceId)
+                              .setParameter("action", action)
+                              .setParameter("excludedUserId", excludedUserId)
+                              .getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    protected List<StackPermissionsImpl> doRemoveByInstance(String instanceId) {
+        final EntityManager manager = managerProvider.get();
+        final List<StackPermissionsImpl> removed = manager.createNamedQuery("StackPermissions.getByStackId", StackPermissionsImpl.class)
+                                                          .setParameter("stackId", instanceId)
+                                                          .getResultList()
+                                                          .stream()
+                                                          .map(StackPermissionsImpl::new)
+                                                          .collect(toList());
+        manager.createNamedQuery("StackPermissions.removeByStackId")
+               .setParameter("stackId", instanceId)
+               .executeUpdate();
+        return removed;
+    }
+
+    @Override
+    @Transactional
+    protected List<StackPermissionsImpl> doRemoveByUser(String userId) {
+        final EntityManager manager = managerProvider.get();
+        final List<StackPermissionsImpl> removed = manager.createNamedQuery("StackPermissions.getByUserId", StackPermissionsImpl.class)
+                                                          .setParameter("userId", userId)
+                                                          .getResultList()
+                                                          .stream()
+                                                          .map(StackPermissionsImpl::new)
+                                                          .collect(toList());
+        manager.createNamedQuery("StackPermissions.removeByUserId")
+               .setParameter("userId", userId)
+               .executeUpdate();
+        return removed;
+    }
+
     @Transactional
     protected StackPermissionsImpl doGet(String userId, String instanceId) {
         if (userId == null) {
@@ -128,6 +190,11 @@ public class JpaStackPermissionsDao extends AbstractJpaPermissionsDao<StackPermi
     @Transactional
     protected List<StackPermissionsImpl> doGetByUser(@Nullable String userId) throws ServerException {
         try {
+            if (userId == null) {
+                return managerProvider.get()
+                                      .createNamedQuery("StackPermissions.getPublic", StackPermissionsImpl.class)
+                                      .getResultList();
+            }
             return managerProvider.get()
                                   .createNamedQuery("StackPermissions.getByUserId", StackPermissionsImpl.class)
                                   .setParameter("userId", userId)
@@ -139,7 +206,6 @@ public class JpaStackPermissionsDao extends AbstractJpaPermissionsDao<StackPermi
 
     @Singleton
     public static class RemovePermissionsBeforeStackRemovedEventSubscriber extends CascadeEventSubscriber<BeforeStackRemovedEvent> {
-        private static final int PAGE_SIZE = 100;
         @Inject
         private EventService           eventService;
         @Inject
@@ -157,20 +223,15 @@ public class JpaStackPermissionsDao extends AbstractJpaPermissionsDao<StackPermi
 
         @Override
         public void onCascadeEvent(BeforeStackRemovedEvent event) throws Exception {
-            removeStackPermissions(event.getStack().getId(), PAGE_SIZE);
+            removeStackPermissions(event.getStack().getId());
         }
 
         @VisibleForTesting
-        void removeStackPermissions(String stackId, int pageSize) throws ServerException, NotFoundException {
-            Page<StackPermissionsImpl> stacksPage;
-            do {
-                // skip count always equals to 0 because elements will be shifted after removing previous items
-                stacksPage = dao.getByInstance(stackId, pageSize, 0);
-                for (StackPermissionsImpl stackPermissions : stacksPage.getItems()) {
-                    dao.remove(stackPermissions.getUserId(), stackPermissions.getInstanceId());
-                }
-            } while (stacksPage.hasNextPage());
-
+        void removeStackPermissions(String stackId) throws ServerException {
+            final List<StackPermissionsImpl> removed = dao.removeByInstance(stackId);
+            if (!removed.isEmpty()) {
+                eventService.publish(new BulkPermissionsRemovedEvent(removed));
+            }
         }
     }
 }
@@ -15,6 +15,7 @@
 package com.codenvy.api.workspace.server.spi.jpa;
 
 import com.codenvy.api.permission.server.AbstractPermissionsDomain;
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
 import com.codenvy.api.permission.server.jpa.AbstractJpaPermissionsDao;
 import com.codenvy.api.workspace.server.model.impl.WorkerImpl;
 import com.codenvy.api.workspace.server.spi.WorkerDao;
@@ -36,10 +37,12 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
+import java.util.Collection;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
+import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -80,6 +83,26 @@ public class JpaWorkerDao extends AbstractJpaPermissionsDao<WorkerImpl> implemen
         return getByUser(userId);
     }
 
+    @Override
+    @Transactional
+    public List<WorkerImpl> getWorkersByUsers(Collection<String> userIds) throws ServerException {
+        requireNonNull(userIds, "User identifiers required");
+        if (userIds.isEmpty()) {
+            return emptyList();
+        }
+        try {
+            return managerProvider.get()
+                                  .createNamedQuery("Worker.getByUserIds", WorkerImpl.class)
+                                  .setParameter("userIds", userIds)
+                                  .getResultList()
+                                  .stream()
+                                  .map(WorkerImpl::new)
+                                  .collect(toList());
+        } catch (RuntimeException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+    }
+
     @Override
     public WorkerImpl get(String userId, String instanceId) throws ServerException, NotFoundException {
         requireNonNull(instanceId, "Workspace identifier required");
@@ -91,6 +114,25 @@ public class JpaWorkerDao extends AbstractJpaPermissionsDao<WorkerImpl> implemen
         }
     }
 
+    @Override
+    @Transactional
+    public List<WorkerImpl> getWithWildcard(String userId, String instanceId) throws ServerException {
+        requireNonNull(instanceId, "Workspace identifier required");
+        requireNonNull(userId, "User identifier required");
+        try {
+            return managerProvider.get()
+                                  .createNamedQuery("Worker.getByUserAndWorkspaceIdWithPublic", WorkerImpl.class)
+                                  .setParameter("workspaceId", instanceId)
+                                  .setParameter("userId", wildcardToNull(userId))
+                                  .getResultList()
+                                  .stream()
+                                  .map(WorkerImpl::new)
+                                  .collect(toList());
+        } catch (RuntimeException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+    }
+
     @Override
     public List<WorkerImpl> getByUser(String userId) throws ServerException {
         requireNonNull(userId, "User identifier required");
@@ -133,8 +175,56 @@ public class JpaWorkerDao extends AbstractJpaPermissionsDao<WorkerImpl> implemen
         }
     }
 
+    @Override
+    protected long doGetCountByInstanceAndAction(String instanceId, String action, String excludedUserId) {
+        return managerProvider.get()
+                              .createNamedQuery("Worker.getCountByWorkspaceIdAndAction", Long.class)
+                              .setParameter("workspaceId", instanceId)
+                              .setParameter("action", action)
+                              .setParameter("excludedUserId", excludedUserId)
+                              .getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    protected List<WorkerImpl> doRemoveByInstance(String instanceId) {
+        final EntityManager manager = managerProvider.get();
+        final List<WorkerImpl> removed = manager.createNamedQuery("Worker.getByWorkspaceId", WorkerImpl.class)
+                                                .setParameter("workspaceId", instanceId)
+                                                .getResultList()
+                                                .stream()
+                                                .map(WorkerImpl::new)
+                                                .collect(toList());
+        manager.createNamedQuery("Worker.removeByWorkspaceId")
+               .setParameter("workspaceId", instanceId)
+               .executeUpdate();
+        return removed;
+    }
+
+    @Override
+    @Transactional
+    protected List<WorkerImpl> doRemoveByUser(String userId) {
+        final EntityManager manager = managerProvider.get();
+        final List<WorkerImpl> removed = manager.createNamedQuery("Worker.getByUserId", WorkerImpl.class)
+                                                .setParameter("userId", userId)
+                                                .getResultList()
+                                                .stream()
+                                                .map(WorkerImpl::new)
+                                                .collect(toList());
+        manager.createNamedQuery("Worker.removeByUserId")
+               .setParameter("userId", userId)
+               .executeUpdate();
+        return removed;
+    }
+
     @Transactional
     protected WorkerImpl doGet(String userId, String instanceId) {
+        if (userId == null) {
+            return managerProvider.get()
+                                  .createNamedQuery("Worker.getByWorkspaceIdPublic", WorkerImpl.class)
+                                  .setParameter("workspaceId", instanceId)
+                                  .getSingleResult();
+        }
         return managerProvider.get()
                               .createNamedQuery("Worker.getByUserAndWorkspaceId", WorkerImpl.class)
                               .setParameter("workspaceId", instanceId)
@@ -145,6 +235,11 @@ public class JpaWorkerDao extends AbstractJpaPermissionsDao<WorkerImpl> implemen
     @Transactional
     protected List<WorkerImpl> doGetByUser(@Nullable String userId) throws ServerException {
         try {
+            if (userId == null) {
+                return managerProvider.get()
+                                      .createNamedQuery("Worker.getPublic", WorkerImpl.class)
+                                      .getResultList();
+            }
             return managerProvider.get()
                                   .createNamedQuery("Worker.getByUserId", WorkerImpl.class)
                                   .setParameter("userId", userId)
@@ -156,8 +251,6 @@ public class JpaWorkerDao extends AbstractJpaPermissionsDao<WorkerImpl> implemen
 
     @Singleton
     public static class RemoveWorkersBeforeWorkspaceRemovedEventSubscriber extends CascadeEventSubscriber<BeforeWorkspaceRemovedEvent> {
-        private static final int PAGE_SIZE = 100;
-
         @Inject
         private EventService eventService;
         @Inject
@@ -175,19 +268,15 @@ public class JpaWorkerDao extends AbstractJpaPermissionsDao<WorkerImpl> implemen
 
         @Override
         public void onCascadeEvent(BeforeWorkspaceRemovedEvent event) throws Exception {
-            removeWorkers(event.getWorkspace().getId(), PAGE_SIZE);
+            removeWorkers(event.getWorkspace().getId());
         }
 
         @VisibleForTesting
-        void removeWorkers(String workspaceId, int pageSize) throws ServerException {
-            Page<WorkerImpl> workersPage;
-            do {
-                // skip count always equals to 0 because elements will be shifted after removing previous items
-                workersPage = workerDao.getWorkers(workspaceId, pageSize, 0);
-                for (WorkerImpl worker : workersPage.getItems()) {
-                    workerDao.removeWorker(worker.getInstanceId(), worker.getUserId());
-                }
-            } while (workersPage.hasNextPage());
+        void removeWorkers(String workspaceId) throws ServerException {
+            final List<WorkerImpl> removed = workerDao.removeByInstance(workspaceId);
+            if (!removed.isEmpty()) {
+                eventService.publish(new BulkPermissionsRemovedEvent(removed));
+            }
         }
     }
 
@@ -210,8 +299,9 @@ public class JpaWorkerDao extends AbstractJpaPermissionsDao<WorkerImpl> implemen
 
         @Override
         public void onCascadeEvent(BeforeUserRemovedEvent event) throws Exception {
-            for (WorkerImpl worker : dao.getWorkersByUser(event.getUser().getId())) {
-                dao.removeWorker(worker.getInstanceId(), worker.getUserId());
+            final List<WorkerImpl> removed = dao.removeByUser(event.getUser().getId());
+            if (!removed.isEmpty()) {
+                eventService.publish(new BulkPermissionsRemovedEvent(removed));
             }
         }
     }
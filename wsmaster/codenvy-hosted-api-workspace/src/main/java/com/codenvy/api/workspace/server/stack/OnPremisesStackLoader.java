@@ -22,6 +22,8 @@ import com.google.gson.reflect.TypeToken;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentRecipeImpl;
 import org.eclipse.che.api.workspace.server.model.impl.stack.StackImpl;
 import org.eclipse.che.api.workspace.server.spi.StackDao;
 import org.eclipse.che.api.workspace.server.stack.image.StackIcon;
@@ -38,10 +40,15 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 import static java.lang.String.format;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toCollection;
 
 /**
  * Class for loading list predefined {@link Stack} to the {@link StackDao}
@@ -61,6 +68,8 @@ public class OnPremisesStackLoader {
     private final StackDao               stackDao;
     private final JpaStackPermissionsDao permissionsDao;
 
+    private volatile Set<String> stacksImages = Collections.emptySet();
+
     @Inject
     public OnPremisesStackLoader(@Named("che.stacks.storage") String stacksPath,
                                  @Named("che.stacks.images") String stackIconFolder,
@@ -83,12 +92,32 @@ public class OnPremisesStackLoader {
             try (BufferedReader reader = Files.newBufferedReader(stackJsonPath)) {
                 List<StackImpl> stacks = GSON.fromJson(reader, new TypeToken<List<StackImpl>>() {}.getType());
                 stacks.forEach(this::loadStack);
+                stacksImages = Collections.unmodifiableSet(collectImages(stacks));
             } catch (Exception e) {
                 LOG.error("Failed to store stacks ", e);
             }
         }
     }
 
+    /**
+     * Returns docker images of the loaded predefined stacks,
+     * only images of the stacks with 'dockerimage' recipes are returned.
+     */
+    public Set<String> getStacksImages() {
+        return stacksImages;
+    }
+
+    private Set<String> collectImages(List<StackImpl> stacks) {
+        return stacks.stream()
+                     .filter(stack -> stack.getWorkspaceConfig() != null)
+                     .flatMap(stack -> stack.getWorkspaceConfig().getEnvironments().values().stream())
+                     .map(EnvironmentImpl::getRecipe)
+                     .filter(recipe -> recipe != null && "dockerimage".equals(recipe.getType()))
+                     .map(EnvironmentRecipeImpl::getLocation)
+                     .filter(Objects::nonNull)
+                     .collect(toCollection(LinkedHashSet::new));
+    }
+
     private void doCreate(StackImpl stack) throws ConflictException, ServerException {
         try {
             stackDao.update(stack);
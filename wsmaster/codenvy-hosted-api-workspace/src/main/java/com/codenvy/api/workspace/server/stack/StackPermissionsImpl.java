@@ -46,10 +46,21 @@ import java.util.List;
                             query = "SELECT COUNT(stack) " +
                                     "FROM StackPermissions stack " +
                                     "WHERE stack.stackId = :stackId "),
+                @NamedQuery(name = "StackPermissions.getCountByStackIdAndAction",
+                            query = "SELECT COUNT(stack) " +
+                                    "FROM StackPermissions stack " +
+                                    "JOIN stack.actions stackAction " +
+                                    "WHERE stack.stackId = :stackId " +
+                                    "AND stackAction = :action " +
+                                    "AND COALESCE(stack.userId, '*') <> :excludedUserId "),
                 @NamedQuery(name = "StackPermissions.getByUserId",
                             query = "SELECT stack " +
                                     "FROM StackPermissions stack " +
                                     "WHERE stack.userId = :userId "),
+                @NamedQuery(name = "StackPermissions.getPublic",
+                            query = "SELECT stack " +
+                                    "FROM StackPermissions stack " +
+                                    "WHERE stack.userId IS NULL "),
                 @NamedQuery(name = "StackPermissions.getByUserAndStackId",
                             query = "SELECT stack " +
                                     "FROM StackPermissions stack " +
@@ -59,7 +70,18 @@ import java.util.List;
                             query = "SELECT stack " +
                                     "FROM StackPermissions stack " +
                                     "WHERE stack.stackId = :stackId " +
-                                    "AND stack.userId IS NULL ")
+                                    "AND stack.userId IS NULL "),
+                @NamedQuery(name = "StackPermissions.getByUserAndStackIdWithPublic",
+                            query = "SELECT stack " +
+                                    "FROM StackPermissions stack " +
+                                    "WHERE stack.stackId = :stackId " +
+                                    "AND (stack.userId = :userId OR stack.userId IS NULL) "),
+                @NamedQuery(name = "StackPermissions.removeByStackId",
+                            query = "DELETE FROM StackPermissions stack " +
+                                    "WHERE stack.stackId = :stackId "),
+                @NamedQuery(name = "StackPermissions.removeByUserId",
+                            query = "DELETE FROM StackPermissions stack " +
+                                    "WHERE stack.userId = :userId ")
         }
 )
 @Table(indexes = {@Index(columnList = "userId, stackId", unique = true),
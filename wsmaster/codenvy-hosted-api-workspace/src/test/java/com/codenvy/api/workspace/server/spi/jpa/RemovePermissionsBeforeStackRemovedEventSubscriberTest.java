@@ -15,6 +15,7 @@
 package com.codenvy.api.workspace.server.spi.jpa;
 
 import com.codenvy.api.machine.server.recipe.RecipePermissionsImpl;
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
 import com.codenvy.api.workspace.server.jpa.OnPremisesJpaWorkspaceModule;
 import com.codenvy.api.workspace.server.spi.jpa.JpaStackPermissionsDao.RemovePermissionsBeforeStackRemovedEventSubscriber;
 import com.codenvy.api.workspace.server.stack.StackPermissionsImpl;
@@ -23,6 +24,8 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.persist.jpa.JpaPersistModule;
 
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.machine.server.recipe.RecipeImpl;
 import org.eclipse.che.api.user.server.model.impl.UserImpl;
 import org.eclipse.che.api.workspace.server.jpa.JpaStackDao;
@@ -38,6 +41,8 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
@@ -53,6 +58,7 @@ public class RemovePermissionsBeforeStackRemovedEventSubscriberTest {
     private EntityManager          manager;
     private JpaStackDao            stackDao;
     private JpaStackPermissionsDao stackPermissionsDao;
+    private EventService           eventService;
 
     private RemovePermissionsBeforeStackRemovedEventSubscriber subscriber;
 
@@ -79,6 +85,7 @@ public class RemovePermissionsBeforeStackRemovedEventSubscriberTest {
 
         manager = injector.getInstance(EntityManager.class);
         stackDao = injector.getInstance(JpaStackDao.class);
+        eventService = injector.getInstance(EventService.class);
         stackPermissionsDao = injector.getInstance(JpaStackPermissionsDao.class);
 
         subscriber = injector.getInstance(RemovePermissionsBeforeStackRemovedEventSubscriber.class);
@@ -124,10 +131,19 @@ public class RemovePermissionsBeforeStackRemovedEventSubscriberTest {
     }
 
     @Test
-    public void shouldRemoveAllRecipePermissionsWhenPageSizeEqualsToOne() throws Exception {
-        subscriber.removeStackPermissions(stack.getId(), 1);
+    public void shouldPublishRemovedStackPermissionsByOneEvent() throws Exception {
+        final List<BulkPermissionsRemovedEvent> events = new ArrayList<>();
+        final EventSubscriber<BulkPermissionsRemovedEvent> listener = events::add;
+        eventService.subscribe(listener, BulkPermissionsRemovedEvent.class);
+        try {
+            subscriber.removeStackPermissions(stack.getId());
+        } finally {
+            eventService.unsubscribe(listener, BulkPermissionsRemovedEvent.class);
+        }
 
         assertEquals(stackPermissionsDao.getByInstance(stack.getId(), 1, 0).getTotalItemsCount(), 0);
+        assertEquals(events.size(), 1);
+        assertEquals(events.get(0).getPermissions().size(), stackPermissions.length);
     }
 
     private static class TestModule extends AbstractModule {
@@ -14,6 +14,7 @@
  */
 package com.codenvy.api.workspace.server.spi.jpa;
 
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
 import com.codenvy.api.workspace.server.jpa.OnPremisesJpaWorkspaceModule;
 import com.codenvy.api.workspace.server.model.impl.WorkerImpl;
 import com.codenvy.api.workspace.server.spi.jpa.JpaWorkerDao.RemoveWorkersBeforeWorkspaceRemovedEventSubscriber;
@@ -22,6 +23,8 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.persist.jpa.JpaPersistModule;
 
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.user.server.model.impl.UserImpl;
 import org.eclipse.che.api.workspace.server.jpa.JpaWorkspaceDao;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
@@ -37,7 +40,9 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Stream;
 
 import static org.eclipse.che.commons.test.db.H2TestHelper.inMemoryDefault;
@@ -52,6 +57,7 @@ public class RemoveWorkersBeforeWorkspaceRemovedEventSubscriberTest {
     private EntityManager   manager;
     private JpaWorkerDao    workerDao;
     private JpaWorkspaceDao workspaceDao;
+    private EventService    eventService;
 
     private RemoveWorkersBeforeWorkspaceRemovedEventSubscriber subscriber;
 
@@ -74,6 +80,7 @@ public class RemoveWorkersBeforeWorkspaceRemovedEventSubscriberTest {
         manager = injector.getInstance(EntityManager.class);
         workerDao = injector.getInstance(JpaWorkerDao.class);
         workspaceDao = injector.getInstance(JpaWorkspaceDao.class);
+        eventService = injector.getInstance(EventService.class);
         subscriber = injector.getInstance(RemoveWorkersBeforeWorkspaceRemovedEventSubscriber.class);
         subscriber.subscribe();
     }
@@ -121,10 +128,19 @@ public class RemoveWorkersBeforeWorkspaceRemovedEventSubscriberTest {
     }
 
     @Test
-    public void shouldRemoveAllWorkersWhenPageSizeEqualsToOne() throws Exception {
-        subscriber.removeWorkers(workspace.getId(), 1);
+    public void shouldPublishRemovedWorkersByOneEvent() throws Exception {
+        final List<BulkPermissionsRemovedEvent> events = new ArrayList<>();
+        final EventSubscriber<BulkPermissionsRemovedEvent> listener = events::add;
+        eventService.subscribe(listener, BulkPermissionsRemovedEvent.class);
+        try {
+            subscriber.removeWorkers(workspace.getId());
+        } finally {
+            eventService.unsubscribe(listener, BulkPermissionsRemovedEvent.class);
+        }
 
         assertEquals(workerDao.getWorkers(workspace.getId(), 1, 0).getTotalItemsCount(), 0);
+        assertEquals(events.size(), 1);
+        assertEquals(events.get(0).getPermissions().size(), workers.length);
     }
 
     private class TestModule extends AbstractModule {
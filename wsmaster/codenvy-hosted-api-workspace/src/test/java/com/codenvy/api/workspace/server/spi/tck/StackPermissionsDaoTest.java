@@ -198,6 +198,80 @@ public class StackPermissionsDaoTest {
         dao.get("user", null);
     }
 
+    /* StackPermissionsDao.getWithWildcard() tests */
+    @Test
+    public void shouldGetPermissionsOfUserAndPublicPermissions() throws Exception {
+        final StackPermissionsImpl publicPermissions = new StackPermissionsImpl("*", "stack1", singletonList("read"));
+        dao.store(publicPermissions);
+
+        final List<StackPermissionsImpl> result = dao.getWithWildcard("user1", "stack1");
+
+        assertEquals(result.size(), 2);
+        assertTrue(result.contains(permissions[0]));
+        assertTrue(result.stream().anyMatch(p -> "*".equals(p.getUserId()) && p.getActions().equals(publicPermissions.getActions())));
+    }
+
+    @Test
+    public void shouldRemoveAllPermissionsOfInstance() throws Exception {
+        final List<StackPermissionsImpl> removed = dao.removeByInstance("stack1");
+
+        assertEquals(2, removed.size());
+        assertEquals(0, dao.getByInstance("stack1", 30, 0).getTotalItemsCount());
+        assertEquals(1, dao.getByUser("user1").size());
+    }
+
+    @Test
+    public void shouldRemoveAllPermissionsOfUser() throws Exception {
+        final List<StackPermissionsImpl> removed = dao.removeByUser("user1");
+
+        assertEquals(2, removed.size());
+        assertTrue(dao.getByUser("user1").isEmpty());
+        assertEquals(1, dao.getByInstance("stack1", 30, 0).getTotalItemsCount());
+    }
+
+    @Test
+    public void shouldCountPermissionsWithActionOfOtherUsers() throws Exception {
+        assertEquals(1, dao.getCountByInstanceAndAction("stack1", "use", "user1"));
+        assertEquals(0, dao.getCountByInstanceAndAction("stack1", "configure", "user1"));
+    }
+
+    @Test
+    public void shouldCountPublicPermissionsAsPermissionsOfOtherUser() throws Exception {
+        dao.store(new StackPermissionsImpl("*", "stack1", singletonList("use")));
+
+        assertEquals(2, dao.getCountByInstanceAndAction("stack1", "use", "user1"));
+        assertEquals(2, dao.getCountByInstanceAndAction("stack1", "use", "*"));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowExceptionWhenCountExcludedUserIdArgumentIsNull() throws Exception {
+        dao.getCountByInstanceAndAction("stack1", "use", null);
+    }
+
+    @Test
+    public void shouldGetPublicPermissionsByWildcardUser() throws Exception {
+        final StackPermissionsImpl publicPermissions = new StackPermissionsImpl("*", "stack1", singletonList("read"));
+        dao.store(publicPermissions);
+
+        final List<StackPermissionsImpl> result = dao.getByUser("*");
+
+        assertEquals(result.size(), 1);
+        assertEquals(result.get(0).getUserId(), "*");
+        assertEquals(result.get(0).getActions(), publicPermissions.getActions());
+    }
+
+    @Test
+    public void shouldGetOnlyPermissionsOfUserWhenThereAreNoPublicPermissions() throws Exception {
+        final List<StackPermissionsImpl> result = dao.getWithWildcard("user1", "stack1");
+
+        assertEquals(result, singletonList(permissions[0]));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowExceptionWhenGetWithWildcardUserIdArgumentIsNull() throws Exception {
+        dao.getWithWildcard(null, "instance");
+    }
+
     /* StackPermissionsDao.exists() tests */
     @Test
     public void shouldBeAbleToCheckPermissionExistence() throws Exception {
@@ -15,6 +15,7 @@
 package com.codenvy.api.workspace.server.spi.tck;
 
 import com.codenvy.api.permission.server.AbstractPermissionsDomain;
+import com.codenvy.api.permission.server.spi.PermissionsDao;
 import com.codenvy.api.workspace.server.model.impl.WorkerImpl;
 import com.codenvy.api.workspace.server.spi.WorkerDao;
 
@@ -56,6 +57,9 @@ public class WorkerDaoTest {
     @Inject
     private WorkerDao workerDao;
 
+    @Inject
+    private PermissionsDao<WorkerImpl> permissionsDao;
+
     @Inject
     private TckRepository<WorkerImpl> workerRepository;
 
@@ -161,6 +165,24 @@ public class WorkerDaoTest {
         assertTrue(new HashSet<>(actual).equals(new HashSet<>(expected)));
     }
 
+    @Test
+    public void shouldGetWorkersOfAllTheGivenUsers() throws Exception {
+        List<WorkerImpl> actual = workerDao.getWorkersByUsers(Arrays.asList("user0", "user2", "unexisted_user"));
+        List<WorkerImpl> expected = Arrays.asList(workers[1], workers[3], workers[4]);
+        assertEquals(actual.size(), expected.size());
+        assertTrue(new HashSet<>(actual).equals(new HashSet<>(expected)));
+    }
+
+    @Test
+    public void shouldReturnEmptyListWhenGettingWorkersOfEmptyUsersList() throws Exception {
+        assertTrue(workerDao.getWorkersByUsers(Collections.emptyList()).isEmpty());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowExceptionWhenGetWorkersByUsersArgumentIsNull() throws Exception {
+        workerDao.getWorkersByUsers(null);
+    }
+
     @Test(expectedExceptions = NullPointerException.class)
     public void shouldThrowExceptionWhenGetWorkersByWorkspaceArgumentIsNull() throws Exception {
         workerDao.getWorkers(null, 1, 0);
@@ -208,6 +230,72 @@ public class WorkerDaoTest {
         workerDao.removeWorker("ws1", "unexisted_user");
     }
 
+    /* PermissionsDao.getWithWildcard() tests */
+    @Test
+    public void shouldGetWorkerOfUserAndPublicWorker() throws Exception {
+        final WorkerImpl publicWorker = new WorkerImpl("ws1", "*", Collections.singletonList("read"));
+        workerDao.store(publicWorker);
+
+        final List<WorkerImpl> result = permissionsDao.getWithWildcard("user1", "ws1");
+
+        assertEquals(result.size(), 2);
+        assertTrue(result.contains(workers[0]));
+        assertTrue(result.contains(new WorkerImpl(publicWorker)));
+    }
+
+    @Test
+    public void shouldGetOnlyWorkerOfUserWhenThereIsNoPublicWorker() throws Exception {
+        assertEquals(permissionsDao.getWithWildcard("user1", "ws1"), Collections.singletonList(workers[0]));
+    }
+
+    @Test
+    public void shouldGetPublicWorkerByWildcardUser() throws Exception {
+        final WorkerImpl publicWorker = new WorkerImpl("ws1", "*", Collections.singletonList("read"));
+        workerDao.store(publicWorker);
+
+        assertEquals(permissionsDao.getWithWildcard("*", "ws1"), Collections.singletonList(new WorkerImpl(publicWorker)));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowExceptionWhenGetWithWildcardUserIdArgumentIsNull() throws Exception {
+        permissionsDao.getWithWildcard(null, "ws1");
+    }
+
+    /* PermissionsDao.getCountByInstanceAndAction() tests */
+    @Test
+    public void shouldCountWorkersWithActionOfOtherUsers() throws Exception {
+        assertEquals(permissionsDao.getCountByInstanceAndAction("ws1", "use", "user1"), 1);
+        assertEquals(permissionsDao.getCountByInstanceAndAction("ws1", "run", "user1"), 0);
+    }
+
+    @Test
+    public void shouldCountPublicWorkerAsWorkerOfOtherUser() throws Exception {
+        workerDao.store(new WorkerImpl("ws1", "*", Collections.singletonList("use")));
+
+        assertEquals(permissionsDao.getCountByInstanceAndAction("ws1", "use", "user1"), 2);
+        assertEquals(permissionsDao.getCountByInstanceAndAction("ws1", "use", "*"), 2);
+    }
+
+    /* PermissionsDao.getByUser() tests */
+    @Test
+    public void shouldGetPublicWorkersByWildcardUser() throws Exception {
+        final WorkerImpl publicWorker = new WorkerImpl("ws1", "*", Collections.singletonList("read"));
+        workerDao.store(publicWorker);
+
+        assertEquals(permissionsDao.getByUser("*"), Collections.singletonList(new WorkerImpl(publicWorker)));
+    }
+
+    @Test
+    public void shouldReplaceExistingPublicWorkerOnStoring() throws Exception {
+        workerDao.store(new WorkerImpl("ws1", "*", Collections.singletonList("read")));
+        final WorkerImpl publicWorker = new WorkerImpl("ws1", "*", Collections.singletonList("use"));
+
+        workerDao.store(publicWorker);
+
+        assertEquals(permissionsDao.get("*", "ws1"), publicWorker);
+        assertEquals(permissionsDao.getByUser("*"), Collections.singletonList(publicWorker));
+    }
+
     public static class TestDomain extends AbstractPermissionsDomain<WorkerImpl> {
         public TestDomain() {
             super("workspace", Arrays.asList("read", "write", "use", "delete"));
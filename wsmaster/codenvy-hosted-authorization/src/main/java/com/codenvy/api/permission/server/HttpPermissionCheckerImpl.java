@@ -15,85 +15,210 @@
 package com.codenvy.api.permission.server;
 
 import com.codenvy.api.permission.shared.dto.PermissionsDto;
+import com.codenvy.api.permission.shared.dto.PermissionsEventDto;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.name.Named;
 
-import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.subject.Subject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.core.UriBuilder;
-import java.util.HashSet;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.emptySet;
 
 /**
  * Implementation of {@link PermissionChecker} that load permissions by http requests to {@link PermissionsService}
  *
  * <p>It also caches permissions to avoid frequently requests to workspace master.
+ * All the permissions of user related to the domain, including permissions granted to all users,
+ * are fetched by single request and cached by user and domain. Cached permissions are invalidated
+ * by permissions events propagated from workspace master, permissions which are used after
+ * the refresh period are refreshed in background while the cached ones are used for checks.
  *
  * @author Sergii Leschenko
  */
 @Singleton
 public class HttpPermissionCheckerImpl implements PermissionChecker {
-    private final LoadingCache<Key, Set<String>> permissionsCache;
+    private static final Logger LOG = LoggerFactory.getLogger(HttpPermissionCheckerImpl.class);
+
+    private final String                        apiEndpoint;
+    private final HttpJsonRequestFactory        requestFactory;
+    private final Cache<Key, DomainPermissions> permissionsCache;
+    private final long                          refreshPeriodMs;
+    private final ExecutorService               refreshExecutor;
+    private final AtomicLong                    changesCounter;
 
     @Inject
     public HttpPermissionCheckerImpl(@Named("che.api") String apiEndpoint,
-                                     HttpJsonRequestFactory requestFactory) {
-        //TODO mb make configurable size of cache and expiration time
+                                     HttpJsonRequestFactory requestFactory,
+                                     @Named("permissions.checker.http.cache.size") long cacheSize,
+                                     @Named("permissions.checker.http.cache.expire_seconds") long expireSeconds,
+                                     @Named("permissions.checker.http.cache.refresh_seconds") long refreshSeconds) {
+        this.apiEndpoint = apiEndpoint;
+        this.requestFactory = requestFactory;
+        this.refreshPeriodMs = TimeUnit.SECONDS.toMillis(refreshSeconds);
+        this.changesCounter = new AtomicLong();
         this.permissionsCache = CacheBuilder.newBuilder()
-                                            .maximumSize(1000)
-                                            .expireAfterWrite(1, TimeUnit.MINUTES)
-                                            .build(new CacheLoader<Key, Set<String>>() {
-                                                @Override
-                                                public Set<String> load(Key key) throws Exception {
-                                                    UriBuilder currentUsersPermissions = UriBuilder.fromUri(apiEndpoint)
-                                                                                                   .path(PermissionsService.class)
-                                                                                                   .path(PermissionsService.class,
-                                                                                                         "getCurrentUsersPermissions");
-                                                    if (key.instance != null) {
-                                                        currentUsersPermissions.queryParam("instance", key.instance);
-                                                    }
-                                                    String userPermissionsUrl = currentUsersPermissions.build(key.domain).toString();
-                                                    try {
-                                                        PermissionsDto usersPermissions = requestFactory.fromUrl(userPermissionsUrl)
-                                                                                                        .useGetMethod()
-                                                                                                        .request().asDto(
-                                                                        PermissionsDto.class);
-                                                        return new HashSet<>(usersPermissions.getActions());
-                                                    } catch (NotFoundException e) {
-                                                        //user doesn't have permissions
-                                                        return new HashSet<>();
-                                                    }
-                                                }
-                                            });
+                                            .maximumSize(cacheSize)
+                                            .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                                            .build();
+        this.refreshExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("HttpPermissionsRefresher-%d")
+                                                                                           .setDaemon(true)
+                                                                                           .build());
+    }
+
+    @Inject
+    public void subscribe(EventService eventService) {
+        eventService.subscribe(new PermissionsChangedSubscriber());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
     }
 
     @Override
     public boolean hasPermission(String user, String domain, String instance, String action) throws ServerException {
+        final Key key = new Key(user, domain);
+        DomainPermissions permissions = permissionsCache.getIfPresent(key);
+        if (permissions == null) {
+            final long changes = changesCounter.get();
+            permissions = fetchPermissions(domain);
+            cacheIfNotChanged(key, permissions, changes);
+        } else if (permissions.shouldBeRefreshed(refreshPeriodMs)) {
+            refreshInBackground(key);
+        }
+        return permissions.contains(instance, action);
+    }
+
+    @VisibleForTesting
+    DomainPermissions fetchPermissions(String domain) throws ServerException {
+        final String permissionsUrl = UriBuilder.fromUri(apiEndpoint)
+                                                .path(PermissionsService.class)
+                                                .path(PermissionsService.class, "getCurrentUsersDomainPermissions")
+                                                .build(domain)
+                                                .toString();
         try {
-            return permissionsCache.get(new Key(user, domain, instance)).contains(action)
-                    || permissionsCache.get(new Key("*", domain, instance)).contains(action);
-        } catch (Exception e) {
+            return new DomainPermissions(requestFactory.fromUrl(permissionsUrl)
+                                                       .useGetMethod()
+                                                       .request()
+                                                       .asList(PermissionsDto.class));
+        } catch (IOException | ApiException e) {
             throw new ServerException(e.getMessage(), e);
         }
     }
 
+    private void refreshInBackground(Key key) {
+        // permissions are fetched on behalf of the user who performs the check
+        final Subject subject = EnvironmentContext.getCurrent().getSubject();
+        final long changes = changesCounter.get();
+        refreshExecutor.execute(() -> {
+            final EnvironmentContext context = new EnvironmentContext();
+            context.setSubject(subject);
+            EnvironmentContext.setCurrent(context);
+            try {
+                cacheIfNotChanged(key, fetchPermissions(key.domain), changes);
+            } catch (Exception e) {
+                // expired permissions will be fetched on the next check
+                LOG.warn("Failed to refresh permissions of user '{}' related to domain '{}'. {}",
+                         key.user, key.domain, e.getMessage());
+            } finally {
+                EnvironmentContext.reset();
+            }
+        });
+    }
+
+    /**
+     * Permissions fetched while any permissions were changed may be stale and are not cached.
+     * The counter is checked again after caching, as the change may be applied between the check and the put.
+     */
+    private void cacheIfNotChanged(Key key, DomainPermissions permissions, long changes) {
+        if (changes == changesCounter.get()) {
+            permissionsCache.put(key, permissions);
+            if (changes != changesCounter.get()) {
+                permissionsCache.asMap().remove(key, permissions);
+            }
+        }
+    }
+
+    private class PermissionsChangedSubscriber implements EventSubscriber<PermissionsEventDto> {
+        @Override
+        public void onEvent(PermissionsEventDto event) {
+            final PermissionsDto permissions = event.getPermissions();
+            changesCounter.incrementAndGet();
+            if ("*".equals(permissions.getUserId())) {
+                // permissions granted to all users are cached together with permissions of each user
+                permissionsCache.asMap()
+                                .keySet()
+                                .removeIf(key -> key.domain.equals(permissions.getDomainId()));
+            } else {
+                permissionsCache.invalidate(new Key(permissions.getUserId(), permissions.getDomainId()));
+            }
+        }
+    }
+
+    /** Actions of user and actions granted to all users mapped by instances of the domain. */
+    @VisibleForTesting
+    static final class DomainPermissions {
+        private final Map<String, Set<String>> userActions;
+        private final Map<String, Set<String>> wildcardActions;
+        private final long                     fetchedAt;
+        private final AtomicBoolean            refreshing;
+
+        DomainPermissions(List<PermissionsDto> permissions) {
+            this.userActions = new HashMap<>();
+            this.wildcardActions = new HashMap<>();
+            for (PermissionsDto p : permissions) {
+                final Map<String, Set<String>> target = "*".equals(p.getUserId()) ? wildcardActions : userActions;
+                target.put(p.getInstanceId(), ImmutableSet.copyOf(p.getActions()));
+            }
+            this.fetchedAt = System.currentTimeMillis();
+            this.refreshing = new AtomicBoolean();
+        }
+
+        boolean contains(String instance, String action) {
+            return userActions.getOrDefault(instance, emptySet()).contains(action)
+                   || wildcardActions.getOrDefault(instance, emptySet()).contains(action);
+        }
+
+        /** Returns true only once after the refresh period passed, so the refresh is requested by single check. */
+        boolean shouldBeRefreshed(long refreshPeriodMs) {
+            return System.currentTimeMillis() - fetchedAt > refreshPeriodMs && refreshing.compareAndSet(false, true);
+        }
+    }
+
     private static final class Key {
         private final String user;
         private final String domain;
-        private final String instance;
 
-        private Key(String user, String domain, String instance) {
+        private Key(String user, String domain) {
             this.user = user;
             this.domain = domain;
-            this.instance = instance;
         }
 
         @Override
@@ -106,8 +231,7 @@ public class HttpPermissionCheckerImpl implements PermissionChecker {
             }
             final Key other = (Key)obj;
             return Objects.equals(user, other.user) &&
-                   Objects.equals(domain, other.domain) &&
-                   Objects.equals(instance, other.instance);
+                   Objects.equals(domain, other.domain);
         }
 
         @Override
@@ -115,7 +239,6 @@ public class HttpPermissionCheckerImpl implements PermissionChecker {
             int hash = 7;
             hash = hash * 31 + Objects.hashCode(user);
             hash = hash * 31 + Objects.hashCode(domain);
-            hash = hash * 31 + Objects.hashCode(instance);
             return hash;
         }
     }
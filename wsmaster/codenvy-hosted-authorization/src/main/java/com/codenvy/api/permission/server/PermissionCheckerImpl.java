@@ -14,30 +14,203 @@
  */
 package com.codenvy.api.permission.server;
 
+import com.codahale.metrics.annotation.Gauge;
+import com.codenvy.api.permission.server.event.BulkPermissionsRemovedEvent;
+import com.codenvy.api.permission.server.event.PermissionsAddedEvent;
+import com.codenvy.api.permission.server.event.PermissionsRemovedEvent;
+import com.codenvy.api.permission.server.model.impl.AbstractPermissions;
+import com.codenvy.api.permission.shared.model.Permissions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.emptySet;
 
 /**
  * Implementation of {@link PermissionChecker} that use {@link PermissionsManager} for checking
  *
+ * <p>Actions of user and actions granted to all users are fetched by single query
+ * and cached by user, domain and instance. Cached actions are invalidated
+ * when permissions are added or removed, and expire after the configured period
+ * to catch up with permissions which are changed without publishing events.
+ *
  * @author Sergii Leschenko
  */
+@Singleton
 public class PermissionCheckerImpl implements PermissionChecker {
-    private final PermissionsManager permissionsManager;
+    private final PermissionsManager      permissionsManager;
+    private final Cache<Key, UserActions> actionsCache;
+    private final AtomicLong              changesCounter;
 
     @Inject
-    public PermissionCheckerImpl(PermissionsManager permissionsManager) {
+    public PermissionCheckerImpl(PermissionsManager permissionsManager,
+                                 @Named("permissions.checker.cache.size") long cacheSize,
+                                 @Named("permissions.checker.cache.expire_seconds") long expireSeconds) {
         this.permissionsManager = permissionsManager;
+        this.changesCounter = new AtomicLong();
+        this.actionsCache = CacheBuilder.newBuilder()
+                                        .maximumSize(cacheSize)
+                                        .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                                        .recordStats()
+                                        .build();
+    }
+
+    @Inject
+    public void subscribe(EventService eventService) {
+        eventService.subscribe(new PermissionsAddedSubscriber());
+        eventService.subscribe(new PermissionsRemovedSubscriber());
+        eventService.subscribe(new BulkPermissionsRemovedSubscriber());
     }
 
     @Override
     public boolean hasPermission(String user, String domain, String instance, String action) throws ServerException,
                                                                                                     NotFoundException,
                                                                                                     ConflictException {
-        return permissionsManager.exists(user, domain, instance, action)
-                || permissionsManager.exists("*", domain, instance, action);
+        if (!permissionsManager.getDomain(domain).getAllowedActions().contains(action)) {
+            return false;
+        }
+        final Key key = new Key(user, domain, instance);
+        UserActions actions = actionsCache.getIfPresent(key);
+        if (actions == null) {
+            final long changes = changesCounter.get();
+            actions = fetchActions(key);
+            // actions are not cached when permissions were changed while they were fetched,
+            // the counter is checked again as the change may be applied between the check and the put
+            if (changes == changesCounter.get()) {
+                actionsCache.put(key, actions);
+                if (changes != changesCounter.get()) {
+                    actionsCache.asMap().remove(key, actions);
+                }
+            }
+        }
+        return actions.contains(action);
+    }
+
+    /** @return number of permission checks which were performed without fetching permissions */
+    @Gauge(name = "auth.permissions.cache_hits")
+    public long getCacheHits() {
+        return actionsCache.stats().hitCount();
+    }
+
+    /** @return number of permission checks which fetched permissions */
+    @Gauge(name = "auth.permissions.cache_misses")
+    public long getCacheMisses() {
+        return actionsCache.stats().missCount();
+    }
+
+    /** @return ratio of permission checks which were performed without fetching permissions */
+    @Gauge(name = "auth.permissions.cache_hit_rate")
+    public double getCacheHitRate() {
+        return actionsCache.stats().hitRate();
+    }
+
+    private UserActions fetchActions(Key key) throws ServerException, NotFoundException {
+        Set<String> userActions = emptySet();
+        Set<String> wildcardActions = emptySet();
+        for (AbstractPermissions permissions : permissionsManager.getWithWildcard(key.user, key.domain, key.instance)) {
+            if ("*".equals(permissions.getUserId())) {
+                wildcardActions = ImmutableSet.copyOf(permissions.getActions());
+            } else {
+                userActions = ImmutableSet.copyOf(permissions.getActions());
+            }
+        }
+        return new UserActions(userActions, wildcardActions);
+    }
+
+    private void invalidate(Permissions permissions) {
+        changesCounter.incrementAndGet();
+        if ("*".equals(permissions.getUserId())) {
+            // actions granted to all users are cached together with actions of each user
+            actionsCache.asMap()
+                        .keySet()
+                        .removeIf(key -> key.domain.equals(permissions.getDomainId())
+                                         && Objects.equals(key.instance, permissions.getInstanceId()));
+        } else {
+            actionsCache.invalidate(new Key(permissions.getUserId(), permissions.getDomainId(), permissions.getInstanceId()));
+        }
+    }
+
+    private class PermissionsAddedSubscriber implements EventSubscriber<PermissionsAddedEvent> {
+        @Override
+        public void onEvent(PermissionsAddedEvent event) {
+            invalidate(event.getPermissions());
+        }
+    }
+
+    private class PermissionsRemovedSubscriber implements EventSubscriber<PermissionsRemovedEvent> {
+        @Override
+        public void onEvent(PermissionsRemovedEvent event) {
+            invalidate(event.getPermissions());
+        }
+    }
+
+    private class BulkPermissionsRemovedSubscriber implements EventSubscriber<BulkPermissionsRemovedEvent> {
+        @Override
+        public void onEvent(BulkPermissionsRemovedEvent event) {
+            event.getPermissions().forEach(PermissionCheckerImpl.this::invalidate);
+        }
+    }
+
+    private static final class UserActions {
+        private final Set<String> userActions;
+        private final Set<String> wildcardActions;
+
+        private UserActions(Set<String> userActions, Set<String> wildcardActions) {
+            this.userActions = userActions;
+            this.wildcardActions = wildcardActions;
+        }
+
+        private boolean contains(String action) {
+            return userActions.contains(action) || wildcardActions.contains(action);
+        }
+    }
+
+    private static final class Key {
+        private final String user;
+        private final String domain;
+        private final String instance;
+
+        private Key(String user, String domain, String instance) {
+            this.user = user;
+            this.domain = domain;
+            this.instance = instance;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key)obj;
+            return Objects.equals(user, other.user) &&
+                   Objects.equals(domain, other.domain) &&
+                   Objects.equals(instance, other.instance);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = hash * 31 + Objects.hashCode(user);
+            hash = hash * 31 + Objects.hashCode(domain);
+            hash = hash * 31 + Objects.hashCode(instance);
+            return hash;
+        }
     }
 }
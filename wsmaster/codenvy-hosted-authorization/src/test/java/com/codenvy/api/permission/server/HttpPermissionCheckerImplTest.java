@@ -0,0 +1,151 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.api.permission.server;
+
+import com.codenvy.api.permission.server.HttpPermissionCheckerImpl.DomainPermissions;
+import com.codenvy.api.permission.shared.dto.PermissionsDto;
+import com.codenvy.api.permission.shared.dto.PermissionsEventDto;
+import com.codenvy.api.permission.shared.event.EventType;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import static com.codenvy.api.permission.shared.event.EventType.PERMISSIONS_ADDED;
+import static com.codenvy.api.permission.shared.event.EventType.PERMISSIONS_REMOVED;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link HttpPermissionCheckerImpl}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class HttpPermissionCheckerImplTest {
+    private static final String USER   = "user123";
+    private static final String DOMAIN = "test";
+
+    @Mock
+    private HttpJsonRequestFactory requestFactory;
+
+    private EventService              eventService;
+    private HttpPermissionCheckerImpl permissionChecker;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        eventService = new EventService();
+        permissionChecker = createChecker(3600);
+        doReturn(new DomainPermissions(asList(permissions(USER, "instance1", "read", "write"),
+                                              permissions("*", "instance2", "read"))))
+                .when(permissionChecker).fetchPermissions(DOMAIN);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        permissionChecker.shutdown();
+    }
+
+    @Test
+    public void shouldCheckPermissionsOfAllInstancesOfDomainFetchedBySingleRequest() throws Exception {
+        assertTrue(permissionChecker.hasPermission(USER, DOMAIN, "instance1", "write"));
+        assertTrue(permissionChecker.hasPermission(USER, DOMAIN, "instance2", "read"));
+        assertFalse(permissionChecker.hasPermission(USER, DOMAIN, "instance2", "write"));
+        assertFalse(permissionChecker.hasPermission(USER, DOMAIN, "instance3", "read"));
+
+        verify(permissionChecker).fetchPermissions(DOMAIN);
+    }
+
+    @Test
+    public void shouldFetchPermissionsAgainWhenPermissionsOfUserAreChanged() throws Exception {
+        permissionChecker.hasPermission(USER, DOMAIN, "instance1", "read");
+
+        eventService.publish(event(PERMISSIONS_REMOVED, USER, DOMAIN));
+        permissionChecker.hasPermission(USER, DOMAIN, "instance1", "read");
+
+        verify(permissionChecker, times(2)).fetchPermissions(DOMAIN);
+    }
+
+    @Test
+    public void shouldFetchPermissionsAgainWhenPermissionsOfAllUsersAreChanged() throws Exception {
+        permissionChecker.hasPermission(USER, DOMAIN, "instance1", "read");
+
+        eventService.publish(event(PERMISSIONS_ADDED, "*", DOMAIN));
+        permissionChecker.hasPermission(USER, DOMAIN, "instance1", "read");
+
+        verify(permissionChecker, times(2)).fetchPermissions(DOMAIN);
+    }
+
+    @Test
+    public void shouldNotInvalidatePermissionsWhenPermissionsOfAnotherUserAreChanged() throws Exception {
+        permissionChecker.hasPermission(USER, DOMAIN, "instance1", "read");
+
+        eventService.publish(event(PERMISSIONS_ADDED, "user321", DOMAIN));
+        eventService.publish(event(PERMISSIONS_ADDED, "*", "another"));
+        permissionChecker.hasPermission(USER, DOMAIN, "instance1", "read");
+
+        verify(permissionChecker).fetchPermissions(DOMAIN);
+    }
+
+    @Test
+    public void shouldRefreshPermissionsInBackgroundAfterRefreshPeriod() throws Exception {
+        permissionChecker.shutdown();
+        permissionChecker = createChecker(0);
+        doReturn(new DomainPermissions(singletonList(permissions(USER, "instance1", "read"))))
+                .when(permissionChecker).fetchPermissions(DOMAIN);
+        permissionChecker.hasPermission(USER, DOMAIN, "instance1", "read");
+        Thread.sleep(10);
+
+        assertTrue(permissionChecker.hasPermission(USER, DOMAIN, "instance1", "read"));
+
+        verify(permissionChecker, timeout(1000).times(2)).fetchPermissions(DOMAIN);
+    }
+
+    private HttpPermissionCheckerImpl createChecker(long refreshSeconds) {
+        final HttpPermissionCheckerImpl checker = spy(new HttpPermissionCheckerImpl("http://localhost/api",
+                                                                                    requestFactory,
+                                                                                    100,
+                                                                                    3600,
+                                                                                    refreshSeconds));
+        checker.subscribe(eventService);
+        return checker;
+    }
+
+    private static PermissionsDto permissions(String userId, String instanceId, String... actions) {
+        return newDto(PermissionsDto.class).withUserId(userId)
+                                           .withDomainId(DOMAIN)
+                                           .withInstanceId(instanceId)
+                                           .withActions(asList(actions));
+    }
+
+    private static PermissionsEventDto event(EventType type, String userId, String domainId) {
+        return newDto(PermissionsEventDto.class).withType(type)
+                                                .withPermissions(newDto(PermissionsDto.class).withUserId(userId)
+                                                                                             .withDomainId(domainId)
+                                                                                             .withInstanceId("instance1")
+                                                                                             .withActions(singletonList("read")));
+    }
+}
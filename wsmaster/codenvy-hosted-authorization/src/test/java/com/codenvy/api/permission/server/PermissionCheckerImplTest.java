@@ -0,0 +1,152 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.api.permission.server;
+
+import com.codenvy.api.permission.server.event.PermissionsAddedEvent;
+import com.codenvy.api.permission.server.event.PermissionsRemovedEvent;
+import com.codenvy.api.permission.server.model.impl.AbstractPermissions;
+import com.codenvy.api.permission.shared.model.Permissions;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link PermissionCheckerImpl}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class PermissionCheckerImplTest {
+    private static final String USER     = "user123";
+    private static final String DOMAIN   = "test";
+    private static final String INSTANCE = "instance123";
+
+    @Mock
+    private PermissionsManager        permissionsManager;
+    @Mock
+    private AbstractPermissionsDomain domain;
+
+    private EventService          eventService;
+    private PermissionCheckerImpl permissionChecker;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        doReturn(domain).when(permissionsManager).getDomain(DOMAIN);
+        when(domain.getAllowedActions()).thenReturn(asList("read", "write", "delete"));
+        eventService = new EventService();
+        permissionChecker = new PermissionCheckerImpl(permissionsManager, 100, 60);
+        permissionChecker.subscribe(eventService);
+    }
+
+    @Test
+    public void shouldCheckUserActionsAndActionsOfAllUsers() throws Exception {
+        when(permissionsManager.getWithWildcard(USER, DOMAIN, INSTANCE)).thenReturn(asList(permissions(USER, "write"),
+                                                                                           permissions("*", "read")));
+
+        assertTrue(permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "write"));
+        assertTrue(permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "read"));
+        assertFalse(permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "delete"));
+
+        verify(permissionsManager).getWithWildcard(USER, DOMAIN, INSTANCE);
+        assertEquals(permissionChecker.getCacheMisses(), 1);
+        assertEquals(permissionChecker.getCacheHits(), 2);
+    }
+
+    @Test
+    public void shouldNotFetchPermissionsWhenActionIsNotSupportedByDomain() throws Exception {
+        assertFalse(permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "unsupported"));
+
+        verify(permissionsManager, never()).getWithWildcard(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void shouldFetchPermissionsAgainWhenUserPermissionsAreChanged() throws Exception {
+        when(permissionsManager.getWithWildcard(USER, DOMAIN, INSTANCE)).thenReturn(singletonList(permissions(USER, "read")));
+        permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "read");
+
+        eventService.publish(new PermissionsAddedEvent("admin", changedPermissions(USER)));
+        permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "read");
+        eventService.publish(new PermissionsRemovedEvent("admin", changedPermissions(USER)));
+        permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "read");
+
+        verify(permissionsManager, times(3)).getWithWildcard(USER, DOMAIN, INSTANCE);
+    }
+
+    @Test
+    public void shouldFetchPermissionsOfAllTheUsersAgainWhenPermissionsOfAllUsersAreChanged() throws Exception {
+        when(permissionsManager.getWithWildcard(anyString(), anyString(), anyString())).thenReturn(singletonList(permissions("*", "read")));
+        permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "read");
+        permissionChecker.hasPermission("user321", DOMAIN, INSTANCE, "read");
+
+        eventService.publish(new PermissionsRemovedEvent("admin", changedPermissions("*")));
+        permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "read");
+        permissionChecker.hasPermission("user321", DOMAIN, INSTANCE, "read");
+
+        verify(permissionsManager, times(2)).getWithWildcard(USER, DOMAIN, INSTANCE);
+        verify(permissionsManager, times(2)).getWithWildcard("user321", DOMAIN, INSTANCE);
+    }
+
+    @Test
+    public void shouldNotInvalidatePermissionsOfOtherUsers() throws Exception {
+        when(permissionsManager.getWithWildcard(USER, DOMAIN, INSTANCE)).thenReturn(singletonList(permissions(USER, "read")));
+        permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "read");
+
+        eventService.publish(new PermissionsAddedEvent("admin", changedPermissions("user321")));
+        permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "read");
+
+        verify(permissionsManager).getWithWildcard(USER, DOMAIN, INSTANCE);
+    }
+
+    @Test
+    public void shouldFetchPermissionsOnEachCheckWhenCacheIsDisabled() throws Exception {
+        permissionChecker = new PermissionCheckerImpl(permissionsManager, 0, 60);
+        when(permissionsManager.getWithWildcard(USER, DOMAIN, INSTANCE)).thenReturn(singletonList(permissions(USER, "read")));
+
+        assertTrue(permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "read"));
+        assertTrue(permissionChecker.hasPermission(USER, DOMAIN, INSTANCE, "read"));
+
+        verify(permissionsManager, times(2)).getWithWildcard(USER, DOMAIN, INSTANCE);
+    }
+
+    private AbstractPermissions permissions(String userId, String... actions) {
+        final AbstractPermissions permissions = mock(AbstractPermissions.class);
+        when(permissions.getUserId()).thenReturn(userId);
+        when(permissions.getActions()).thenReturn(asList(actions));
+        return permissions;
+    }
+
+    private Permissions changedPermissions(String userId) {
+        final Permissions permissions = mock(Permissions.class);
+        when(permissions.getUserId()).thenReturn(userId);
+        when(permissions.getDomainId()).thenReturn(DOMAIN);
+        when(permissions.getInstanceId()).thenReturn(INSTANCE);
+        return permissions;
+    }
+}
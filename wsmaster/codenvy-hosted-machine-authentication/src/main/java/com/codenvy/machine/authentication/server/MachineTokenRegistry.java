@@ -22,8 +22,9 @@ import org.eclipse.che.api.core.NotFoundException;
 import javax.inject.Singleton;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static java.lang.String.format;
 import static org.eclipse.che.commons.lang.NameGenerator.generate;
@@ -32,6 +33,8 @@ import static org.eclipse.che.commons.lang.NameGenerator.generate;
  * Table-based storage of machine security tokens.
  * Table rows is workspace id's, columns - user id's.
  * Table is synchronized externally as required by its javadoc.
+ * Reverse token to user index is maintained along with the table,
+ * so lookups by token do not require locking nor scanning the table.
  *
  * @author Max Shaposhnik (mshaposhnik@codenvy.com)
  * @see HashBasedTable
@@ -40,7 +43,8 @@ import static org.eclipse.che.commons.lang.NameGenerator.generate;
 public class MachineTokenRegistry {
 
     private final Table<String, String, String> tokens = HashBasedTable.create();
-    private final ReadWriteLock                 lock   = new ReentrantReadWriteLock();
+    private final Map<String, String>           users  = new ConcurrentHashMap<>();
+    private final Lock                          lock   = new ReentrantLock();
 
     /**
      * Generates new machine security token for given user and workspace.
@@ -52,13 +56,17 @@ public class MachineTokenRegistry {
      * @return generated token value
      */
     public String generateToken(String userId, String workspaceId) {
-        lock.writeLock().lock();
+        lock.lock();
         try {
             final String token = generate("machine", 128);
-            tokens.put(workspaceId, userId, token);
+            final String oldToken = tokens.put(workspaceId, userId, token);
+            if (oldToken != null) {
+                users.remove(oldToken);
+            }
+            users.put(token, userId);
             return token;
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -75,7 +83,7 @@ public class MachineTokenRegistry {
      *         when there is no running workspace with given id
      */
     public String getOrCreateToken(String userId, String workspaceId) throws NotFoundException {
-        lock.writeLock().lock();
+        lock.lock();
         try {
             final Map<String, String> wsRow = tokens.row(workspaceId);
             if (wsRow.isEmpty()) {
@@ -83,7 +91,7 @@ public class MachineTokenRegistry {
             }
             return wsRow.get(userId) == null ? generateToken(userId, workspaceId) : wsRow.get(userId);
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -95,17 +103,11 @@ public class MachineTokenRegistry {
      *         when no token exists for given user and workspace
      */
     public String getUserId(String token) throws NotFoundException {
-        lock.readLock().lock();
-        try {
-            for (Table.Cell<String, String, String> tokenCell : tokens.cellSet()) {
-                if (tokenCell.getValue().equals(token)) {
-                    return tokenCell.getColumnKey();
-                }
-            }
+        final String userId = users.get(token);
+        if (userId == null) {
             throw new NotFoundException("User not found for token " + token);
-        } finally {
-            lock.readLock().unlock();
         }
+        return userId;
     }
 
     /**
@@ -117,13 +119,14 @@ public class MachineTokenRegistry {
      * is a map where key is user id and value is token
      */
     public Map<String, String> removeTokens(String workspaceId) {
-        lock.writeLock().lock();
+        lock.lock();
         try {
             final Map<String, String> rowCopy = new HashMap<>(tokens.row(workspaceId));
             tokens.row(workspaceId).clear();
+            rowCopy.values().forEach(users::remove);
             return rowCopy;
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 }
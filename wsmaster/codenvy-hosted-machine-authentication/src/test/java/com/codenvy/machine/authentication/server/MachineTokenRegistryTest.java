@@ -52,6 +52,35 @@ public class MachineTokenRegistryTest {
         assertFalse(exists(registry, "user3", "workspace123"));
     }
 
+    @Test
+    public void shouldReturnUserIdByToken() throws Exception {
+        final MachineTokenRegistry registry = new MachineTokenRegistry();
+        final String token1 = registry.generateToken("user1", "workspace123");
+        final String token2 = registry.generateToken("user2", "workspace123");
+
+        assertEquals(registry.getUserId(token1), "user1");
+        assertEquals(registry.getUserId(token2), "user2");
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void shouldNotFindUserByTokenOfRemovedWorkspace() throws Exception {
+        final MachineTokenRegistry registry = new MachineTokenRegistry();
+        final String token = registry.generateToken("user1", "workspace123");
+
+        registry.removeTokens("workspace123");
+
+        registry.getUserId(token);
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void shouldNotFindUserByReplacedToken() throws Exception {
+        final MachineTokenRegistry registry = new MachineTokenRegistry();
+        final String token = registry.generateToken("user1", "workspace123");
+        registry.generateToken("user1", "workspace123");
+
+        registry.getUserId(token);
+    }
+
     private static boolean exists(MachineTokenRegistry registry, String user, String workspace) {
         try {
             registry.getOrCreateToken(user, workspace);
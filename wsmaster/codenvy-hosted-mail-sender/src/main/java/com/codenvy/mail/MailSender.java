@@ -14,41 +14,102 @@
  */
 package com.codenvy.mail;
 
-import com.google.common.io.Files;
+import com.codahale.metrics.annotation.Gauge;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
-import org.apache.commons.io.FileUtils;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.commons.lang.Deserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.activation.DataHandler;
+import javax.activation.FileTypeMap;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
 import javax.mail.Message;
 import javax.mail.MessagingException;
 import javax.mail.Multipart;
+import javax.mail.Session;
 import javax.mail.Transport;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
-import java.io.File;
+import javax.mail.util.ByteArrayDataSource;
+import javax.mail.util.SharedByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+import static java.lang.Thread.currentThread;
 
 /**
- * Provides email sending capability
+ * Provides email sending capability.
+ *
+ * <p>Emails may be sent synchronously with {@link #sendMail(EmailBean)} or enqueued
+ * with {@link #sendMailAsync(EmailBean)}. Enqueued emails are sent by the pool of workers,
+ * each worker keeps its SMTP connection open while there are emails in the queue and sends
+ * them one by one over the same connection. Emails which failed to be sent are retried
+ * with exponentially growing delay.
  *
  * @author Alexander Garagatyi
  */
+@Singleton
 public class MailSender {
     private static final Logger LOG = LoggerFactory.getLogger(MailSender.class);
 
-    private SessionHolder sessionHolder;
+    /** How long the worker keeps idle SMTP connection open. */
+    private static final long IDLE_CONNECTION_TIMEOUT_MS = 5_000;
+    /** How often the worker checks whether the sender is stopped while the queue is empty. */
+    private static final long POLL_TIMEOUT_MS            = 500;
+    /** How long the shutdown waits for the queued emails to be sent. */
+    private static final long SHUTDOWN_TIMEOUT_SEC       = 30;
+
+    private final SessionHolder                sessionHolder;
+    private final BlockingQueue<QueuedMessage> queue;
+    private final ExecutorService              workers;
+    private final ScheduledExecutorService     retryScheduler;
+    private final int                          maxAttempts;
+    private final long                         retryDelayMs;
+
+    private final AtomicLong sent    = new AtomicLong();
+    private final AtomicLong failed  = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+
+    private volatile boolean stopped;
 
     @Inject
-    public MailSender(SessionHolder sessionHolder) {
+    public MailSender(SessionHolder sessionHolder,
+                      @Named("mailsender.queue.workers") int workersNumber,
+                      @Named("mailsender.queue.capacity") int queueCapacity,
+                      @Named("mailsender.queue.max_attempts") int maxAttempts,
+                      @Named("mailsender.queue.retry_delay_ms") long retryDelayMs) {
         this.sessionHolder = sessionHolder;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMs = retryDelayMs;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("MailSenderRetry")
+                                                                                                   .setDaemon(true)
+                                                                                                   .build());
+        this.workers = Executors.newFixedThreadPool(workersNumber, new ThreadFactoryBuilder().setNameFormat("MailSender-%d")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+        for (int i = 0; i < workersNumber; i++) {
+            workers.execute(new Worker());
+        }
     }
 
     public void sendMail(String from, String to, String replyTo, String subject, String mimeType,
@@ -71,55 +132,174 @@ public class MailSender {
     }
 
     public void sendMail(EmailBean emailBean) throws ServerException {
-        File tempDir = null;
         try {
-            MimeMessage message = new MimeMessage(sessionHolder.getMailSession());
-            Multipart contentPart = new MimeMultipart();
-
-            MimeBodyPart bodyPart = new MimeBodyPart();
-            bodyPart.setText(emailBean.getBody(), "UTF-8", getSubType(emailBean.getMimeType()));
-            contentPart.addBodyPart(bodyPart);
-
-            if (emailBean.getAttachments() != null) {
-                tempDir = Files.createTempDir();
-                for (Attachment attachment : emailBean.getAttachments()) {
-                    //Create attachment file in temporary directory
-                    byte[] attachmentContent = Base64.getDecoder().decode(attachment.getContent());
-                    File attachmentFile = new File(tempDir, attachment.getFileName());
-                    Files.write(attachmentContent, attachmentFile);
-
-                    //Attach the attachment file to email
-                    MimeBodyPart attachmentPart = new MimeBodyPart();
-                    attachmentPart.attachFile(attachmentFile);
-                    attachmentPart.setContentID("<" + attachment.getContentId() + ">");
-                    contentPart.addBodyPart(attachmentPart);
-                }
-            }
-
-            message.setContent(contentPart);
-            message.setSubject(emailBean.getSubject(), "UTF-8");
-            message.setFrom(new InternetAddress(emailBean.getFrom(), true));
-            message.addRecipients(Message.RecipientType.TO, InternetAddress.parse(emailBean.getTo()));
-
-            if (emailBean.getReplyTo() != null) {
-                message.setReplyTo(InternetAddress.parse(emailBean.getReplyTo()));
-            }
+            MimeMessage message = createMessage(emailBean);
             LOG.info("Sending from {} to {} with subject {}", emailBean.getFrom(), emailBean.getTo(),
                      emailBean.getSubject());
 
             Transport.send(message);
             LOG.debug("Mail send");
+        } catch (MessagingException e) {
+            throw new ServerException(e);
+        }
+    }
+
+    /**
+     * Enqueues the email to be sent by the workers pool, returns without waiting for the email to be sent.
+     * All the recipients of the email are delivered within a single SMTP transaction.
+     *
+     * @param emailBean
+     *         email to send
+     * @throws ServerException
+     *         when the email is not valid or the queue is full
+     */
+    public void sendMailAsync(EmailBean emailBean) throws ServerException {
+        final MimeMessage message;
+        try {
+            message = createMessage(emailBean);
+        } catch (MessagingException e) {
+            throw new ServerException(e);
+        }
+        if (stopped || !queue.offer(new QueuedMessage(message, emailBean.getFrom(), emailBean.getTo(), emailBean.getSubject()))) {
+            throw new ServerException("Mail queue is full. Email to " + emailBean.getTo() + " is not sent");
+        }
+    }
+
+    /**
+     * Enqueues a separate copy of the email for each of the given recipients,
+     * returns without waiting for the emails to be sent.
+     *
+     * <p>The email body and attachments are encoded only once, all the copies
+     * share the encoded content and differ only in the recipient and message id headers.
+     * The recipient of the given email bean, if any, is replaced with each of the recipients.
+     *
+     * @param emailBean
+     *         email to send
+     * @param recipients
+     *         addresses of the recipients, each of them gets its own copy of the email
+     * @throws ServerException
+     *         when the email or any of the recipients is not valid,
+     *         or the queue is full before all the copies are enqueued
+     */
+    public void sendMailAsync(EmailBean emailBean, Collection<String> recipients) throws ServerException {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        final Session session = sessionHolder.getMailSession();
+        final byte[] encoded;
+        final String messageIdDomain;
+        try {
+            final MimeMessage template = createMessage(emailBean);
+            template.removeHeader("To");
+            template.removeHeader("Message-ID");
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            template.writeTo(out);
+            encoded = out.toByteArray();
+            final String from = ((InternetAddress)template.getFrom()[0]).getAddress();
+            messageIdDomain = from.substring(from.lastIndexOf('@') + 1);
         } catch (MessagingException | IOException e) {
             throw new ServerException(e);
-        } finally {
-            if (tempDir != null) {
-                try {
-                    FileUtils.deleteDirectory(tempDir);
-                } catch (IOException exception) {
-                    LOG.error(exception.getMessage());
+        }
+
+        int rejected = 0;
+        for (String recipient : recipients) {
+            try {
+                // shared input stream makes the copy reference the encoded content instead of copying it
+                final MimeMessage message = new MimeMessage(session, new SharedByteArrayInputStream(encoded));
+                message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(recipient));
+                message.setHeader("Message-ID", "<" + UUID.randomUUID() + '@' + messageIdDomain + '>');
+                if (stopped || !queue.offer(new QueuedMessage(message, emailBean.getFrom(), recipient, emailBean.getSubject()))) {
+                    rejected++;
                 }
+            } catch (MessagingException e) {
+                LOG.warn("Email to {} with subject {} is not sent. {}", recipient, emailBean.getSubject(), e.getLocalizedMessage());
+                rejected++;
+            }
+        }
+        if (rejected > 0) {
+            throw new ServerException(format("%d of %d emails with subject %s are not sent",
+                                             rejected,
+                                             recipients.size(),
+                                             emailBean.getSubject()));
+        }
+    }
+
+    /** @return number of emails which are waiting to be sent */
+    @Gauge(name = "mail.queue_length")
+    public int getQueueLength() {
+        return queue.size();
+    }
+
+    /** @return number of emails sent by the workers */
+    @Gauge(name = "mail.sent_number")
+    public long getSentNumber() {
+        return sent.get();
+    }
+
+    /** @return number of emails which were not sent after all the attempts */
+    @Gauge(name = "mail.failed_number")
+    public long getFailedNumber() {
+        return failed.get();
+    }
+
+    /** @return number of retried sending attempts */
+    @Gauge(name = "mail.retried_number")
+    public long getRetriedNumber() {
+        return retried.get();
+    }
+
+    /** Stops accepting new emails and waits until the queued emails are sent. */
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+                LOG.warn("{} emails are not sent before shutdown", queue.size());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    private MimeMessage createMessage(EmailBean emailBean) throws MessagingException {
+        MimeMessage message = new MimeMessage(sessionHolder.getMailSession());
+        Multipart contentPart = new MimeMultipart();
+
+        MimeBodyPart bodyPart = new MimeBodyPart();
+        bodyPart.setText(emailBean.getBody(), "UTF-8", getSubType(emailBean.getMimeType()));
+        contentPart.addBodyPart(bodyPart);
+
+        if (emailBean.getAttachments() != null) {
+            for (Attachment attachment : emailBean.getAttachments()) {
+                byte[] attachmentContent = Base64.getDecoder().decode(attachment.getContent());
+                ByteArrayDataSource dataSource = new ByteArrayDataSource(attachmentContent, getContentType(attachment));
+
+                MimeBodyPart attachmentPart = new MimeBodyPart();
+                attachmentPart.setDataHandler(new DataHandler(dataSource));
+                attachmentPart.setFileName(attachment.getFileName());
+                attachmentPart.setDisposition(MimeBodyPart.ATTACHMENT);
+                attachmentPart.setContentID("<" + attachment.getContentId() + ">");
+                contentPart.addBodyPart(attachmentPart);
             }
         }
+
+        message.setContent(contentPart);
+        message.setSubject(emailBean.getSubject(), "UTF-8");
+        message.setFrom(new InternetAddress(emailBean.getFrom(), true));
+        if (emailBean.getTo() != null) {
+            message.addRecipients(Message.RecipientType.TO, InternetAddress.parse(emailBean.getTo()));
+        }
+
+        if (emailBean.getReplyTo() != null) {
+            message.setReplyTo(InternetAddress.parse(emailBean.getReplyTo()));
+        }
+        // headers are computed once, so retries send exactly the same message
+        message.saveChanges();
+        return message;
     }
 
     /**
@@ -135,4 +315,98 @@ public class MailSender {
     private String getSubType(String mimeType) {
         return mimeType.substring(mimeType.lastIndexOf("/") + 1);
     }
+
+    private String getContentType(Attachment attachment) {
+        return FileTypeMap.getDefaultFileTypeMap().getContentType(attachment.getFileName());
+    }
+
+    /** Schedules the next attempt of the failed message or gives up when there are no attempts left. */
+    private void onFailure(QueuedMessage queued, Exception e) {
+        if (queued.attempt < maxAttempts && !stopped) {
+            final long delay = retryDelayMs << (queued.attempt - 1);
+            LOG.debug("{}. Email to {} will be resent in {}ms", e.getLocalizedMessage(), queued.to, delay);
+            queued.attempt++;
+            retried.incrementAndGet();
+            retryScheduler.schedule(() -> {
+                if (!queue.offer(queued)) {
+                    LOG.error("Mail queue is full. Email to {} with subject {} is not sent", queued.to, queued.subject);
+                    failed.incrementAndGet();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } else {
+            LOG.error("Failed to send email to {} with subject {}. {}", queued.to, queued.subject, e.getLocalizedMessage());
+            failed.incrementAndGet();
+        }
+    }
+
+    /** Sends queued messages reusing its SMTP connection, the connection is closed when the queue is idle. */
+    private class Worker implements Runnable {
+        private Transport transport;
+        private long      lastUsed;
+
+        @Override
+        public void run() {
+            try {
+                while (!stopped || !queue.isEmpty()) {
+                    final QueuedMessage queued = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (queued != null) {
+                        send(queued);
+                        lastUsed = System.currentTimeMillis();
+                    } else if (System.currentTimeMillis() - lastUsed > IDLE_CONNECTION_TIMEOUT_MS) {
+                        closeTransport();
+                    }
+                }
+            } catch (InterruptedException e) {
+                currentThread().interrupt();
+            } finally {
+                closeTransport();
+            }
+        }
+
+        private void send(QueuedMessage queued) {
+            try {
+                if (transport == null || !transport.isConnected()) {
+                    closeTransport();
+                    transport = sessionHolder.getMailSession().getTransport();
+                    transport.connect();
+                }
+                LOG.info("Sending from {} to {} with subject {}", queued.from, queued.to, queued.subject);
+                transport.sendMessage(queued.message, queued.message.getAllRecipients());
+                sent.incrementAndGet();
+            } catch (MessagingException | RuntimeException e) {
+                // connection may be broken, so the next message is sent over a new one,
+                // runtime exceptions are handled as well, otherwise they would stop the worker
+                closeTransport();
+                onFailure(queued, e);
+            }
+        }
+
+        private void closeTransport() {
+            if (transport != null) {
+                try {
+                    transport.close();
+                } catch (MessagingException | RuntimeException e) {
+                    LOG.debug(e.getLocalizedMessage(), e);
+                }
+                transport = null;
+            }
+        }
+    }
+
+    private static class QueuedMessage {
+        final MimeMessage message;
+        final String      from;
+        final String      to;
+        final String      subject;
+
+        int attempt;
+
+        QueuedMessage(MimeMessage message, String from, String to, String subject) {
+            this.message = message;
+            this.from = from;
+            this.to = to;
+            this.subject = subject;
+            this.attempt = 1;
+        }
+    }
 }
@@ -20,6 +20,7 @@ import com.google.common.io.Files;
 import com.google.common.io.Resources;
 
 import org.eclipse.che.api.core.ApiException;
+import org.eclipse.che.api.core.ServerException;
 import org.everrest.assured.EverrestJetty;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.ITestContext;
@@ -32,11 +33,18 @@ import javax.mail.MessagingException;
 import javax.mail.Session;
 import java.io.File;
 import java.io.IOException;
+import java.net.ServerSocket;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -77,11 +85,12 @@ public class MailSenderTest {
         Files.append(testConfigContent, testConfig, Charset.defaultCharset());
 
 
-        mailSender = new MailSender(new SessionHolder(testConfig.getAbsolutePath()));
+        mailSender = new MailSender(new SessionHolder(testConfig.getAbsolutePath()), 2, 100, 2, 10);
     }
 
     @AfterMethod
     public void stop() {
+        mailSender.shutdown();
         server.stop();
         testConfig.delete();
     }
@@ -197,4 +206,147 @@ public class MailSenderTest {
                    "attachmentId",
                    "attachment.txt");
     }
+
+    @Test
+    public void shouldSendMessagesAsynchronously() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            mailSender.sendMailAsync(new EmailBean().withFrom("noreply@cloud-ide.com")
+                                                    .withTo("dev-test" + i + "@cloud-ide.com")
+                                                    .withSubject("Subject")
+                                                    .withMimeType("text/html")
+                                                    .withBody("hello user"));
+        }
+
+        mailSender.shutdown();
+
+        assertEquals(server.getReceivedEmails().size(), 20);
+        assertEquals(mailSender.getSentNumber(), 20);
+        assertEquals(mailSender.getQueueLength(), 0);
+    }
+
+    @Test
+    public void shouldSendMessageWithAttachmentAsynchronously() throws Exception {
+        EmailBean emailBean = new EmailBean()
+                .withFrom("noreply@cloud-ide.com")
+                .withTo("dev-test@cloud-ide.com")
+                .withReplyTo("dev-test@cloud-ide.com")
+                .withSubject("Subject")
+                .withMimeType("text/html")
+                .withBody("hello user")
+                .withAttachments(Collections.singletonList(new Attachment().withContentId("attachmentId")
+                                                                           .withFileName("attachment.txt")
+                                                                           .withContent(Base64.getEncoder()
+                                                                                              .encodeToString("attachmentContent".getBytes()))));
+
+        mailSender.sendMailAsync(emailBean);
+        mailSender.shutdown();
+
+        assertMail(server, "noreply@cloud-ide.com",
+                   "dev-test@cloud-ide.com",
+                   "dev-test@cloud-ide.com",
+                   "Subject",
+                   "text/html",
+                   "hello user",
+                   "attachmentId",
+                   "attachment.txt");
+    }
+
+    @Test
+    public void shouldSendSeparateCopyOfMessageToEachRecipient() throws Exception {
+        EmailBean emailBean = new EmailBean()
+                .withFrom("noreply@cloud-ide.com")
+                .withReplyTo("noreply@cloud-ide.com")
+                .withSubject("Subject")
+                .withMimeType("text/html")
+                .withBody("hello user")
+                .withAttachments(Collections.singletonList(new Attachment().withContentId("attachmentId")
+                                                                           .withFileName("attachment.txt")
+                                                                           .withContent(Base64.getEncoder()
+                                                                                              .encodeToString("attachmentContent".getBytes()))));
+
+        mailSender.sendMailAsync(emailBean, Arrays.asList("dev-test1@cloud-ide.com", "dev-test2@cloud-ide.com"));
+        mailSender.shutdown();
+
+        final List<SmtpMessage> emails = server.getReceivedEmails();
+        assertEquals(emails.size(), 2);
+        final Set<String> recipients = new HashSet<>();
+        final Set<String> messageIds = new HashSet<>();
+        for (SmtpMessage email : emails) {
+            recipients.add(email.getHeaderValue("To"));
+            messageIds.add(email.getHeaderValue("Message-ID"));
+            assertEquals(email.getHeaderValue("Subject"), "Subject");
+            assertTrue(email.getBody().contains("hello user"));
+            assertTrue(email.getBody().contains("Content-ID: <attachmentId>"));
+        }
+        assertEquals(recipients, new HashSet<>(Arrays.asList("dev-test1@cloud-ide.com", "dev-test2@cloud-ide.com")));
+        assertEquals(messageIds.size(), 2);
+    }
+
+    @Test
+    public void shouldRetrySendingAndCountFailedMessage() throws Exception {
+        final int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        Files.write(Files.toString(testConfig, Charset.defaultCharset())
+                         .replace("mail.smtp.port=" + server.getPort(), "mail.smtp.port=" + closedPort),
+                    testConfig,
+                    Charset.defaultCharset());
+        mailSender.shutdown();
+        mailSender = new MailSender(new SessionHolder(testConfig.getAbsolutePath()), 2, 100, 2, 10);
+        EmailBean emailBean = new EmailBean()
+                .withFrom("noreply@cloud-ide.com")
+                .withTo("dev-test@cloud-ide.com")
+                .withSubject("Subject")
+                .withMimeType("text/html")
+                .withBody("hello user");
+
+        mailSender.sendMailAsync(emailBean);
+
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (mailSender.getFailedNumber() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(mailSender.getFailedNumber(), 1);
+        assertEquals(mailSender.getRetriedNumber(), 1);
+        assertEquals(mailSender.getSentNumber(), 0);
+    }
+
+    @Test
+    public void shouldKeepWorkerAliveAndRetryMessageWhenRuntimeExceptionIsThrownOnSending() throws Exception {
+        final Session session = new SessionHolder(testConfig.getAbsolutePath()).getMailSession();
+        final SessionHolder sessionHolder = mock(SessionHolder.class);
+        // the first session is used for the message creation, the second one for the first sending attempt
+        when(sessionHolder.getMailSession()).thenReturn(session)
+                                            .thenThrow(new IllegalStateException("session is not available"))
+                                            .thenReturn(session);
+        mailSender.shutdown();
+        mailSender = new MailSender(sessionHolder, 1, 100, 2, 10);
+
+        mailSender.sendMailAsync(new EmailBean().withFrom("noreply@cloud-ide.com")
+                                                .withTo("dev-test@cloud-ide.com")
+                                                .withSubject("Subject")
+                                                .withMimeType("text/html")
+                                                .withBody("hello user"));
+
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (mailSender.getSentNumber() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(mailSender.getSentNumber(), 1);
+        assertEquals(mailSender.getRetriedNumber(), 1);
+        assertEquals(mailSender.getFailedNumber(), 0);
+        assertEquals(server.getReceivedEmails().size(), 1);
+    }
+
+    @Test(expectedExceptions = ServerException.class)
+    public void shouldNotAcceptMessagesAfterShutdown() throws Exception {
+        mailSender.shutdown();
+
+        mailSender.sendMailAsync(new EmailBean().withFrom("noreply@cloud-ide.com")
+                                                .withTo("dev-test@cloud-ide.com")
+                                                .withSubject("Subject")
+                                                .withMimeType("text/html")
+                                                .withBody("hello user"));
+    }
 }
@@ -14,6 +14,8 @@
  */
 package com.codenvy.api.dao.authentication;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -42,6 +44,30 @@ public interface TicketManager {
      */
     AccessTicket getAccessTicket(String accessToken);
 
+    /**
+     * Registers SSO client in the access ticket with given token.
+     * The change is applied atomically, so concurrent registrations of different clients are not lost.
+     * Does nothing when the ticket doesn't exist.
+     *
+     * @param accessToken
+     *         unique token of access ticket
+     * @param clientUrl
+     *         url of SSO client
+     */
+    void registerClientUrl(String accessToken, String clientUrl);
+
+    /**
+     * Unregisters SSO client from the access ticket with given token.
+     * The change is applied atomically, so concurrent changes of the registered clients are not lost.
+     * Does nothing when the ticket doesn't exist.
+     *
+     * @param accessToken
+     *         unique token of access ticket
+     * @param clientUrl
+     *         url of SSO client
+     */
+    void unregisterClientUrl(String accessToken, String clientUrl);
+
     /**
      * Remove access ticket from manager.
      *
@@ -57,4 +83,25 @@ public interface TicketManager {
      * @return set of access tickets
      */
     Set<AccessTicket> getAccessTickets();
+
+    /**
+     * Remove access tickets which were created before the given time.
+     * Default implementation walks through all the access tickets.
+     *
+     * @param time
+     *         time in milliseconds, tickets created before this time are removed
+     * @return list of removed access tickets
+     */
+    default List<AccessTicket> removeTicketsCreatedBefore(long time) {
+        final List<AccessTicket> removed = new ArrayList<>();
+        for (AccessTicket accessTicket : getAccessTickets()) {
+            if (accessTicket.getCreationTime() < time) {
+                final AccessTicket removedTicket = removeTicket(accessTicket.getAccessToken());
+                if (removedTicket != null) {
+                    removed.add(removedTicket);
+                }
+            }
+        }
+        return removed;
+    }
 }
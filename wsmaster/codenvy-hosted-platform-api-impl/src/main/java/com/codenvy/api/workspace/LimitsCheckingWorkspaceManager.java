@@ -14,12 +14,16 @@
  */
 package com.codenvy.api.workspace;
 
+import com.codenvy.api.workspace.WorkspaceStartAdmissionController.Permit;
+import com.codenvy.api.workspace.WorkspaceStartAdmissionController.Priority;
 import com.codenvy.resource.api.type.RamResourceType;
 import com.codenvy.resource.api.type.RuntimeResourceType;
 import com.codenvy.resource.api.type.WorkspaceResourceType;
 import com.codenvy.resource.api.exception.NoEnoughResourcesException;
 import com.codenvy.resource.api.usage.ResourceUsageManager;
 import com.codenvy.resource.api.usage.ResourcesLocks;
+import com.codenvy.resource.api.usage.tracker.WorkspacesUsageLedger;
+import com.codenvy.resource.api.usage.tracker.WorkspacesUsageLedger.Reservation;
 import com.codenvy.resource.model.Resource;
 import com.codenvy.resource.spi.impl.ResourceImpl;
 import com.codenvy.service.system.SystemRamInfoProvider;
@@ -51,12 +55,11 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Semaphore;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static java.lang.String.format;
-import static java.lang.Thread.currentThread;
 import static java.util.Collections.singletonList;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
 
 /**
  * Manager that checks limits and delegates all its operations to the {@link WorkspaceManager}.
@@ -74,11 +77,11 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
     private final ResourceUsageManager     resourceUsageManager;
     private final ResourcesLocks           resourcesLocks;
     private final AccountManager           accountManager;
+    private final WorkspacesUsageLedger    usageLedger;
 
-    private final long maxRamPerEnvMB;
+    private final WorkspaceStartAdmissionController admissionController;
 
-    @VisibleForTesting
-    Semaphore startSemaphore;
+    private final long maxRamPerEnvMB;
 
     @Inject
     public LimitsCheckingWorkspaceManager(WorkspaceDao workspaceDao,
@@ -91,11 +94,12 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
                                           WorkspaceSharedPool sharedPool,
                                           //own injects
                                           @Named("limits.workspace.env.ram") String maxRamPerEnv,
-                                          @Named("limits.workspace.start.throughput") int maxSameTimeStartWSRequests,
+                                          WorkspaceStartAdmissionController admissionController,
                                           SystemRamInfoProvider systemRamInfoProvider,
                                           EnvironmentRamCalculator environmentRamCalculator,
                                           ResourceUsageManager resourceUsageManager,
-                                          ResourcesLocks resourcesLocks) {
+                                          ResourcesLocks resourcesLocks,
+                                          WorkspacesUsageLedger usageLedger) {
         super(workspaceDao, runtimes, eventService, accountManager, defaultAutoSnapshot, defaultAutoRestore, snapshotDao, sharedPool);
         this.systemRamInfoProvider = systemRamInfoProvider;
         this.environmentRamCalculator = environmentRamCalculator;
@@ -103,10 +107,8 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
         this.resourceUsageManager = resourceUsageManager;
         this.resourcesLocks = resourcesLocks;
         this.accountManager = accountManager;
-
-        if (maxSameTimeStartWSRequests > 0) {
-            this.startSemaphore = new Semaphore(maxSameTimeStartWSRequests);
-        }
+        this.usageLedger = usageLedger;
+        this.admissionController = admissionController;
     }
 
     @Override
@@ -147,11 +149,28 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
         WorkspaceImpl workspace = this.getWorkspace(workspaceId);
         String accountId = workspace.getAccount().getId();
 
+        // The lock is held only while resources are checked and reserved,
+        // so other workspaces of the account can be started in parallel.
+        // Reservation is removed when the workspace becomes running.
+        // When the workspace is already reserved by a concurrent start, it is rejected by the workspace manager
+        Reservation reservation = null;
         try (@SuppressWarnings("unused") Unlocker u = resourcesLocks.acquiresLock(accountId)) {
             checkRuntimeResourceAvailability(accountId);
-            checkRamResourcesAvailability(accountId, workspace.getNamespace(), workspace.getConfig(), envName);
+            long ramToUse = checkRamResourcesAvailability(accountId, workspace.getNamespace(), workspace.getConfig(), envName);
+            if (workspace.getStatus() == STOPPED) {
+                reservation = usageLedger.reserve(workspace.getNamespace(), workspaceId, ramToUse);
+            }
+        }
 
-            return checkSystemRamLimitAndPropagateLimitedThroughputStart(() -> super.startWorkspace(workspaceId, envName, restore));
+        try {
+            return checkSystemRamLimitAndPropagateLimitedThroughputStart(accountId,
+                                                                         Priority.HIGH,
+                                                                         () -> super.startWorkspace(workspaceId, envName, restore));
+        } catch (RuntimeException | ServerException | NotFoundException | ConflictException e) {
+            if (reservation != null) {
+                usageLedger.release(reservation);
+            }
+            throw e;
         }
     }
 
@@ -164,12 +183,18 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
         checkMaxEnvironmentRam(config);
 
         String accountId = accountManager.getByName(namespace).getId();
-        try (@SuppressWarnings("unused") Unlocker u = resourcesLocks.acquiresLock(accountId)) {
+        // The workspace is created while it is started, so its resources can't be reserved
+        // and the lock is held until the start is requested.
+        // The start is admitted before the lock is acquired, so other operations of the account
+        // don't wait for the admission. Starts of temporary workspaces are admitted after starts of persistent ones
+        try (@SuppressWarnings("unused") Permit permit = admissionController.acquire(accountId,
+                                                                                     isTemporary ? Priority.LOW : Priority.HIGH);
+             @SuppressWarnings("unused") Unlocker u = resourcesLocks.acquiresLock(accountId)) {
             checkWorkspaceResourceAvailability(accountId);
             checkRuntimeResourceAvailability(accountId);
             checkRamResourcesAvailability(accountId, namespace, config, null);
 
-            return checkSystemRamLimitAndPropagateLimitedThroughputStart(() -> super.startWorkspace(config, namespace, isTemporary));
+            return checkSystemRamLimitAndPropagateStart(() -> super.startWorkspace(config, namespace, isTemporary));
         }
     }
 
@@ -201,29 +226,19 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
     /**
      * One of the checks in {@link #checkSystemRamLimitAndPropagateStart(WorkspaceCallback)}
      * is needed to deny starting workspace, if system RAM limit exceeded.
-     * This check may be slow because it is based on request to swarm for memory amount allocated on all nodes, but it
-     * can't be performed more than specified times at the same time, and the semaphore is used to control that.
-     * The semaphore is a trade off between speed and risk to exceed system RAM limit.
-     * In the worst case specified number of permits to start workspace can happen at the same time after the actually
-     * system limit allows to start only one workspace, all permits will be allowed to start workspace.
-     * If more than specified number of permits to start workspace happens, they will wait in a queue.
-     * limits.workspace.start.throughput property configures how many permits can be handled at the same time.
+     * This check may be slow because it is based on request to swarm for memory amount allocated on all nodes,
+     * so the number of starts performed at the same time is limited by {@link WorkspaceStartAdmissionController}.
+     * Starts which exceed the limit wait in a bounded queue, where accounts are served in turn,
+     * and are rejected when the queue is full or they are not admitted in time.
+     * limits.workspace.start.throughput property configures how many starts can be handled at the same time.
      */
     @VisibleForTesting
-    <T extends WorkspaceImpl> T checkSystemRamLimitAndPropagateLimitedThroughputStart(WorkspaceCallback<T> callback)
+    <T extends WorkspaceImpl> T checkSystemRamLimitAndPropagateLimitedThroughputStart(String accountId,
+                                                                                       Priority priority,
+                                                                                       WorkspaceCallback<T> callback)
             throws ServerException, NotFoundException, ConflictException {
-        if (startSemaphore == null) {
+        try (@SuppressWarnings("unused") Permit permit = admissionController.acquire(accountId, priority)) {
             return checkSystemRamLimitAndPropagateStart(callback);
-        } else {
-            try {
-                startSemaphore.acquire();
-                return checkSystemRamLimitAndPropagateStart(callback);
-            } catch (InterruptedException e) {
-                currentThread().interrupt();
-                throw new ServerException(e.getMessage(), e);
-            } finally {
-                startSemaphore.release();
-            }
         }
     }
 
@@ -261,8 +276,13 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
         }
     }
 
+    /**
+     * Checks that account has enough RAM to start the environment with given name.
+     *
+     * @return RAM in megabytes which is needed to start the environment
+     */
     @VisibleForTesting
-    void checkRamResourcesAvailability(String accountId, String namespace, WorkspaceConfig config, @Nullable String envName)
+    long checkRamResourcesAvailability(String accountId, String namespace, WorkspaceConfig config, @Nullable String envName)
             throws NotFoundException, ServerException, ConflictException {
 
         final Environment environment = config.getEnvironments().get(firstNonNull(envName, config.getDefaultEnv()));
@@ -271,6 +291,7 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
                                                        RamResourceType.UNIT);
         try {
             resourceUsageManager.checkResourcesAvailability(accountId, singletonList(ramToUse));
+            return ramToUse.getAmount();
         } catch (NoEnoughResourcesException e) {
             final Resource requiredRam = e.getRequiredResources().get(0);// starting of workspace requires only RAM resource
             final Resource availableRam = getResourceOrDefault(e.getAvailableResources(),
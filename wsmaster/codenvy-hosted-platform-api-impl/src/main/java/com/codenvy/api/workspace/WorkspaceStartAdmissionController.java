@@ -0,0 +1,322 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.api.workspace;
+
+import com.codahale.metrics.annotation.Gauge;
+import com.codenvy.service.system.SystemRamInfo;
+import com.codenvy.service.system.SystemRamInfoProvider;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.String.format;
+import static java.lang.Thread.currentThread;
+
+/**
+ * Limits the number of workspaces which are starting at the same time.
+ *
+ * <p>Start requests which exceed the limit are queued. Queued requests are admitted
+ * by priority, requests of the same priority are admitted in round-robin order of accounts,
+ * so an account with a lot of queued starts doesn't delay starts of other accounts.
+ * When the queue is full or the request is not admitted in time, it is rejected
+ * with {@link LimitExceededException} which contains the time after which the start may be retried.
+ *
+ * <p>The limit of the same time starts is decreased when the used system RAM exceeds
+ * the pressure threshold and reaches a single start when the system RAM limit is close.
+ * Property {@code limits.workspace.start.throughput} configures the maximum limit,
+ * non-positive value disables the admission control.
+ */
+@Singleton
+public class WorkspaceStartAdmissionController {
+    private static final Logger LOG = LoggerFactory.getLogger(WorkspaceStartAdmissionController.class);
+
+    /** The part of used system RAM after which the starts limit is decreased. */
+    private static final double RAM_PRESSURE_THRESHOLD = 0.7;
+    /** The part of used system RAM when only one start is allowed. */
+    private static final double RAM_PRESSURE_LIMIT     = 0.9;
+
+    private static final Permit NO_OP_PERMIT = () -> {};
+
+    /** Priority of the start request. */
+    public enum Priority {
+        HIGH,
+        LOW
+    }
+
+    private final SystemRamInfoProvider                                        systemRamInfoProvider;
+    private final int                                                          maxConcurrentStarts;
+    private final int                                                          queueCapacity;
+    private final long                                                         queueTimeoutMs;
+    private final EnumMap<Priority, LinkedHashMap<String, ArrayDeque<Ticket>>> queues;
+
+    private volatile int admissionLimit;
+
+    private int  active;
+    private int  queued;
+    private long admitted;
+    private long rejected;
+    private long totalWaitMs;
+
+    @Inject
+    public WorkspaceStartAdmissionController(@Named("limits.workspace.start.throughput") int maxConcurrentStarts,
+                                             @Named("limits.workspace.start.queue_capacity") int queueCapacity,
+                                             @Named("limits.workspace.start.queue_timeout_sec") long queueTimeoutSec,
+                                             SystemRamInfoProvider systemRamInfoProvider) {
+        this.maxConcurrentStarts = maxConcurrentStarts;
+        this.queueCapacity = queueCapacity;
+        this.queueTimeoutMs = TimeUnit.SECONDS.toMillis(queueTimeoutSec);
+        this.systemRamInfoProvider = systemRamInfoProvider;
+        this.admissionLimit = maxConcurrentStarts;
+        this.queues = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Waits until start of the workspace of given account is admitted.
+     * Returned permit must be closed when the start is requested.
+     *
+     * @param accountId
+     *         id of account which workspace is going to be started
+     * @param priority
+     *         priority of the start
+     * @return permit to start the workspace
+     * @throws LimitExceededException
+     *         when the queue is full or the start is not admitted during the queue timeout
+     * @throws ServerException
+     *         when the thread is interrupted while waiting
+     */
+    public Permit acquire(String accountId, Priority priority) throws ServerException {
+        if (maxConcurrentStarts <= 0) {
+            return NO_OP_PERMIT;
+        }
+        final Ticket ticket;
+        synchronized (this) {
+            if (queued == 0 && active < admissionLimit) {
+                active++;
+                admitted++;
+                return new AdmittedPermit();
+            }
+            if (queued >= queueCapacity) {
+                rejected++;
+                throw rejection("Too many workspaces are starting at the moment.");
+            }
+            ticket = new Ticket(accountId, priority);
+            queues.get(priority).computeIfAbsent(accountId, id -> new ArrayDeque<>()).add(ticket);
+            queued++;
+        }
+
+        try {
+            return ticket.future.get(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (cancel(ticket)) {
+                throw rejection("Workspace start was not admitted in time.");
+            }
+            return ticket.future.join();
+        } catch (InterruptedException e) {
+            currentThread().interrupt();
+            if (!cancel(ticket)) {
+                ticket.future.join().close();
+            }
+            throw new ServerException("Interrupted while waiting for start of the workspace", e);
+        } catch (ExecutionException e) {
+            // future is never completed exceptionally
+            throw new ServerException(e.getCause().getLocalizedMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Adjusts the starts limit according to the used system RAM.
+     */
+    @ScheduleDelay(initialDelay = 10, delayParameterName = "system.ram.limit_check_period_sec")
+    public void updateAdmissionLimit() {
+        if (maxConcurrentStarts <= 0) {
+            return;
+        }
+        try {
+            final SystemRamInfo ramInfo = systemRamInfoProvider.getSystemRamInfo();
+            final int newLimit = computeAdmissionLimit(ramInfo.getSystemRamUsed(), ramInfo.getSystemRamTotal());
+            if (newLimit != admissionLimit) {
+                LOG.info("Limit of workspaces starting at the same time is changed from {} to {}", admissionLimit, newLimit);
+            }
+            synchronized (this) {
+                admissionLimit = newLimit;
+                dispatch();
+            }
+        } catch (ServerException e) {
+            LOG.error("Failed to update workspace start admission limit. " + e.getLocalizedMessage(), e);
+        }
+    }
+
+    /** @return number of queued start requests */
+    @Gauge(name = "workspace.start.queue_length")
+    public synchronized int getQueueLength() {
+        return queued;
+    }
+
+    /** @return number of admitted starts which are not finished yet */
+    @Gauge(name = "workspace.start.active_number")
+    public synchronized int getActiveNumber() {
+        return active;
+    }
+
+    /** @return number of admitted starts */
+    @Gauge(name = "workspace.start.admitted_number")
+    public synchronized long getAdmittedNumber() {
+        return admitted;
+    }
+
+    /** @return number of rejected starts */
+    @Gauge(name = "workspace.start.rejected_number")
+    public synchronized long getRejectedNumber() {
+        return rejected;
+    }
+
+    /** @return average time in milliseconds which admitted start requests spent in the queue */
+    @Gauge(name = "workspace.start.average_wait_ms")
+    public synchronized long getAverageWaitTime() {
+        return admitted == 0 ? 0 : totalWaitMs / admitted;
+    }
+
+    /** @return current limit of the same time starts */
+    @Gauge(name = "workspace.start.admission_limit")
+    public int getAdmissionLimit() {
+        return admissionLimit;
+    }
+
+    @VisibleForTesting
+    int computeAdmissionLimit(long ramUsed, long ramTotal) {
+        if (ramTotal <= 0) {
+            return maxConcurrentStarts;
+        }
+        final double usage = (double)ramUsed / ramTotal;
+        if (usage <= RAM_PRESSURE_THRESHOLD) {
+            return maxConcurrentStarts;
+        }
+        final double freeShare = (RAM_PRESSURE_LIMIT - usage) / (RAM_PRESSURE_LIMIT - RAM_PRESSURE_THRESHOLD);
+        // at least one start is admitted, so low RAM is reported to the user without waiting
+        return Math.max(1, (int)Math.round(maxConcurrentStarts * freeShare));
+    }
+
+    private synchronized void release() {
+        active--;
+        dispatch();
+    }
+
+    /** Removes not admitted ticket from the queue, returns false when the ticket is already admitted. */
+    private synchronized boolean cancel(Ticket ticket) {
+        final Map<String, ArrayDeque<Ticket>> accountsQueues = queues.get(ticket.priority);
+        final ArrayDeque<Ticket> accountQueue = accountsQueues.get(ticket.accountId);
+        if (accountQueue == null || !accountQueue.remove(ticket)) {
+            return false;
+        }
+        if (accountQueue.isEmpty()) {
+            accountsQueues.remove(ticket.accountId);
+        }
+        queued--;
+        rejected++;
+        return true;
+    }
+
+    /** Admits queued tickets while the limit allows. Must be called under the lock. */
+    private void dispatch() {
+        while (queued > 0 && active < admissionLimit) {
+            final Ticket ticket = pollNext();
+            queued--;
+            active++;
+            admitted++;
+            totalWaitMs += System.currentTimeMillis() - ticket.enqueuedAt;
+            ticket.future.complete(new AdmittedPermit());
+        }
+    }
+
+    /**
+     * Polls the first ticket of the first account in the queue of the highest priority,
+     * the account is moved to the end of the queue, so accounts are served in round-robin order.
+     */
+    private Ticket pollNext() {
+        for (LinkedHashMap<String, ArrayDeque<Ticket>> accountsQueues : queues.values()) {
+            final Iterator<Map.Entry<String, ArrayDeque<Ticket>>> it = accountsQueues.entrySet().iterator();
+            if (it.hasNext()) {
+                final Map.Entry<String, ArrayDeque<Ticket>> entry = it.next();
+                final ArrayDeque<Ticket> accountQueue = entry.getValue();
+                final Ticket ticket = accountQueue.poll();
+                it.remove();
+                if (!accountQueue.isEmpty()) {
+                    accountsQueues.put(entry.getKey(), accountQueue);
+                }
+                return ticket;
+            }
+        }
+        throw new IllegalStateException("Queue of workspace starts is empty");
+    }
+
+    private LimitExceededException rejection(String reason) {
+        final long retryAfterSec = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(getAverageWaitTime()));
+        return new LimitExceededException(format("%s Please retry in %d seconds.", reason, retryAfterSec),
+                                          ImmutableMap.of("retry_after_seconds", Long.toString(retryAfterSec)));
+    }
+
+    /** Permit to start the workspace, closing of the permit releases the start slot. */
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private class AdmittedPermit implements Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release();
+            }
+        }
+    }
+
+    private static class Ticket {
+        final String                    accountId;
+        final Priority                  priority;
+        final long                      enqueuedAt;
+        final CompletableFuture<Permit> future;
+
+        Ticket(String accountId, Priority priority) {
+            this.accountId = accountId;
+            this.priority = priority;
+            this.enqueuedAt = System.currentTimeMillis();
+            this.future = new CompletableFuture<>();
+        }
+    }
+}
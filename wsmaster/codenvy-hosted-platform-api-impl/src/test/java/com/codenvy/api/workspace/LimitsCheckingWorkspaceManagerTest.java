@@ -15,45 +15,56 @@
 package com.codenvy.api.workspace;
 
 import com.codenvy.api.workspace.LimitsCheckingWorkspaceManager.WorkspaceCallback;
+import com.codenvy.api.workspace.WorkspaceStartAdmissionController.Permit;
+import com.codenvy.api.workspace.WorkspaceStartAdmissionController.Priority;
 import com.codenvy.resource.api.type.RamResourceType;
 import com.codenvy.resource.api.type.RuntimeResourceType;
 import com.codenvy.resource.api.type.WorkspaceResourceType;
 import com.codenvy.resource.api.exception.NoEnoughResourcesException;
 import com.codenvy.resource.api.usage.ResourceUsageManager;
+import com.codenvy.resource.api.usage.ResourcesLocks;
+import com.codenvy.resource.api.usage.tracker.WorkspacesUsageLedger;
+import com.codenvy.resource.api.usage.tracker.WorkspacesUsageLedger.Reservation;
 import com.codenvy.resource.spi.impl.ResourceImpl;
 import com.codenvy.service.system.SystemRamInfo;
 import com.codenvy.service.system.SystemRamInfoProvider;
 
+import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
+import org.eclipse.che.account.spi.AccountImpl;
+import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.core.model.workspace.WorkspaceConfig;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.server.spi.WorkspaceDao;
+import org.eclipse.che.commons.lang.concurrent.Unlocker;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Semaphore;
-
 import static com.codenvy.api.workspace.TestObjects.createConfig;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.eclipse.che.commons.lang.Size.parseSize;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
-import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 
 /**
  * Tests for {@link LimitsCheckingWorkspaceManager}.
@@ -77,6 +88,74 @@ public class LimitsCheckingWorkspaceManagerTest {
     private Account                  account;
     @Mock
     private ResourceUsageManager     resourceUsageManager;
+    @Mock
+    private ResourcesLocks           resourcesLocks;
+    @Mock
+    private WorkspacesUsageLedger    usageLedger;
+    @Mock
+    private WorkspaceImpl            workspace;
+    @Mock
+    private Unlocker                 unlocker;
+    @Mock
+    private Reservation              reservation;
+
+    @Test
+    public void shouldReserveRamBeforeStartingWorkspaceAndReleaseLockBeforeStart() throws Exception {
+        final LimitsCheckingWorkspaceManager manager = startingManager();
+        doAnswer(invocation -> {
+            // lock must be already released
+            verify(unlocker).close();
+            verify(usageLedger).reserve(NAMESPACE, "workspace123", 2000L);
+            return workspace;
+        }).when(manager).checkSystemRamLimitAndPropagateLimitedThroughputStart(any(), any(), any());
+
+        assertSame(manager.startWorkspace("workspace123", null, false), workspace);
+
+        verify(usageLedger, never()).release(any());
+    }
+
+    @Test
+    public void shouldReleaseReservationWhenWorkspaceStartFails() throws Exception {
+        final LimitsCheckingWorkspaceManager manager = startingManager();
+        doThrow(new LimitExceededException("Low RAM")).when(manager).checkSystemRamLimitAndPropagateLimitedThroughputStart(any(), any(), any());
+
+        try {
+            manager.startWorkspace("workspace123", null, false);
+        } catch (LimitExceededException ignored) {
+        }
+
+        verify(usageLedger).reserve(NAMESPACE, "workspace123", 2000L);
+        verify(usageLedger).release(reservation);
+    }
+
+    @Test
+    public void shouldNotReleaseReservationOfConcurrentStart() throws Exception {
+        final LimitsCheckingWorkspaceManager manager = startingManager();
+        when(usageLedger.reserve(NAMESPACE, "workspace123", 2000L)).thenReturn(null);
+        doThrow(new ConflictException("Already starting")).when(manager).checkSystemRamLimitAndPropagateLimitedThroughputStart(any(), any(), any());
+
+        try {
+            manager.startWorkspace("workspace123", null, false);
+        } catch (ConflictException ignored) {
+        }
+
+        verify(usageLedger, never()).release(any());
+    }
+
+    @Test
+    public void shouldNotReserveResourcesWhenWorkspaceIsNotStopped() throws Exception {
+        final LimitsCheckingWorkspaceManager manager = startingManager();
+        when(workspace.getStatus()).thenReturn(WorkspaceStatus.RUNNING);
+        doThrow(new ConflictException("Already running")).when(manager).checkSystemRamLimitAndPropagateLimitedThroughputStart(any(), any(), any());
+
+        try {
+            manager.startWorkspace("workspace123", null, false);
+        } catch (ConflictException ignored) {
+        }
+
+        verify(usageLedger, never()).reserve(anyString(), anyString(), anyLong());
+        verify(usageLedger, never()).release(any());
+    }
 
     @Test
     public void shouldUseRamOfSpecifiedEnvironmentOnCheckingAvailabilityOfRamResource() throws Exception {
@@ -259,92 +338,89 @@ public class LimitsCheckingWorkspaceManagerTest {
     }
 
     @Test
-    public void shouldAcquireAndReleaseSemaphoreIfThroughputPropertyIsMoreThanZero() throws Exception {
-        final LimitsCheckingWorkspaceManager manager = managerBuilder().build();
-        Semaphore semaphore = mock(Semaphore.class);
+    public void shouldAcquireAndReleaseStartPermit() throws Exception {
+        final WorkspaceStartAdmissionController admissionController = mock(WorkspaceStartAdmissionController.class);
+        final Permit permit = mock(Permit.class);
+        when(admissionController.acquire(ACCOUNT_ID, Priority.HIGH)).thenReturn(permit);
+        final LimitsCheckingWorkspaceManager manager = managerBuilder().setAdmissionController(admissionController).build();
         WorkspaceCallback callback = mock(WorkspaceCallback.class);
-        manager.startSemaphore = semaphore;
 
-        manager.checkSystemRamLimitAndPropagateLimitedThroughputStart(callback);
+        manager.checkSystemRamLimitAndPropagateLimitedThroughputStart(ACCOUNT_ID, Priority.HIGH, callback);
 
-        verify(semaphore).acquire();
-        verify(semaphore).release();
+        verify(callback).call();
+        verify(permit).close();
     }
 
-    @Test(expectedExceptions = Exception.class)
-    public void shouldAcquireAndReleaseSemaphoreIfThroughputPropertyIsMoreThanZeroAndExceptionHappened() throws Exception {
-        final LimitsCheckingWorkspaceManager manager = managerBuilder().build();
-        Semaphore semaphore = mock(Semaphore.class);
-        WorkspaceCallback callback = mock(WorkspaceCallback.class);
-        manager.startSemaphore = semaphore;
-        doThrow(new Exception()).when(manager).checkSystemRamLimitAndPropagateStart(anyObject());
-
-        manager.checkSystemRamLimitAndPropagateLimitedThroughputStart(callback);
-
-        verify(semaphore).acquire();
-        verify(semaphore).release();
+    @Test(expectedExceptions = LimitExceededException.class)
+    public void shouldReleaseStartPermitWhenExceptionHappened() throws Exception {
+        final WorkspaceStartAdmissionController admissionController = mock(WorkspaceStartAdmissionController.class);
+        final Permit permit = mock(Permit.class);
+        when(admissionController.acquire(ACCOUNT_ID, Priority.HIGH)).thenReturn(permit);
+        final LimitsCheckingWorkspaceManager manager = managerBuilder().setAdmissionController(admissionController).build();
+        doThrow(new LimitExceededException("Low RAM")).when(manager).checkSystemRamLimitAndPropagateStart(anyObject());
+
+        try {
+            manager.checkSystemRamLimitAndPropagateLimitedThroughputStart(ACCOUNT_ID, Priority.HIGH, mock(WorkspaceCallback.class));
+        } finally {
+            verify(permit).close();
+        }
     }
 
-    @Test
-    public void shouldSetSemaphoreToNullIfThroughputPropertyIsZero() throws Exception {
-        final LimitsCheckingWorkspaceManager manager = managerBuilder().setMaxSameTimeStartWSRequests(0)
-                                                                       .build();
+    @Test(expectedExceptions = LimitExceededException.class)
+    public void shouldNotStartWorkspaceWhenStartIsNotAdmitted() throws Exception {
+        final WorkspaceStartAdmissionController admissionController = mock(WorkspaceStartAdmissionController.class);
+        when(admissionController.acquire(ACCOUNT_ID, Priority.HIGH)).thenThrow(new LimitExceededException("Queue is full"));
+        final LimitsCheckingWorkspaceManager manager = managerBuilder().setAdmissionController(admissionController).build();
         WorkspaceCallback callback = mock(WorkspaceCallback.class);
 
-        manager.checkSystemRamLimitAndPropagateLimitedThroughputStart(callback);
-
-        assertNull(manager.startSemaphore);
+        try {
+            manager.checkSystemRamLimitAndPropagateLimitedThroughputStart(ACCOUNT_ID, Priority.HIGH, callback);
+        } finally {
+            verify(callback, never()).call();
+        }
     }
 
     @Test
-    public void shouldSetSemaphoreToNullIfThroughputPropertyIsLessThenZero() throws Exception {
-        final LimitsCheckingWorkspaceManager manager = managerBuilder().setMaxSameTimeStartWSRequests(-1).build();
-        WorkspaceCallback callback = mock(WorkspaceCallback.class);
-
-        manager.checkSystemRamLimitAndPropagateLimitedThroughputStart(callback);
-
-        assertNull(manager.startSemaphore);
+    public void shouldAdmitStartOfNewWorkspaceBeforeAcquiringResourcesLock() throws Exception {
+        final WorkspaceStartAdmissionController admissionController = mock(WorkspaceStartAdmissionController.class);
+        final Permit permit = mock(Permit.class);
+        when(admissionController.acquire(ACCOUNT_ID, Priority.LOW)).thenReturn(permit);
+        final AccountManager accountManager = mock(AccountManager.class);
+        when(accountManager.getByName(NAMESPACE)).thenReturn(new AccountImpl(ACCOUNT_ID, NAMESPACE, "test"));
+        when(resourcesLocks.acquiresLock(ACCOUNT_ID)).thenReturn(unlocker);
+        final LimitsCheckingWorkspaceManager manager = managerBuilder().setAdmissionController(admissionController)
+                                                                       .setAccountManager(accountManager)
+                                                                       .setResourcesLocks(resourcesLocks)
+                                                                       .build();
+        final WorkspaceConfig config = createConfig("1gb");
+        doNothing().when(manager).checkMaxEnvironmentRam(config);
+        doNothing().when(manager).checkWorkspaceResourceAvailability(ACCOUNT_ID);
+        doNothing().when(manager).checkRuntimeResourceAvailability(ACCOUNT_ID);
+        doReturn(1024L).when(manager).checkRamResourcesAvailability(ACCOUNT_ID, NAMESPACE, config, null);
+        doReturn(workspace).when(manager).checkSystemRamLimitAndPropagateStart(any());
+
+        assertSame(manager.startWorkspace(config, NAMESPACE, true), workspace);
+
+        final InOrder inOrder = inOrder(admissionController, resourcesLocks, unlocker, permit);
+        inOrder.verify(admissionController).acquire(ACCOUNT_ID, Priority.LOW);
+        inOrder.verify(resourcesLocks).acquiresLock(ACCOUNT_ID);
+        inOrder.verify(unlocker).close();
+        inOrder.verify(permit).close();
     }
 
-    @Test(timeOut = 3000)
-    public void shouldPermitToCheckRamOnlyForFiveThreadsAtTheSameTime() throws Exception {
-        final LimitsCheckingWorkspaceManager manager = managerBuilder().setMaxSameTimeStartWSRequests(5).build();
-        /*
-          The count-down latch is needed to reach the throughput limit by acquiring RAM check permits.
-          The lath is configured to 6 invocations: 5 (number of allowed same time requests) + 1 for main thread
-          to be able to release the throughput limit.
-         */
-        final CountDownLatch invokeProcessLatch = new CountDownLatch(6);
-        //Pause 5 threads after they will acquire all permits to check RAM.
-        doAnswer(invocationOnMock -> {
-            invokeProcessLatch.countDown();
-            invokeProcessLatch.await();
-            return null;
-        }).when(manager).checkSystemRamLimitAndPropagateStart(anyObject());
-        Runnable runnable = () -> {
-            try {
-                final WorkspaceCallback callback = mock(WorkspaceCallback.class);
-                manager.checkSystemRamLimitAndPropagateLimitedThroughputStart(callback);
-            } catch (Exception ignored) {
-            }
-        };
-        //Run 7 threads (more than number of allowed same time requests) that want to request RAM check at the same time.
-        ExecutorService executor = Executors.newFixedThreadPool(7);
-        executor.submit(runnable);
-        executor.submit(runnable);
-        executor.submit(runnable);
-        executor.submit(runnable);
-        executor.submit(runnable);
-        executor.submit(runnable);
-        executor.submit(runnable);
-
-        //Wait for throughput limit will be reached and check that RAM check was performed only in allowed number of threads.
-        verify(manager, timeout(300).times(5)).checkSystemRamLimitAndPropagateStart(anyObject());
-
-        //Execute paused threads to release the throughput limit for other threads.
-        invokeProcessLatch.countDown();
-        //Wait for throughput limit will be released and check that RAM check was performed in other threads.
-        verify(manager, timeout(300).times(7)).checkSystemRamLimitAndPropagateStart(anyObject());
+    private LimitsCheckingWorkspaceManager startingManager() throws Exception {
+        final LimitsCheckingWorkspaceManager manager = managerBuilder().setResourcesLocks(resourcesLocks)
+                                                                       .setUsageLedger(usageLedger)
+                                                                       .build();
+        when(workspace.getAccount()).thenReturn(new AccountImpl(ACCOUNT_ID, NAMESPACE, "test"));
+        when(workspace.getNamespace()).thenReturn(NAMESPACE);
+        when(workspace.getStatus()).thenReturn(WorkspaceStatus.STOPPED);
+        when(resourcesLocks.acquiresLock(ACCOUNT_ID)).thenReturn(unlocker);
+        when(usageLedger.reserve(NAMESPACE, "workspace123", 2000L)).thenReturn(reservation);
+        doReturn(workspace).when(manager).getWorkspace("workspace123");
+        doNothing().when(manager).checkRuntimeResourceAvailability(ACCOUNT_ID);
+        doReturn(2000L).when(manager).checkRamResourcesAvailability(eq(ACCOUNT_ID), eq(NAMESPACE), any(), any());
+        return manager;
     }
 
     private static ManagerBuilder managerBuilder() throws ServerException {
@@ -353,35 +429,39 @@ public class LimitsCheckingWorkspaceManagerTest {
 
     private static class ManagerBuilder {
 
-        private String                   maxRamPerEnv;
-        private int                      maxSameTimeStartWSRequests;
+        private String                            maxRamPerEnv;
+        private WorkspaceStartAdmissionController admissionController;
         private SystemRamInfoProvider    systemRamInfoProvider;
         private EnvironmentRamCalculator environmentRamCalculator;
         private ResourceUsageManager     resourceUsageManager;
+        private ResourcesLocks           resourcesLocks;
+        private WorkspacesUsageLedger    usageLedger;
+        private AccountManager           accountManager;
 
         ManagerBuilder() throws ServerException {
             maxRamPerEnv = "1gb";
-            maxSameTimeStartWSRequests = 0;
 
             systemRamInfoProvider = mock(SystemRamInfoProvider.class);
             when(systemRamInfoProvider.getSystemRamInfo()).thenReturn(new SystemRamInfo(0, parseSize("3 GiB")));
+            admissionController = new WorkspaceStartAdmissionController(0, 0, 0, systemRamInfoProvider);
         }
 
         public LimitsCheckingWorkspaceManager build() {
             return spy(new LimitsCheckingWorkspaceManager(null,
                                                           null,
                                                           null,
-                                                          null,
+                                                          accountManager,
                                                           false,
                                                           false,
                                                           null,
                                                           null,
                                                           maxRamPerEnv,
-                                                          maxSameTimeStartWSRequests,
+                                                          admissionController,
                                                           systemRamInfoProvider,
                                                           environmentRamCalculator,
                                                           resourceUsageManager,
-                                                          null));
+                                                          resourcesLocks,
+                                                          usageLedger));
         }
 
         ManagerBuilder setMaxRamPerEnv(String maxRamPerEnv) {
@@ -389,8 +469,8 @@ public class LimitsCheckingWorkspaceManagerTest {
             return this;
         }
 
-        ManagerBuilder setMaxSameTimeStartWSRequests(int maxSameTimeStartWSRequests) {
-            this.maxSameTimeStartWSRequests = maxSameTimeStartWSRequests;
+        ManagerBuilder setAdmissionController(WorkspaceStartAdmissionController admissionController) {
+            this.admissionController = admissionController;
             return this;
         }
 
@@ -408,5 +488,20 @@ public class LimitsCheckingWorkspaceManagerTest {
             this.resourceUsageManager = resourceUsageManager;
             return this;
         }
+
+        ManagerBuilder setResourcesLocks(ResourcesLocks resourcesLocks) {
+            this.resourcesLocks = resourcesLocks;
+            return this;
+        }
+
+        ManagerBuilder setUsageLedger(WorkspacesUsageLedger usageLedger) {
+            this.usageLedger = usageLedger;
+            return this;
+        }
+
+        ManagerBuilder setAccountManager(AccountManager accountManager) {
+            this.accountManager = accountManager;
+            return this;
+        }
     }
 }
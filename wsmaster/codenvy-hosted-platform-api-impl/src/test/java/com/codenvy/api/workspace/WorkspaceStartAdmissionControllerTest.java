@@ -0,0 +1,176 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.api.workspace;
+
+import com.codenvy.api.workspace.WorkspaceStartAdmissionController.Permit;
+import com.codenvy.api.workspace.WorkspaceStartAdmissionController.Priority;
+import com.codenvy.service.system.SystemRamInfo;
+import com.codenvy.service.system.SystemRamInfoProvider;
+
+import org.eclipse.che.api.core.rest.shared.dto.ExtendedError;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for {@link WorkspaceStartAdmissionController}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class WorkspaceStartAdmissionControllerTest {
+
+    @Mock
+    private SystemRamInfoProvider systemRamInfoProvider;
+
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldAdmitAllStartsWhenAdmissionControlIsDisabled() throws Exception {
+        final WorkspaceStartAdmissionController controller = new WorkspaceStartAdmissionController(0, 0, 0, systemRamInfoProvider);
+
+        controller.acquire("account1", Priority.HIGH);
+        controller.acquire("account1", Priority.HIGH);
+
+        assertEquals(controller.getActiveNumber(), 0);
+        assertEquals(controller.getQueueLength(), 0);
+    }
+
+    @Test
+    public void shouldAdmitStartImmediatelyWhenLimitIsNotReached() throws Exception {
+        final WorkspaceStartAdmissionController controller = new WorkspaceStartAdmissionController(2, 10, 60, systemRamInfoProvider);
+
+        final Permit first = controller.acquire("account1", Priority.HIGH);
+        controller.acquire("account2", Priority.LOW);
+
+        assertEquals(controller.getActiveNumber(), 2);
+        assertEquals(controller.getAdmittedNumber(), 2);
+
+        first.close();
+        first.close();
+
+        assertEquals(controller.getActiveNumber(), 1);
+    }
+
+    @Test
+    public void shouldRejectStartWithRetryAfterAttributeWhenQueueIsFull() throws Exception {
+        final WorkspaceStartAdmissionController controller = new WorkspaceStartAdmissionController(1, 0, 60, systemRamInfoProvider);
+        controller.acquire("account1", Priority.HIGH);
+
+        try {
+            controller.acquire("account2", Priority.HIGH);
+            fail("Start must be rejected");
+        } catch (LimitExceededException e) {
+            final ExtendedError error = (ExtendedError)e.getServiceError();
+            assertTrue(error.getAttributes().containsKey("retry_after_seconds"));
+        }
+        assertEquals(controller.getRejectedNumber(), 1);
+    }
+
+    @Test
+    public void shouldRejectStartWhenItIsNotAdmittedInTime() throws Exception {
+        final WorkspaceStartAdmissionController controller = new WorkspaceStartAdmissionController(1, 10, 1, systemRamInfoProvider);
+        controller.acquire("account1", Priority.HIGH);
+
+        try {
+            controller.acquire("account2", Priority.HIGH);
+            fail("Start must be rejected");
+        } catch (LimitExceededException ignored) {
+        }
+        assertEquals(controller.getQueueLength(), 0);
+        assertEquals(controller.getRejectedNumber(), 1);
+    }
+
+    @Test
+    public void shouldAdmitQueuedStartsByPriorityAndInRoundRobinOrderOfAccounts() throws Exception {
+        final WorkspaceStartAdmissionController controller = new WorkspaceStartAdmissionController(1, 10, 60, systemRamInfoProvider);
+        final Permit permit = controller.acquire("account0", Priority.HIGH);
+        final List<String> admissionOrder = Collections.synchronizedList(new ArrayList<>());
+
+        enqueue(controller, "account3", Priority.LOW, admissionOrder);
+        enqueue(controller, "account1", Priority.HIGH, admissionOrder);
+        enqueue(controller, "account1", Priority.HIGH, admissionOrder);
+        enqueue(controller, "account2", Priority.HIGH, admissionOrder);
+        permit.close();
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(admissionOrder, Arrays.asList("account1", "account2", "account1", "account3"));
+        assertEquals(controller.getActiveNumber(), 0);
+    }
+
+    @Test
+    public void shouldUpdateAdmissionLimitAccordingToUsedSystemRam() throws Exception {
+        when(systemRamInfoProvider.getSystemRamInfo()).thenReturn(new SystemRamInfo(80, 100));
+        final WorkspaceStartAdmissionController controller = new WorkspaceStartAdmissionController(10, 10, 60, systemRamInfoProvider);
+
+        controller.updateAdmissionLimit();
+
+        assertEquals(controller.getAdmissionLimit(), 5);
+    }
+
+    @Test
+    public void shouldComputeAdmissionLimit() {
+        final WorkspaceStartAdmissionController controller = new WorkspaceStartAdmissionController(10, 10, 60, systemRamInfoProvider);
+
+        assertEquals(controller.computeAdmissionLimit(0, 0), 10);
+        assertEquals(controller.computeAdmissionLimit(50, 100), 10);
+        assertEquals(controller.computeAdmissionLimit(70, 100), 10);
+        assertEquals(controller.computeAdmissionLimit(80, 100), 5);
+        assertEquals(controller.computeAdmissionLimit(90, 100), 1);
+        assertEquals(controller.computeAdmissionLimit(99, 100), 1);
+    }
+
+    /** Submits the start which records its account when admitted and waits until the start is queued. */
+    private void enqueue(WorkspaceStartAdmissionController controller,
+                         String accountId,
+                         Priority priority,
+                         List<String> admissionOrder) throws InterruptedException {
+        final int queueLength = controller.getQueueLength();
+        executor.submit(() -> {
+            try (Permit ignored = controller.acquire(accountId, priority)) {
+                admissionOrder.add(accountId);
+            }
+            return null;
+        });
+        while (controller.getQueueLength() == queueLength) {
+            Thread.sleep(10);
+        }
+    }
+}
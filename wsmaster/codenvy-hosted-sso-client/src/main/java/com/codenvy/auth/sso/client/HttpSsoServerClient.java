@@ -32,6 +32,7 @@ import java.io.IOException;
 
 /**
  * Communicates with sso server by http calls.
+ * Resolved subjects are cached in {@link SubjectCache}.
  *
  * @author Sergii Kabashniuk
  */
@@ -40,16 +41,28 @@ public class HttpSsoServerClient implements ServerClient {
 
     protected final String                 apiEndpoint;
     protected final HttpJsonRequestFactory requestFactory;
+    protected final SubjectCache           subjectCache;
 
     @Inject
     public HttpSsoServerClient(@Named("che.api") String apiEndpoint,
-                               HttpJsonRequestFactory requestFactory) {
+                               HttpJsonRequestFactory requestFactory,
+                               SubjectCache subjectCache) {
         this.apiEndpoint = apiEndpoint;
         this.requestFactory = requestFactory;
+        this.subjectCache = subjectCache;
     }
 
     @Override
     public Subject getSubject(String token, String clientUrl) {
+        return subjectCache.get(token, clientUrl, () -> requestSubject(token, clientUrl));
+    }
+
+    /**
+     * Requests subject of given token from the sso server.
+     *
+     * @return subject or {@code null} when token is not valid or sso server is not available
+     */
+    protected Subject requestSubject(String token, String clientUrl) {
         try {
             final HttpJsonRequest currentPrincipalRequest = requestFactory.fromUrl(UriBuilder.fromUri(apiEndpoint)
                                                                                              .path(SsoService.class)
@@ -71,6 +84,7 @@ public class HttpSsoServerClient implements ServerClient {
 
     @Override
     public void unregisterClient(String token, String clientUrl) {
+        subjectCache.invalidate(token);
         try {
             requestFactory.fromUrl(UriBuilder.fromUri(apiEndpoint)
                                              .path(SsoService.class)
@@ -49,9 +49,10 @@ public class MachineSsoServerClient extends HttpSsoServerClient {
     @Inject
     public MachineSsoServerClient(@Named("che.api") String apiEndpoint,
                                   HttpJsonRequestFactory requestFactory,
+                                  SubjectCache subjectCache,
                                   MachineTokenRegistry tokenRegistry,
                                   UserManager userManager) {
-        super(apiEndpoint, requestFactory);
+        super(apiEndpoint, requestFactory, subjectCache);
         this.tokenRegistry = tokenRegistry;
         this.userManager = userManager;
     }
@@ -14,15 +14,19 @@
  */
 package com.codenvy.auth.sso.client;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.servlet.http.HttpSession;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Storage HttpSession's. Used to transfer relation's between session and token inside of SSO client.
  *
+ * <p>There is no global lock, all the changes related to a single session are performed atomically
+ * within the {@link ConcurrentHashMap#compute} of the session tokens entry, so only operations
+ * on the same session are serialized.
+ *
  * @author Sergii Kabashniuk
  */
 @Singleton
@@ -30,61 +34,58 @@ public class SessionStore {
     private final ConcurrentHashMap<String, HttpSession> sessionsByToken;
     private final ConcurrentHashMap<String, HttpSession> sessionsById;
     private final ConcurrentHashMap<String, Set<String>> tokensBySessionId;
+    private final SubjectCache                           subjectCache;
 
-    public SessionStore() {
+    @Inject
+    public SessionStore(SubjectCache subjectCache) {
+        this.subjectCache = subjectCache;
         this.sessionsByToken = new ConcurrentHashMap<>();
         this.sessionsById = new ConcurrentHashMap<>();
         this.tokensBySessionId = new ConcurrentHashMap<>();
     }
 
-    public synchronized void saveSession(String token, HttpSession session) {
-        String sessionId = session.getId();
-        sessionsByToken.put(token, session);
-        sessionsById.putIfAbsent(sessionId, session);
-        Set<String> tokens = tokensBySessionId.get(sessionId);
-        if (tokens == null) {
-            tokens = new HashSet<>();
-            tokensBySessionId.put(sessionId, tokens);
-        }
-        tokens.add(token);
-
+    public void saveSession(String token, HttpSession session) {
+        final String sessionId = session.getId();
+        tokensBySessionId.compute(sessionId, (id, tokens) -> {
+            if (tokens == null) {
+                tokens = ConcurrentHashMap.newKeySet();
+            }
+            sessionsById.putIfAbsent(id, session);
+            sessionsByToken.put(token, session);
+            tokens.add(token);
+            return tokens;
+        });
     }
 
-    public synchronized HttpSession removeSessionByToken(String token) {
-
-        HttpSession session = sessionsByToken.remove(token);
+    public HttpSession removeSessionByToken(String token) {
+        subjectCache.invalidate(token);
+        final HttpSession session = sessionsByToken.remove(token);
         if (session != null) {
-            String sessionId = session.getId();
-            sessionsById.remove(sessionId);
-            Set<String> tokens = tokensBySessionId.remove(sessionId);
-            for (String otherToken : tokens) {
-                if (!token.equals(otherToken)) {
-                    sessionsByToken.remove(otherToken);
+            tokensBySessionId.computeIfPresent(session.getId(), (id, tokens) -> {
+                sessionsById.remove(id);
+                for (String otherToken : tokens) {
+                    if (!token.equals(otherToken)) {
+                        subjectCache.invalidate(otherToken);
+                        sessionsByToken.remove(otherToken);
+                    }
                 }
-            }
-
+                return null;
+            });
         }
         return session;
-
     }
 
     public HttpSession getSession(String token) {
-
         return sessionsByToken.get(token);
-
     }
 
-    public synchronized void removeSessionById(String sessionId) {
-
-        HttpSession session = sessionsById.remove(sessionId);
-        if (session != null) {
-
-            Set<String> tokens = tokensBySessionId.remove(sessionId);
+    public void removeSessionById(String sessionId) {
+        tokensBySessionId.computeIfPresent(sessionId, (id, tokens) -> {
+            sessionsById.remove(id);
             for (String token : tokens) {
                 sessionsByToken.remove(token);
             }
-
-        }
-
+            return null;
+        });
     }
 }
@@ -0,0 +1,149 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.auth.sso.client;
+
+import com.codahale.metrics.annotation.Gauge;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import org.eclipse.che.commons.subject.Subject;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Bounded cache of subjects resolved by the SSO server, keyed by authentication token.
+ *
+ * <p>Concurrent lookups of the same token are coalesced into a single request to the SSO server.
+ * Subjects are cached only for the client url they were requested with, as the SSO server
+ * registers the client url for the token on each request.
+ * Entries are invalidated on SSO logout and also expire after the fixed period.
+ */
+@Singleton
+public class SubjectCache {
+    private final Cache<String, CachedSubject> cache;
+    private final AtomicLong                   hits;
+    private final AtomicLong                   misses;
+
+    @Inject
+    public SubjectCache(@Named("auth.sso.client.subject_cache.size") long maxSize,
+                        @Named("auth.sso.client.subject_cache.expire_seconds") long expireSeconds) {
+        this.cache = CacheBuilder.newBuilder()
+                                 .maximumSize(maxSize)
+                                 .expireAfterWrite(expireSeconds, SECONDS)
+                                 .build();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Returns cached subject for the given token and client url,
+     * if there is no such subject it is resolved with the given loader.
+     *
+     * @param token
+     *         authentication token
+     * @param clientUrl
+     *         url of client who asking the subject
+     * @param loader
+     *         resolves subject, returns {@code null} when token is not valid
+     * @return subject or {@code null} when loader didn't resolve the subject
+     */
+    public Subject get(String token, String clientUrl, Supplier<Subject> loader) {
+        final CachedSubject cached = cache.getIfPresent(token);
+        if (cached != null) {
+            if (cached.clientUrl.equals(clientUrl)) {
+                hits.incrementAndGet();
+                return cached.subject;
+            }
+            cache.invalidate(token);
+        }
+        final CachedSubject loaded;
+        try {
+            loaded = cache.get(token, () -> load(loader, clientUrl));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            return null;
+        }
+        if (loaded.clientUrl.equals(clientUrl)) {
+            return loaded.subject;
+        }
+        // coalesced with the concurrent lookup of another client url,
+        // subject has to be resolved for the client url of this lookup
+        try {
+            final CachedSubject own = load(loader, clientUrl);
+            cache.put(token, own);
+            return own.subject;
+        } catch (SubjectNotResolvedException e) {
+            return null;
+        }
+    }
+
+    /** Removes subject associated with given token from the cache. */
+    public void invalidate(String token) {
+        cache.invalidate(token);
+    }
+
+    /** @return number of subjects returned from the cache */
+    @Gauge(name = "auth.sso.client.subject_cache_hits")
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** @return number of subjects requested from the SSO server */
+    @Gauge(name = "auth.sso.client.subject_cache_misses")
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /** @return number of cached subjects */
+    @Gauge(name = "auth.sso.client.subject_cache_size")
+    public long getSize() {
+        return cache.size();
+    }
+
+    private CachedSubject load(Supplier<Subject> loader, String clientUrl) throws SubjectNotResolvedException {
+        misses.incrementAndGet();
+        final Subject subject = loader.get();
+        if (subject == null) {
+            throw SubjectNotResolvedException.INSTANCE;
+        }
+        return new CachedSubject(subject, clientUrl);
+    }
+
+    private static class CachedSubject {
+        final Subject subject;
+        final String  clientUrl;
+
+        CachedSubject(Subject subject, String clientUrl) {
+            this.subject = subject;
+            this.clientUrl = clientUrl;
+        }
+    }
+
+    /** Signals that loader didn't resolve the subject, so nothing is cached. */
+    private static class SubjectNotResolvedException extends Exception {
+        static final SubjectNotResolvedException INSTANCE = new SubjectNotResolvedException();
+
+        private SubjectNotResolvedException() {
+            super("Subject is not resolved", null, false, false);
+        }
+    }
+}
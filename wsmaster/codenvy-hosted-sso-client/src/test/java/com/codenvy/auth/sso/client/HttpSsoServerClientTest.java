@@ -39,6 +39,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.RETURNS_DEFAULTS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -76,7 +77,7 @@ public class HttpSsoServerClientTest {
         when(request.request()).thenReturn(response);
         when(requestFactory.fromUrl(anyString())).thenReturn(request);
 
-        ssoClient = new HttpSsoServerClient(API_ENDPOINT, requestFactory);
+        ssoClient = new HttpSsoServerClient(API_ENDPOINT, requestFactory, new SubjectCache(100, 60));
     }
 
     @Test
@@ -121,6 +122,28 @@ public class HttpSsoServerClientTest {
         verifyNoMoreInteractions(request);
     }
 
+    @Test
+    public void shouldNotRequestSubjectWhichIsAlreadyCached() throws Exception {
+        when(response.asDto(anyObject())).thenReturn(createUserDto());
+
+        final Subject first = ssoClient.getSubject("token123", CLIENT_URL);
+        final Subject second = ssoClient.getSubject("token123", CLIENT_URL);
+
+        assertEquals(second, first);
+        verify(request).request();
+    }
+
+    @Test
+    public void shouldRequestSubjectAgainAfterUnregisteringClient() throws Exception {
+        when(response.asDto(anyObject())).thenReturn(createUserDto());
+
+        ssoClient.getSubject("token123", CLIENT_URL);
+        ssoClient.unregisterClient("token123", CLIENT_URL);
+        ssoClient.getSubject("token123", CLIENT_URL);
+
+        verify(request, times(3)).request();
+    }
+
     @Test
     public void shouldUnregisterClient() throws Exception {
         ssoClient.unregisterClient("token123", CLIENT_URL);
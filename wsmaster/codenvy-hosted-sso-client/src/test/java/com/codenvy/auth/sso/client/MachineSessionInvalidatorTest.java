@@ -39,7 +39,7 @@ public class MachineSessionInvalidatorTest {
     public void subscriberMustExpireAllTheSessionsRelatedToTheWorkspace() throws Exception {
         final MachineTokenRegistry registry = new MachineTokenRegistry();
         final EventService eventService = new EventService();
-        final SessionStore sessionStore = new SessionStore();
+        final SessionStore sessionStore = new SessionStore(new SubjectCache(100, 60));
         final MachineSessionInvalidator invalidator = new MachineSessionInvalidator(registry, sessionStore, eventService);
         invalidator.subscribe();
         // generating a few tokens for the workspace
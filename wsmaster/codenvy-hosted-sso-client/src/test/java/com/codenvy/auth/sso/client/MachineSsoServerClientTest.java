@@ -72,6 +72,7 @@ public class MachineSsoServerClientTest {
 
         ssoClient = new MachineSsoServerClient(ENDPOINT,
                                                requestFactoryMock,
+                                               new SubjectCache(100, 60),
                                                registrySpy,
                                                userManagerMock);
     }
@@ -0,0 +1,152 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.auth.sso.client;
+
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import javax.servlet.http.HttpSession;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Tests for {@link SessionStore}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class SessionStoreTest {
+    @Mock
+    private SubjectCache subjectCache;
+    @Mock
+    private HttpSession  session;
+
+    private SessionStore sessionStore;
+
+    @BeforeMethod
+    public void setUp() {
+        when(session.getId()).thenReturn("session123");
+        sessionStore = new SessionStore(subjectCache);
+    }
+
+    @Test
+    public void shouldSaveSession() {
+        sessionStore.saveSession("token1", session);
+
+        assertSame(sessionStore.getSession("token1"), session);
+    }
+
+    @Test
+    public void shouldRemoveAllTokensOfSessionWhenRemovingSessionByToken() {
+        sessionStore.saveSession("token1", session);
+        sessionStore.saveSession("token2", session);
+
+        assertSame(sessionStore.removeSessionByToken("token1"), session);
+
+        assertNull(sessionStore.getSession("token1"));
+        assertNull(sessionStore.getSession("token2"));
+        verify(subjectCache).invalidate("token1");
+        verify(subjectCache).invalidate("token2");
+    }
+
+    @Test
+    public void shouldReturnNullWhenRemovingSessionByUnknownToken() {
+        assertNull(sessionStore.removeSessionByToken("token1"));
+    }
+
+    @Test
+    public void shouldRemoveAllTokensOfSessionWhenRemovingSessionById() {
+        sessionStore.saveSession("token1", session);
+        sessionStore.saveSession("token2", session);
+
+        sessionStore.removeSessionById("session123");
+
+        assertNull(sessionStore.getSession("token1"));
+        assertNull(sessionStore.getSession("token2"));
+    }
+
+    @Test
+    public void shouldSaveSessionAgainAfterItsRemoval() {
+        sessionStore.saveSession("token1", session);
+        sessionStore.removeSessionById("session123");
+
+        sessionStore.saveSession("token2", session);
+
+        assertNull(sessionStore.getSession("token1"));
+        assertSame(sessionStore.getSession("token2"), session);
+    }
+
+    @Test
+    public void shouldHandleConcurrentLoginsAndLogouts() throws Exception {
+        final int threads = 8;
+        final int sessionsPerThread = 1000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<HttpSession> kept = new ArrayList<>();
+        try {
+            final List<Callable<List<HttpSession>>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                final String prefix = "thread" + i + "-";
+                tasks.add(() -> {
+                    final List<HttpSession> sessions = new ArrayList<>();
+                    for (int j = 0; j < sessionsPerThread; j++) {
+                        final HttpSession httpSession = mock(HttpSession.class);
+                        when(httpSession.getId()).thenReturn(prefix + j);
+                        sessionStore.saveSession(prefix + j + "-a", httpSession);
+                        sessionStore.saveSession(prefix + j + "-b", httpSession);
+                        if (j % 2 == 0) {
+                            assertSame(sessionStore.removeSessionByToken(prefix + j + "-a"), httpSession);
+                        } else if (j % 3 == 0) {
+                            sessionStore.removeSessionById(prefix + j);
+                        } else {
+                            sessions.add(httpSession);
+                        }
+                    }
+                    return sessions;
+                });
+            }
+            for (Future<List<HttpSession>> future : executor.invokeAll(tasks)) {
+                kept.addAll(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int found = 0;
+        for (int i = 0; i < threads; i++) {
+            for (int j = 0; j < sessionsPerThread; j++) {
+                final String token = "thread" + i + "-" + j;
+                final HttpSession a = sessionStore.getSession(token + "-a");
+                final HttpSession b = sessionStore.getSession(token + "-b");
+                assertSame(a, b);
+                if (a != null) {
+                    found++;
+                }
+            }
+        }
+        assertEquals(found, kept.size());
+    }
+}
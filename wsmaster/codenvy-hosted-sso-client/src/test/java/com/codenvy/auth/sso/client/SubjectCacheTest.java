@@ -0,0 +1,161 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.auth.sso.client;
+
+import org.eclipse.che.commons.subject.Subject;
+import org.eclipse.che.commons.subject.SubjectImpl;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Tests for {@link SubjectCache}.
+ */
+public class SubjectCacheTest {
+    private static final String CLIENT_URL = "http://test.client.com";
+
+    private SubjectCache  cache;
+    private AtomicInteger loads;
+    private Subject       subject;
+
+    @BeforeMethod
+    public void setUp() {
+        cache = new SubjectCache(100, 60);
+        loads = new AtomicInteger();
+        subject = new SubjectImpl("user", "user123", "token123", false);
+    }
+
+    @Test
+    public void shouldLoadSubjectOnlyOnce() {
+        assertSame(cache.get("token123", CLIENT_URL, countingLoader(subject)), subject);
+        assertSame(cache.get("token123", CLIENT_URL, countingLoader(subject)), subject);
+
+        assertEquals(loads.get(), 1);
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+    }
+
+    @Test
+    public void shouldNotCacheUnresolvedSubject() {
+        assertNull(cache.get("token123", CLIENT_URL, countingLoader(null)));
+        assertNull(cache.get("token123", CLIENT_URL, countingLoader(null)));
+
+        assertEquals(loads.get(), 2);
+        assertEquals(cache.getSize(), 0);
+    }
+
+    @Test
+    public void shouldLoadSubjectAgainForAnotherClientUrl() {
+        cache.get("token123", CLIENT_URL, countingLoader(subject));
+        cache.get("token123", "http://another.client.com", countingLoader(subject));
+
+        assertEquals(loads.get(), 2);
+    }
+
+    @Test
+    public void shouldLoadSubjectAgainAfterInvalidation() {
+        cache.get("token123", CLIENT_URL, countingLoader(subject));
+
+        cache.invalidate("token123");
+        cache.get("token123", CLIENT_URL, countingLoader(subject));
+
+        assertEquals(loads.get(), 2);
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentLoadsOfTheSameToken() throws Exception {
+        final int threads = 8;
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Supplier<Subject> slowLoader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException x) {
+                Thread.currentThread().interrupt();
+            }
+            return subject;
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Subject>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("token123", CLIENT_URL, slowLoader)));
+            loading.await(10, TimeUnit.SECONDS);
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get("token123", CLIENT_URL, slowLoader)));
+            }
+            release.countDown();
+
+            for (Future<Subject> result : results) {
+                assertSame(result.get(10, TimeUnit.SECONDS), subject);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(loads.get(), 1);
+    }
+
+    @Test
+    public void shouldNotReturnSubjectLoadedConcurrentlyForAnotherClientUrl() throws Exception {
+        final Subject anotherSubject = new SubjectImpl("user", "user123", "token123", false);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Supplier<Subject> slowLoader = () -> {
+            loading.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException x) {
+                Thread.currentThread().interrupt();
+            }
+            return subject;
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<Subject> first = executor.submit(() -> cache.get("token123", CLIENT_URL, slowLoader));
+            loading.await(10, TimeUnit.SECONDS);
+            final Future<Subject> second = executor.submit(() -> cache.get("token123",
+                                                                           "http://another.client.com",
+                                                                           () -> anotherSubject));
+            release.countDown();
+
+            assertSame(first.get(10, TimeUnit.SECONDS), subject);
+            assertSame(second.get(10, TimeUnit.SECONDS), anotherSubject);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Supplier<Subject> countingLoader(Subject result) {
+        return () -> {
+            loads.incrementAndGet();
+            return result;
+        };
+    }
+}
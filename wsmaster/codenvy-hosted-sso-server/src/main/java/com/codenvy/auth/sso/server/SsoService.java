@@ -102,7 +102,9 @@ public class SsoService {
         if (accessTicket == null) {
             throw new AuthenticationException("Access token not found or expired.");
         } else {
-            accessTicket.registerClientUrl(clientUrl);
+            if (!accessTicket.getRegisteredClients().contains(clientUrl)) {
+                ticketManager.registerClientUrl(token, clientUrl);
+            }
             User user = userManager.getById(accessTicket.getUserId());
             return DtoFactory.newDto(SubjectDto.class)
                              .withName(user.getName())
@@ -121,8 +123,8 @@ public class SsoService {
             ticketManager.removeTicket(token);
         } else {
             AccessTicket accessTicket = ticketManager.getAccessTicket(token);
-            if (accessTicket != null) {
-                accessTicket.unRegisterClientUrl(clientUrl);
+            if (accessTicket != null && accessTicket.getRegisteredClients().contains(clientUrl)) {
+                ticketManager.unregisterClientUrl(token, clientUrl);
             }
         }
     }
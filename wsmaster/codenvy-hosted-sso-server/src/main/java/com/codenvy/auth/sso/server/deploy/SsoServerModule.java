@@ -14,8 +14,8 @@
  */
 package com.codenvy.auth.sso.server.deploy;
 
-import com.codenvy.auth.sso.server.ticket.InMemoryTicketManager;
 import com.google.inject.AbstractModule;
+import com.google.inject.Singleton;
 
 /**
  * Install major sso server component in guice
@@ -26,7 +26,7 @@ public class SsoServerModule extends AbstractModule {
 
     @Override
     protected void configure() {
-        bind(com.codenvy.api.dao.authentication.TicketManager.class).to(InMemoryTicketManager.class);
+        bind(com.codenvy.api.dao.authentication.TicketManager.class).toProvider(TicketManagerProvider.class).in(Singleton.class);
         bind(com.codenvy.api.dao.authentication.TokenGenerator.class).to(com.codenvy.auth.sso.server.SecureRandomTokenGenerator.class);
         bind(com.codenvy.api.dao.authentication.CookieBuilder.class).to(com.codenvy.auth.sso.server.SsoCookieBuilder.class);
         bind(com.codenvy.auth.sso.server.SsoService.class);
@@ -0,0 +1,54 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.auth.sso.server.deploy;
+
+import com.codenvy.api.dao.authentication.TicketManager;
+import com.codenvy.auth.sso.server.ticket.InMemoryTicketManager;
+import com.codenvy.auth.sso.server.ticket.jpa.JpaTicketManager;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+
+/**
+ * Provides {@link TicketManager} implementation based on configuration.
+ *
+ * <p>Tickets are stored in the database by default, so they may be shared between several masters.
+ * The in-memory implementation may be used by a single master installation.
+ */
+public class TicketManagerProvider implements Provider<TicketManager> {
+
+    @Inject
+    private Provider<JpaTicketManager> jpaTicketManagerProvider;
+
+    @Inject
+    private Provider<InMemoryTicketManager> inMemoryTicketManagerProvider;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("auth.sso.ticket_manager")
+    private String ticketManager;
+
+    @Override
+    public TicketManager get() {
+        if (ticketManager == null || ticketManager.equals("jpa")) {
+            return jpaTicketManagerProvider.get();
+        }
+        if (ticketManager.equals("inmemory")) {
+            return inMemoryTicketManagerProvider.get();
+        }
+        throw new IllegalStateException("Supported values for the property 'auth.sso.ticket_manager' " +
+                                        "are 'jpa' or 'inmemory'");
+    }
+}
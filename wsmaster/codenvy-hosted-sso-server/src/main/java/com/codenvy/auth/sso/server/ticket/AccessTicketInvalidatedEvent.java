@@ -0,0 +1,47 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.auth.sso.server.ticket;
+
+/**
+ * Published when access ticket is updated or removed,
+ * so cached copies of the ticket must not be used anymore.
+ */
+public class AccessTicketInvalidatedEvent {
+    private final String accessToken;
+    private final Long   revision;
+
+    public AccessTicketInvalidatedEvent(String accessToken, Long revision) {
+        this.accessToken = accessToken;
+        this.revision = revision;
+    }
+
+    /** Returns token of the invalidated access ticket. */
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    /** Returns revision of the updated access ticket or {@code null} when the ticket is removed. */
+    public Long getRevision() {
+        return revision;
+    }
+
+    @Override
+    public String toString() {
+        return "AccessTicketInvalidatedEvent{" +
+               "accessToken='" + accessToken + '\'' +
+               ", revision=" + revision +
+               '}';
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.auth.sso.server.ticket;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hashed timing wheel of access tokens keyed on the creation time of access tickets.
+ *
+ * <p>Each slot of the wheel holds tokens of tickets created during one tick,
+ * so the expired tokens are found by visiting only the slots of ticks passed since
+ * the previous expiration instead of walking through all the tickets.
+ * Slots may contain tokens of the next wheel rounds, such tokens are kept in the slot
+ * until their creation time becomes older than the expiration time.
+ *
+ * <p>Each slot is guarded by its own lock, so adding of the token waits only for the expiration
+ * of the same slot, not for the whole expiration.
+ */
+class AccessTicketTimingWheel {
+
+    private final Map<String, Long>[] slots;
+    private final long                tickMs;
+
+    /**
+     * The last tick all the tokens of which have been already expired,
+     * it is advanced under the lock of the slot of this tick.
+     */
+    private volatile long expiredTick = Long.MIN_VALUE;
+
+    @SuppressWarnings("unchecked")
+    AccessTicketTimingWheel(int wheelSize, long tickMs) {
+        this.slots = new Map[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ConcurrentHashMap<>();
+        }
+        this.tickMs = tickMs;
+    }
+
+    /**
+     * Adds token of the ticket with given creation time to the wheel.
+     * The token is placed under the lock of its slot, if the slot has been expired
+     * while the lock was awaited the token is placed into the next not expired slot.
+     */
+    void add(String token, long creationTime) {
+        final long tick = Math.floorDiv(creationTime, tickMs);
+        while (true) {
+            final long lastExpired = expiredTick;
+            final long slotTick = lastExpired != Long.MIN_VALUE && tick <= lastExpired ? lastExpired + 1 : tick;
+            final Map<String, Long> slot = slots[index(slotTick)];
+            synchronized (slot) {
+                if (slotTick > expiredTick) {
+                    slot.put(token, creationTime);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes token of the ticket with given creation time from the wheel.
+     * Tokens which are not found in their slot are removed during the expiration.
+     */
+    void remove(String token, long creationTime) {
+        final long tick = Math.floorDiv(creationTime, tickMs);
+        final long lastExpired = expiredTick;
+        slots[index(lastExpired != Long.MIN_VALUE && tick <= lastExpired ? lastExpired + 1 : tick)].remove(token);
+    }
+
+    /**
+     * Removes tokens of tickets which were created before the given time from the wheel.
+     * Concurrent expirations are performed one by one, slots are locked one at a time.
+     *
+     * @param time
+     *         time in milliseconds
+     * @return the list of removed tokens
+     */
+    synchronized List<String> expire(long time) {
+        final List<String> expired = new ArrayList<>();
+        final long targetTick = Math.floorDiv(time, tickMs);
+        final long fromTick = expiredTick == Long.MIN_VALUE ? targetTick - slots.length + 1
+                                                            : Math.max(expiredTick + 1, targetTick - slots.length + 1);
+        for (long tick = fromTick; tick <= targetTick; tick++) {
+            final Map<String, Long> slot = slots[index(tick)];
+            synchronized (slot) {
+                final Iterator<Map.Entry<String, Long>> it = slot.entrySet().iterator();
+                while (it.hasNext()) {
+                    final Map.Entry<String, Long> entry = it.next();
+                    if (entry.getValue() < time) {
+                        expired.add(entry.getKey());
+                        it.remove();
+                    }
+                }
+                // tokens of the target tick may be created after the given time,
+                // so the slot is going to be visited once again during the next expiration
+                if (tick < targetTick && tick > expiredTick) {
+                    expiredTick = tick;
+                }
+            }
+        }
+        return expired;
+    }
+
+    private int index(long tick) {
+        return (int)Math.floorMod(tick, (long)slots.length);
+    }
+}
@@ -20,31 +20,41 @@ import com.codenvy.api.dao.authentication.AccessTicket;
 import com.codenvy.api.dao.authentication.TicketManager;
 import com.google.inject.Singleton;
 
-import org.eclipse.che.commons.lang.IoUtil;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import javax.inject.Inject;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
-/** Simple implementation of <code>TicketManager</code> */
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Simple implementation of <code>TicketManager</code>.
+ * Logout requests to the SSO clients of removed tickets are sent
+ * asynchronously by {@link SsoClientLogoutNotifier}.
+ * Tickets are kept in the concurrent map and indexed by the creation time
+ * in the {@link AccessTicketTimingWheel}, so expiration doesn't require walking through all the tickets.
+ */
 @Singleton
 public class InMemoryTicketManager implements TicketManager {
-    private static final Logger                    LOG           = LoggerFactory.getLogger(InMemoryTicketManager.class);
-    private final        Map<String, AccessTicket> accessTickets = new HashMap<>();
-    private final        ReadWriteLock             readWriteLock = new ReentrantReadWriteLock();
-
+    /** 4096 slots by 1 minute cover default access ticket lifetime in less than two wheel rounds. */
+    private static final int  WHEEL_SIZE = 4096;
+    private static final long TICK_MS    = 60 * 1000;
+
+    private final ConcurrentMap<String, AccessTicket> accessTickets;
+    private final Set<AccessTicket>                   accessTicketsView;
+    private final AccessTicketTimingWheel             timingWheel;
+    private final SsoClientLogoutNotifier             logoutNotifier;
+
+    @Inject
+    public InMemoryTicketManager(SsoClientLogoutNotifier logoutNotifier) {
+        this.logoutNotifier = logoutNotifier;
+        this.accessTickets = new ConcurrentHashMap<>();
+        this.accessTicketsView = Collections.unmodifiableSet(new AccessTicketsView());
+        this.timingWheel = new AccessTicketTimingWheel(WHEEL_SIZE, TICK_MS);
+    }
 
     /** @see TicketManager#putAccessTicket(com.codenvy.api.dao.authentication.AccessTicket) */
     @Override
@@ -52,11 +62,26 @@ public class InMemoryTicketManager implements TicketManager {
         if (accessTicket.getUserId() == null) {
             throw new IllegalArgumentException("Access ticket has no principal or username in principal");
         }
-        readWriteLock.writeLock().lock();
-        try {
-            accessTickets.put(accessTicket.getAccessToken(), accessTicket);
-        } finally {
-            readWriteLock.writeLock().unlock();
+        final AccessTicket replaced = accessTickets.put(accessTicket.getAccessToken(), accessTicket);
+        if (replaced != null) {
+            timingWheel.remove(replaced.getAccessToken(), replaced.getCreationTime());
+        }
+        timingWheel.add(accessTicket.getAccessToken(), accessTicket.getCreationTime());
+    }
+
+    @Override
+    public void registerClientUrl(String accessToken, String clientUrl) {
+        final AccessTicket accessTicket = getAccessTicket(accessToken);
+        if (accessTicket != null) {
+            accessTicket.registerClientUrl(clientUrl);
+        }
+    }
+
+    @Override
+    public void unregisterClientUrl(String accessToken, String clientUrl) {
+        final AccessTicket accessTicket = getAccessTicket(accessToken);
+        if (accessTicket != null) {
+            accessTicket.unRegisterClientUrl(clientUrl);
         }
     }
 
@@ -66,13 +91,7 @@ public class InMemoryTicketManager implements TicketManager {
         if (accessToken == null) {
             return null;
         }
-
-        readWriteLock.readLock().lock();
-        try {
-            return accessTickets.get(accessToken);
-        } finally {
-            readWriteLock.readLock().unlock();
-        }
+        return accessTickets.get(accessToken);
     }
 
     /** @see TicketManager#removeTicket(java.lang.String) */
@@ -81,57 +100,26 @@ public class InMemoryTicketManager implements TicketManager {
         if (accessToken == null) {
             return null;
         }
+        final AccessTicket ticket = accessTickets.remove(accessToken);
+        if (ticket != null) {
+            timingWheel.remove(accessToken, ticket.getCreationTime());
+            logoutNotifier.logout(ticket);
+        }
+        return ticket;
+    }
 
-        readWriteLock.writeLock().lock();
-        try {
-
-            AccessTicket ticket = accessTickets.remove(accessToken);
-            if (ticket == null)
-                return null;
-            for (String ssoClient : ticket.getRegisteredClients()) {
-                // NOTE : must send as many logout request as possible.
-                HttpURLConnection conn = null;
-                try {
-                    conn = (HttpURLConnection)new URL(ssoClient + "/_sso/client/logout").openConnection();
-                    conn.setRequestMethod("POST");
-                    conn.setDoOutput(true);
-                    conn.setInstanceFollowRedirects(false);
-                    conn.setConnectTimeout(5 * 1000);
-                    conn.setReadTimeout(5 * 1000);
-                    conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-                    OutputStream out = conn.getOutputStream();
-                    out.write(("authToken=" + URLEncoder.encode(ticket.getAccessToken(), "UTF-8")).getBytes());
-
-                    int responseCode = conn.getResponseCode();
-                    LOG.debug("Sent logout request to {} response {}", conn.getURL(), responseCode);
-                    if (responseCode / 100 != 2) {
-                        if (responseCode == HttpServletResponse.SC_BAD_GATEWAY) {
-                            LOG.warn("Tenant {} is unavailable. Logout request not executed", ssoClient);
-                        } else if (responseCode == HttpServletResponse.SC_MOVED_TEMPORARILY) {
-                            LOG.warn("Logout request for tenant {} was redirected to {}. Logout was omitted",
-                                     ssoClient, conn.getHeaderField("Location"));
-                        } else {
-                            InputStream errorStream = conn.getErrorStream();
-                            String message = errorStream != null ? IoUtil.readAndCloseQuietly(errorStream) : "";
-                            throw new IOException(
-                                    "Unexpected response code '" + responseCode + "' for SSO logout request to" +
-                                    " '" + conn.getURL() + "'. " + message);
-                        }
-                    }
-
-                } catch (IOException e) {
-                    LOG.warn("{}. Not able to send logout request to {}", e.getLocalizedMessage(), ssoClient);
-                } finally {
-                    if (conn != null) {
-                        conn.disconnect();
-                    }
-
-                }
+    @Override
+    public List<AccessTicket> removeTicketsCreatedBefore(long time) {
+        final List<AccessTicket> removed = new ArrayList<>();
+        for (String token : timingWheel.expire(time)) {
+            final AccessTicket ticket = accessTickets.get(token);
+            // the token may be reused by the ticket created after the given time
+            if (ticket != null && ticket.getCreationTime() < time && accessTickets.remove(token, ticket)) {
+                logoutNotifier.logout(ticket);
+                removed.add(ticket);
             }
-            return ticket;
-        } finally {
-            readWriteLock.writeLock().unlock();
         }
+        return removed;
     }
 
     /** @return number of access tickets. */
@@ -140,13 +128,25 @@ public class InMemoryTicketManager implements TicketManager {
         return accessTickets.size();
     }
 
+    /**
+     * Returns unmodifiable view of access tickets which reflects
+     * the current state of the manager, iteration over the view is weakly consistent.
+     */
     @Override
     public Set<AccessTicket> getAccessTickets() {
-        readWriteLock.readLock().lock();
-        try {
-            return new HashSet<>(accessTickets.values());
-        } finally {
-            readWriteLock.readLock().unlock();
+        return accessTicketsView;
+    }
+
+    /** Live view of access tickets backed by the tickets map. */
+    private class AccessTicketsView extends AbstractSet<AccessTicket> {
+        @Override
+        public Iterator<AccessTicket> iterator() {
+            return accessTickets.values().iterator();
+        }
+
+        @Override
+        public int size() {
+            return accessTickets.size();
         }
     }
 }
@@ -0,0 +1,243 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.auth.sso.server.ticket;
+
+import com.codahale.metrics.annotation.Gauge;
+import com.codenvy.api.dao.authentication.AccessTicket;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends logout requests to the SSO clients registered in removed access tickets.
+ *
+ * <p>Requests are sent asynchronously by a bounded pool of workers, so ticket removal
+ * does not depend on the availability of SSO clients. Each request is retried
+ * with a linear backoff, when the number of consecutive failures of some client
+ * exceeds the threshold, requests to this client are skipped until the open circuit period elapses.
+ */
+@Singleton
+public class SsoClientLogoutNotifier {
+    private static final Logger LOG = LoggerFactory.getLogger(SsoClientLogoutNotifier.class);
+
+    private final ScheduledExecutorService  executor;
+    private final Map<String, CircuitState> circuits;
+    private final int                       queueCapacity;
+    private final int                       timeoutMs;
+    private final int                       maxAttempts;
+    private final long                      retryDelayMs;
+    private final int                       failureThreshold;
+    private final long                      openCircuitMs;
+
+    private final AtomicInteger pending   = new AtomicInteger();
+    private final AtomicLong    sent      = new AtomicLong();
+    private final AtomicLong    failed    = new AtomicLong();
+    private final AtomicLong    rejected  = new AtomicLong();
+    private final AtomicLong    attempts  = new AtomicLong();
+    private final AtomicLong    latencyMs = new AtomicLong();
+
+    @Inject
+    public SsoClientLogoutNotifier(@Named("auth.sso.logout.pool_size") int poolSize,
+                                   @Named("auth.sso.logout.queue_capacity") int queueCapacity,
+                                   @Named("auth.sso.logout.timeout_ms") int timeoutMs,
+                                   @Named("auth.sso.logout.max_attempts") int maxAttempts,
+                                   @Named("auth.sso.logout.retry_delay_ms") long retryDelayMs,
+                                   @Named("auth.sso.logout.circuit_failure_threshold") int failureThreshold,
+                                   @Named("auth.sso.logout.circuit_open_ms") long openCircuitMs) {
+        this.executor = Executors.newScheduledThreadPool(poolSize,
+                                                         new ThreadFactoryBuilder().setNameFormat("SsoClientLogoutNotifier-%d")
+                                                                                   .setDaemon(true)
+                                                                                   .build());
+        this.circuits = new ConcurrentHashMap<>();
+        this.queueCapacity = queueCapacity;
+        this.timeoutMs = timeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMs = retryDelayMs;
+        this.failureThreshold = failureThreshold;
+        this.openCircuitMs = openCircuitMs;
+    }
+
+    /**
+     * Schedules logout requests to all the clients registered in the given ticket.
+     * Returns immediately, requests which do not fit into the queue are dropped.
+     *
+     * @param ticket
+     *         removed access ticket
+     */
+    public void logout(AccessTicket ticket) {
+        for (String ssoClient : ticket.getRegisteredClients()) {
+            if (pending.incrementAndGet() > queueCapacity) {
+                pending.decrementAndGet();
+                rejected.incrementAndGet();
+                LOG.warn("Logout queue is full. Logout request to {} is dropped", ssoClient);
+                continue;
+            }
+            executor.execute(() -> attempt(ssoClient, ticket.getAccessToken(), 1));
+        }
+    }
+
+    /** @return number of logout requests which are waiting for execution or retry */
+    @Gauge(name = "auth.sso.logout_queue_size")
+    public int getQueueSize() {
+        return pending.get();
+    }
+
+    /** @return number of successfully sent logout requests */
+    @Gauge(name = "auth.sso.logout_sent_number")
+    public long getSentNumber() {
+        return sent.get();
+    }
+
+    /** @return number of logout requests which were not sent after all the attempts */
+    @Gauge(name = "auth.sso.logout_failed_number")
+    public long getFailedNumber() {
+        return failed.get();
+    }
+
+    /** @return number of logout requests dropped because of full queue */
+    @Gauge(name = "auth.sso.logout_rejected_number")
+    public long getRejectedNumber() {
+        return rejected.get();
+    }
+
+    /** @return average latency of logout request attempts in milliseconds */
+    @Gauge(name = "auth.sso.logout_average_latency_ms")
+    public long getAverageLatency() {
+        final long attemptsNumber = attempts.get();
+        return attemptsNumber == 0 ? 0 : latencyMs.get() / attemptsNumber;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @VisibleForTesting
+    void attempt(String ssoClient, String accessToken, int attemptNumber) {
+        final CircuitState circuit = circuits.computeIfAbsent(ssoClient, c -> new CircuitState());
+        if (circuit.isOpen()) {
+            LOG.debug("Circuit for {} is open. Logout request is skipped", ssoClient);
+            failed.incrementAndGet();
+            pending.decrementAndGet();
+            return;
+        }
+        final long start = System.currentTimeMillis();
+        try {
+            sendLogout(ssoClient, accessToken);
+            recordLatency(start);
+            circuit.onSuccess();
+            sent.incrementAndGet();
+            pending.decrementAndGet();
+        } catch (IOException e) {
+            recordLatency(start);
+            circuit.onFailure();
+            if (attemptNumber < maxAttempts && !executor.isShutdown()) {
+                LOG.debug("{}. Logout request to {} will be retried", e.getLocalizedMessage(), ssoClient);
+                executor.schedule(() -> attempt(ssoClient, accessToken, attemptNumber + 1),
+                                  retryDelayMs * attemptNumber,
+                                  TimeUnit.MILLISECONDS);
+            } else {
+                LOG.warn("{}. Not able to send logout request to {}", e.getLocalizedMessage(), ssoClient);
+                failed.incrementAndGet();
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private void recordLatency(long start) {
+        attempts.incrementAndGet();
+        latencyMs.addAndGet(System.currentTimeMillis() - start);
+    }
+
+    @VisibleForTesting
+    void sendLogout(String ssoClient, String accessToken) throws IOException {
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection)new URL(ssoClient + "/_sso/client/logout").openConnection();
+            conn.setRequestMethod("POST");
+            conn.setDoOutput(true);
+            conn.setInstanceFollowRedirects(false);
+            conn.setConnectTimeout(timeoutMs);
+            conn.setReadTimeout(timeoutMs);
+            conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+            OutputStream out = conn.getOutputStream();
+            out.write(("authToken=" + URLEncoder.encode(accessToken, "UTF-8")).getBytes());
+
+            int responseCode = conn.getResponseCode();
+            LOG.debug("Sent logout request to {} response {}", conn.getURL(), responseCode);
+            if (responseCode / 100 != 2) {
+                if (responseCode == HttpServletResponse.SC_BAD_GATEWAY) {
+                    LOG.warn("Tenant {} is unavailable. Logout request not executed", ssoClient);
+                } else if (responseCode == HttpServletResponse.SC_MOVED_TEMPORARILY) {
+                    LOG.warn("Logout request for tenant {} was redirected to {}. Logout was omitted",
+                             ssoClient, conn.getHeaderField("Location"));
+                } else {
+                    InputStream errorStream = conn.getErrorStream();
+                    String message = errorStream != null ? IoUtil.readAndCloseQuietly(errorStream) : "";
+                    throw new IOException(
+                            "Unexpected response code '" + responseCode + "' for SSO logout request to" +
+                            " '" + conn.getURL() + "'. " + message);
+                }
+            }
+        } finally {
+            if (conn != null) {
+                conn.disconnect();
+            }
+        }
+    }
+
+    /** Tracks consecutive failures of a single SSO client. */
+    private class CircuitState {
+        private int  failures;
+        private long openUntil;
+
+        synchronized boolean isOpen() {
+            return System.currentTimeMillis() < openUntil;
+        }
+
+        synchronized void onSuccess() {
+            failures = 0;
+        }
+
+        synchronized void onFailure() {
+            if (++failures >= failureThreshold) {
+                openUntil = System.currentTimeMillis() + openCircuitMs;
+                failures = 0;
+            }
+        }
+    }
+}
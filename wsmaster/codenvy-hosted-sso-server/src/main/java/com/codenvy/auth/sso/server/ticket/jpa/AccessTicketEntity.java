@@ -0,0 +1,154 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.auth.sso.server.ticket.jpa;
+
+import com.codenvy.api.dao.authentication.AccessTicket;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Persistent representation of {@link AccessTicket}.
+ */
+@Entity(name = "AccessTicket")
+@NamedQueries(
+        {
+                @NamedQuery(name = "AccessTicket.getAll",
+                            query = "SELECT t FROM AccessTicket t"),
+                @NamedQuery(name = "AccessTicket.getCreatedBefore",
+                            query = "SELECT t " +
+                                    "FROM AccessTicket t " +
+                                    "WHERE t.creationTime < :time")
+        }
+)
+@Table(name = "access_ticket")
+public class AccessTicketEntity {
+    @Id
+    @Column(name = "access_token")
+    private String accessToken;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "auth_handler_type", nullable = false)
+    private String authHandlerType;
+
+    @Column(name = "creation_time", nullable = false)
+    private long creationTime;
+
+    /** Random value which is changed on each update of the ticket. */
+    @Column(name = "revision", nullable = false)
+    private long revision;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @Column(name = "client_url", nullable = false)
+    @CollectionTable(name = "access_ticket_clients", joinColumns = @JoinColumn(name = "access_token"))
+    private Set<String> registeredClients;
+
+    public AccessTicketEntity() {}
+
+    public AccessTicketEntity(AccessTicket accessTicket, long revision) {
+        this.accessToken = accessTicket.getAccessToken();
+        this.userId = accessTicket.getUserId();
+        this.authHandlerType = accessTicket.getAuthHandlerType();
+        this.creationTime = accessTicket.getCreationTime();
+        this.registeredClients = new HashSet<>(accessTicket.getRegisteredClients());
+        this.revision = revision;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public Set<String> getRegisteredClients() {
+        if (registeredClients == null) {
+            registeredClients = new HashSet<>();
+        }
+        return registeredClients;
+    }
+
+    /** Creates access ticket based on this entity. */
+    public AccessTicket toAccessTicket() {
+        final AccessTicket accessTicket = new AccessTicket(accessToken, userId, authHandlerType, creationTime);
+        getRegisteredClients().forEach(accessTicket::registerClientUrl);
+        return accessTicket;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof AccessTicketEntity)) {
+            return false;
+        }
+        final AccessTicketEntity that = (AccessTicketEntity)obj;
+        return creationTime == that.creationTime
+               && Objects.equals(accessToken, that.accessToken)
+               && Objects.equals(userId, that.userId)
+               && Objects.equals(authHandlerType, that.authHandlerType)
+               && getRegisteredClients().equals(that.getRegisteredClients());
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 31 * hash + Objects.hashCode(accessToken);
+        hash = 31 * hash + Objects.hashCode(userId);
+        hash = 31 * hash + Objects.hashCode(authHandlerType);
+        hash = 31 * hash + Long.hashCode(creationTime);
+        hash = 31 * hash + getRegisteredClients().hashCode();
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "AccessTicketEntity{" +
+               "accessToken='" + accessToken + '\'' +
+               ", userId='" + userId + '\'' +
+               ", authHandlerType='" + authHandlerType + '\'' +
+               ", creationTime=" + creationTime +
+               ", revision=" + revision +
+               ", registeredClients=" + registeredClients +
+               '}';
+    }
+}
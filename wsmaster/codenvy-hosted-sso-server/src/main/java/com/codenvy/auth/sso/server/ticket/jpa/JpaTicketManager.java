@@ -0,0 +1,281 @@
+package com.codenvy.auth.sso.server.ticket.jpa;
+
+import com.codahale.metrics.annotation.Gauge;
+import com.codenvy.api.dao.authentication.AccessTicket;
+import com.codenvy.api.dao.authentication.TicketManager;
+import com.codenvy.auth.sso.server.ticket.AccessTicketInvalidatedEvent;
+import com.codenvy.auth.sso.server.ticket.SsoClientLogoutNotifier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.persist.Transactional;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * JPA based implementation of {@link TicketManager}.
+ *
+ * <p>Tickets are stored in the database, so they survive restarts and may be shared
+ * between several masters. Tickets read from the database are kept in the near cache,
+ * so reading of the cached ticket doesn't touch the database. The cache is invalidated by
+ * {@link AccessTicketInvalidatedEvent} published on each ticket update or removal.
+ * Cached tickets also expire after the configured period, which limits staleness of the copies
+ * cached by other masters.
+ */
+@Singleton
+public class JpaTicketManager implements TicketManager {
+
+    private final Provider<EntityManager>                       managerProvider;
+    private final SsoClientLogoutNotifier                       logoutNotifier;
+    private final EventService                                  eventService;
+    private final Cache<String, CachedTicket>                   nearCache;
+    private final EventSubscriber<AccessTicketInvalidatedEvent> invalidationSubscriber;
+    /** Incremented on each invalidation, so a load which overlaps with an invalidation is not cached. */
+    private final AtomicLong                                    invalidations;
+
+    @Inject
+    public JpaTicketManager(Provider<EntityManager> managerProvider,
+                            SsoClientLogoutNotifier logoutNotifier,
+                            EventService eventService,
+                            @Named("auth.sso.ticket_cache.size") long cacheSize,
+                            @Named("auth.sso.ticket_cache.expire_seconds") long cacheExpireSeconds) {
+        this.managerProvider = managerProvider;
+        this.logoutNotifier = logoutNotifier;
+        this.eventService = eventService;
+        this.nearCache = CacheBuilder.newBuilder()
+                                     .maximumSize(cacheSize)
+                                     .expireAfterWrite(cacheExpireSeconds, SECONDS)
+                                     .build();
+        this.invalidations = new AtomicLong();
+        this.invalidationSubscriber = event -> invalidate(event.getAccessToken(), event.getRevision());
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        eventService.subscribe(invalidationSubscriber, AccessTicketInvalidatedEvent.class);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        eventService.unsubscribe(invalidationSubscriber, AccessTicketInvalidatedEvent.class);
+    }
+
+    @Override
+    public void putAccessTicket(AccessTicket accessTicket) {
+        if (accessTicket.getUserId() == null) {
+            throw new IllegalArgumentException("Access ticket has no principal or username in principal");
+        }
+        final long revision = newRevision();
+        doMerge(new AccessTicketEntity(accessTicket, revision));
+        invalidations.incrementAndGet();
+        nearCache.put(accessTicket.getAccessToken(), new CachedTicket(accessTicket, revision));
+        eventService.publish(new AccessTicketInvalidatedEvent(accessTicket.getAccessToken(), revision));
+    }
+
+    @Override
+    public AccessTicket getAccessTicket(String accessToken) {
+        if (accessToken == null) {
+            return null;
+        }
+        final long invalidationsBefore = invalidations.get();
+        final CachedTicket[] loaded = new CachedTicket[1];
+        final CachedTicket cached;
+        try {
+            cached = nearCache.get(accessToken, () -> {
+                final AccessTicketEntity entity = doGet(accessToken);
+                // the cache doesn't accept null values, InvalidCacheLoadException is thrown instead
+                if (entity == null) {
+                    return null;
+                }
+                loaded[0] = new CachedTicket(entity.toAccessTicket(), entity.getRevision());
+                return loaded[0];
+            });
+        } catch (InvalidCacheLoadException e) {
+            return null;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new RuntimeException(cause.getLocalizedMessage(), cause);
+        }
+        // the ticket may be read before a concurrent update or removal was committed,
+        // and cached after the cache was invalidated, such entry must not be served
+        if (cached == loaded[0] && invalidations.get() != invalidationsBefore) {
+            nearCache.asMap().remove(accessToken, cached);
+        }
+        return cached.accessTicket;
+    }
+
+    @Override
+    public void registerClientUrl(String accessToken, String clientUrl) {
+        final AccessTicketEntity updated = doUpdateClients(accessToken, clientUrl, true);
+        if (updated != null) {
+            // concurrent updates may finish in any order, so the ticket is reloaded instead of caching the updated one
+            invalidate(accessToken, null);
+            eventService.publish(new AccessTicketInvalidatedEvent(accessToken, updated.getRevision()));
+        }
+    }
+
+    @Override
+    public void unregisterClientUrl(String accessToken, String clientUrl) {
+        final AccessTicketEntity updated = doUpdateClients(accessToken, clientUrl, false);
+        if (updated != null) {
+            // concurrent updates may finish in any order, so the ticket is reloaded instead of caching the updated one
+            invalidate(accessToken, null);
+            eventService.publish(new AccessTicketInvalidatedEvent(accessToken, updated.getRevision()));
+        }
+    }
+
+    @Override
+    public AccessTicket removeTicket(String accessToken) {
+        if (accessToken == null) {
+            return null;
+        }
+        final AccessTicketEntity removed = doRemove(accessToken);
+        invalidate(accessToken, null);
+        if (removed == null) {
+            return null;
+        }
+        eventService.publish(new AccessTicketInvalidatedEvent(accessToken, null));
+        final AccessTicket accessTicket = removed.toAccessTicket();
+        logoutNotifier.logout(accessTicket);
+        return accessTicket;
+    }
+
+    @Override
+    public Set<AccessTicket> getAccessTickets() {
+        return doGetAll().stream()
+                         .map(AccessTicketEntity::toAccessTicket)
+                         .collect(toSet());
+    }
+
+    @Override
+    public List<AccessTicket> removeTicketsCreatedBefore(long time) {
+        final List<AccessTicket> removed = new ArrayList<>();
+        for (String accessToken : doGetTokensCreatedBefore(time)) {
+            // ticket may be already removed by another master
+            final AccessTicket accessTicket = removeTicket(accessToken);
+            if (accessTicket != null) {
+                removed.add(accessTicket);
+            }
+        }
+        return removed;
+    }
+
+    /** @return number of cached access tickets. */
+    @Gauge(name = "auth.sso.access_ticket_cache_size")
+    public long cacheSize() {
+        return nearCache.size();
+    }
+
+    /**
+     * Removes the cached ticket unless it has the given revision,
+     * so the ticket just cached by the updater itself is kept.
+     */
+    private void invalidate(String accessToken, Long revision) {
+        invalidations.incrementAndGet();
+        final CachedTicket cached = nearCache.getIfPresent(accessToken);
+        if (cached != null && (revision == null || cached.revision != revision)) {
+            nearCache.asMap().remove(accessToken, cached);
+        }
+    }
+
+    private static long newRevision() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    @Transactional
+    protected void doMerge(AccessTicketEntity entity) {
+        final EntityManager manager = managerProvider.get();
+        manager.merge(entity);
+        manager.flush();
+    }
+
+    @Transactional
+    protected AccessTicketEntity doGet(String accessToken) {
+        return managerProvider.get().find(AccessTicketEntity.class, accessToken);
+    }
+
+    /**
+     * Changes registered clients of the ticket holding the row lock, so concurrent changes are applied one by one.
+     *
+     * @return updated ticket or null when the ticket doesn't exist or its clients are not changed
+     */
+    @Transactional
+    protected AccessTicketEntity doUpdateClients(String accessToken, String clientUrl, boolean register) {
+        final EntityManager manager = managerProvider.get();
+        final AccessTicketEntity entity = manager.find(AccessTicketEntity.class, accessToken, LockModeType.PESSIMISTIC_WRITE);
+        if (entity == null) {
+            return null;
+        }
+        final boolean changed = register ? entity.getRegisteredClients().add(clientUrl)
+                                         : entity.getRegisteredClients().remove(clientUrl);
+        if (!changed) {
+            return null;
+        }
+        entity.setRevision(newRevision());
+        manager.flush();
+        return entity;
+    }
+
+    @Transactional
+    protected AccessTicketEntity doRemove(String accessToken) {
+        final EntityManager manager = managerProvider.get();
+        final AccessTicketEntity entity = manager.find(AccessTicketEntity.class, accessToken);
+        if (entity != null) {
+            manager.remove(entity);
+            manager.flush();
+        }
+        return entity;
+    }
+
+    @Transactional
+    protected List<AccessTicketEntity> doGetAll() {
+        return managerProvider.get()
+                              .createNamedQuery("AccessTicket.getAll", AccessTicketEntity.class)
+                              .getResultList();
+    }
+
+    @Transactional
+    protected List<String> doGetTokensCreatedBefore(long time) {
+        return managerProvider.get()
+                              .createNamedQuery("AccessTicket.getCreatedBefore", AccessTicketEntity.class)
+                              .setParameter("time", time)
+                              .getResultList()
+                              .stream()
+                              .map(AccessTicketEntity::getAccessToken)
+                              .collect(toList());
+    }
+
+    private static class CachedTicket {
+        final AccessTicket accessTicket;
+        final long         revision;
+
+        CachedTicket(AccessTicket accessTicket, long revision) {
+            this.accessTicket = accessTicket;
+            this.revision = revision;
+        }
+    }
+}
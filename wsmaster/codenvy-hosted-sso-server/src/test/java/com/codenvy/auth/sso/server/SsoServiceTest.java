@@ -40,7 +40,6 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
-import static org.testng.Assert.assertTrue;
 
 /**
  * @author Sergii Kabashniuk
@@ -105,7 +104,7 @@ public class SsoServiceTest {
                 .get("internal/sso/server/{token}");
         //then
         assertEquals(unwrapDto(response, SubjectDto.class), subjectDto);
-        assertTrue(ticket.getRegisteredClients().contains("http://dev.box.com/api"));
+        verify(ticketManager).registerClientUrl("t1", "http://dev.box.com/api");
     }
 
     @Test
@@ -139,8 +138,8 @@ public class SsoServiceTest {
                 .delete("internal/sso/server/{token}");
         //then
         verify(ticketManager).getAccessTicket(eq("t1"));
+        verify(ticketManager).unregisterClientUrl("t1", "http://dev.box.com/api");
         verifyNoMoreInteractions(ticketManager);
-        assertEquals(ticket.getRegisteredClients().size(), 0);
     }
 
     private static <T> T unwrapDto(Response response, Class<T> dtoClass) {
@@ -0,0 +1,135 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.auth.sso.server.ticket;
+
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link AccessTicketTimingWheel}.
+ */
+public class AccessTicketTimingWheelTest {
+
+    @Test
+    public void shouldExpireTokensCreatedBeforeGivenTime() {
+        final AccessTicketTimingWheel wheel = new AccessTicketTimingWheel(8, 10);
+        wheel.add("token1", 5);
+        wheel.add("token2", 15);
+        wheel.add("token3", 25);
+
+        assertEquals(new HashSet<>(wheel.expire(20)), new HashSet<>(asList("token1", "token2")));
+        assertEquals(wheel.expire(30), Collections.singletonList("token3"));
+    }
+
+    @Test
+    public void shouldKeepTokensOfNextWheelRounds() {
+        final AccessTicketTimingWheel wheel = new AccessTicketTimingWheel(4, 10);
+        wheel.add("token1", 5);
+        wheel.add("token2", 45);
+
+        assertEquals(wheel.expire(10), Collections.singletonList("token1"));
+        assertTrue(wheel.expire(40).isEmpty());
+        assertEquals(wheel.expire(50), Collections.singletonList("token2"));
+    }
+
+    @Test
+    public void shouldExpireTokensOfTheSameTickWhenTheyBecomeOlderThanGivenTime() {
+        final AccessTicketTimingWheel wheel = new AccessTicketTimingWheel(8, 10);
+        wheel.add("token1", 11);
+        wheel.add("token2", 17);
+
+        assertEquals(wheel.expire(15), Collections.singletonList("token1"));
+        assertEquals(wheel.expire(18), Collections.singletonList("token2"));
+    }
+
+    @Test
+    public void shouldNotExpireRemovedTokens() {
+        final AccessTicketTimingWheel wheel = new AccessTicketTimingWheel(8, 10);
+        wheel.add("token1", 5);
+        wheel.remove("token1", 5);
+
+        assertTrue(wheel.expire(20).isEmpty());
+    }
+
+    @Test
+    public void shouldExpireTokensAddedAfterTheirTickWasExpired() {
+        final AccessTicketTimingWheel wheel = new AccessTicketTimingWheel(8, 10);
+        wheel.expire(35);
+        wheel.add("token1", 5);
+
+        assertEquals(wheel.expire(40), Collections.singletonList("token1"));
+    }
+
+    @Test
+    public void shouldNotLoseTokensAddedDuringConcurrentExpiration() throws Exception {
+        final AccessTicketTimingWheel wheel = new AccessTicketTimingWheel(1024, 1);
+        final int tokensNumber = 100_000;
+        final AtomicLong lastAdded = new AtomicLong(-1);
+        final Set<String> expired = new HashSet<>();
+        final Thread adder = new Thread(() -> {
+            for (int i = 0; i < tokensNumber; i++) {
+                wheel.add("token" + i, i);
+                lastAdded.set(i);
+            }
+        });
+        adder.start();
+        while (adder.isAlive()) {
+            expired.addAll(wheel.expire(lastAdded.get()));
+        }
+        adder.join();
+
+        expired.addAll(wheel.expire(tokensNumber));
+
+        assertEquals(expired.size(), tokensNumber);
+    }
+
+    @Test
+    public void shouldNotLoseTokensAddedByConcurrentThreadsDuringExpiration() throws Exception {
+        final AccessTicketTimingWheel wheel = new AccessTicketTimingWheel(1024, 1);
+        final int adders = 4;
+        final int tokensNumber = 100_000;
+        final AtomicLong lastAdded = new AtomicLong(-1);
+        final Set<String> expired = new HashSet<>();
+        final Thread[] threads = new Thread[adders];
+        for (int t = 0; t < adders; t++) {
+            final int first = t;
+            threads[t] = new Thread(() -> {
+                for (int i = first; i < tokensNumber; i += adders) {
+                    wheel.add("token" + i, i);
+                    lastAdded.accumulateAndGet(i, Math::max);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                expired.addAll(wheel.expire(lastAdded.get()));
+            }
+            thread.join();
+        }
+
+        expired.addAll(wheel.expire(tokensNumber));
+
+        assertEquals(expired.size(), tokensNumber);
+    }
+}
@@ -18,21 +18,32 @@ package com.codenvy.auth.sso.server.ticket;
 import com.codenvy.api.dao.authentication.AccessTicket;
 import com.codenvy.api.dao.authentication.TicketManager;
 
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 import java.util.Collections;
+import java.util.List;
 
 import static org.testng.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertNull;
 
+@Listeners(MockitoTestNGListener.class)
 public class InMemoryTicketManagerTest {
     private final static String TOKEN = "123456789";
     String userId = "sdfsd345345";
 
+    @Mock
+    SsoClientLogoutNotifier logoutNotifier;
+
 
     @Test
     public void shouldBeAbleToPutAndGetTicket() {
-        TicketManager ticketManager = new InMemoryTicketManager();
+        TicketManager ticketManager = new InMemoryTicketManager(logoutNotifier);
 
         assertNull(ticketManager.getAccessTicket(TOKEN));
 
@@ -47,7 +58,7 @@ public class InMemoryTicketManagerTest {
 
     @Test
     public void shouldBeAbleToGetTickets() {
-        TicketManager ticketManager = new InMemoryTicketManager();
+        TicketManager ticketManager = new InMemoryTicketManager(logoutNotifier);
 
         assertEquals(ticketManager.getAccessTickets().size(), 0);
 
@@ -61,7 +72,7 @@ public class InMemoryTicketManagerTest {
     @Test
     public void shouldBeAbleToRemoveTickets() {
 
-        TicketManager ticketManager = new InMemoryTicketManager();
+        TicketManager ticketManager = new InMemoryTicketManager(logoutNotifier);
 
         ticketManager.putAccessTicket(new AccessTicket(TOKEN, userId, "default"));
 
@@ -71,4 +82,63 @@ public class InMemoryTicketManagerTest {
 
         assertEquals(ticketManager.getAccessTickets().size(), 0);
     }
+
+    @Test
+    public void shouldNotifySsoClientsAboutRemovedTicket() {
+        TicketManager ticketManager = new InMemoryTicketManager(logoutNotifier);
+        AccessTicket ticket = new AccessTicket(TOKEN, userId, "default");
+        ticketManager.putAccessTicket(ticket);
+
+        ticketManager.removeTicket(TOKEN);
+
+        verify(logoutNotifier).logout(ticket);
+    }
+
+    @Test
+    public void shouldNotNotifySsoClientsWhenTicketDoesNotExist() {
+        TicketManager ticketManager = new InMemoryTicketManager(logoutNotifier);
+
+        ticketManager.removeTicket(TOKEN);
+
+        verify(logoutNotifier, never()).logout(any());
+    }
+
+    @Test
+    public void shouldRemoveTicketsCreatedBeforeGivenTime() {
+        TicketManager ticketManager = new InMemoryTicketManager(logoutNotifier);
+        AccessTicket oldTicket = new AccessTicket(TOKEN, userId, "default", 1_000);
+        AccessTicket newTicket = new AccessTicket("987654321", userId, "default", 10 * 60 * 1000);
+        ticketManager.putAccessTicket(oldTicket);
+        ticketManager.putAccessTicket(newTicket);
+
+        List<AccessTicket> removed = ticketManager.removeTicketsCreatedBefore(5 * 60 * 1000);
+
+        assertEquals(removed, Collections.singletonList(oldTicket));
+        assertEquals(ticketManager.getAccessTickets(), Collections.singleton(newTicket));
+        verify(logoutNotifier).logout(oldTicket);
+    }
+
+    @Test
+    public void shouldRemoveTicketsCreatedBeforeAlreadyExpiredTime() {
+        TicketManager ticketManager = new InMemoryTicketManager(logoutNotifier);
+        ticketManager.removeTicketsCreatedBefore(5 * 60 * 1000);
+        AccessTicket ticket = new AccessTicket(TOKEN, userId, "default", 1_000);
+        ticketManager.putAccessTicket(ticket);
+
+        List<AccessTicket> removed = ticketManager.removeTicketsCreatedBefore(6 * 60 * 1000);
+
+        assertEquals(removed, Collections.singletonList(ticket));
+        assertEquals(ticketManager.getAccessTickets().size(), 0);
+    }
+
+    @Test
+    public void shouldNotRemoveTicketsWhichWereAlreadyRemoved() {
+        TicketManager ticketManager = new InMemoryTicketManager(logoutNotifier);
+        ticketManager.putAccessTicket(new AccessTicket(TOKEN, userId, "default", 1_000));
+        ticketManager.removeTicket(TOKEN);
+
+        List<AccessTicket> removed = ticketManager.removeTicketsCreatedBefore(5 * 60 * 1000);
+
+        assertEquals(removed.size(), 0);
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.auth.sso.server.ticket;
+
+import com.codenvy.api.dao.authentication.AccessTicket;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link SsoClientLogoutNotifier}.
+ */
+public class SsoClientLogoutNotifierTest {
+    private static final String CLIENT = "http://localhost:8080/ide";
+    private static final String TOKEN  = "token123";
+
+    private SsoClientLogoutNotifier notifier;
+
+    @BeforeMethod
+    public void setUp() {
+        notifier = spy(new SsoClientLogoutNotifier(2, 10, 1000, 3, 10, 2, 60_000));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        notifier.shutdown();
+    }
+
+    @Test
+    public void shouldSendLogoutRequestToEachRegisteredClient() throws Exception {
+        doNothing().when(notifier).sendLogout(anyString(), anyString());
+        final AccessTicket ticket = new AccessTicket(TOKEN, "user123", "default");
+        ticket.registerClientUrl(CLIENT);
+        ticket.registerClientUrl("http://localhost:8080/dashboard");
+
+        notifier.logout(ticket);
+
+        verify(notifier, timeout(1000)).sendLogout(CLIENT, TOKEN);
+        verify(notifier, timeout(1000)).sendLogout("http://localhost:8080/dashboard", TOKEN);
+    }
+
+    @Test
+    public void shouldRetryFailedLogoutRequest() throws Exception {
+        doThrow(new IOException("error")).doNothing().when(notifier).sendLogout(anyString(), anyString());
+        final AccessTicket ticket = new AccessTicket(TOKEN, "user123", "default");
+        ticket.registerClientUrl(CLIENT);
+
+        notifier.logout(ticket);
+
+        verify(notifier, timeout(1000).times(2)).sendLogout(CLIENT, TOKEN);
+    }
+
+    @Test
+    public void shouldSkipRequestsToClientWithOpenCircuit() throws Exception {
+        doThrow(new IOException("error")).when(notifier).sendLogout(anyString(), anyString());
+
+        notifier.attempt(CLIENT, TOKEN, 3);
+        notifier.attempt(CLIENT, TOKEN, 3);
+        notifier.attempt(CLIENT, TOKEN, 3);
+
+        verify(notifier, times(2)).sendLogout(CLIENT, TOKEN);
+        assertEquals(notifier.getFailedNumber(), 3);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ *  [2012] - [2017] Codenvy, S.A.
+ *  All Rights Reserved.
+ *
+ * NOTICE:  All information contained herein is, and remains
+ * the property of Codenvy S.A. and its suppliers,
+ * if any.  The intellectual and technical concepts contained
+ * herein are proprietary to Codenvy S.A.
+ * and its suppliers and may be covered by U.S. and Foreign Patents,
+ * patents in process, and are protected by trade secret or copyright law.
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained
+ * from Codenvy S.A..
+ */
+package com.codenvy.auth.sso.server.ticket.jpa;
+
+import com.codenvy.api.dao.authentication.AccessTicket;
+import com.codenvy.auth.sso.server.ticket.AccessTicketInvalidatedEvent;
+import com.codenvy.auth.sso.server.ticket.SsoClientLogoutNotifier;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.name.Names;
+import com.google.inject.persist.jpa.JpaPersistModule;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.commons.test.db.H2TestHelper;
+import org.eclipse.che.core.db.DBInitializer;
+import org.eclipse.che.core.db.schema.SchemaInitializer;
+import org.eclipse.che.core.db.schema.impl.flyway.FlywaySchemaInitializer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.eclipse.che.commons.test.db.H2TestHelper.inMemoryDefault;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link JpaTicketManager}.
+ */
+public class JpaTicketManagerTest {
+    private static final String USER_ID = "user123";
+
+    private EntityManager           manager;
+    private JpaTicketManager        ticketManager;
+    private EventService            eventService;
+    private SsoClientLogoutNotifier logoutNotifier;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        logoutNotifier = mock(SsoClientLogoutNotifier.class);
+        final Injector injector = Guice.createInjector(new TestModule());
+        manager = injector.getInstance(EntityManager.class);
+        eventService = injector.getInstance(EventService.class);
+        ticketManager = injector.getInstance(JpaTicketManager.class);
+        ticketManager.subscribe();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        reset(logoutNotifier);
+        ticketManager.removeTicketsCreatedBefore(Long.MAX_VALUE);
+    }
+
+    @AfterClass
+    public void shutdown() throws Exception {
+        ticketManager.unsubscribe();
+        manager.getEntityManagerFactory().close();
+        H2TestHelper.shutdownDefault();
+    }
+
+    @Test
+    public void shouldPutAndGetTicket() {
+        final AccessTicket ticket = new AccessTicket("token1", USER_ID, "default");
+        ticket.registerClientUrl("http://localhost/ide");
+
+        ticketManager.putAccessTicket(ticket);
+
+        assertEquals(ticketManager.getAccessTicket("token1"), ticket);
+    }
+
+    @Test
+    public void shouldReloadTicketWhenCachedCopyIsInvalidated() {
+        final AccessTicket ticket = new AccessTicket("token1", USER_ID, "default");
+        ticketManager.putAccessTicket(ticket);
+
+        updateInDatabase("token1", entity -> entity.getRegisteredClients().add("http://localhost/ide"));
+        eventService.publish(new AccessTicketInvalidatedEvent("token1", null));
+        final AccessTicket fetched = ticketManager.getAccessTicket("token1");
+
+        assertEquals(fetched.getRegisteredClients(), Collections.singleton("http://localhost/ide"));
+        assertSame(ticketManager.getAccessTicket("token1"), fetched);
+    }
+
+    @Test
+    public void shouldNotReturnRemovedTicketWhenCachedCopyIsInvalidated() {
+        ticketManager.putAccessTicket(new AccessTicket("token1", USER_ID, "default"));
+        assertNotNull(ticketManager.getAccessTicket("token1"));
+
+        updateInDatabase("token1", manager::remove);
+        eventService.publish(new AccessTicketInvalidatedEvent("token1", null));
+
+        assertNull(ticketManager.getAccessTicket("token1"));
+    }
+
+    @Test
+    public void shouldServeCachedTicketWithoutReadingDatabase() {
+        final AccessTicket ticket = new AccessTicket("token1", USER_ID, "default");
+        ticketManager.putAccessTicket(ticket);
+
+        updateInDatabase("token1", entity -> entity.getRegisteredClients().add("http://localhost/ide"));
+
+        assertTrue(ticketManager.getAccessTicket("token1").getRegisteredClients().isEmpty());
+    }
+
+    @Test
+    public void shouldReturnNullWhenTicketDoesNotExist() {
+        assertNull(ticketManager.getAccessTicket("token1"));
+    }
+
+    @Test
+    public void shouldUpdateRegisteredClientsOfExistingTicket() {
+        final AccessTicket ticket = new AccessTicket("token1", USER_ID, "default");
+        ticketManager.putAccessTicket(ticket);
+
+        ticketManager.registerClientUrl("token1", "http://localhost/ide");
+
+        assertEquals(ticketManager.getAccessTicket("token1").getRegisteredClients(),
+                     Collections.singleton("http://localhost/ide"));
+    }
+
+    @Test
+    public void shouldUnregisterClientOfExistingTicket() {
+        final AccessTicket ticket = new AccessTicket("token1", USER_ID, "default");
+        ticket.registerClientUrl("http://localhost/ide");
+        ticketManager.putAccessTicket(ticket);
+
+        ticketManager.unregisterClientUrl("token1", "http://localhost/ide");
+
+        assertTrue(ticketManager.getAccessTicket("token1").getRegisteredClients().isEmpty());
+    }
+
+    @Test
+    public void shouldIgnoreClientRegistrationOfNonExistingTicket() {
+        ticketManager.registerClientUrl("token1", "http://localhost/ide");
+
+        assertNull(ticketManager.getAccessTicket("token1"));
+    }
+
+    @Test
+    public void shouldNotLoseConcurrentlyRegisteredClients() throws Exception {
+        ticketManager.putAccessTicket(new AccessTicket("token1", USER_ID, "default"));
+        final int clients = 20;
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                final String clientUrl = "http://localhost/client" + i;
+                tasks.add(() -> {
+                    ticketManager.registerClientUrl("token1", clientUrl);
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(ticketManager.getAccessTicket("token1").getRegisteredClients().size(), clients);
+    }
+
+    @Test
+    public void shouldRemoveTicketAndNotifySsoClients() {
+        final AccessTicket ticket = new AccessTicket("token1", USER_ID, "default");
+        ticketManager.putAccessTicket(ticket);
+
+        final AccessTicket removed = ticketManager.removeTicket("token1");
+
+        assertEquals(removed, ticket);
+        assertNull(ticketManager.getAccessTicket("token1"));
+        verify(logoutNotifier).logout(removed);
+    }
+
+    @Test
+    public void shouldReturnNullWhenRemovingNonExistingTicket() {
+        assertNull(ticketManager.removeTicket("token1"));
+    }
+
+    @Test
+    public void shouldRemoveTicketsCreatedBeforeGivenTime() {
+        final AccessTicket oldTicket = new AccessTicket("token1", USER_ID, "default", 1_000);
+        final AccessTicket newTicket = new AccessTicket("token2", USER_ID, "default", 10_000);
+        ticketManager.putAccessTicket(oldTicket);
+        ticketManager.putAccessTicket(newTicket);
+
+        final List<AccessTicket> removed = ticketManager.removeTicketsCreatedBefore(5_000);
+
+        assertEquals(removed, Collections.singletonList(oldTicket));
+        assertEquals(ticketManager.getAccessTickets(), Collections.singleton(newTicket));
+    }
+
+    @Test
+    public void shouldHandleConcurrentLoginsAndLogouts() throws Exception {
+        final int threads = 8;
+        final int ticketsPerThread = 250;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                final String prefix = "thread" + i + "-";
+                tasks.add(() -> {
+                    for (int j = 0; j < ticketsPerThread; j++) {
+                        final String token = prefix + j;
+                        ticketManager.putAccessTicket(new AccessTicket(token, USER_ID, "default"));
+                        for (int k = 0; k < 10; k++) {
+                            assertNotNull(ticketManager.getAccessTicket(token));
+                        }
+                        if (j % 2 == 0) {
+                            assertNotNull(ticketManager.removeTicket(token));
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(ticketManager.getAccessTickets().size(), threads * ticketsPerThread / 2);
+    }
+
+    /** Changes the ticket bypassing the ticket manager, as another master does. */
+    private void updateInDatabase(String accessToken, Consumer<AccessTicketEntity> update) {
+        manager.getTransaction().begin();
+        update.accept(manager.find(AccessTicketEntity.class, accessToken));
+        manager.getTransaction().commit();
+    }
+
+    private class TestModule extends AbstractModule {
+        @Override
+        protected void configure() {
+            install(new JpaPersistModule("main"));
+            bind(SchemaInitializer.class).toInstance(new FlywaySchemaInitializer(inMemoryDefault(), "che-schema", "codenvy-schema"));
+            bind(DBInitializer.class).asEagerSingleton();
+            bind(SsoClientLogoutNotifier.class).toInstance(logoutNotifier);
+            bind(EventService.class).toInstance(new EventService());
+            bindConstant().annotatedWith(Names.named("auth.sso.ticket_cache.size")).to(1000L);
+            bindConstant().annotatedWith(Names.named("auth.sso.ticket_cache.expire_seconds")).to(60L);
+        }
+    }
+}
@@ -14,41 +14,119 @@
  */
 package com.codenvy.service.system;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.machine.shared.dto.event.MachineStatusEvent;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.DockerConnectorProvider;
 import org.eclipse.che.plugin.docker.client.json.SystemInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.eclipse.che.commons.lang.Size.parseSize;
 
 /**
  * Implementation of {@link SystemRamInfoProvider} based on docker.
  *
+ * <p>System RAM info is not fetched from docker on each call, the provider keeps the snapshot
+ * of RAM of all the nodes which is refreshed periodically and asynchronously after a machine
+ * is started or destroyed. Docker is requested by the caller only when there is no snapshot yet.
+ * When the refresh fails the previous snapshot is kept.
+ *
  * @author Igor Vinokur
  */
+@Singleton
 public class DockerBasedSystemRamInfoProvider implements SystemRamInfoProvider {
 
     private static final Logger LOG = LoggerFactory.getLogger(DockerBasedSystemRamInfoProvider.class);
 
     private static final String SYSTEM_RAM_INFO_ERROR = "An error occurred while getting system RAM info.";
 
-    private final DockerConnector dockerConnector;
+    private final DockerConnector                     dockerConnector;
+    private final EventService                        eventService;
+    private final EventSubscriber<MachineStatusEvent> machineStatusSubscriber;
+    private final ExecutorService                     refresher;
+    private final AtomicBoolean                       refreshScheduled;
+
+    private volatile SystemRamInfo snapshot;
 
     @Inject
-    public DockerBasedSystemRamInfoProvider(DockerConnectorProvider dockerConnectorProvider) {
+    public DockerBasedSystemRamInfoProvider(DockerConnectorProvider dockerConnectorProvider, EventService eventService) {
         this.dockerConnector = dockerConnectorProvider.get();
+        this.eventService = eventService;
+        this.machineStatusSubscriber = new MachineStatusSubscriber();
+        this.refresher = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("SystemRamInfoRefresher")
+                                                                                     .setDaemon(true)
+                                                                                     .build());
+        this.refreshScheduled = new AtomicBoolean();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        eventService.subscribe(machineStatusSubscriber);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        eventService.unsubscribe(machineStatusSubscriber);
+        refresher.shutdownNow();
     }
 
     @Override
     public SystemRamInfo getSystemRamInfo() throws ServerException {
+        final SystemRamInfo current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        return refresh();
+    }
+
+    /**
+     * Refreshes the snapshot of system RAM, failure is logged and the previous snapshot is kept.
+     */
+    @ScheduleDelay(initialDelay = 0, delayParameterName = "system.ram.limit_check_period_sec")
+    public void refreshSnapshot() {
+        try {
+            refresh();
+        } catch (ServerException ignored) {
+            // the error is logged on refresh
+        }
+    }
+
+    /** Schedules asynchronous refresh of the snapshot, the refreshes which are requested before it is started are merged. */
+    @VisibleForTesting
+    void scheduleRefresh() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                refreshScheduled.set(false);
+                refreshSnapshot();
+            });
+        }
+    }
+
+    private SystemRamInfo refresh() throws ServerException {
+        final SystemRamInfo ramInfo = fetchSystemRamInfo();
+        snapshot = ramInfo;
+        return ramInfo;
+    }
+
+    private SystemRamInfo fetchSystemRamInfo() throws ServerException {
         SystemInfo systemInfo;
         try {
             systemInfo = dockerConnector.getSystemInfo();
@@ -105,19 +183,34 @@ public class DockerBasedSystemRamInfoProvider implements SystemRamInfoProvider {
             throw new ServerException(SYSTEM_RAM_INFO_ERROR);
         }
 
-        long systemRamUsed = 0;
-        long systemRamTotal = 0;
-        for (String nodeRamUsage : allNodesRamUsage) {
+        final long[] nodesRamUsed = new long[allNodesRamUsage.size()];
+        final long[] nodesRamTotal = new long[allNodesRamUsage.size()];
+        for (int i = 0; i < allNodesRamUsage.size(); i++) {
+            String nodeRamUsage = allNodesRamUsage.get(i);
             String[] ramValues = nodeRamUsage.split(" / ");
             if (ramValues.length != 2) {
                 LOG.error("A problem occurred while parsing system information from docker. " +
                           "Expected: <used RAM size> / <total RAM size> but got: " + nodeRamUsage);
                 throw new ServerException(SYSTEM_RAM_INFO_ERROR);
             }
-            systemRamUsed += parseSize(ramValues[0]);
-            systemRamTotal += parseSize(ramValues[1]);
+            nodesRamUsed[i] = parseSize(ramValues[0]);
+            nodesRamTotal[i] = parseSize(ramValues[1]);
         }
 
-        return new SystemRamInfo(systemRamUsed, systemRamTotal);
+        return new SystemRamInfo(nodesRamUsed, nodesRamTotal);
+    }
+
+    private class MachineStatusSubscriber implements EventSubscriber<MachineStatusEvent> {
+        @Override
+        public void onEvent(MachineStatusEvent event) {
+            switch (event.getEventType()) {
+                case RUNNING:
+                case DESTROYED:
+                    scheduleRefresh();
+                    break;
+                default:
+                    // RAM of the node is reserved only for running containers
+            }
+        }
     }
 }
@@ -14,25 +14,66 @@
  */
 package com.codenvy.service.system;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
  * Describes system RAM values and properties.
  *
+ * <p>Besides the system totals it keeps used and total RAM of each node of the system.
+ *
  * @author Igor Vinokur
  */
 public class SystemRamInfo {
 
+    private final long[]  nodesRamUsed;
+    private final long[]  nodesRamTotal;
     private final long    systemRamUsed;
     private final long    systemRamTotal;
     private final boolean isSystemRamLimitExceeded;
 
     public SystemRamInfo(long systemRamUsed, long systemRamTotal) {
-        this.systemRamUsed = systemRamUsed;
-        this.systemRamTotal = systemRamTotal;
+        this(new long[] {systemRamUsed}, new long[] {systemRamTotal});
+    }
+
+    /**
+     * @param nodesRamUsed
+     *         used RAM of each node in Bytes
+     * @param nodesRamTotal
+     *         total RAM of each node in Bytes, in the same order as {@code nodesRamUsed}
+     */
+    public SystemRamInfo(long[] nodesRamUsed, long[] nodesRamTotal) {
+        if (nodesRamUsed.length != nodesRamTotal.length) {
+            throw new IllegalArgumentException("RAM values of all the nodes required");
+        }
+        this.nodesRamUsed = nodesRamUsed.clone();
+        this.nodesRamTotal = nodesRamTotal.clone();
+        this.systemRamUsed = Arrays.stream(nodesRamUsed).sum();
+        this.systemRamTotal = Arrays.stream(nodesRamTotal).sum();
         this.isSystemRamLimitExceeded = systemRamTotal * 0.9 < systemRamUsed;
     }
 
+    /**
+     * Number of nodes in the system.
+     */
+    public int getNodesNumber() {
+        return nodesRamTotal.length;
+    }
+
+    /**
+     * Used RAM amount of the node with given index in Bytes.
+     */
+    public long getNodeRamUsed(int node) {
+        return nodesRamUsed[node];
+    }
+
+    /**
+     * Total RAM amount of the node with given index in Bytes.
+     */
+    public long getNodeRamTotal(int node) {
+        return nodesRamTotal[node];
+    }
+
     /**
      * Total system RAM amount in Bytes.
      */
@@ -63,12 +104,18 @@ public class SystemRamInfo {
         
         return systemRamUsed == other.systemRamUsed &&
                systemRamTotal == other.systemRamTotal &&
-               isSystemRamLimitExceeded == other.isSystemRamLimitExceeded;
+               isSystemRamLimitExceeded == other.isSystemRamLimitExceeded &&
+               Arrays.equals(nodesRamUsed, other.nodesRamUsed) &&
+               Arrays.equals(nodesRamTotal, other.nodesRamTotal);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(systemRamUsed, systemRamTotal, isSystemRamLimitExceeded);
+        return Objects.hash(systemRamUsed,
+                            systemRamTotal,
+                            isSystemRamLimitExceeded,
+                            Arrays.hashCode(nodesRamUsed),
+                            Arrays.hashCode(nodesRamTotal));
     }
 
     @Override
@@ -77,6 +124,8 @@ public class SystemRamInfo {
                "systemRamUsed=" + systemRamUsed +
                ", systemRamTotal=" + systemRamTotal +
                ", isSystemRamLimitExceeded=" + isSystemRamLimitExceeded +
+               ", nodesRamUsed=" + Arrays.toString(nodesRamUsed) +
+               ", nodesRamTotal=" + Arrays.toString(nodesRamTotal) +
                '}';
     }
 }
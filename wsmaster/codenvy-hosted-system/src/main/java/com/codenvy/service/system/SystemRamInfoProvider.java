@@ -26,6 +26,7 @@ public interface SystemRamInfoProvider {
 
     /**
      * Returns {@link SystemRamInfo} object, that describes system RAM values and properties.
+     * Implementation may return cached values, so this method is cheap enough to be called on each workspace start.
      *
      * @throws ServerException if failed to retrieve system RAM values
      */
@@ -15,15 +15,24 @@
 package com.codenvy.service.system;
 
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.machine.shared.dto.event.MachineStatusEvent;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.DockerConnectorProvider;
 import org.eclipse.che.plugin.docker.client.json.SystemInfo;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -43,15 +52,26 @@ public class DockerBasedSystemRamInfoProviderTest {
     private DockerConnectorProvider dockerConnectorProvider;
     @Mock
     private DockerConnector         dockerConnector;
+    @Mock
+    private EventService            eventService;
+
+    @Captor
+    private ArgumentCaptor<EventSubscriber<MachineStatusEvent>> subscriberCaptor;
 
-    private SystemRamInfoProvider systemRamInfoProvider;
+    private DockerBasedSystemRamInfoProvider systemRamInfoProvider;
 
     @BeforeMethod
     private void setup() throws Exception{
         when(dockerConnectorProvider.get()).thenReturn(dockerConnector);
         when(dockerConnector.getSystemInfo()).thenReturn(systemInfo);
 
-        systemRamInfoProvider = new DockerBasedSystemRamInfoProvider(dockerConnectorProvider);
+        systemRamInfoProvider = new DockerBasedSystemRamInfoProvider(dockerConnectorProvider, eventService);
+        systemRamInfoProvider.subscribe();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        systemRamInfoProvider.unsubscribe();
     }
 
     @Test
@@ -101,4 +121,53 @@ public class DockerBasedSystemRamInfoProviderTest {
     public void shouldThrowExceptionIfDockerSystemRamValuesArrayFromResponseIsNull() throws Exception {
         systemRamInfoProvider.getSystemRamInfo();
     }
+
+    @Test
+    public void shouldReturnRamValuesOfEachNode() throws Exception {
+        when(systemInfo.getDriverStatus()).thenReturn(new String[][] {{" └ Reserved Memory", "1 GiB / 3 GiB"},
+                                                                      {" └ Reserved Memory", "2 GiB / 4 GiB"}});
+
+        SystemRamInfo systemRamInfo = systemRamInfoProvider.getSystemRamInfo();
+
+        assertEquals(systemRamInfo.getNodesNumber(), 2);
+        assertEquals(systemRamInfo.getNodeRamUsed(1), 2L * 1024 * 1024 * 1024);
+        assertEquals(systemRamInfo.getNodeRamTotal(1), 4L * 1024 * 1024 * 1024);
+        assertEquals(systemRamInfo.getSystemRamTotal(), 7L * 1024 * 1024 * 1024);
+    }
+
+    @Test
+    public void shouldNotRequestDockerWhenSnapshotIsPresent() throws Exception {
+        when(systemInfo.getDriverStatus()).thenReturn(new String[][] {{" └ Reserved Memory", "1 GiB / 3 GiB"}});
+
+        SystemRamInfo first = systemRamInfoProvider.getSystemRamInfo();
+        SystemRamInfo second = systemRamInfoProvider.getSystemRamInfo();
+
+        assertEquals(second, first);
+        verify(dockerConnector).getSystemInfo();
+    }
+
+    @Test
+    public void shouldKeepPreviousSnapshotWhenRefreshFails() throws Exception {
+        when(systemInfo.getDriverStatus()).thenReturn(new String[][] {{" └ Reserved Memory", "1 GiB / 3 GiB"}})
+                                          .thenReturn(new String[][] {{"Unrecognized value", "Unrecognized value"}});
+        SystemRamInfo before = systemRamInfoProvider.getSystemRamInfo();
+
+        systemRamInfoProvider.refreshSnapshot();
+
+        assertEquals(systemRamInfoProvider.getSystemRamInfo(), before);
+    }
+
+    @Test
+    public void shouldRefreshSnapshotWhenMachineIsStarted() throws Exception {
+        when(systemInfo.getDriverStatus()).thenReturn(new String[][] {{" └ Reserved Memory", "1 GiB / 3 GiB"}})
+                                          .thenReturn(new String[][] {{" └ Reserved Memory", "2 GiB / 3 GiB"}});
+        systemRamInfoProvider.getSystemRamInfo();
+        verify(eventService).subscribe(subscriberCaptor.capture());
+        MachineStatusEvent event = mock(MachineStatusEvent.class);
+        when(event.getEventType()).thenReturn(MachineStatusEvent.EventType.RUNNING);
+
+        subscriberCaptor.getValue().onEvent(event);
+
+        verify(dockerConnector, timeout(10_000).times(2)).getSystemInfo();
+    }
 }
@@ -0,0 +1,40 @@
+--
+--  [2012] - [2017] Codenvy, S.A.
+--  All Rights Reserved.
+--
+-- NOTICE:  All information contained herein is, and remains
+-- the property of Codenvy S.A. and its suppliers,
+-- if any.  The intellectual and technical concepts contained
+-- herein are proprietary to Codenvy S.A.
+-- and its suppliers and may be covered by U.S. and Foreign Patents,
+-- patents in process, and are protected by trade secret or copyright law.
+-- Dissemination of this information or reproduction of this material
+-- is strictly forbidden unless prior written permission is obtained
+-- from Codenvy S.A..
+--
+
+-- Access tickets --------------------------------------------------------------
+CREATE TABLE access_ticket (
+    access_token                 VARCHAR(255)    NOT NULL,
+    user_id                      VARCHAR(255)    NOT NULL,
+    auth_handler_type            VARCHAR(255)    NOT NULL,
+    creation_time                BIGINT          NOT NULL,
+    revision                     BIGINT          NOT NULL,
+
+    PRIMARY KEY (access_token)
+);
+-- indexes
+CREATE INDEX index_access_ticket_user_id ON access_ticket (user_id);
+CREATE INDEX index_access_ticket_creation_time ON access_ticket (creation_time);
+--------------------------------------------------------------------------------
+
+
+-- Access ticket registered clients --------------------------------------------
+CREATE TABLE access_ticket_clients (
+    access_token                 VARCHAR(255)    NOT NULL,
+    client_url                   VARCHAR(255)    NOT NULL
+);
+-- constraints
+ALTER TABLE access_ticket_clients ADD CONSTRAINT unq_access_ticket_clients_0 UNIQUE (access_token, client_url);
+ALTER TABLE access_ticket_clients ADD CONSTRAINT fk_access_ticket_clients_access_token FOREIGN KEY (access_token) REFERENCES access_ticket (access_token);
+--------------------------------------------------------------------------------
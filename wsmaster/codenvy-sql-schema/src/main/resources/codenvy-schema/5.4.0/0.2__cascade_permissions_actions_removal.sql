@@ -0,0 +1,34 @@
+--
+--  [2012] - [2017] Codenvy, S.A.
+--  All Rights Reserved.
+--
+-- NOTICE:  All information contained herein is, and remains
+-- the property of Codenvy S.A. and its suppliers,
+-- if any.  The intellectual and technical concepts contained
+-- herein are proprietary to Codenvy S.A.
+-- and its suppliers and may be covered by U.S. and Foreign Patents,
+-- patents in process, and are protected by trade secret or copyright law.
+-- Dissemination of this information or reproduction of this material
+-- is strictly forbidden unless prior written permission is obtained
+-- from Codenvy S.A..
+--
+
+-- Permissions actions ---------------------------------------------------------
+-- actions are removed together with permissions, so permissions can be removed
+-- by bulk delete statements
+ALTER TABLE worker_actions DROP CONSTRAINT fk_worker_actions_worker_id;
+ALTER TABLE worker_actions ADD CONSTRAINT fk_worker_actions_worker_id FOREIGN KEY (worker_id) REFERENCES worker (id) ON DELETE CASCADE;
+
+ALTER TABLE stackpermissions_actions DROP CONSTRAINT fk_stackpermissions_actions_stackpermissions_id;
+ALTER TABLE stackpermissions_actions ADD CONSTRAINT fk_stackpermissions_actions_stackpermissions_id FOREIGN KEY (stackpermissions_id) REFERENCES stackpermissions (id) ON DELETE CASCADE;
+
+ALTER TABLE recipepermissions_actions DROP CONSTRAINT fk_recipepermissions_actions_recipepermissions_id;
+ALTER TABLE recipepermissions_actions ADD CONSTRAINT fk_recipepermissions_actions_recipepermissions_id FOREIGN KEY (recipepermissions_id) REFERENCES recipepermissions (id) ON DELETE CASCADE;
+
+ALTER TABLE systempermissions_actions DROP CONSTRAINT fk_systempermissions_actions_systempermissions_id;
+ALTER TABLE systempermissions_actions ADD CONSTRAINT fk_systempermissions_actions_systempermissions_id FOREIGN KEY (systempermissions_id) REFERENCES systempermissions (id) ON DELETE CASCADE;
+
+ALTER TABLE member_actions DROP CONSTRAINT fk_member_actions_member_id;
+ALTER TABLE member_actions ADD CONSTRAINT fk_member_actions_member_id FOREIGN KEY (member_id) REFERENCES member (id) ON DELETE CASCADE;
+--------------------------------------------------------------------------------
+